@@ -1,7 +1,9 @@
 package com.jeffdisher.october.client;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.jeffdisher.october.actions.EntityActionCreativeFlight;
@@ -11,6 +13,7 @@ import com.jeffdisher.october.aspects.Aspect;
 import com.jeffdisher.october.aspects.Environment;
 import com.jeffdisher.october.aspects.MiscConstants;
 import com.jeffdisher.october.data.ColumnHeightMap;
+import com.jeffdisher.october.data.CuboidHeightMap;
 import com.jeffdisher.october.data.IReadOnlyCuboidData;
 import com.jeffdisher.october.mutations.MutationBlockSetBlock;
 import com.jeffdisher.october.net.EntityUpdatePerField;
@@ -290,6 +293,8 @@ public class ClientRunner
 		private List<PartialEntity> _addedEntities = new ArrayList<>();
 		private List<PartialPassive> _addedPassives = new ArrayList<>();
 		private List<IReadOnlyCuboidData> _addedCuboids = new ArrayList<>();
+		private Map<CuboidAddress, CuboidHeightMap> _addedHeightMaps = new HashMap<>();
+		private List<IClientAdapter.IPendingCuboids> _pendingCuboids = new ArrayList<>();
 		
 		private EntityUpdatePerField _entityUpdate = null;
 		private List<PartialEntityUpdate> _partialEntityUpdates = new ArrayList<>();
@@ -361,9 +366,18 @@ public class ClientRunner
 			_removedPassives.add(entityId);
 		}
 		@Override
-		public void receivedCuboid(IReadOnlyCuboidData cuboid)
+		public void receivedCuboid(IReadOnlyCuboidData cuboid, CuboidHeightMap heightMapOrNull)
 		{
 			_addedCuboids.add(cuboid);
+			if (null != heightMapOrNull)
+			{
+				_addedHeightMaps.put(cuboid.getCuboidAddress(), heightMapOrNull);
+			}
+		}
+		@Override
+		public void receivedPendingCuboids(IClientAdapter.IPendingCuboids pending)
+		{
+			_pendingCuboids.add(pending);
 		}
 		@Override
 		public void removeCuboid(CuboidAddress address)
@@ -411,6 +425,10 @@ public class ClientRunner
 			_addedPassives.clear();
 			List<IReadOnlyCuboidData> addedCuboids = new ArrayList<>(_addedCuboids);
 			_addedCuboids.clear();
+			Map<CuboidAddress, CuboidHeightMap> addedHeightMaps = new HashMap<>(_addedHeightMaps);
+			_addedHeightMaps.clear();
+			List<IClientAdapter.IPendingCuboids> pendingCuboids = new ArrayList<>(_pendingCuboids);
+			_pendingCuboids.clear();
 			EntityUpdatePerField entityChange = _entityUpdate;
 			_entityUpdate = null;
 			List<PartialEntityUpdate> partialEntityChanges = new ArrayList<>(_partialEntityUpdates);
@@ -428,7 +446,19 @@ public class ClientRunner
 			List<EventRecord> events = new ArrayList<>(_events);
 			_events.clear();
 			
-			_callsFromNetworkToApply.enqueue((long currentTimeMillis) -> {
+			// If some cuboids in this tick are still being decoded, the tick (and everything after it) waits in the queue until they are ready.
+			_callsFromNetworkToApply.enqueueWhenReady(new _AllReady(pendingCuboids), (long currentTimeMillis) -> {
+				for (IClientAdapter.IPendingCuboids pending : pendingCuboids)
+				{
+					pending.forEachCuboid((IReadOnlyCuboidData cuboid, CuboidHeightMap heightMap) -> {
+						addedCuboids.add(cuboid);
+						if (null != heightMap)
+						{
+							addedHeightMaps.put(cuboid.getCuboidAddress(), heightMap);
+						}
+					});
+				}
+				
 				// Apply the changes from the server.
 				if (null != thisEntity)
 				{
@@ -438,6 +468,7 @@ public class ClientRunner
 						, addedEntities
 						, addedPassives
 						, addedCuboids
+						, addedHeightMaps
 						, entityChange
 						, partialEntityChanges
 						, partialPassiveUpdates
@@ -481,6 +512,34 @@ public class ClientRunner
 		}
 	}
 
+	private static class _AllReady implements TimeRunnerList.IReadyCheck
+	{
+		private final List<IClientAdapter.IPendingCuboids> _pending;
+		
+		public _AllReady(List<IClientAdapter.IPendingCuboids> pending)
+		{
+			_pending = pending;
+		}
+		@Override
+		public boolean isReady()
+		{
+			boolean isReady = true;
+			for (IClientAdapter.IPendingCuboids pending : _pending)
+			{
+				isReady = isReady && pending.isReady();
+			}
+			return isReady;
+		}
+		@Override
+		public void waitUntilReady() throws InterruptedException
+		{
+			for (IClientAdapter.IPendingCuboids pending : _pending)
+			{
+				pending.waitUntilReady();
+			}
+		}
+	}
+
 	private class LocalProjection implements IProjectionListener
 	{
 		@Override
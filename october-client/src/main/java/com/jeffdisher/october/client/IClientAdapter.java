@@ -1,6 +1,9 @@
 package com.jeffdisher.october.client;
 
+import java.util.function.BiConsumer;
+
 import com.jeffdisher.october.actions.IEntityActionFromClient;
+import com.jeffdisher.october.data.CuboidHeightMap;
 import com.jeffdisher.october.data.IReadOnlyCuboidData;
 import com.jeffdisher.october.mutations.MutationBlockSetBlock;
 import com.jeffdisher.october.net.EntityUpdatePerField;
@@ -118,8 +121,17 @@ public interface IClientAdapter
 		 * Called when a full cuboid is received from the server.
 		 * 
 		 * @param cuboid The cuboid.
+		 * @param heightMapOrNull The height map of the cuboid, if already built (null means it will be built when the
+		 * cuboid is applied).
+		 */
+		void receivedCuboid(IReadOnlyCuboidData cuboid, CuboidHeightMap heightMapOrNull);
+		/**
+		 * Called when full cuboids have been received from the server but are still being decoded in the background.
+		 * They are considered part of this tick so the tick won't be applied until they are ready.
+		 * 
+		 * @param pending The cuboids being decoded.
 		 */
-		void receivedCuboid(IReadOnlyCuboidData cuboid);
+		void receivedPendingCuboids(IPendingCuboids pending);
 		/**
 		 * Called when a cuboid should be removed.
 		 * 
@@ -202,4 +214,19 @@ public interface IClientAdapter
 		 */
 		void receivedChatMessage(int senderId, String message);
 	}
+
+	/**
+	 * Cuboids which were received from the network but are still being decoded in the background.  They are ready once
+	 * all of the cuboids have been decoded.
+	 */
+	public static interface IPendingCuboids extends TimeRunnerList.IReadyCheck
+	{
+		/**
+		 * Passes each of the decoded cuboids, in the order they were received, to the given consumer.  This can only be
+		 * called once isReady() has returned true.
+		 * 
+		 * @param consumer Receives each cuboid and its height map.
+		 */
+		void forEachCuboid(BiConsumer<IReadOnlyCuboidData, CuboidHeightMap> consumer);
+	}
 }
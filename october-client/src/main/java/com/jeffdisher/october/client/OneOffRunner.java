@@ -186,6 +186,8 @@ public class OneOffRunner
 				, state.proxyLoader
 				, entitySearch
 				, passiveSearch
+				, null
+				, null
 				, transactions
 				, null
 				, newMutationSink
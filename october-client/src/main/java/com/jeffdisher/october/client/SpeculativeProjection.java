@@ -29,6 +29,7 @@ import com.jeffdisher.october.logic.HeightMapHelpers;
 import com.jeffdisher.october.logic.ScheduledChange;
 import com.jeffdisher.october.logic.ScheduledMutation;
 import com.jeffdisher.october.mutations.MutationBlockSetBlock;
+import com.jeffdisher.october.mutations.TickUtils;
 import com.jeffdisher.october.net.EntityUpdatePerField;
 import com.jeffdisher.october.net.PartialEntityUpdate;
 import com.jeffdisher.october.types.AbsoluteLocation;
@@ -74,6 +75,11 @@ import com.jeffdisher.october.utils.Assert;
  * ticks, going forward.  This is to ensure that operations which take multiple steps to take effect will not appear to
  * "revert" when only the first step has been committed.  This is limited, since some operations could result in
  * unbounded numbers of follow-ups which would take real time to be applied and couldn't be reasonably tracked.
+ * 
+ * Re-running the speculative changes is done incrementally:  The result of the last run of each change is recorded,
+ * along with the cuboids it could have read, and it is only run again if its input entity changed or if the server tick
+ * (or any change made or dropped before it) touched those cuboids or the entities within them.  Otherwise, the recorded
+ * result is reused.
  */
 public class SpeculativeProjection
 {
@@ -97,6 +103,8 @@ public class SpeculativeProjection
 
 	private final List<_LocalActionWrapper> _speculativeChanges;
 	private final List<_LocalCallConsequences> _followUpTicks;
+	// The result of the last run of each speculative change, keyed by commit number.
+	private final Map<Long, _ReplayRecord> _lastReplays;
 	private long _nextLocalCommitNumber;
 
 	/**
@@ -119,6 +127,7 @@ public class SpeculativeProjection
 		
 		_speculativeChanges = new ArrayList<>();
 		_followUpTicks = new ArrayList<>();
+		_lastReplays = new HashMap<>();
 		_nextLocalCommitNumber = 1L;
 	}
 
@@ -147,6 +156,7 @@ public class SpeculativeProjection
 	 * @param addedEntities The list of entities which were added in this tick.
 	 * @param addedPassives The list of passives which were added in this tick.
 	 * @param addedCuboids The list of cuboids which were loaded in this tick.
+	 * @param addedHeightMaps Height maps already built for some of the addedCuboids (any missing are built here).
 	 * @param thisEntityUpdate The update made to this entity which committed in this tick.
 	 * @param partialEntityUpdates The list of per-entity state updates which committed in this tick.
 	 * @param partialPassiveUpdates The list of per-passive state update lists which committed in this tick.
@@ -164,6 +174,7 @@ public class SpeculativeProjection
 			, List<PartialEntity> addedEntities
 			, List<PartialPassive> addedPassives
 			, List<IReadOnlyCuboidData> addedCuboids
+			, Map<CuboidAddress, CuboidHeightMap> addedHeightMaps
 			
 			, EntityUpdatePerField thisEntityUpdate
 			, List<PartialEntityUpdate> partialEntityUpdates
@@ -182,7 +193,11 @@ public class SpeculativeProjection
 	{
 		List<Pair<IReadOnlyCuboidData, CuboidHeightMap>> newCuboids = addedCuboids.stream()
 			.map((IReadOnlyCuboidData cuboid) -> {
-				CuboidHeightMap heightMap = HeightMapHelpers.buildHeightMap(cuboid);
+				CuboidHeightMap heightMap = addedHeightMaps.get(cuboid.getCuboidAddress());
+				if (null == heightMap)
+				{
+					heightMap = HeightMapHelpers.buildHeightMap(cuboid);
+				}
 				return new Pair<>(cuboid, heightMap);
 			})
 			.toList();
@@ -204,6 +219,42 @@ public class SpeculativeProjection
 		_entityContainer.addShadowEntities(addedEntities, addedPassives);
 		_entityContainer.removeShadowEntities(removedEntities, removedPassives);
 		
+		// Collect the cuboids where something changed under the speculative changes, since any change which could read
+		// them must be re-run.  We add to this as changes are committed or dropped.
+		Set<CuboidAddress> changedCuboids = new HashSet<>();
+		for (MutationBlockSetBlock update : cuboidUpdates)
+		{
+			changedCuboids.add(update.getAbsoluteLocation().getCuboidAddress());
+		}
+		for (IReadOnlyCuboidData cuboid : addedCuboids)
+		{
+			changedCuboids.add(cuboid.getCuboidAddress());
+		}
+		changedCuboids.addAll(removedCuboids);
+		for (PartialEntity entity : updatedEntities)
+		{
+			changedCuboids.add(entity.location().getBlockLocation().getCuboidAddress());
+		}
+		for (PartialEntity entity : addedEntities)
+		{
+			changedCuboids.add(entity.location().getBlockLocation().getCuboidAddress());
+		}
+		for (PartialPassive passive : updatedPassives)
+		{
+			changedCuboids.add(passive.location().getBlockLocation().getCuboidAddress());
+		}
+		for (PartialPassive passive : addedPassives)
+		{
+			changedCuboids.add(passive.location().getBlockLocation().getCuboidAddress());
+		}
+		// The follow-ups are applied under the speculative changes and they shift every tick.
+		for (_LocalCallConsequences followUp : _followUpTicks)
+		{
+			_addWrittenCuboids(changedCuboids, followUp);
+		}
+		// We don't know where removed entities were so re-run everything if anything was removed.
+		boolean canReuseReplays = removedEntities.isEmpty() && removedPassives.isEmpty();
+		
 		// Collect the updates for merging with local updates to determine what notifications need to be sent while minimizing duplication.
 		Map<AbsoluteLocation, MutationBlockSetBlock> updatesToExport = cuboidUpdates.stream()
 			.collect(Collectors.toMap((MutationBlockSetBlock input) -> input.getAbsoluteLocation(), (MutationBlockSetBlock input) -> input))
@@ -289,7 +340,27 @@ public class SpeculativeProjection
 					, _serverMillisPerTick
 					, currentTimeMillis
 				);
-				Entity[] entityResult = _runChangesOnEntity(context, _localEntityId, _entityContainer.getProjectedOrShadowLocalEntity(), List.of(wrapper.entityAction));
+				Entity inputEntity = _entityContainer.getProjectedOrShadowLocalEntity();
+				_ReplayRecord lastReplay = _lastReplays.get(wrapper.commitNumber);
+				Entity[] entityResult;
+				// Ticks which apply environmental damage can change the result even if nothing else changed.
+				if (canReuseReplays
+					&& (null != lastReplay)
+					&& !TickUtils.canApplyEnvironmentalDamageInTick(context)
+					&& lastReplay.inputEntity.equals(inputEntity)
+					&& Collections.disjoint(lastReplay.readCuboids, changedCuboids)
+				)
+				{
+					entityResult = new Entity[] { lastReplay.resultOrNull };
+				}
+				else
+				{
+					entityResult = _runChangesOnEntity(context, _localEntityId, inputEntity, List.of(wrapper.entityAction));
+					if (null != entityResult)
+					{
+						_lastReplays.put(wrapper.commitNumber, _buildReplayRecord(inputEntity, entityResult[0], wrapper.consequences));
+					}
+				}
 				
 				if (null != entityResult)
 				{
@@ -312,12 +383,20 @@ public class SpeculativeProjection
 				{
 					// This was invalidated so drop it.
 					previous.remove();
+					_lastReplays.remove(wrapper.commitNumber);
+					
+					// Its consequences are no longer in the projected state so anything reading them must be re-run.
+					for (_LocalCallConsequences consequence : wrapper.consequences)
+					{
+						_addWrittenCuboids(changedCuboids, consequence);
+					}
 				}
 			}
 			else
 			{
 				// This has been committed (or dropped) so remove it from speculative as the shadow has the data if it was accepted.
 				previous.remove();
+				_lastReplays.remove(wrapper.commitNumber);
 				
 				// Merge this into follow-ups after applying it to the current change set.
 				Iterator<_LocalCallConsequences> oldFollowUpdate = new ArrayList<>(_followUpTicks).iterator();
@@ -327,6 +406,7 @@ public class SpeculativeProjection
 				for (_LocalCallConsequences consequence : wrapper.consequences)
 				{
 					// Apply these changes since they are still in play for this tick.
+					_addWrittenCuboids(changedCuboids, consequence);
 					modifiedEntity = consequence.entityUpdate;
 					modifiedBlocks = (null == modifiedBlocks)
 						? consequence.blockUpdates
@@ -704,6 +784,48 @@ public class SpeculativeProjection
 		;
 	}
 
+	private static _ReplayRecord _buildReplayRecord(Entity inputEntity, Entity resultOrNull, List<_LocalCallConsequences> consequences)
+	{
+		// An entity action can only read blocks and entities within reach of where the entity is so we take the cuboids
+		// around the start and end locations (nothing moves more than a cuboid in a tick, so this also covers anything
+		// which moved out of this region since the action last ran).  We also include the cuboids it wrote.
+		Set<CuboidAddress> readCuboids = new HashSet<>();
+		_addCuboidsAround(readCuboids, inputEntity.location());
+		if (null != resultOrNull)
+		{
+			_addCuboidsAround(readCuboids, resultOrNull.location());
+		}
+		for (_LocalCallConsequences consequence : consequences)
+		{
+			_addWrittenCuboids(readCuboids, consequence);
+		}
+		return new _ReplayRecord(inputEntity, resultOrNull, Collections.unmodifiableSet(readCuboids));
+	}
+
+	private static void _addCuboidsAround(Set<CuboidAddress> container, EntityLocation location)
+	{
+		CuboidAddress centre = location.getBlockLocation().getCuboidAddress();
+		for (int z = -1; z <= 1; ++z)
+		{
+			for (int y = -1; y <= 1; ++y)
+			{
+				for (int x = -1; x <= 1; ++x)
+				{
+					container.add(centre.getRelative(x, y, z));
+				}
+			}
+		}
+	}
+
+	private static void _addWrittenCuboids(Set<CuboidAddress> container, _LocalCallConsequences consequence)
+	{
+		for (AbsoluteLocation location : consequence.blockUpdates.keySet())
+		{
+			container.add(location.getCuboidAddress());
+		}
+		container.addAll(consequence.lightingChanges.keySet());
+	}
+
 	private static List<ScheduledChange> _scheduledChangeList(List<IEntityAction<IMutablePlayerEntity>> changes)
 	{
 		return changes.stream().map(
@@ -762,6 +884,8 @@ public class SpeculativeProjection
 				, _worldContainer.blockFetcher
 				, entitySearch
 				, passiveSearch
+				, null
+				, null
 				, transactions
 				, null
 				, newMutationSink
@@ -962,4 +1086,10 @@ public class SpeculativeProjection
 		, IEntityActionFromClient<IMutablePlayerEntity> entityAction
 		, List<_LocalCallConsequences> consequences
 	) {}
+
+	// resultOrNull is null if the change succeeded without changing the entity.
+	private static record _ReplayRecord(Entity inputEntity
+		, Entity resultOrNull
+		, Set<CuboidAddress> readCuboids
+	) {}
 }
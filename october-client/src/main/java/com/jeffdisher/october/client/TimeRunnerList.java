@@ -11,46 +11,106 @@ import java.util.concurrent.locks.ReentrantLock;
  * to actually run the meaning of these callbacks on the main UI thread.
  * This creates a locked queue of actions to run which all expect the current time (when they are being run) to be
  * passed in.
+ * An action can also be enqueued behind a readiness check, in which case it (and everything enqueued after it) is left
+ * in the queue until a later run finds it ready.
  */
 public class TimeRunnerList
 {
 	private final ReentrantLock _internalsLock = new ReentrantLock();
-	private final Queue<ITimeConsumer> _calls = new LinkedList<>();
+	private final Queue<_Call> _calls = new LinkedList<>();
 
 	public void enqueue(ITimeConsumer runnable)
+	{
+		_enqueue(new _Call(null, runnable));
+	}
+
+	/**
+	 * Enqueues an action which can only run once the given check is ready.  Until then, the action and everything
+	 * enqueued after it stay in the queue, preserving their order.
+	 * 
+	 * @param check Checks if the action can run.
+	 * @param runnable The action.
+	 */
+	public void enqueueWhenReady(IReadyCheck check, ITimeConsumer runnable)
+	{
+		_enqueue(new _Call(check, runnable));
+	}
+
+	public int runFullQueue(long currentTimeMillis)
 	{
 		_internalsLock.lock();
+		List<ITimeConsumer> copy = new LinkedList<>();
 		try
 		{
-			_calls.add(runnable);
+			while (!_calls.isEmpty() && _calls.peek().isReady())
+			{
+				copy.add(_calls.remove().runnable);
+			}
 		}
 		finally
 		{
 			_internalsLock.unlock();
 		}
+		
+		int count = 0;
+		for (ITimeConsumer consumer : copy)
+		{
+			consumer.accept(currentTimeMillis);
+			count += 1;
+		}
+		return count;
 	}
 
-	public int runFullQueue(long currentTimeMillis)
+	/**
+	 * Like runFullQueue() but, instead of leaving calls which aren't ready in the queue, waits for them to become ready
+	 * and runs them, too.  This is only for callers which are already blocking.
+	 * 
+	 * @param currentTimeMillis The current time, in milliseconds.
+	 * @return The number of calls run.
+	 * @throws InterruptedException Interrupted while waiting for a call to become ready.
+	 */
+	public int runFullQueueWaitingForReady(long currentTimeMillis) throws InterruptedException
+	{
+		int count = runFullQueue(currentTimeMillis);
+		// Anything left is behind a call which wasn't ready (although it may have become ready since we checked).
+		_Call head = _peek();
+		while (null != head)
+		{
+			if (null != head.checkOrNull)
+			{
+				head.checkOrNull.waitUntilReady();
+			}
+			count += runFullQueue(currentTimeMillis);
+			head = _peek();
+		}
+		return count;
+	}
+
+
+	private _Call _peek()
 	{
 		_internalsLock.lock();
-		List<ITimeConsumer> copy;
 		try
 		{
-			copy = new LinkedList<>(_calls);
-			_calls.clear();
+			return _calls.peek();
 		}
 		finally
 		{
 			_internalsLock.unlock();
 		}
-		
-		int count = 0;
-		for (ITimeConsumer consumer : copy)
+	}
+
+	private void _enqueue(_Call call)
+	{
+		_internalsLock.lock();
+		try
 		{
-			consumer.accept(currentTimeMillis);
-			count += 1;
+			_calls.add(call);
+		}
+		finally
+		{
+			_internalsLock.unlock();
 		}
-		return count;
 	}
 
 
@@ -58,4 +118,33 @@ public class TimeRunnerList
 	{
 		void accept(long currentTimeMillis);
 	}
+
+	/**
+	 * Decides when a call enqueued with enqueueWhenReady() can run.
+	 */
+	public static interface IReadyCheck
+	{
+		/**
+		 * Checks if the call can run, without blocking (called on the thread running the queue).
+		 * 
+		 * @return True if the call can run.
+		 */
+		boolean isReady();
+		/**
+		 * Blocks until isReady() would return true.
+		 * 
+		 * @throws InterruptedException Interrupted while waiting.
+		 */
+		void waitUntilReady() throws InterruptedException;
+	}
+
+	private static record _Call(IReadyCheck checkOrNull
+		, ITimeConsumer runnable
+	)
+	{
+		public boolean isReady()
+		{
+			return (null == this.checkOrNull) || this.checkOrNull.isReady();
+		}
+	}
 }
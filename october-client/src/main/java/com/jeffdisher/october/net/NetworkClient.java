@@ -49,6 +49,22 @@ public class NetworkClient
 		_network.stop();
 	}
 
+	/**
+	 * @return The total number of bytes received from the server over this connection.
+	 */
+	public long getBytesReceived()
+	{
+		return _network.getTotalBytesRead();
+	}
+
+	/**
+	 * @return The total number of bytes sent to the server over this connection.
+	 */
+	public long getBytesSent()
+	{
+		return _network.getTotalBytesWritten();
+	}
+
 	/**
 	 * Sends a message to the server..
 	 * 
@@ -2,7 +2,9 @@ package com.jeffdisher.october.process;
 
 import java.io.IOException;
 import java.net.InetAddress;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
@@ -16,9 +18,7 @@ import com.jeffdisher.october.client.RelativeDirection;
 import com.jeffdisher.october.client.TimeRunnerList;
 import com.jeffdisher.october.client.VerticalDirection;
 import com.jeffdisher.october.data.ColumnHeightMap;
-import com.jeffdisher.october.data.CuboidData;
 import com.jeffdisher.october.data.IReadOnlyCuboidData;
-import com.jeffdisher.october.net.CuboidCodec;
 import com.jeffdisher.october.net.NetworkClient;
 import com.jeffdisher.october.net.Packet;
 import com.jeffdisher.october.net.PacketFromClient;
@@ -75,9 +75,14 @@ public class ClientProcess
 	private long _lastIncludedLocalCommit;
 	private int _assignedClientId;
 	private boolean _isEntityLoaded;
+	// When the end of each tick arrived, until the tick is completed on the caller's thread.
+	private final Queue<_TickArrival> _tickArrivals;
+	private long _completedTickArrivalNanos;
 	private DisconnectException _disconnectException;
 
 	private final NetworkClient _client;
+	private final CuboidDecodePool _decodePool;
+	private final boolean _ownsDecodePool;
 
 	// Network buffer state.
 	private final ReentrantLock _networkBufferLock;
@@ -96,6 +101,25 @@ public class ClientProcess
 	 * @throws IOException There was a network error connecting to the server.
 	 */
 	public ClientProcess(IListener listener, InetAddress address, int port, String clientName, int cuboidViewDistance) throws IOException
+	{
+		this(listener, address, port, clientName, cuboidViewDistance, null);
+	}
+
+	/**
+	 * Creates and starts up a new client process.  Returns once the connection is established, but before the handshake
+	 * is complete.
+	 * This variant allows many clients in the same process to share one pool of cuboid decode threads (the caller
+	 * remains responsible for shutting down that pool).
+	 * 
+	 * @param listener The callback interface which will receive updates.
+	 * @param address The address of the server.
+	 * @param port The port number of the server.
+	 * @param clientName The name the client should use to identify itself.
+	 * @param cuboidViewDistance The client's preferred view distance.
+	 * @param sharedDecodePoolOrNull The pool to use for decoding cuboids (null means this client creates its own).
+	 * @throws IOException There was a network error connecting to the server.
+	 */
+	public ClientProcess(IListener listener, InetAddress address, int port, String clientName, int cuboidViewDistance, CuboidDecodePool sharedDecodePoolOrNull) throws IOException
 	{
 		// Set purely-internal state first, since ClientRunner calls back from its constructor and NetworkClient calls back in a background thread.
 		this.serverState = new ServerState();
@@ -106,6 +130,12 @@ public class ClientProcess
 		_networkBufferLock = new ReentrantLock();
 		_networkReady = false;
 		_outgoing = new LinkedList<>();
+		_tickArrivals = new LinkedList<>();
+		_ownsDecodePool = (null == sharedDecodePoolOrNull);
+		_decodePool = _ownsDecodePool
+			? new CuboidDecodePool(CuboidDecodePool.DEFAULT_THREAD_COUNT)
+			: sharedDecodePoolOrNull
+		;
 		
 		// Now, initialize the special cases which call back into this.
 		_clientRunner = new ClientRunner(new _NetworkAdapter()
@@ -185,7 +215,7 @@ public class ClientProcess
 		{
 			this.wait();
 		}
-		_pendingCallbacks.runFullQueue(currentTimeMillis);
+		_pendingCallbacks.runFullQueueWaitingForReady(currentTimeMillis);
 		if (null != _disconnectException)
 		{
 			throw _disconnectException;
@@ -208,7 +238,7 @@ public class ClientProcess
 		{
 			this.wait();
 		}
-		_pendingCallbacks.runFullQueue(currentTimeMillis);
+		_pendingCallbacks.runFullQueueWaitingForReady(currentTimeMillis);
 		if (null != _disconnectException)
 		{
 			throw _disconnectException;
@@ -231,7 +261,7 @@ public class ClientProcess
 		{
 			this.wait();
 		}
-		_pendingCallbacks.runFullQueue(currentTimeMillis);
+		_pendingCallbacks.runFullQueueWaitingForReady(currentTimeMillis);
 		if (null != _disconnectException)
 		{
 			throw _disconnectException;
@@ -239,6 +269,40 @@ public class ClientProcess
 		return _lastTickFromServer;
 	}
 
+	/**
+	 * Reads the number of bytes which have been received from the server since connecting.  This can be called from any
+	 * thread.
+	 * 
+	 * @return The total number of bytes received from the server.
+	 */
+	public long getNetworkBytesReceived()
+	{
+		return _client.getBytesReceived();
+	}
+
+	/**
+	 * Reads the number of bytes which have been sent to the server since connecting.  This can be called from any
+	 * thread.
+	 * 
+	 * @return The total number of bytes sent to the server.
+	 */
+	public long getNetworkBytesSent()
+	{
+		return _client.getBytesSent();
+	}
+
+	/**
+	 * Returns when the end of the most recently completed tick arrived from the server, on the network thread, so that a
+	 * caller can tell the network delay apart from the delay before it ran the pending calls which completed the tick.
+	 * This is intended to be called from within IListener.tickDidComplete().
+	 * 
+	 * @return The System.nanoTime() when the end of the tick arrived (0 if no tick has completed).
+	 */
+	public synchronized long getCompletedTickArrivalNanos()
+	{
+		return _completedTickArrivalNanos;
+	}
+
 	/**
 	 * Runs any pending call-outs.
 	 * 
@@ -417,11 +481,12 @@ public class ClientProcess
 		}
 	}
 
-	private synchronized void _background_updateTickNumber(long latestTickNumber, long lastIncludedLocalCommit)
+	private synchronized void _background_updateTickNumber(long latestTickNumber, long lastIncludedLocalCommit, long arrivalNanos)
 	{
 		Assert.assertTrue((0 == _lastTickFromServer) || ((_lastTickFromServer + 1) == latestTickNumber));
 		_lastTickFromServer = latestTickNumber;
 		_lastIncludedLocalCommit = lastIncludedLocalCommit;
+		_tickArrivals.add(new _TickArrival(latestTickNumber, arrivalNanos));
 		this.notifyAll();
 		this.serverState.latestTickNumber = latestTickNumber;
 	}
@@ -454,11 +519,37 @@ public class ClientProcess
 		this.serverState.millisPerTick = millisPerTick;
 	}
 
+	private synchronized void _tickCompleted(long gameTick)
+	{
+		// Ticks complete in order so we can drop any arrivals up to this one.
+		while (!_tickArrivals.isEmpty() && (_tickArrivals.peek().tickNumber() <= gameTick))
+		{
+			_TickArrival arrival = _tickArrivals.remove();
+			if (gameTick == arrival.tickNumber())
+			{
+				_completedTickArrivalNanos = arrival.nanos();
+			}
+		}
+	}
+
+	private void _background_shutdownDecodePool()
+	{
+		// A shared pool is shut down by whoever created it.
+		if (_ownsDecodePool)
+		{
+			_decodePool.shutdown();
+		}
+	}
+
 
 	// NOTE:  These callbacks are issued on the background network thread.
 	private class _NetworkClientListener implements NetworkClient.IListener
 	{
-		private CuboidCodec.Deserializer _deserializer = null;
+		// The cuboid currently being received (its fragments are always contiguous, following its start packet).
+		private Packet_CuboidStart _pendingCuboidStart = null;
+		private List<Packet_CuboidFragment> _pendingCuboidFragments = new ArrayList<>();
+		// The cuboids received in the current tick, created when the first one arrives.
+		private CuboidDecodePool.Batch _currentBatch = null;
 		
 		@Override
 		public void handshakeCompleted(int assignedId, long millisPerTick, int currentViewDistance, int viewDistanceMaximum)
@@ -477,19 +568,19 @@ public class ClientProcess
 		{
 			// We need to decode this for the ClientRunner.
 			// For now, we will just do this with type checks although we might want to use a virtual call into the Packet to clean this up, in the future.
+			// Cuboids are decoded in the background so we just collect their packets and hand them off once complete.
+			if (!(packet instanceof Packet_CuboidFragment))
+			{
+				_submitPendingCuboid();
+			}
 			if (packet instanceof Packet_CuboidStart)
 			{
-				Assert.assertTrue(null == _deserializer);
-				_deserializer = new CuboidCodec.Deserializer((Packet_CuboidStart) packet);
+				_pendingCuboidStart = (Packet_CuboidStart) packet;
 			}
 			else if (packet instanceof Packet_CuboidFragment)
 			{
-				CuboidData done = _deserializer.processPacket((Packet_CuboidFragment) packet);
-				if (null != done)
-				{
-					_deserializer = null;
-					_messagesToClientRunner.receivedCuboid(done);
-				}
+				Assert.assertTrue(null != _pendingCuboidStart);
+				_pendingCuboidFragments.add((Packet_CuboidFragment) packet);
 			}
 			else if (packet instanceof Packet_Entity)
 			{
@@ -526,8 +617,15 @@ public class ClientProcess
 			else if (packet instanceof Packet_EndOfTick)
 			{
 				Packet_EndOfTick safe = (Packet_EndOfTick) packet;
+				long arrivalNanos = System.nanoTime();
+				// Hand off the cuboids sent in this tick, without waiting for them, so that they are applied as part of it.
+				if (null != _currentBatch)
+				{
+					_messagesToClientRunner.receivedPendingCuboids(_currentBatch);
+					_currentBatch = null;
+				}
 				_messagesToClientRunner.receivedEndOfTick(safe.tickNumber, safe.latestLocalCommitIncluded);
-				_background_updateTickNumber(safe.tickNumber, safe.latestLocalCommitIncluded);
+				_background_updateTickNumber(safe.tickNumber, safe.latestLocalCommitIncluded, arrivalNanos);
 			}
 			else if (packet instanceof Packet_RemoveEntity)
 			{
@@ -595,6 +693,22 @@ public class ClientProcess
 		{
 			_messagesToClientRunner.adapterDisconnected();
 			_background_serverDisconnected(new DisconnectException());
+			// The network thread is stopping so nothing else will be submitted.
+			_background_shutdownDecodePool();
+		}
+		
+		private void _submitPendingCuboid()
+		{
+			if (null != _pendingCuboidStart)
+			{
+				if (null == _currentBatch)
+				{
+					_currentBatch = _decodePool.createBatch();
+				}
+				_currentBatch.submit(_pendingCuboidStart, _pendingCuboidFragments);
+				_pendingCuboidStart = null;
+				_pendingCuboidFragments.clear();
+			}
 		}
 	}
 
@@ -611,6 +725,8 @@ public class ClientProcess
 		public void disconnect()
 		{
 			_client.stop();
+			// The network thread has stopped so nothing else will be submitted.
+			_background_shutdownDecodePool();
 		}
 		@Override
 		public void sendChange(IEntityActionFromClient<IMutablePlayerEntity> change, long commitLevel)
@@ -700,6 +816,7 @@ public class ClientProcess
 		@Override
 		public void tickDidComplete(long gameTick)
 		{
+			_tickCompleted(gameTick);
 			_listener.tickDidComplete(gameTick);
 		}
 		@Override
@@ -905,4 +1022,9 @@ public class ClientProcess
 		public volatile long millisPerTick;
 		public volatile long latestTickNumber;
 	}
+
+	private static record _TickArrival(long tickNumber
+		, long nanos
+	)
+	{}
 }
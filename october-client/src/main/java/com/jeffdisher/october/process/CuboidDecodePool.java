@@ -0,0 +1,263 @@
+package com.jeffdisher.october.process;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.function.BiConsumer;
+
+import com.jeffdisher.october.client.IClientAdapter;
+import com.jeffdisher.october.data.CuboidData;
+import com.jeffdisher.october.data.CuboidHeightMap;
+import com.jeffdisher.october.data.IReadOnlyCuboidData;
+import com.jeffdisher.october.logic.HeightMapHelpers;
+import com.jeffdisher.october.net.CuboidCodec;
+import com.jeffdisher.october.net.Packet_CuboidFragment;
+import com.jeffdisher.october.net.Packet_CuboidStart;
+import com.jeffdisher.october.utils.Assert;
+
+
+/**
+ * A small pool of background threads which decode the cuboids received from the server and build their height maps, so
+ * that neither the network thread nor the thread calling into ClientRunner stalls when many cuboids arrive at once (as
+ * when joining a dense world or teleporting).
+ * The network thread submits the packets of each cuboid to a Batch, as they complete, and hands that batch off with the
+ * end of the tick.  The batch is then polled, without blocking, by the thread applying the tick (unless that thread is
+ * already in a blocking call).
+ * A single pool can be shared by many clients in the same process (each one using its own batches).  The threads are
+ * daemon threads so a pool which is never shut down won't keep the process alive.
+ */
+public class CuboidDecodePool
+{
+	/**
+	 * The number of decode threads used by a client process which doesn't share a pool.
+	 */
+	public static final int DEFAULT_THREAD_COUNT = 2;
+
+	private final Thread[] _threads;
+	// All of the following state is guarded by "this".
+	private final Queue<_Job> _waitingJobs;
+	private boolean _isRunning;
+
+	/**
+	 * Creates and starts the pool.
+	 * 
+	 * @param threadCount The number of decode threads to start.
+	 */
+	public CuboidDecodePool(int threadCount)
+	{
+		Assert.assertTrue(threadCount > 0);
+		_waitingJobs = new LinkedList<>();
+		_isRunning = true;
+		_threads = new Thread[threadCount];
+		for (int i = 0; i < threadCount; ++i)
+		{
+			_threads[i] = new Thread(() -> _background_run(), "Cuboid Decoder " + i);
+			_threads[i].setDaemon(true);
+			_threads[i].start();
+		}
+	}
+
+	/**
+	 * Creates a new, empty, batch to which cuboids can be submitted.
+	 * 
+	 * @return The new batch.
+	 */
+	public Batch createBatch()
+	{
+		return new Batch();
+	}
+
+	/**
+	 * Stops the decode threads, dropping any cuboids not yet decoded (their batches will still become ready, so nothing
+	 * waiting on them is stuck).  Calling this more than once is safe.
+	 */
+	public void shutdown()
+	{
+		List<_Job> dropped;
+		synchronized (this)
+		{
+			_isRunning = false;
+			dropped = new ArrayList<>(_waitingJobs);
+			_waitingJobs.clear();
+			this.notifyAll();
+		}
+		for (_Job job : dropped)
+		{
+			job.batch._completeJob(null);
+		}
+		for (Thread thread : _threads)
+		{
+			try
+			{
+				thread.join();
+			}
+			catch (InterruptedException e)
+			{
+				// We don't use interruption.
+				throw Assert.unexpected(e);
+			}
+		}
+	}
+
+
+	private synchronized void _submit(_Job job)
+	{
+		Assert.assertTrue(_isRunning);
+		_waitingJobs.add(job);
+		this.notifyAll();
+	}
+
+	private void _background_run()
+	{
+		_Job job = _background_getNextJob();
+		while (null != job)
+		{
+			Throwable error = null;
+			try
+			{
+				job.result = _decode(job.start, job.fragments);
+			}
+			catch (Throwable t)
+			{
+				error = t;
+			}
+			job.batch._completeJob(error);
+			job = _background_getNextJob();
+		}
+	}
+
+	private synchronized _Job _background_getNextJob()
+	{
+		while (_isRunning && _waitingJobs.isEmpty())
+		{
+			try
+			{
+				this.wait();
+			}
+			catch (InterruptedException e)
+			{
+				// We don't use interruption.
+				throw Assert.unexpected(e);
+			}
+		}
+		return _isRunning
+			? _waitingJobs.remove()
+			: null
+		;
+	}
+
+	private static _Decoded _decode(Packet_CuboidStart start, List<Packet_CuboidFragment> fragments)
+	{
+		CuboidCodec.Deserializer deserializer = new CuboidCodec.Deserializer(start);
+		CuboidData cuboid = null;
+		for (Packet_CuboidFragment fragment : fragments)
+		{
+			// Only the last fragment should complete the cuboid.
+			Assert.assertTrue(null == cuboid);
+			cuboid = deserializer.processPacket(fragment);
+		}
+		Assert.assertTrue(null != cuboid);
+		CuboidHeightMap heightMap = HeightMapHelpers.buildHeightMap(cuboid);
+		return new _Decoded(cuboid, heightMap);
+	}
+
+
+	/**
+	 * The cuboids received by one client within one tick.  Cuboids are submitted by the network thread and, once it has
+	 * handed off the batch, read by the thread applying the tick.
+	 */
+	public class Batch implements IClientAdapter.IPendingCuboids
+	{
+		// Only touched by the submitting thread until the batch is handed off.
+		private final List<_Job> _jobs = new ArrayList<>();
+		// All of the following state is guarded by "this".
+		private int _submittedJobCount;
+		private int _completedJobCount;
+		private Throwable _error;
+		
+		/**
+		 * Submits a cuboid to be decoded in the background.
+		 * 
+		 * @param start The packet which started the cuboid.
+		 * @param fragments All of the fragments of the cuboid, in the order they were received.
+		 */
+		public void submit(Packet_CuboidStart start, List<Packet_CuboidFragment> fragments)
+		{
+			_Job job = new _Job(this, start, List.copyOf(fragments));
+			_jobs.add(job);
+			synchronized (this)
+			{
+				_submittedJobCount += 1;
+			}
+			_submit(job);
+		}
+		
+		@Override
+		public synchronized boolean isReady()
+		{
+			return (_completedJobCount == _submittedJobCount);
+		}
+		
+		@Override
+		public synchronized void waitUntilReady() throws InterruptedException
+		{
+			while (_completedJobCount < _submittedJobCount)
+			{
+				this.wait();
+			}
+		}
+		
+		@Override
+		public void forEachCuboid(BiConsumer<IReadOnlyCuboidData, CuboidHeightMap> consumer)
+		{
+			synchronized (this)
+			{
+				Assert.assertTrue(_completedJobCount == _submittedJobCount);
+				if (null != _error)
+				{
+					throw new RuntimeException("Cuboid decode failed", _error);
+				}
+			}
+			for (_Job job : _jobs)
+			{
+				// Jobs dropped by a shutdown have no result.
+				if (null != job.result)
+				{
+					consumer.accept(job.result.cuboid(), job.result.heightMap());
+				}
+			}
+		}
+		
+		private synchronized void _completeJob(Throwable error)
+		{
+			if ((null != error) && (null == _error))
+			{
+				_error = error;
+			}
+			_completedJobCount += 1;
+			this.notifyAll();
+		}
+	}
+
+	private static record _Decoded(IReadOnlyCuboidData cuboid
+		, CuboidHeightMap heightMap
+	)
+	{}
+
+	private static class _Job
+	{
+		public final Batch batch;
+		public final Packet_CuboidStart start;
+		public final List<Packet_CuboidFragment> fragments;
+		// Written by the decode thread before it reports completion (which publishes it through the batch's monitor).
+		public _Decoded result;
+		
+		public _Job(Batch batch, Packet_CuboidStart start, List<Packet_CuboidFragment> fragments)
+		{
+			this.batch = batch;
+			this.start = start;
+			this.fragments = fragments;
+		}
+	}
+}
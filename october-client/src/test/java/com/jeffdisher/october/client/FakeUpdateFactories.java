@@ -107,6 +107,8 @@ public class FakeUpdateFactories
 				, null
 				, null
 				, null
+				, null
+				, null
 				, new TickProcessingContext.IMutationSink()
 				{
 					@Override
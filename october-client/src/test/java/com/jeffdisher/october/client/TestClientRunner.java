@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -20,7 +21,9 @@ import com.jeffdisher.october.aspects.MiscConstants;
 import com.jeffdisher.october.data.BlockProxy;
 import com.jeffdisher.october.data.ColumnHeightMap;
 import com.jeffdisher.october.data.CuboidData;
+import com.jeffdisher.october.data.CuboidHeightMap;
 import com.jeffdisher.october.data.IReadOnlyCuboidData;
+import com.jeffdisher.october.logic.HeightMapHelpers;
 import com.jeffdisher.october.logic.OrientationHelpers;
 import com.jeffdisher.october.mutations.MutationBlockIncrementalBreak;
 import com.jeffdisher.october.mutations.MutationBlockIncrementalRepair;
@@ -177,7 +180,7 @@ public class TestClientRunner
 		
 		// Send them an entity and a cuboid.
 		network.client.receivedFullEntity(MutableEntity.createForTest(clientId).freeze());
-		network.client.receivedCuboid(cuboid);
+		network.client.receivedCuboid(cuboid, null);
 		network.client.receivedEndOfTick(1L, 0L);
 		runnerList.runFullQueue(currentTimeMillis);
 		Assert.assertTrue(projection.loadedCuboids.containsKey(cuboidAddress));
@@ -270,8 +273,8 @@ public class TestClientRunner
 		mutable.newInventory.addAllItems(LOG_ITEM, 2);
 		Entity startEntity = mutable.freeze();
 		network.client.receivedFullEntity(startEntity);
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR));
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE));
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR), null);
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE), null);
 		network.client.receivedEndOfTick(1L, 0L);
 		runnerList.runFullQueue(currentTimeMillis);
 		
@@ -316,10 +319,10 @@ public class TestClientRunner
 		Assert.assertEquals(clientId, clientListener.assignedLocalEntityId);
 		network.client.receivedFullEntity(MutableEntity.createForTest(clientId).freeze());
 		// We will stand on the ground, in air, but there will be a wall directly to the West.
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE));
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(-1, 0, -1), STONE));
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR));
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(-1, 0, 0), STONE));
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE), null);
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(-1, 0, -1), STONE), null);
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR), null);
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(-1, 0, 0), STONE), null);
 		network.client.receivedEndOfTick(1L, 0L);
 		runnerList.runFullQueue(currentTimeMillis);
 		currentTimeMillis += 100L;
@@ -362,8 +365,8 @@ public class TestClientRunner
 		mutable.newLocation = new EntityLocation(0.0f, 0.0f, 2.0f);
 		Entity entity = mutable.freeze();
 		network.client.receivedFullEntity(entity);
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE));
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR));
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE), null);
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR), null);
 		network.client.receivedEndOfTick(1L, 0L);
 		runnerList.runFullQueue(currentTimeMillis);
 		
@@ -411,9 +414,9 @@ public class TestClientRunner
 		int logKey = mutable.newInventory.getIdOfStackableType(LOG_ITEM);
 		Entity startEntity = mutable.freeze();
 		network.client.receivedFullEntity(startEntity);
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR));
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR), null);
 		// We will just make one of the cuboids out of crafting tables to give us somewhere to craft.
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), ENV.blocks.fromItem(ENV.items.getItemById("op.crafting_table"))));
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), ENV.blocks.fromItem(ENV.items.getItemById("op.crafting_table"))), null);
 		network.client.receivedEndOfTick(1L, 0L);
 		runnerList.runFullQueue(currentTimeMillis);
 		
@@ -459,8 +462,8 @@ public class TestClientRunner
 		Assert.assertEquals(clientId, clientListener.assignedLocalEntityId);
 		network.client.receivedFullEntity(MutableEntity.createForTest(clientId).freeze());
 		// We will stand on the ground, in air, but there will be a wall directly to the West.
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE));
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR));
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE), null);
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR), null);
 		network.client.receivedEndOfTick(1L, 0L);
 		runnerList.runFullQueue(currentTimeMillis);
 		
@@ -514,9 +517,9 @@ public class TestClientRunner
 		mutable.slotManager.setSelectedKey(itemKey);
 		Entity startEntity = mutable.freeze();
 		network.client.receivedFullEntity(startEntity);
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR));
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR), null);
 		// We will just make one of the cuboids out of crafting tables to give us somewhere to craft.
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE));
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE), null);
 		network.client.receivedEndOfTick(1L, 0L);
 		runnerList.runFullQueue(currentTimeMillis);
 		
@@ -579,8 +582,8 @@ public class TestClientRunner
 		currentTimeMillis += 100L;
 		Assert.assertEquals(clientId, clientListener.assignedLocalEntityId);
 		network.client.receivedFullEntity(MutableEntity.createForTest(clientId).freeze());
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR));
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(-1, 0, 0), STONE));
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR), null);
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(-1, 0, 0), STONE), null);
 		network.client.receivedEndOfTick(1L, 0L);
 		runnerList.runFullQueue(currentTimeMillis);
 		currentTimeMillis += 100L;
@@ -625,7 +628,7 @@ public class TestClientRunner
 		
 		// Send them an entity and a cuboid.
 		network.client.receivedFullEntity(MutableEntity.createForTest(clientId).freeze());
-		network.client.receivedCuboid(cuboid);
+		network.client.receivedCuboid(cuboid, null);
 		network.client.receivedEndOfTick(1L, 0L);
 		runnerList.runFullQueue(currentTimeMillis);
 		Assert.assertTrue(projection.loadedCuboids.containsKey(cuboidAddress));
@@ -734,8 +737,8 @@ public class TestClientRunner
 		Assert.assertEquals(clientId, clientListener.assignedLocalEntityId);
 		network.client.receivedFullEntity(MutableEntity.createForTest(clientId).freeze());
 		// We will stand on the ground, in air, but there will be a wall directly to the West.
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE));
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR));
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE), null);
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR), null);
 		network.client.receivedEndOfTick(tick, serverCommit);
 		runnerList.runFullQueue(currentTimeMillis);
 		currentTimeMillis += 100L;
@@ -802,8 +805,8 @@ public class TestClientRunner
 		Entity after = mutable.freeze();
 		network.client.receivedFullEntity(after);
 		// We will stand on the ground, in air, but there will be a wall directly to the West.
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE));
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR));
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE), null);
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR), null);
 		network.client.receivedEndOfTick(tick, serverCommit);
 		runnerList.runFullQueue(currentTimeMillis);
 		currentTimeMillis += 100L;
@@ -853,7 +856,7 @@ public class TestClientRunner
 		mutable.newLocation = new EntityLocation(10.0f, 10.0f, 10.0f);
 		mutable.setCreativeMode(true);
 		network.client.receivedFullEntity(mutable.freeze());
-		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR));
+		network.client.receivedCuboid(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR), null);
 		network.client.receivedEndOfTick(1L, 0L);
 		runnerList.runFullQueue(currentTimeMillis);
 		boolean isSet = runner.enableCreativeFlight(true, currentTimeMillis);
@@ -873,6 +876,64 @@ public class TestClientRunner
 		Assert.assertTrue(projection.events.isEmpty());
 	}
 
+	@Test
+	public void pendingCuboidsHoldTick() throws Throwable
+	{
+		TestAdapter network = new TestAdapter();
+		TestProjection projection = new TestProjection();
+		ClientListener clientListener = new ClientListener();
+		TimeRunnerList runnerList = new TimeRunnerList();
+		new ClientRunner(network, projection, clientListener, runnerList);
+		
+		// Connect them.
+		int clientId = 1;
+		long currentTimeMillis = 100L;
+		network.client.adapterConnected(clientId, MILLIS_PER_TICK, MiscConstants.DEFAULT_CUBOID_VIEW_DISTANCE, MiscConstants.DEFAULT_CUBOID_VIEW_DISTANCE);
+		runnerList.runFullQueue(currentTimeMillis);
+		currentTimeMillis += 100L;
+		Assert.assertEquals(clientId, clientListener.assignedLocalEntityId);
+		
+		// Send the entity and a cuboid which is still being decoded, then another tick and the disconnect behind it.
+		CuboidAddress address = CuboidAddress.fromInt(0, 0, 0);
+		CuboidData cuboid = CuboidGenerator.createFilledCuboid(address, ENV.special.AIR);
+		boolean[] isReady = new boolean[] { false };
+		network.client.receivedFullEntity(MutableEntity.createForTest(clientId).freeze());
+		network.client.receivedPendingCuboids(new IClientAdapter.IPendingCuboids() {
+			@Override
+			public boolean isReady()
+			{
+				return isReady[0];
+			}
+			@Override
+			public void waitUntilReady()
+			{
+				Assert.fail();
+			}
+			@Override
+			public void forEachCuboid(BiConsumer<IReadOnlyCuboidData, CuboidHeightMap> consumer)
+			{
+				Assert.assertTrue(isReady[0]);
+				consumer.accept(cuboid, HeightMapHelpers.buildHeightMap(cuboid));
+			}
+		});
+		network.client.receivedEndOfTick(1L, 0L);
+		network.client.receivedEndOfTick(2L, 0L);
+		network.client.adapterDisconnected();
+		
+		// Nothing after the pending tick runs until the cuboid is ready.
+		Assert.assertEquals(0, runnerList.runFullQueue(currentTimeMillis));
+		currentTimeMillis += 100L;
+		Assert.assertNull(projection.thisEntity);
+		Assert.assertFalse(projection.loadedCuboids.containsKey(address));
+		Assert.assertEquals(clientId, clientListener.assignedLocalEntityId);
+		
+		// Once ready, everything runs in order.
+		isReady[0] = true;
+		Assert.assertEquals(3, runnerList.runFullQueue(currentTimeMillis));
+		Assert.assertTrue(projection.loadedCuboids.containsKey(address));
+		Assert.assertEquals(0, clientListener.assignedLocalEntityId);
+	}
+
 
 	private static class TestAdapter implements IClientAdapter
 	{
@@ -398,6 +398,8 @@ public class TestCreativeFlightAccumulator
 			, null
 			, null
 			, null
+			, null
+			, null
 			, new TickProcessingContext.IMutationSink() {
 				@Override
 				public boolean next(IMutationBlock mutation)
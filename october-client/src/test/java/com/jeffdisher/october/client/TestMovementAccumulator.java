@@ -51,6 +51,7 @@ import com.jeffdisher.october.types.MutableEntity;
 import com.jeffdisher.october.types.PartialEntity;
 import com.jeffdisher.october.types.PartialPassive;
 import com.jeffdisher.october.types.TickProcessingContext;
+import com.jeffdisher.october.types.WorldConfig;
 import com.jeffdisher.october.utils.CuboidGenerator;
 
 
@@ -1501,6 +1502,8 @@ public class TestMovementAccumulator
 			, null
 			, null
 			, null
+			, null
+			, null
 			, new TickProcessingContext.IMutationSink() {
 				@Override
 				public boolean next(IMutationBlock mutation)
@@ -1524,7 +1527,7 @@ public class TestMovementAccumulator
 				// For now, we will just drop these but may want them in the future.
 			}
 			, null
-			, null
+			, new WorldConfig()
 			, millisPerTick
 			, currentTickTimeMillis
 		);
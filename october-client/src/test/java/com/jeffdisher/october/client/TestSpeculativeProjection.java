@@ -16,6 +16,8 @@ import org.junit.Test;
 import com.jeffdisher.october.actions.EntityActionCreativeFlight;
 import com.jeffdisher.october.actions.EntityActionSimpleMove;
 import com.jeffdisher.october.actions.EntityActionStoreToInventory;
+import com.jeffdisher.october.actions.EntityActionType;
+import com.jeffdisher.october.actions.IEntityActionFromClient;
 import com.jeffdisher.october.aspects.Aspect;
 import com.jeffdisher.october.aspects.AspectRegistry;
 import com.jeffdisher.october.aspects.CraftAspect;
@@ -76,6 +78,7 @@ import com.jeffdisher.october.types.PartialEntity;
 import com.jeffdisher.october.types.PartialPassive;
 import com.jeffdisher.october.types.PassiveEntity;
 import com.jeffdisher.october.types.PassiveType;
+import com.jeffdisher.october.types.TickProcessingContext;
 import com.jeffdisher.october.utils.CuboidGenerator;
 
 
@@ -127,6 +130,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -149,6 +153,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, List.of(cuboid)
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -195,6 +200,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -216,6 +222,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -237,6 +244,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -259,6 +267,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -288,6 +297,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -313,6 +323,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, List.of(cuboid0, cuboid1)
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -346,6 +357,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -367,6 +379,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -397,6 +410,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -421,6 +435,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, List.of(cuboid0, cuboid1)
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -454,6 +469,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -475,6 +491,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -494,6 +511,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -524,6 +542,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -548,6 +567,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, List.of(cuboid0, cuboid1)
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -580,6 +600,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -600,6 +621,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -619,6 +641,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -649,6 +672,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -679,6 +703,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, List.of(cuboid)
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -712,6 +737,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -734,6 +760,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -757,6 +784,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -792,6 +820,7 @@ public class TestSpeculativeProjection
 				, List.of(PartialEntity.fromEntity(MutableEntity.createForTest(entityId2).freeze()))
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -821,6 +850,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, FakeUpdateFactories.entityUpdate(Map.of(), listener.thisEntityState, _wrap(entity, send))
 				, List.of()
 				, List.of()
@@ -859,6 +889,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of(cuboid)
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -915,6 +946,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -933,6 +965,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -958,6 +991,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -995,6 +1029,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR))
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1027,6 +1062,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1050,6 +1086,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1084,6 +1121,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1124,6 +1162,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1165,6 +1204,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1235,6 +1275,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR))
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1291,6 +1332,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR)
 						, CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE))
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1381,6 +1423,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1428,6 +1471,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of(CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR)
 						, CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE))
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1514,6 +1558,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of(cuboid)
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1556,6 +1601,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, EntityUpdatePerField.update(initialEntity, authoritativeMutable.freeze())
 				, List.of()
 				, List.of()
@@ -1577,6 +1623,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, FakeUpdateFactories.entityUpdate(Map.of(cuboid.getCuboidAddress(), cuboid), authoritativeMutable.freeze(), move3)
 				, List.of()
 				, List.of()
@@ -1608,6 +1655,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1633,6 +1681,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, List.of(cuboid)
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1668,6 +1717,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1696,6 +1746,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1722,6 +1773,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1747,6 +1799,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1762,6 +1815,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1797,6 +1851,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of(scratchCuboid)
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1834,6 +1889,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1871,6 +1927,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of(airCuboid)
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1901,6 +1958,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, FakeUpdateFactories.entityUpdate(Map.of(airAddress, airCuboid), initialEntity, move)
 				, List.of()
 				, List.of()
@@ -1937,6 +1995,7 @@ public class TestSpeculativeProjection
 				, List.of(PartialEntity.fromCreature(orc))
 				, List.of()
 				, List.of(airCuboid)
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -1969,6 +2028,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of()
+				, Map.of()
 				, EntityUpdatePerField.update(previous, localEntity)
 				, List.of(new PartialEntityUpdate(PartialEntity.fromCreature(orc)))
 				, List.of()
@@ -2011,6 +2071,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of(cuboid)
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -2063,6 +2124,7 @@ public class TestSpeculativeProjection
 					, Collections.emptyList()
 					, Collections.emptyList()
 					, Collections.emptyList()
+					, Map.of()
 					, null
 					, List.of()
 					, List.of()
@@ -2087,6 +2149,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -2117,6 +2180,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, storeToInventory
 				, List.of()
 				, List.of()
@@ -2140,6 +2204,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, FakeUpdateFactories.entityUpdate(Map.of(address, serverCuboid), serverEntity, _wrap(serverEntity, new EntitySubActionPlaceSelectedBlock(dirtLocation, dirtLocation)))
 				, List.of()
 				, List.of()
@@ -2163,6 +2228,7 @@ public class TestSpeculativeProjection
 				, Collections.emptyList()
 				, Collections.emptyList()
 				, Collections.emptyList()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -2213,6 +2279,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of(CuboidData.mutableClone(serverCuboid))
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -2260,6 +2327,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -2278,6 +2346,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -2299,6 +2368,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of()
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -2354,6 +2424,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of(cuboid)
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -2418,6 +2489,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of(cuboid0, cuboid1)
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -2452,6 +2524,7 @@ public class TestSpeculativeProjection
 					, List.of()
 					, List.of()
 					, List.of()
+					, Map.of()
 					, null
 					, List.of()
 					, List.of()
@@ -2491,6 +2564,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of(base, top)
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -2546,6 +2620,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of(cuboid)
+			, Map.of()
 			, null
 			, List.of()
 			, List.of()
@@ -2595,6 +2670,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of(startPassive)
 			, List.of()
+			, Map.of()
 			, null
 			, List.of()
 			, List.of()
@@ -2617,6 +2693,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of()
+			, Map.of()
 			, null
 			, List.of()
 			, List.of(update)
@@ -2638,6 +2715,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of()
+			, Map.of()
 			, null
 			, List.of()
 			, List.of()
@@ -2671,6 +2749,7 @@ public class TestSpeculativeProjection
 				, List.of(PartialEntity.fromCreature(baby))
 				, List.of()
 				, List.of(airCuboid)
+				, Map.of()
 				, null
 				, List.of()
 				, List.of()
@@ -2694,6 +2773,7 @@ public class TestSpeculativeProjection
 				, List.of()
 				, List.of()
 				, List.of()
+				, Map.of()
 				, EntityUpdatePerField.update(localEntity, localEntity)
 				, List.of(new PartialEntityUpdate(PartialEntity.fromCreature(adult)))
 				, List.of()
@@ -2733,6 +2813,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of(airCuboid)
+			, Map.of()
 			, null
 			, List.of()
 			, List.of()
@@ -2756,6 +2837,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of()
+			, Map.of()
 			, EntityUpdatePerField.update(previous, localEntity)
 			, List.of()
 			, List.of()
@@ -2799,6 +2881,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of(airCuboid)
+			, Map.of()
 			, null
 			, List.of()
 			, List.of()
@@ -2839,6 +2922,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of()
+			, Map.of()
 			, EntityUpdatePerField.update(previous, localEntity)
 			, List.of()
 			, List.of()
@@ -2876,6 +2960,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of(airCuboid)
+			, Map.of()
 			, null
 			, List.of()
 			, List.of()
@@ -2912,6 +2997,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of()
+			, Map.of()
 			, EntityUpdatePerField.update(previous, localEntity)
 			, List.of()
 			, List.of()
@@ -2948,6 +3034,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of(airCuboid)
+			, Map.of()
 			, null
 			, List.of()
 			, List.of()
@@ -2992,6 +3079,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of()
+			, Map.of()
 			, EntityUpdatePerField.update(previous, localEntity)
 			, List.of()
 			, List.of()
@@ -3015,6 +3103,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of()
+			, Map.of()
 			, EntityUpdatePerField.update(previous, localEntity)
 			, List.of()
 			, List.of()
@@ -3051,6 +3140,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of(cuboid)
+			, Map.of()
 			, null
 			, List.of()
 			, List.of()
@@ -3099,6 +3189,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of(cuboid)
+			, Map.of()
 			, null
 			, List.of()
 			, List.of()
@@ -3146,6 +3237,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of(cuboid)
+			, Map.of()
 			, null
 			, List.of()
 			, List.of()
@@ -3231,6 +3323,7 @@ public class TestSpeculativeProjection
 			, List.of(PartialEntity.fromCreature(creature1))
 			, List.of(PartialPassive.fromPassive(passive1))
 			, addedCuboids
+			, Map.of()
 			, null
 			, List.of()
 			, List.of()
@@ -3340,6 +3433,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of(complexCuboid, airCuboid)
+			, Map.of()
 			, null
 			, List.of()
 			, List.of()
@@ -3421,6 +3515,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of(cuboid)
+			, Map.of()
 			, null
 			, List.of()
 			, List.of()
@@ -3469,6 +3564,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of()
+			, Map.of()
 			, null
 			, List.of()
 			, List.of()
@@ -3489,6 +3585,151 @@ public class TestSpeculativeProjection
 		Assert.assertEquals(events.get(2), listener.events.get(2));
 	}
 
+	@Test
+	public void skipUnaffectedReplay()
+	{
+		// Show that a speculative change is only re-run when the server tick changes something it could have read.
+		CountingListener listener = new CountingListener();
+		int entityId = 1;
+		SpeculativeProjection projector = new SpeculativeProjection(entityId, listener, MILLIS_PER_TICK);
+		MutableEntity mutable = MutableEntity.createForTest(entityId);
+		mutable.newLocation = new EntityLocation(5.0f, 5.0f, 5.0f);
+		Entity localEntity = mutable.freeze();
+		projector.setThisEntity(localEntity);
+		CuboidAddress nearAddress = CuboidAddress.fromInt(0, 0, 0);
+		CuboidAddress farAddress = CuboidAddress.fromInt(5, 0, 0);
+		long currentTimeMillis = 1L;
+		projector.applyChangesForServerTick(1L
+			, List.of()
+			, List.of()
+			, List.of(CuboidGenerator.createFilledCuboid(nearAddress, ENV.special.AIR), CuboidGenerator.createFilledCuboid(farAddress, ENV.special.AIR))
+			, Map.of()
+			, null
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, 0L
+			, currentTimeMillis
+		);
+		
+		// Apply the change locally, which runs it once.
+		_CountingAction action = new _CountingAction();
+		long commit = projector.applyLocalChange(action, currentTimeMillis);
+		Assert.assertEquals(1L, commit);
+		Assert.assertEquals(1, action.runCount);
+		
+		// The first server tick will always re-run it.
+		currentTimeMillis += MILLIS_PER_TICK;
+		int remaining = projector.applyChangesForServerTick(2L
+			, List.of()
+			, List.of()
+			, List.of()
+			, Map.of()
+			, null
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, 0L
+			, currentTimeMillis
+		);
+		Assert.assertEquals(1, remaining);
+		Assert.assertEquals(2, action.runCount);
+		
+		// A server change far away from the entity shouldn't require it to run again.
+		currentTimeMillis += MILLIS_PER_TICK;
+		remaining = projector.applyChangesForServerTick(3L
+			, List.of()
+			, List.of()
+			, List.of()
+			, Map.of()
+			, null
+			, List.of()
+			, List.of()
+			, List.of(_setStone(farAddress.getBase().getRelative(1, 1, 1)))
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, 0L
+			, currentTimeMillis
+		);
+		Assert.assertEquals(1, remaining);
+		Assert.assertEquals(2, action.runCount);
+		Assert.assertEquals(STONE.item().number(), listener.lastData.getData15(AspectRegistry.BLOCK, BlockAddress.fromInt(1, 1, 1)));
+		
+		// A server change in the entity's cuboid will re-run it.
+		currentTimeMillis += MILLIS_PER_TICK;
+		remaining = projector.applyChangesForServerTick(4L
+			, List.of()
+			, List.of()
+			, List.of()
+			, Map.of()
+			, null
+			, List.of()
+			, List.of()
+			, List.of(_setStone(new AbsoluteLocation(1, 1, 1)))
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, 0L
+			, currentTimeMillis
+		);
+		Assert.assertEquals(1, remaining);
+		Assert.assertEquals(3, action.runCount);
+		
+		// Nothing changed in this tick so we can skip it again.
+		currentTimeMillis += MILLIS_PER_TICK;
+		remaining = projector.applyChangesForServerTick(5L
+			, List.of()
+			, List.of()
+			, List.of()
+			, Map.of()
+			, null
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, 0L
+			, currentTimeMillis
+		);
+		Assert.assertEquals(1, remaining);
+		Assert.assertEquals(3, action.runCount);
+		
+		// Once committed, it is dropped without running.
+		currentTimeMillis += MILLIS_PER_TICK;
+		remaining = projector.applyChangesForServerTick(6L
+			, List.of()
+			, List.of()
+			, List.of()
+			, Map.of()
+			, null
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, List.of()
+			, commit
+			, currentTimeMillis
+		);
+		Assert.assertEquals(0, remaining);
+		Assert.assertEquals(3, action.runCount);
+		Assert.assertTrue(localEntity == listener.thisEntityState);
+	}
+
 
 	private static EntityActionSimpleMove<IMutablePlayerEntity> _wrap(Entity entity, IEntitySubAction<IMutablePlayerEntity> change)
 	{
@@ -3551,6 +3792,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of()
+			, Map.of()
 			, thisEntityUpdate0
 			, List.of(partialEntityUpdate0)
 			, List.of(partialPassiveUpdate0)
@@ -3566,6 +3808,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of()
+			, Map.of()
 			, thisEntityUpdate1
 			, List.of(partialEntityUpdate1)
 			, List.of(partialPassiveUpdate1)
@@ -3588,6 +3831,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of()
+			, Map.of()
 			, null
 			, List.of()
 			, List.of()
@@ -3603,6 +3847,7 @@ public class TestSpeculativeProjection
 			, List.of()
 			, List.of()
 			, List.of()
+			, Map.of()
 			, null
 			, List.of()
 			, List.of()
@@ -3616,6 +3861,48 @@ public class TestSpeculativeProjection
 		);
 	}
 
+	private static MutationBlockSetBlock _setStone(AbsoluteLocation location)
+	{
+		CuboidData cuboid = CuboidGenerator.createFilledCuboid(location.getCuboidAddress(), ENV.special.AIR);
+		MutableBlockProxy proxy = new MutableBlockProxy(location, cuboid);
+		proxy.setBlockAndClear(STONE);
+		Assert.assertTrue(proxy.didChange());
+		return MutationBlockSetBlock.extractFromProxy(ByteBuffer.allocate(1024), proxy);
+	}
+
+	private static class _CountingAction implements IEntityActionFromClient<IMutablePlayerEntity>
+	{
+		public int runCount = 0;
+		
+		@Override
+		public boolean applyChange(TickProcessingContext context, IMutablePlayerEntity newEntity)
+		{
+			this.runCount += 1;
+			return true;
+		}
+		@Override
+		public EntityActionType getType()
+		{
+			// Only used in tests.
+			return null;
+		}
+		@Override
+		public void serializeToBuffer(ByteBuffer buffer)
+		{
+			throw new AssertionError("Not in test");
+		}
+		@Override
+		public boolean canSaveToDisk()
+		{
+			return false;
+		}
+		@Override
+		public IEntitySubAction<IMutablePlayerEntity> getSubAction()
+		{
+			return null;
+		}
+	}
+
 	private static class CountingListener implements IProjectionListener
 	{
 		public int loadCount = 0;
@@ -61,4 +61,52 @@ public class TestTimeRunnerList
 		Assert.assertEquals(1000L, out[0]);
 		Assert.assertEquals(2000L, out[1]);
 	}
+
+	@Test
+	public void holdUntilReady() throws Throwable
+	{
+		TimeRunnerList list = new TimeRunnerList();
+		
+		long[] out = new long[3];
+		boolean[] isReady = new boolean[] { false };
+		list.enqueue((long time) -> {
+			out[0] = time;
+		});
+		list.enqueueWhenReady(new TimeRunnerList.IReadyCheck() {
+			@Override
+			public boolean isReady()
+			{
+				return isReady[0];
+			}
+			@Override
+			public void waitUntilReady()
+			{
+				isReady[0] = true;
+			}
+		}, (long time) -> {
+			out[1] = time;
+		});
+		list.enqueue((long time) -> {
+			out[2] = time;
+		});
+		
+		// Only the call in front of the one which isn't ready runs.
+		long currentTimeMillis = 1000L;
+		int count = list.runFullQueue(currentTimeMillis);
+		Assert.assertEquals(1, count);
+		
+		currentTimeMillis = 2000L;
+		count = list.runFullQueue(currentTimeMillis);
+		Assert.assertEquals(0, count);
+		
+		// The blocking variant waits for it and then runs the rest.
+		currentTimeMillis = 3000L;
+		count = list.runFullQueueWaitingForReady(currentTimeMillis);
+		Assert.assertEquals(2, count);
+		Assert.assertTrue(isReady[0]);
+		
+		Assert.assertEquals(1000L, out[0]);
+		Assert.assertEquals(3000L, out[1]);
+		Assert.assertEquals(3000L, out[2]);
+	}
 }
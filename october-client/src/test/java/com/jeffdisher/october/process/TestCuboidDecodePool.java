@@ -0,0 +1,141 @@
+package com.jeffdisher.october.process;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jeffdisher.october.aspects.AspectRegistry;
+import com.jeffdisher.october.aspects.Environment;
+import com.jeffdisher.october.data.CuboidData;
+import com.jeffdisher.october.data.CuboidHeightMap;
+import com.jeffdisher.october.data.IReadOnlyCuboidData;
+import com.jeffdisher.october.logic.HeightMapHelpers;
+import com.jeffdisher.october.net.CuboidCodec;
+import com.jeffdisher.october.net.Packet;
+import com.jeffdisher.october.net.Packet_CuboidFragment;
+import com.jeffdisher.october.net.Packet_CuboidStart;
+import com.jeffdisher.october.types.Block;
+import com.jeffdisher.october.types.BlockAddress;
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.utils.CuboidGenerator;
+
+
+public class TestCuboidDecodePool
+{
+	private static Environment ENV;
+	private static Block STONE;
+	@BeforeClass
+	public static void setup() throws Throwable
+	{
+		ENV = Environment.createSharedInstance();
+		STONE = ENV.blocks.fromItem(ENV.items.getItemById("op.stone"));
+	}
+	@AfterClass
+	public static void tearDown()
+	{
+		Environment.clearSharedInstance();
+	}
+
+	@Test
+	public void empty()
+	{
+		CuboidDecodePool pool = new CuboidDecodePool(2);
+		CuboidDecodePool.Batch batch = pool.createBatch();
+		Assert.assertTrue(batch.isReady());
+		batch.forEachCuboid((IReadOnlyCuboidData cuboid, CuboidHeightMap heightMap) -> Assert.fail());
+		pool.shutdown();
+	}
+
+	@Test
+	public void batchesInOrder() throws Throwable
+	{
+		// We use 2 batches in the same pool, as though they were from different clients.
+		CuboidDecodePool pool = new CuboidDecodePool(2);
+		CuboidDecodePool.Batch batch = pool.createBatch();
+		CuboidDecodePool.Batch other = pool.createBatch();
+		List<CuboidData> inputs = new ArrayList<>();
+		for (int i = 0; i < 8; ++i)
+		{
+			CuboidData cuboid = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(i, 0, 0), ENV.special.AIR);
+			cuboid.setData15(AspectRegistry.BLOCK, BlockAddress.fromInt(i, i, i), STONE.item().number());
+			inputs.add(cuboid);
+			_submit(batch, cuboid);
+		}
+		CuboidData next = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 1), STONE);
+		_submit(other, next);
+		
+		List<IReadOnlyCuboidData> results = _collect(batch, inputs);
+		Assert.assertEquals(inputs.size(), results.size());
+		results = _collect(other, List.of(next));
+		Assert.assertEquals(1, results.size());
+		pool.shutdown();
+	}
+
+	@Test
+	public void shutdownReleasesBatch() throws Throwable
+	{
+		// Whether or not the cuboids were decoded before the shutdown, the batch must become ready.
+		CuboidDecodePool pool = new CuboidDecodePool(1);
+		CuboidDecodePool.Batch batch = pool.createBatch();
+		for (int i = 0; i < 8; ++i)
+		{
+			_submit(batch, CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(i, 0, 0), STONE));
+		}
+		pool.shutdown();
+		Assert.assertTrue(batch.isReady());
+		int[] count = new int[1];
+		batch.forEachCuboid((IReadOnlyCuboidData cuboid, CuboidHeightMap heightMap) -> count[0] += 1);
+		Assert.assertTrue(count[0] <= 8);
+		// Shutting down again is safe.
+		pool.shutdown();
+	}
+
+
+	private static void _submit(CuboidDecodePool.Batch batch, CuboidData cuboid)
+	{
+		CuboidCodec.Serializer serializer = new CuboidCodec.Serializer(cuboid);
+		Packet_CuboidStart start = (Packet_CuboidStart) serializer.getNextPacket();
+		List<Packet_CuboidFragment> fragments = new ArrayList<>();
+		Packet packet = serializer.getNextPacket();
+		while (null != packet)
+		{
+			fragments.add((Packet_CuboidFragment) packet);
+			packet = serializer.getNextPacket();
+		}
+		batch.submit(start, fragments);
+	}
+
+	private static List<IReadOnlyCuboidData> _collect(CuboidDecodePool.Batch batch, List<CuboidData> inputs) throws InterruptedException
+	{
+		// Polling the batch never blocks so we just sleep until it is ready.
+		while (!batch.isReady())
+		{
+			Thread.sleep(1L);
+		}
+		List<IReadOnlyCuboidData> results = new ArrayList<>();
+		batch.forEachCuboid((IReadOnlyCuboidData cuboid, CuboidHeightMap heightMap) -> {
+			_checkDecoded(inputs.get(results.size()), cuboid, heightMap);
+			results.add(cuboid);
+		});
+		return results;
+	}
+
+	private static void _checkDecoded(CuboidData input, IReadOnlyCuboidData cuboid, CuboidHeightMap heightMap)
+	{
+		Assert.assertEquals(input.getCuboidAddress(), cuboid.getCuboidAddress());
+		int x = input.getCuboidAddress().x();
+		BlockAddress block = BlockAddress.fromInt(x, x, x);
+		Assert.assertEquals(input.getData15(AspectRegistry.BLOCK, block), cuboid.getData15(AspectRegistry.BLOCK, block));
+		CuboidHeightMap expected = HeightMapHelpers.buildHeightMap(input);
+		byte[][] expectedRaw = expected.getUnsafeAccess();
+		byte[][] actualRaw = heightMap.getUnsafeAccess();
+		for (int i = 0; i < expectedRaw.length; ++i)
+		{
+			Assert.assertArrayEquals(expectedRaw[i], actualRaw[i]);
+		}
+	}
+}
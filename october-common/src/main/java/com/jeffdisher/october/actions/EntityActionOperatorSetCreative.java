@@ -3,10 +3,10 @@ package com.jeffdisher.october.actions;
 import java.nio.ByteBuffer;
 
 import com.jeffdisher.october.data.DeserializationContext;
+import com.jeffdisher.october.net.CodecHelpers;
 import com.jeffdisher.october.types.IEntityAction;
 import com.jeffdisher.october.types.IMutablePlayerEntity;
 import com.jeffdisher.october.types.TickProcessingContext;
-import com.jeffdisher.october.utils.Assert;
 
 
 /**
@@ -18,8 +18,9 @@ public class EntityActionOperatorSetCreative implements IEntityAction<IMutablePl
 
 	public static EntityActionOperatorSetCreative deserialize(DeserializationContext context)
 	{
-		// This is never serialized.
-		throw Assert.unreachable();
+		ByteBuffer buffer = context.buffer();
+		boolean setCreative = CodecHelpers.readBoolean(buffer);
+		return new EntityActionOperatorSetCreative(setCreative);
 	}
 
 
@@ -46,14 +47,13 @@ public class EntityActionOperatorSetCreative implements IEntityAction<IMutablePl
 	@Override
 	public void serializeToBuffer(ByteBuffer buffer)
 	{
-		// This is never serialized.
-		throw Assert.unreachable();
+		CodecHelpers.writeBoolean(buffer, _setCreative);
 	}
 
 	@Override
 	public boolean canSaveToDisk()
 	{
-		// It doesn't make sense to serialize this.
+		// This runs as soon as it is enqueued so there is never anything to save (it is only serialized in tick recordings).
 		return false;
 	}
 
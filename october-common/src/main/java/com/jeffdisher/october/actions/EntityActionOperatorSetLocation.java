@@ -3,11 +3,11 @@ package com.jeffdisher.october.actions;
 import java.nio.ByteBuffer;
 
 import com.jeffdisher.october.data.DeserializationContext;
+import com.jeffdisher.october.net.CodecHelpers;
 import com.jeffdisher.october.types.EntityLocation;
 import com.jeffdisher.october.types.IEntityAction;
 import com.jeffdisher.october.types.IMutablePlayerEntity;
 import com.jeffdisher.october.types.TickProcessingContext;
-import com.jeffdisher.october.utils.Assert;
 
 
 /**
@@ -20,8 +20,9 @@ public class EntityActionOperatorSetLocation implements IEntityAction<IMutablePl
 
 	public static EntityActionOperatorSetLocation deserialize(DeserializationContext context)
 	{
-		// This is never serialized.
-		throw Assert.unreachable();
+		ByteBuffer buffer = context.buffer();
+		EntityLocation location = CodecHelpers.readEntityLocation(buffer);
+		return new EntityActionOperatorSetLocation(location);
 	}
 
 
@@ -49,14 +50,13 @@ public class EntityActionOperatorSetLocation implements IEntityAction<IMutablePl
 	@Override
 	public void serializeToBuffer(ByteBuffer buffer)
 	{
-		// This is never serialized.
-		throw Assert.unreachable();
+		CodecHelpers.writeEntityLocation(buffer, _location);
 	}
 
 	@Override
 	public boolean canSaveToDisk()
 	{
-		// It doesn't make sense to serialize this.
+		// Operator commands aren't persisted (serializing this is only for tick recordings).
 		return false;
 	}
 
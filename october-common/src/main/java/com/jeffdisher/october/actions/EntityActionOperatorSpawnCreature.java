@@ -3,12 +3,12 @@ package com.jeffdisher.october.actions;
 import java.nio.ByteBuffer;
 
 import com.jeffdisher.october.data.DeserializationContext;
+import com.jeffdisher.october.net.CodecHelpers;
 import com.jeffdisher.october.types.EntityLocation;
 import com.jeffdisher.october.types.EntityType;
 import com.jeffdisher.october.types.IEntityAction;
 import com.jeffdisher.october.types.IMutablePlayerEntity;
 import com.jeffdisher.october.types.TickProcessingContext;
-import com.jeffdisher.october.utils.Assert;
 
 
 /**
@@ -21,8 +21,10 @@ public class EntityActionOperatorSpawnCreature implements IEntityAction<IMutable
 
 	public static EntityActionOperatorSpawnCreature deserialize(DeserializationContext context)
 	{
-		// This is never serialized.
-		throw Assert.unreachable();
+		ByteBuffer buffer = context.buffer();
+		EntityType type = context.env().creatures.ENTITY_BY_NUMBER[buffer.get()];
+		EntityLocation location = CodecHelpers.readEntityLocation(buffer);
+		return new EntityActionOperatorSpawnCreature(type, location);
 	}
 
 
@@ -51,14 +53,14 @@ public class EntityActionOperatorSpawnCreature implements IEntityAction<IMutable
 	@Override
 	public void serializeToBuffer(ByteBuffer buffer)
 	{
-		// This is never serialized.
-		throw Assert.unreachable();
+		buffer.put(_type.number());
+		CodecHelpers.writeEntityLocation(buffer, _location);
 	}
 
 	@Override
 	public boolean canSaveToDisk()
 	{
-		// It doesn't make sense to serialize this.
+		// The spawned creature is what gets saved, not this command.
 		return false;
 	}
 
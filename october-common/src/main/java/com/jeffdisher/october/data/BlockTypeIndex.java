@@ -0,0 +1,293 @@
+package com.jeffdisher.october.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.jeffdisher.october.aspects.AspectRegistry;
+import com.jeffdisher.october.aspects.Environment;
+import com.jeffdisher.october.types.Block;
+import com.jeffdisher.october.types.BlockAddress;
+import com.jeffdisher.october.utils.Assert;
+
+
+/**
+ * A summary of the block types in a single cuboid:  The number of blocks of each type and, for types which are rare in
+ * the cuboid, the address of each of those blocks.
+ * This allows questions like "is there any X in this cuboid" or "where is the closest X" to be answered without
+ * walking the cuboid's block data.
+ * The index is built from the cuboid's block octree the first time it is requested and then updated incrementally as
+ * single blocks are written to the cuboid (see CuboidData).
+ * Note that a type only has its addresses tracked if it was rare from the start:  Once it exceeds RARE_TYPE_LIMIT, its
+ * addresses are dropped and not rebuilt, even if it later becomes rare again, so callers need to fall back to walking
+ * the cuboid in that case.
+ * Separately, the addresses of all "growable" blocks (plants which can grow and ground cover), regardless of how common
+ * they are, are kept in an indexable list so that random ticks can sample them directly (see EngineRandomTicks).
+ */
+public class BlockTypeIndex
+{
+	/**
+	 * A type is considered "rare" if there are no more than this many blocks of it in the cuboid.
+	 */
+	public static final int RARE_TYPE_LIMIT = 32;
+
+	// Block values are non-negative so this will never match anything, allowing us to walk every region of the tree.
+	private static final short WALK_ALL_VALUES = -1;
+
+	/**
+	 * Builds a new index by walking the block data of the given cuboid.
+	 * 
+	 * @param cuboid The cuboid to summarize.
+	 * @return The new index.
+	 */
+	public static BlockTypeIndex build(IReadOnlyCuboidData cuboid)
+	{
+		BlockTypeIndex index = new BlockTypeIndex(_buildGrowableTypes(Environment.getShared()), new HashMap<>(), new ArrayList<>(), new HashMap<>());
+		cuboid.walkData(AspectRegistry.BLOCK, (BlockAddress base, byte size, Short value) -> {
+			index._addRegion(base, size, value);
+		}, WALK_ALL_VALUES);
+		return index;
+	}
+
+
+	// Indexed by block item number, true if that type can grow or spread (shared by all copies).
+	private final boolean[] _growableTypes;
+	private final Map<Short, _Entry> _entries;
+	// The addresses of all growable blocks, with the reverse map so they can be removed in constant time.
+	private final List<BlockAddress> _growable;
+	private final Map<BlockAddress, Integer> _growablePositions;
+
+	private BlockTypeIndex(boolean[] growableTypes
+		, Map<Short, _Entry> entries
+		, List<BlockAddress> growable
+		, Map<BlockAddress, Integer> growablePositions
+	)
+	{
+		_growableTypes = growableTypes;
+		_entries = entries;
+		_growable = growable;
+		_growablePositions = growablePositions;
+	}
+
+	/**
+	 * @param blockNumber The item number of the block type.
+	 * @return The number of blocks of this type in the cuboid.
+	 */
+	public int getCount(short blockNumber)
+	{
+		_Entry entry = _entries.get(blockNumber);
+		return (null != entry)
+			? entry.count
+			: 0
+		;
+	}
+
+	/**
+	 * @param blockNumber The item number of the block type.
+	 * @return The addresses of every block of this type in the cuboid (empty if there are none), or null if this type
+	 * isn't rare enough to have its addresses tracked.
+	 */
+	public Set<BlockAddress> getAddressesIfRare(short blockNumber)
+	{
+		_Entry entry = _entries.get(blockNumber);
+		Set<BlockAddress> addresses;
+		if (null == entry)
+		{
+			addresses = Set.of();
+		}
+		else if (null != entry.addresses)
+		{
+			addresses = Collections.unmodifiableSet(entry.addresses);
+		}
+		else
+		{
+			addresses = null;
+		}
+		return addresses;
+	}
+
+	/**
+	 * @return The number of growable blocks (plants which can grow and ground cover) in the cuboid.
+	 */
+	public int getGrowableCount()
+	{
+		return _growable.size();
+	}
+
+	/**
+	 * Returns one of the growable blocks in the cuboid.  The order is arbitrary and changes as blocks are written, so
+	 * this is only useful for sampling.
+	 * 
+	 * @param index The index of the growable block, in [0, getGrowableCount()).
+	 * @return The address of the growable block.
+	 */
+	public BlockAddress getGrowableAddress(int index)
+	{
+		return _growable.get(index);
+	}
+
+	/**
+	 * Updates the index to account for a single block changing type.
+	 * 
+	 * @param address The address of the block.
+	 * @param oldNumber The item number of the block type before the change.
+	 * @param newNumber The item number of the block type after the change.
+	 */
+	void blockChanged(BlockAddress address, short oldNumber, short newNumber)
+	{
+		if (oldNumber != newNumber)
+		{
+			_Entry old = _entries.get(oldNumber);
+			// The index is out of sync with the data if the old type isn't known.
+			Assert.assertTrue(null != old);
+			old.count -= 1;
+			if (0 == old.count)
+			{
+				_entries.remove(oldNumber);
+			}
+			else if (null != old.addresses)
+			{
+				old.addresses.remove(address);
+			}
+			
+			_Entry entry = _entries.get(newNumber);
+			if (null == entry)
+			{
+				entry = new _Entry(0, new HashSet<>());
+				_entries.put(newNumber, entry);
+			}
+			entry.count += 1;
+			_addAddressIfRare(entry, address);
+			
+			boolean wasGrowable = _growableTypes[oldNumber];
+			boolean isGrowable = _growableTypes[newNumber];
+			if (wasGrowable && !isGrowable)
+			{
+				_removeGrowable(address);
+			}
+			else if (!wasGrowable && isGrowable)
+			{
+				_addGrowable(address);
+			}
+		}
+	}
+
+	/**
+	 * @return A deep copy of the receiver, for a new copy of the cuboid.
+	 */
+	BlockTypeIndex copy()
+	{
+		Map<Short, _Entry> copy = new HashMap<>();
+		for (Map.Entry<Short, _Entry> elt : _entries.entrySet())
+		{
+			_Entry entry = elt.getValue();
+			Set<BlockAddress> addresses = (null != entry.addresses)
+				? new HashSet<>(entry.addresses)
+				: null
+			;
+			copy.put(elt.getKey(), new _Entry(entry.count, addresses));
+		}
+		return new BlockTypeIndex(_growableTypes, copy, new ArrayList<>(_growable), new HashMap<>(_growablePositions));
+	}
+
+
+	private void _addRegion(BlockAddress base, byte size, short value)
+	{
+		_Entry entry = _entries.get(value);
+		if (null == entry)
+		{
+			entry = new _Entry(0, new HashSet<>());
+			_entries.put(value, entry);
+		}
+		int regionCount = size * size * size;
+		entry.count += regionCount;
+		boolean isRare = (entry.count <= RARE_TYPE_LIMIT);
+		if (!isRare)
+		{
+			entry.addresses = null;
+		}
+		boolean isGrowable = _growableTypes[value];
+		if (isRare || isGrowable)
+		{
+			for (int x = 0; x < size; ++x)
+			{
+				for (int y = 0; y < size; ++y)
+				{
+					for (int z = 0; z < size; ++z)
+					{
+						BlockAddress address = base.getRelativeInt(x, y, z);
+						if (isRare)
+						{
+							entry.addresses.add(address);
+						}
+						if (isGrowable)
+						{
+							_addGrowable(address);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private void _addGrowable(BlockAddress address)
+	{
+		_growablePositions.put(address, _growable.size());
+		_growable.add(address);
+	}
+
+	private void _removeGrowable(BlockAddress address)
+	{
+		// We swap the last element into this position so the removal is constant-time.
+		int position = _growablePositions.remove(address);
+		BlockAddress last = _growable.remove(_growable.size() - 1);
+		if (position < _growable.size())
+		{
+			_growable.set(position, last);
+			_growablePositions.put(last, position);
+		}
+	}
+
+	private static boolean[] _buildGrowableTypes(Environment env)
+	{
+		boolean[] growable = new boolean[env.items.ITEMS_BY_TYPE.length];
+		for (int i = 0; i < growable.length; ++i)
+		{
+			Block block = env.blocks.fromItem(env.items.ITEMS_BY_TYPE[i]);
+			growable[i] = (null != block)
+				&& ((env.plants.growthDivisor(block) > 0) || env.groundCover.isGroundCover(block))
+			;
+		}
+		return growable;
+	}
+
+	private static void _addAddressIfRare(_Entry entry, BlockAddress address)
+	{
+		if (entry.count > RARE_TYPE_LIMIT)
+		{
+			entry.addresses = null;
+		}
+		else if (null != entry.addresses)
+		{
+			entry.addresses.add(address);
+		}
+	}
+
+
+	private static class _Entry
+	{
+		public int count;
+		// Null if this type isn't being tracked as rare.
+		public Set<BlockAddress> addresses;
+		
+		public _Entry(int count, Set<BlockAddress> addresses)
+		{
+			this.count = count;
+			this.addresses = addresses;
+		}
+	}
+}
@@ -64,12 +64,21 @@ public class CuboidData implements IReadOnlyCuboidData
 		{
 			newer[i] = _cloneOneOctree(AspectRegistry.ALL_ASPECTS[i], original._data[i]);
 		}
-		return new CuboidData(address, newer);
+		CuboidData clone = new CuboidData(address, newer);
+		// Carry over the block type index, if it was built, so that the clone can maintain it incrementally.
+		BlockTypeIndex index = original._blockTypeIndex;
+		if (null != index)
+		{
+			clone._blockTypeIndex = index.copy();
+		}
+		return clone;
 	}
 
 
 	private final CuboidAddress _cuboidAddress;
 	private final IOctree<?>[] _data;
+	// Built lazily, on first request, and then updated as single blocks are written (cleared by bulk changes).
+	private volatile BlockTypeIndex _blockTypeIndex;
 
 	private CuboidData(CuboidAddress cuboidAddress, IOctree<?>[] data)
 	{
@@ -106,6 +115,12 @@ public class CuboidData implements IReadOnlyCuboidData
 	public void setData15(Aspect<Short, ?> type, BlockAddress address, short value)
 	{
 		IOctree<Short> tree = type.octreeType().cast(_data[type.index()]);
+		BlockTypeIndex index = _blockTypeIndex;
+		if ((AspectRegistry.BLOCK == type) && (null != index))
+		{
+			short oldValue = tree.getData(type, address);
+			index.blockChanged(address, oldValue, value);
+		}
 		tree.setData(address, value);
 	}
 
@@ -152,6 +167,11 @@ public class CuboidData implements IReadOnlyCuboidData
 		
 		IOctree<Short> tree = type.octreeType().cast(_data[type.index()]);
 		tree.writeBatch(addresses, values);
+		if (AspectRegistry.BLOCK == type)
+		{
+			// Bulk writes are only used when generating cuboids so we just rebuild the index if it is requested.
+			_blockTypeIndex = null;
+		}
 	}
 
 	@Override
@@ -161,6 +181,19 @@ public class CuboidData implements IReadOnlyCuboidData
 		tree.walkData(callback, valueToSkip);
 	}
 
+	@Override
+	public BlockTypeIndex getBlockTypeIndex()
+	{
+		BlockTypeIndex index = _blockTypeIndex;
+		if (null == index)
+		{
+			// Note that racing readers may each build this but the results are equivalent.
+			index = BlockTypeIndex.build(this);
+			_blockTypeIndex = index;
+		}
+		return index;
+	}
+
 	@Override
 	public Object serializeResumable(Object lastCallState, ByteBuffer buffer)
 	{
@@ -203,11 +236,13 @@ public class CuboidData implements IReadOnlyCuboidData
 	public Object deserializeResumable(Object lastCallState, DeserializationContext context)
 	{
 		_ResumableState previousCall = (_ResumableState) lastCallState;
+		_blockTypeIndex = null;
 		return _deserializeResumablePartial(previousCall, context, AspectRegistry.ALL_ASPECTS.length);
 	}
 
 	public void deserializeSomeAspectsFully(DeserializationContext context, int aspectCount)
 	{
+		_blockTypeIndex = null;
 		_ResumableState resume = _deserializeResumablePartial(null, context, aspectCount);
 		// This is only used when reading from disk, when the buffer is fully mapped.
 		Assert.assertTrue(null == resume);
@@ -217,11 +252,13 @@ public class CuboidData implements IReadOnlyCuboidData
 	 * NOTE:  This helper allows mutable access to the internal data trees of the instance so it should only be used in
 	 * cases which are explicitly unsafe as the data structure should generally be considered copy-on-write with this
 	 * data array being very private.
+	 * Since the caller may change the trees directly, this drops the block type index (it will be rebuilt if requested).
 	 * 
 	 * @return A reference the internal data octrees of the receiver.
 	 */
 	public IOctree<?>[] unsafeDataAccess()
 	{
+		_blockTypeIndex = null;
 		return _data;
 	}
 
@@ -37,6 +37,15 @@ public interface IReadOnlyCuboidData
 	 */
 	<T> void walkData(Aspect<T, ?> type, IOctree.IWalkerCallback<T> callback, T valueToSkip);
 
+	/**
+	 * Returns the summary of which block types are in the cuboid, building it on the first call.  This allows callers
+	 * to skip the cuboid or find the blocks of a rare type without walking the block data.
+	 * Note that the returned index must be treated as read-only.
+	 * 
+	 * @return The block type index of the cuboid.
+	 */
+	BlockTypeIndex getBlockTypeIndex();
+
 	Object serializeResumable(Object lastCallState, ByteBuffer buffer);
 
 
@@ -1,9 +1,11 @@
 package com.jeffdisher.october.engine;
 
 import java.util.List;
+import java.util.Set;
 
 import com.jeffdisher.october.actions.EntityActionSimpleMove;
 import com.jeffdisher.october.aspects.Environment;
+import com.jeffdisher.october.aspects.MiscConstants;
 import com.jeffdisher.october.creatures.CreatureLogic;
 import com.jeffdisher.october.logic.DamageHelpers;
 import com.jeffdisher.october.logic.EntityCollection;
@@ -13,11 +15,14 @@ import com.jeffdisher.october.logic.ViscosityReader;
 import com.jeffdisher.october.mutations.TickUtils;
 import com.jeffdisher.october.subactions.EntitySubActionPopOutOfBlock;
 import com.jeffdisher.october.types.CreatureEntity;
+import com.jeffdisher.october.types.CuboidAddress;
 import com.jeffdisher.october.types.EntityLocation;
+import com.jeffdisher.october.types.EntityVolume;
 import com.jeffdisher.october.types.EventRecord;
 import com.jeffdisher.october.types.IEntityAction;
 import com.jeffdisher.october.types.MutableCreature;
 import com.jeffdisher.october.types.TickProcessingContext;
+import com.jeffdisher.october.types.WorldConfig;
 import com.jeffdisher.october.utils.Assert;
 
 
@@ -26,6 +31,11 @@ import com.jeffdisher.october.utils.Assert;
  */
 public class EngineCreatures
 {
+	/**
+	 * Creatures at REDUCED detail are only fully processed once in this many ticks.
+	 */
+	public static final long REDUCED_DETAIL_TICK_INTERVAL = 4L;
+
 	private EngineCreatures()
 	{
 		// This is just static logic.
@@ -46,7 +56,33 @@ public class EngineCreatures
 		, List<IEntityAction<MutableCreature>> changesToRun
 	)
 	{
-		MutableCreature mutable = MutableCreature.existing(creature);
+		boolean isEnvironmentTick = TickUtils.canApplyEnvironmentalDamageInTick(context);
+		return processOneCreature(context, entityCollection, creature, changesToRun, MutableCreature.existing(creature), isEnvironmentTick);
+	}
+
+	/**
+	 * Runs all elements in changesToRun against the given creature, returning a description of the change.
+	 * This variant is for callers which reuse the same MutableCreature instance for many creatures, to avoid allocating
+	 * a new one for each (see MutableCreature.reload()).
+	 * 
+	 * @param context The context used for running changes.
+	 * @param entityCollection A look-up mechanism for the entities in the loaded world.
+	 * @param creature The creature to process.
+	 * @param changesToRun A list of changes to run on this creature in this tick.
+	 * @param mutable The mutable wrapper to use for the creature (must already be loaded with creature).
+	 * @param isEnvironmentTick True if environmental damage should be applied to this creature in this tick (see
+	 * isEnvironmentTickForCreature()).
+	 * @return A description of the results of processing this creature.
+	 */
+	public static SingleCreatureResult processOneCreature(TickProcessingContext context
+		, EntityCollection entityCollection
+		, CreatureEntity creature
+		, List<IEntityAction<MutableCreature>> changesToRun
+		, MutableCreature mutable
+		, boolean isEnvironmentTick
+	)
+	{
+		Assert.assertTrue(creature.id() == mutable.getId());
 		
 		// Apply any environmental acceleration.
 		EntityLocation envVector = EntityMovementHelpers.getEnvironmentalVector(Environment.getShared(), context.previousBlockLookUp, mutable.newLocation, mutable.getType().volume());
@@ -86,7 +122,7 @@ public class EngineCreatures
 		// See if we need to "nudge" anyone this tick.
 		NudgeHelpers.nudgeAsCreature(Environment.getShared(), context, entityCollection, creature);
 		// Perform common end of tick processing.
-		if (TickUtils.canApplyEnvironmentalDamageInTick(context))
+		if (isEnvironmentTick)
 		{
 			TickUtils.applyEnvironmentalDamage(context, mutable);
 		}
@@ -98,6 +134,170 @@ public class EngineCreatures
 		return new SingleCreatureResult(newEntity, didSpecial);
 	}
 
+	/**
+	 * Determines the level of detail at which a creature should be processed, based on its distance from the closest
+	 * player.
+	 * 
+	 * @param config The world config (for the level of detail distances).
+	 * @param creatureLocation The location of the creature.
+	 * @param playerLocations The locations of all the players in the world.
+	 * @return The level of detail for this creature.
+	 */
+	public static DetailLevel chooseDetailLevel(WorldConfig config
+		, EntityLocation creatureLocation
+		, List<EntityLocation> playerLocations
+	)
+	{
+		float fullDistance = (float)config.creatureFullDetailDistance;
+		float sleepDistance = (float)config.creatureSleepDistance;
+		float closestSquared = Float.MAX_VALUE;
+		for (EntityLocation player : playerLocations)
+		{
+			float dx = player.x() - creatureLocation.x();
+			float dy = player.y() - creatureLocation.y();
+			float dz = player.z() - creatureLocation.z();
+			float distanceSquared = (dx * dx) + (dy * dy) + (dz * dz);
+			closestSquared = Math.min(closestSquared, distanceSquared);
+		}
+		
+		DetailLevel level;
+		if (closestSquared <= (fullDistance * fullDistance))
+		{
+			level = DetailLevel.FULL;
+		}
+		else if (closestSquared <= (sleepDistance * sleepDistance))
+		{
+			level = DetailLevel.REDUCED;
+		}
+		else
+		{
+			level = DetailLevel.SLEEPING;
+		}
+		return level;
+	}
+
+	/**
+	 * Determines if environmental damage should be applied to the given creature in this tick.  FULL detail creatures
+	 * use the common environmental damage tick (see TickUtils.canApplyEnvironmentalDamageInTick()) but REDUCED and
+	 * SLEEPING creatures each use their own tick in that interval, spread by ID, since they are woken up for it and
+	 * waking all of them in the same tick would be a periodic spike.
+	 * 
+	 * @param context The context for the current tick.
+	 * @param level The creature's level of detail.
+	 * @param creature The creature.
+	 * @return True if environmental damage should be applied to this creature in this tick.
+	 */
+	public static boolean isEnvironmentTickForCreature(TickProcessingContext context
+		, DetailLevel level
+		, CreatureEntity creature
+	)
+	{
+		boolean isEnvironmentTick;
+		if (DetailLevel.FULL == level)
+		{
+			isEnvironmentTick = TickUtils.canApplyEnvironmentalDamageInTick(context);
+		}
+		else
+		{
+			// Note that currentTick is 0 when running speculatively on the client so skip it there (matching TickUtils).
+			long ticksPerInterval = (MiscConstants.DAMAGE_ENVIRONMENT_CHECK_MILLIS / context.millisPerTick);
+			isEnvironmentTick = (context.currentTick > 0L)
+				&& (0L == Math.floorMod(context.currentTick + creature.id(), ticksPerInterval))
+			;
+		}
+		return isEnvironmentTick;
+	}
+
+	/**
+	 * Checks if any blocks changed in the previous tick in a cuboid which the creature could be touching:  Any cuboid
+	 * its volume intersects or which contains a block under its feet (since a creature standing at the bottom of a
+	 * cuboid is supported by the cuboid below it).
+	 * 
+	 * @param creature The creature.
+	 * @param cuboidsWithChangedBlocks The addresses of the cuboids where blocks changed in the previous tick.
+	 * @return True if any of the cuboids the creature touches are in cuboidsWithChangedBlocks.
+	 */
+	public static boolean didBlocksChangeNearby(CreatureEntity creature, Set<CuboidAddress> cuboidsWithChangedBlocks)
+	{
+		boolean didChange = false;
+		if (!cuboidsWithChangedBlocks.isEmpty())
+		{
+			EntityLocation base = creature.location();
+			EntityVolume volume = creature.type().volume();
+			CuboidAddress low = base.getRelative(0.0f, 0.0f, -1.0f).getBlockLocation().getCuboidAddress();
+			CuboidAddress high = base.getRelative(volume.width(), volume.width(), volume.height()).getBlockLocation().getCuboidAddress();
+			for (int z = low.z(); !didChange && (z <= high.z()); ++z)
+			{
+				for (int y = low.y(); !didChange && (y <= high.y()); ++y)
+				{
+					for (int x = low.x(); !didChange && (x <= high.x()); ++x)
+					{
+						didChange = cuboidsWithChangedBlocks.contains(CuboidAddress.fromInt(x, y, z));
+					}
+				}
+			}
+		}
+		return didChange;
+	}
+
+	/**
+	 * Checks if the given creature can skip processing in this tick, given its level of detail.  Skipping a creature
+	 * means that it is returned unchanged, without running any AI, movement, or nudging.
+	 * Creatures are never skipped when they have changes to run, are moving or falling, had blocks change near them
+	 * (see didBlocksChangeNearby()), or when this is their environmental damage tick (see isEnvironmentTickForCreature()).  Otherwise,
+	 * REDUCED creatures only run on 1 in REDUCED_DETAIL_TICK_INTERVAL ticks (spread by ID) and SLEEPING creatures
+	 * don't run at all.
+	 * Note that all creature timers are absolute game times so any skipped time is accounted for when the creature
+	 * next runs and the decision is only based on the previous tick's state and the tick number, so it is
+	 * deterministic.
+	 * 
+	 * @param context The context for the current tick.
+	 * @param level The creature's level of detail.
+	 * @param creature The creature.
+	 * @param changesToRun The changes to be applied to the creature in this tick (can be null).
+	 * @param didBlocksChangeNearby True if any blocks changed near the creature in the previous tick.
+	 * @return True if the creature can be skipped in this tick.
+	 */
+	public static boolean canSkipCreature(TickProcessingContext context
+		, DetailLevel level
+		, CreatureEntity creature
+		, List<IEntityAction<MutableCreature>> changesToRun
+		, boolean didBlocksChangeNearby
+	)
+	{
+		EntityLocation velocity = creature.velocity();
+		boolean mustWake = ((null != changesToRun) && !changesToRun.isEmpty())
+			|| (0.0f != velocity.x())
+			|| (0.0f != velocity.y())
+			|| (0.0f != velocity.z())
+			|| didBlocksChangeNearby
+			|| isEnvironmentTickForCreature(context, level, creature)
+		;
+		boolean canSkip;
+		if (mustWake)
+		{
+			canSkip = false;
+		}
+		else
+		{
+			switch (level)
+			{
+			case FULL:
+				canSkip = false;
+				break;
+			case REDUCED:
+				canSkip = (0L != Math.floorMod(context.currentTick + creature.id(), REDUCED_DETAIL_TICK_INTERVAL));
+				break;
+			case SLEEPING:
+				canSkip = true;
+				break;
+			default:
+				throw Assert.unreachable();
+			}
+		}
+		return canSkip;
+	}
+
 	private static void _runExternalChanges(TickProcessingContext context
 		, MutableCreature mutable
 		, List<IEntityAction<MutableCreature>> changes
@@ -152,4 +352,23 @@ public class EngineCreatures
 	public static record SingleCreatureResult(CreatureEntity updatedEntity
 		, boolean didTakeSpecialAction
 	) {}
+
+	/**
+	 * The level of detail used when processing a creature, based on how far it is from the closest player.
+	 */
+	public static enum DetailLevel
+	{
+		/**
+		 * Close to a player so processed every tick.
+		 */
+		FULL,
+		/**
+		 * Somewhat far from players so only processed periodically.
+		 */
+		REDUCED,
+		/**
+		 * Very far from players so only processed when woken.
+		 */
+		SLEEPING,
+	}
 }
@@ -20,6 +20,7 @@ import com.jeffdisher.october.logic.BlockChangeDescription;
 import com.jeffdisher.october.logic.HeightMapHelpers;
 import com.jeffdisher.october.logic.PropagationHelpers;
 import com.jeffdisher.october.logic.ScheduledMutation;
+import com.jeffdisher.october.mutations.MutationBlockLiquidFlowInto;
 import com.jeffdisher.october.mutations.MutationBlockPeriodic;
 import com.jeffdisher.october.mutations.MutationBlockUpdate;
 import com.jeffdisher.october.net.PacketCodec;
@@ -121,8 +122,18 @@ public class EngineCuboids
 			}
 		}
 		
+		// If growth is driven by random ticks, sample this cuboid's growable blocks, up to the configured limit (these count
+		// as mutations since they replace periodic growth).
+		int randomTicksPerCuboid = context.config.randomTicksPerCuboid;
+		if (randomTicksPerCuboid > 0)
+		{
+			mutationsProcessed += EngineRandomTicks.processRandomTicks(context, oldState, lazyMutableBlockCache, randomTicksPerCuboid);
+		}
+		
 		// Now run the normal mutations.
+		// Liquid flows are run in the same order but share a reader of the neighbouring blocks, created on first use.
 		List<ScheduledMutation> notYetReadyMutations = new ArrayList<>();
+		Function<AbsoluteLocation, Block> liquidNeighbourReader = null;
 		if (null != mutationsToRun)
 		{
 			for (ScheduledMutation scheduledMutations : mutationsToRun)
@@ -132,7 +143,19 @@ public class EngineCuboids
 				if (0L == millisUntilReady)
 				{
 					mutationsProcessed += 1;
-					_runOneMutation(lazyMutableBlockCache, context, oldState, mutation);
+					if (mutation instanceof MutationBlockLiquidFlowInto)
+					{
+						if (null == liquidNeighbourReader)
+						{
+							liquidNeighbourReader = EngineLiquids.createNeighbourReader(context, oldState);
+						}
+						AbsoluteLocation location = mutation.getAbsoluteLocation();
+						EngineLiquids.applyFlow(context, liquidNeighbourReader, lazyMutableBlockCache.apply(location), location);
+					}
+					else
+					{
+						_runOneMutation(lazyMutableBlockCache, context, oldState, mutation);
+					}
 				}
 				else
 				{
@@ -0,0 +1,115 @@
+package com.jeffdisher.october.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.jeffdisher.october.aspects.AspectRegistry;
+import com.jeffdisher.october.aspects.Environment;
+import com.jeffdisher.october.data.BlockProxy;
+import com.jeffdisher.october.data.IReadOnlyCuboidData;
+import com.jeffdisher.october.data.MutableBlockProxy;
+import com.jeffdisher.october.mutations.CommonBlockMutationHelpers;
+import com.jeffdisher.october.mutations.MutationBlockLiquidFlowInto;
+import com.jeffdisher.october.types.AbsoluteLocation;
+import com.jeffdisher.october.types.Block;
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.types.TickProcessingContext;
+
+
+/**
+ * Static engine logic related to evaluating the liquid flows within a single cuboid.
+ * Flows are still scheduled, persisted, and logged as one MutationBlockLiquidFlowInto per block, and each ready one is
+ * run in the order it was scheduled, interleaved with the cuboid's other ready mutations, exactly as before.  What
+ * changes is how a flow reads the neighbouring blocks:  All the flows in a cuboid share one reader for the tick, which
+ * reads blocks directly from the cuboid, when inside it, and remembers each block it reads, since the blocks of a flow
+ * are typically adjacent to each other.
+ * The flow rules themselves are still those of LiquidRegistry, applied by MutationBlockLiquidFlowInto.applyFlow().
+ */
+public class EngineLiquids
+{
+	private EngineLiquids()
+	{
+		// This is just static logic.
+	}
+
+	/**
+	 * Creates the reader of neighbouring blocks to be shared by all the liquid flows run in the cuboid in this tick.
+	 * 
+	 * @param context The context used for running changes.
+	 * @param oldState The read-only input state of the cuboid being processed.
+	 * @return The reader of blocks as of the previous tick (returns null for blocks in cuboids which aren't loaded).
+	 */
+	public static Function<AbsoluteLocation, Block> createNeighbourReader(TickProcessingContext context, IReadOnlyCuboidData oldState)
+	{
+		return new _NeighbourReader(Environment.getShared(), context, oldState);
+	}
+
+	/**
+	 * Applies a ready liquid flow to the given block in the cuboid.
+	 * 
+	 * @param context The context used for running changes.
+	 * @param neighbourReader The reader returned by createNeighbourReader() for this cuboid.
+	 * @param proxy The mutable block being changed.
+	 * @param location The location of the block.
+	 */
+	public static void applyFlow(TickProcessingContext context
+		, Function<AbsoluteLocation, Block> neighbourReader
+		, MutableBlockProxy proxy
+		, AbsoluteLocation location
+	)
+	{
+		MutationBlockLiquidFlowInto.applyFlow(context, location, proxy, (Block currentBlock) -> CommonBlockMutationHelpers.determineEmptyBlockType(neighbourReader, location, currentBlock));
+	}
+
+
+	/**
+	 * Reads blocks as of the previous tick, remembering each one.
+	 */
+	private static class _NeighbourReader implements Function<AbsoluteLocation, Block>
+	{
+		private final Environment _env;
+		private final TickProcessingContext _context;
+		private final IReadOnlyCuboidData _cuboid;
+		private final CuboidAddress _address;
+		private final Map<AbsoluteLocation, Block> _cache;
+		
+		public _NeighbourReader(Environment env, TickProcessingContext context, IReadOnlyCuboidData cuboid)
+		{
+			_env = env;
+			_context = context;
+			_cuboid = cuboid;
+			_address = cuboid.getCuboidAddress();
+			_cache = new HashMap<>();
+		}
+		
+		@Override
+		public Block apply(AbsoluteLocation location)
+		{
+			Block block;
+			if (_cache.containsKey(location))
+			{
+				block = _cache.get(location);
+			}
+			else
+			{
+				if (_address.equals(location.getCuboidAddress()))
+				{
+					short number = _cuboid.getData15(AspectRegistry.BLOCK, location.getBlockAddress());
+					block = _env.blocks.fromItem(_env.items.ITEMS_BY_TYPE[number]);
+				}
+				else
+				{
+					// Note that this will be null if the cuboid isn't loaded.
+					BlockProxy proxy = _context.previousBlockLookUp.readBlock(location);
+					block = (null != proxy)
+						? proxy.getBlock()
+						: null
+					;
+				}
+				_cache.put(location, block);
+			}
+			return block;
+		}
+	}
+}
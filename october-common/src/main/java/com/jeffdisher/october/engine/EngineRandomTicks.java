@@ -0,0 +1,104 @@
+package com.jeffdisher.october.engine;
+
+import java.util.List;
+import java.util.function.Function;
+
+import com.jeffdisher.october.aspects.Environment;
+import com.jeffdisher.october.data.BlockTypeIndex;
+import com.jeffdisher.october.data.IReadOnlyCuboidData;
+import com.jeffdisher.october.data.MutableBlockProxy;
+import com.jeffdisher.october.logic.GroundCoverHelpers;
+import com.jeffdisher.october.logic.PlantHelpers;
+import com.jeffdisher.october.mutations.MutationBlockGrowGroundCover;
+import com.jeffdisher.october.mutations.MutationBlockPeriodic;
+import com.jeffdisher.october.types.AbsoluteLocation;
+import com.jeffdisher.october.types.Block;
+import com.jeffdisher.october.types.BlockAddress;
+import com.jeffdisher.october.types.TickProcessingContext;
+
+
+/**
+ * Static engine logic related to "random ticks":  When enabled (WorldConfig.randomTicksPerCuboid), each tick samples
+ * random growable blocks (plants which can grow and ground cover) in each cuboid, using the cuboid's BlockTypeIndex,
+ * and drives plant growth and ground cover spread from them.  This replaces the periodic mutation each plant would
+ * otherwise schedule and the spread mutations scheduled against each block next to ground cover.
+ * The sample rate is derived from the interval used by the scheduled approach, so each growable block is sampled once
+ * per MutationBlockPeriodic.MILLIS_BETWEEN_GROWTH_CALLS, on average (ground cover uses the same interval for spread),
+ * but is capped per cuboid so the cost is bounded per cuboid, not per plant.  Cuboids with no growable blocks cost
+ * nothing.
+ */
+public class EngineRandomTicks
+{
+	private EngineRandomTicks()
+	{
+		// This is just static logic.
+	}
+
+	/**
+	 * Samples random growable blocks in the cuboid, growing any plants and spreading any ground cover found.
+	 * Plants grow in place while ground cover spread is sent as a MutationBlockGrowGroundCover to one random candidate
+	 * neighbour (which may be in another cuboid) for the next tick.
+	 * 
+	 * @param context The context used for running changes.
+	 * @param oldState The read-only input state of the cuboid being processed.
+	 * @param lazyMutableBlockCache The cache of mutable blocks for the cuboid being processed.
+	 * @param maxSamples The maximum number of blocks to sample in this cuboid.
+	 * @return The number of growable blocks sampled.
+	 */
+	public static int processRandomTicks(TickProcessingContext context
+		, IReadOnlyCuboidData oldState
+		, Function<AbsoluteLocation, MutableBlockProxy> lazyMutableBlockCache
+		, int maxSamples
+	)
+	{
+		BlockTypeIndex index = oldState.getBlockTypeIndex();
+		int growableCount = index.getGrowableCount();
+		int sampleCount = 0;
+		if (growableCount > 0)
+		{
+			sampleCount = Math.min(maxSamples, _samplesThisTick(context, growableCount));
+		}
+		
+		Environment env = Environment.getShared();
+		AbsoluteLocation base = oldState.getCuboidAddress().getBase();
+		for (int i = 0; i < sampleCount; ++i)
+		{
+			BlockAddress address = index.getGrowableAddress(context.randomInt.applyAsInt(growableCount));
+			AbsoluteLocation location = base.relativeForBlock(address);
+			MutableBlockProxy proxy = lazyMutableBlockCache.apply(location);
+			// Something else may have changed this block in this tick so use its current type.
+			Block block = proxy.getBlock();
+			if (PlantHelpers.canGrow(env, block))
+			{
+				// We don't care if it wants to be rescheduled since we aren't using scheduled growth.
+				PlantHelpers.shouldRescheduleAfterPlantPeriodic(env, context, location, proxy, block);
+			}
+			else if (env.groundCover.isGroundCover(block))
+			{
+				List<AbsoluteLocation> targets = GroundCoverHelpers.findSpreadNeighbours(env, context.previousBlockLookUp, location, block);
+				if (!targets.isEmpty())
+				{
+					AbsoluteLocation target = targets.get(context.randomInt.applyAsInt(targets.size()));
+					context.mutationSink.next(new MutationBlockGrowGroundCover(target, block));
+				}
+			}
+		}
+		return sampleCount;
+	}
+
+
+	private static int _samplesThisTick(TickProcessingContext context, int growableCount)
+	{
+		// Each growable block should be sampled once per growth interval, on average, so this is usually fractional:
+		// We take the whole part and then randomly round up, based on the remainder.
+		int interval = (int) MutationBlockPeriodic.MILLIS_BETWEEN_GROWTH_CALLS;
+		long scaled = (long)growableCount * context.millisPerTick;
+		int samples = (int)(scaled / interval);
+		int remainder = (int)(scaled % interval);
+		if (context.randomInt.applyAsInt(interval) < remainder)
+		{
+			samples += 1;
+		}
+		return samples;
+	}
+}
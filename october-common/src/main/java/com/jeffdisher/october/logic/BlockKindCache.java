@@ -0,0 +1,175 @@
+package com.jeffdisher.october.logic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.jeffdisher.october.aspects.BlockAspect;
+import com.jeffdisher.october.aspects.Environment;
+import com.jeffdisher.october.aspects.FlagsAspect;
+import com.jeffdisher.october.data.BlockProxy;
+import com.jeffdisher.october.types.AbsoluteLocation;
+import com.jeffdisher.october.types.Block;
+import com.jeffdisher.october.types.EntityLocation;
+import com.jeffdisher.october.types.EntityVolume;
+import com.jeffdisher.october.types.TickProcessingContext;
+
+
+/**
+ * A lazily-populated cache of PathFinder.BlockKind classifications, shared by all the path-finding done within a single
+ * work unit during a single tick (since the underlying block look-up is of the previous tick's state, it can't change).
+ * The classification of a location depends on the blocks an entity would overlap if it were standing there, which only
+ * depends on the "volume class":  The number of blocks spanned in each axis, given the entity's volume and its offset
+ * within its current block.  Entities of different types, or at different offsets, which span the same blocks can
+ * therefore share the same classifications.
+ * Single-block classifications are also cached so that different volume classes don't re-read the same blocks.
+ * NOTE:  This is NOT thread-safe so it must only be used by one thread (which is the case for a work unit).
+ */
+public class BlockKindCache
+{
+	private final TickProcessingContext.IBlockFetcher _previousBlockLookUp;
+	private final BlockAspect _blocks;
+	private final Map<AbsoluteLocation, PathFinder.BlockKind> _singleBlocks;
+	private final Map<_VolumeClass, Map<AbsoluteLocation, PathFinder.BlockKind>> _byVolumeClass;
+
+	/**
+	 * Creates an empty cache on top of the given block look-up.
+	 * 
+	 * @param previousBlockLookUp The look-up for blocks, which must not change over the lifetime of the cache.
+	 */
+	public BlockKindCache(TickProcessingContext.IBlockFetcher previousBlockLookUp)
+	{
+		_previousBlockLookUp = previousBlockLookUp;
+		_blocks = Environment.getShared().blocks;
+		_singleBlocks = new HashMap<>();
+		_byVolumeClass = new HashMap<>();
+	}
+
+	/**
+	 * Returns a look-up function, suitable for use with PathFinder, for an entity of the given volume at the given
+	 * offset within its block.
+	 * 
+	 * @param offsetBias The offset of the entity within its current block.
+	 * @param volume The volume of the entity.
+	 * @return The look-up function backed by this cache.
+	 */
+	public Function<AbsoluteLocation, PathFinder.BlockKind> getLookup(EntityLocation offsetBias, EntityVolume volume)
+	{
+		// The offset bias is always within the block so we can determine the span just by checking it at the origin.
+		List<AbsoluteLocation> relative = VolumeIterator.getAllInVolume(offsetBias, volume);
+		AbsoluteLocation edge = relative.get(relative.size() - 1);
+		_VolumeClass volumeClass = new _VolumeClass(edge.x() + 1, edge.y() + 1, edge.z() + 1);
+		Map<AbsoluteLocation, PathFinder.BlockKind> classified = _byVolumeClass.get(volumeClass);
+		if (null == classified)
+		{
+			classified = new HashMap<>();
+			_byVolumeClass.put(volumeClass, classified);
+		}
+		Map<AbsoluteLocation, PathFinder.BlockKind> cache = classified;
+		return (AbsoluteLocation location) -> {
+			PathFinder.BlockKind kind = cache.get(location);
+			if (null == kind)
+			{
+				kind = _classifyVolume(volumeClass, location);
+				cache.put(location, kind);
+			}
+			return kind;
+		};
+	}
+
+	/**
+	 * @return The number of volume classes which have been requested from this cache (mostly just for testing).
+	 */
+	public int getVolumeClassCount()
+	{
+		return _byVolumeClass.size();
+	}
+
+
+	private PathFinder.BlockKind _classifyVolume(_VolumeClass volumeClass, AbsoluteLocation location)
+	{
+		// Find any blocks we haven't yet classified so we can read them in one batch.
+		List<AbsoluteLocation> missing = new ArrayList<>();
+		for (int z = 0; z < volumeClass.spanZ; ++z)
+		{
+			for (int y = 0; y < volumeClass.spanY; ++y)
+			{
+				for (int x = 0; x < volumeClass.spanX; ++x)
+				{
+					AbsoluteLocation loc = location.getRelative(x, y, z);
+					if (!_singleBlocks.containsKey(loc))
+					{
+						missing.add(loc);
+					}
+				}
+			}
+		}
+		if (!missing.isEmpty())
+		{
+			Map<AbsoluteLocation, BlockProxy> proxies = _previousBlockLookUp.readBlockBatch(missing);
+			for (AbsoluteLocation loc : missing)
+			{
+				_singleBlocks.put(loc, _singleBlock(proxies.get(loc)));
+			}
+		}
+
+		// We default to assuming that the path is walkable, unless we find anything more interesting.
+		PathFinder.BlockKind kind = PathFinder.BlockKind.WALKABLE;
+		for (int z = 0; (z < volumeClass.spanZ) && (PathFinder.BlockKind.SOLID != kind); ++z)
+		{
+			for (int y = 0; (y < volumeClass.spanY) && (PathFinder.BlockKind.SOLID != kind); ++y)
+			{
+				for (int x = 0; (x < volumeClass.spanX) && (PathFinder.BlockKind.SOLID != kind); ++x)
+				{
+					PathFinder.BlockKind sub = _singleBlocks.get(location.getRelative(x, y, z));
+					if (PathFinder.BlockKind.SOLID == sub)
+					{
+						// We saturate to solid (which also ends the loops).
+						kind = sub;
+					}
+					else if (PathFinder.BlockKind.WALKABLE == kind)
+					{
+						// If we are still walkable, switch to whatever this is.
+						kind = sub;
+					}
+				}
+			}
+		}
+		return kind;
+	}
+
+	private PathFinder.BlockKind _singleBlock(BlockProxy proxy)
+	{
+		PathFinder.BlockKind kind;
+		if (null == proxy)
+		{
+			// If we can't find the proxy, we will treat this as solid.
+			kind = PathFinder.BlockKind.SOLID;
+		}
+		else
+		{
+			Block block = proxy.getBlock();
+			boolean isActive = FlagsAspect.isSet(proxy.getFlags(), FlagsAspect.FLAG_ACTIVE);
+			if (_blocks.isSolid(block, isActive))
+			{
+				kind = PathFinder.BlockKind.SOLID;
+			}
+			else if (_blocks.canSwimInBlock(block, isActive))
+			{
+				kind = PathFinder.BlockKind.SWIMMABLE;
+			}
+			else
+			{
+				kind = PathFinder.BlockKind.WALKABLE;
+			}
+		}
+		return kind;
+	}
+
+
+	private static record _VolumeClass(int spanX, int spanY, int spanZ)
+	{
+	}
+}
@@ -20,4 +20,23 @@ public class CreatureIdAssigner
 	{
 		return _next.decrementAndGet();
 	}
+
+	/**
+	 * @return The most recently assigned ID (0 if none have been assigned).
+	 */
+	public int getLastAssigned()
+	{
+		return _next.get();
+	}
+
+	/**
+	 * Sets the most recently assigned ID so that the next ID assigned follows it.  This is only used when replaying a
+	 * recorded session, to give out the same IDs as the session did.
+	 * 
+	 * @param id The ID to treat as the most recently assigned.
+	 */
+	public void setLastAssigned(int id)
+	{
+		_next.set(id);
+	}
 }
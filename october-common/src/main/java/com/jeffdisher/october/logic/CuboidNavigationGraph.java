@@ -0,0 +1,255 @@
+package com.jeffdisher.october.logic;
+
+import com.jeffdisher.october.aspects.AspectRegistry;
+import com.jeffdisher.october.aspects.BlockAspect;
+import com.jeffdisher.october.aspects.Environment;
+import com.jeffdisher.october.aspects.FlagsAspect;
+import com.jeffdisher.october.data.IReadOnlyCuboidData;
+import com.jeffdisher.october.types.Block;
+import com.jeffdisher.october.types.BlockAddress;
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.types.Item;
+import com.jeffdisher.october.utils.Encoding;
+
+
+/**
+ * The abstract navigation summary of a single cuboid, used by HierarchicalPathFinder.
+ * Every non-solid block in the cuboid is assigned to a "region", where a region is a set of non-solid blocks which are
+ * connected to each other through their faces (6-connected), within this cuboid.  Regions in neighbouring cuboids are
+ * connected if any of their blocks touch across the shared cuboid face.
+ * Note that this is intentionally an over-approximation of what an entity can reach since it ignores entity volume,
+ * climbing, and falling rules:  If two blocks are not in connected regions, no path exists between them, but the
+ * reverse is not necessarily true.
+ * Instances are immutable once built so they can be shared between threads and ticks, as long as the cuboid instance
+ * they were built from is unchanged.
+ */
+public class CuboidNavigationGraph
+{
+	/**
+	 * The region number returned for solid blocks (which aren't part of any region).
+	 */
+	public static final short NO_REGION = -1;
+	/**
+	 * The number of blocks in a cuboid.
+	 */
+	public static final int BLOCKS_PER_CUBOID = Encoding.CUBOID_EDGE_SIZE * Encoding.CUBOID_EDGE_SIZE * Encoding.CUBOID_EDGE_SIZE;
+
+	/**
+	 * Builds the navigation graph for the given cuboid.  This reads the BLOCK and FLAGS aspects, via walks of the
+	 * underlying octrees, to determine which blocks are solid.
+	 * 
+	 * @param cuboid The cuboid to summarize.
+	 * @return The navigation graph for the cuboid.
+	 */
+	public static CuboidNavigationGraph build(IReadOnlyCuboidData cuboid)
+	{
+		Environment env = Environment.getShared();
+		BlockAspect blocks = env.blocks;
+		Item[] itemsByType = env.items.ITEMS_BY_TYPE;
+		
+		// First, find which blocks are active, since that can change solidity (doors, for example).
+		boolean[] active = new boolean[BLOCKS_PER_CUBOID];
+		cuboid.walkData(AspectRegistry.FLAGS, (BlockAddress base, byte size, Byte value) -> {
+			if (FlagsAspect.isSet(value, FlagsAspect.FLAG_ACTIVE))
+			{
+				_fill(active, base, size);
+			}
+		}, (byte)0);
+		
+		// Now, find all the solid blocks (air is block 0, which is never solid, so we skip it).
+		boolean[] solid = new boolean[BLOCKS_PER_CUBOID];
+		int[] solidCount = new int[1];
+		cuboid.walkData(AspectRegistry.BLOCK, (BlockAddress base, byte size, Short value) -> {
+			Block block = blocks.fromItem(itemsByType[value]);
+			boolean isSolidInactive = blocks.isSolid(block, false);
+			boolean isSolidActive = blocks.isSolid(block, true);
+			if (isSolidInactive && isSolidActive)
+			{
+				_fill(solid, base, size);
+				solidCount[0] += size * size * size;
+			}
+			else if (isSolidInactive || isSolidActive)
+			{
+				// This depends on the active state so check each block.
+				for (int x = base.x(); x < (base.x() + size); ++x)
+				{
+					for (int y = base.y(); y < (base.y() + size); ++y)
+					{
+						for (int z = base.z(); z < (base.z() + size); ++z)
+						{
+							int index = _index(x, y, z);
+							if (active[index] ? isSolidActive : isSolidInactive)
+							{
+								solid[index] = true;
+								solidCount[0] += 1;
+							}
+						}
+					}
+				}
+			}
+		}, (short)0);
+		
+		CuboidAddress address = cuboid.getCuboidAddress();
+		CuboidNavigationGraph graph;
+		if (0 == solidCount[0])
+		{
+			// The common case of open air is just one region.
+			graph = new CuboidNavigationGraph(address, 1, null);
+		}
+		else if (BLOCKS_PER_CUBOID == solidCount[0])
+		{
+			// The common case of fully solid stone has no regions.
+			graph = new CuboidNavigationGraph(address, 0, null);
+		}
+		else
+		{
+			short[] regions = new short[BLOCKS_PER_CUBOID];
+			int regionCount = _floodFillRegions(regions, solid);
+			graph = new CuboidNavigationGraph(address, regionCount, regions);
+		}
+		return graph;
+	}
+
+
+	private final CuboidAddress _address;
+	private final int _regionCount;
+	// Null if the cuboid is uniform (either all one region or all solid, depending on _regionCount).
+	private final short[] _regions;
+
+	private CuboidNavigationGraph(CuboidAddress address, int regionCount, short[] regions)
+	{
+		_address = address;
+		_regionCount = regionCount;
+		_regions = regions;
+	}
+
+	/**
+	 * @return The address of the cuboid described by this graph.
+	 */
+	public CuboidAddress getAddress()
+	{
+		return _address;
+	}
+
+	/**
+	 * @return The number of distinct regions in the cuboid (0 if the cuboid is entirely solid).
+	 */
+	public int getRegionCount()
+	{
+		return _regionCount;
+	}
+
+	/**
+	 * Returns the region containing the block at the given cuboid-relative coordinates.
+	 * 
+	 * @param x The X coordinate within the cuboid ([0..31]).
+	 * @param y The Y coordinate within the cuboid ([0..31]).
+	 * @param z The Z coordinate within the cuboid ([0..31]).
+	 * @return The region number, or NO_REGION if the block is solid.
+	 */
+	public short getRegion(int x, int y, int z)
+	{
+		short region;
+		if (null != _regions)
+		{
+			region = _regions[_index(x, y, z)];
+		}
+		else
+		{
+			region = (_regionCount > 0) ? 0 : NO_REGION;
+		}
+		return region;
+	}
+
+
+	private static int _index(int x, int y, int z)
+	{
+		return (x << (2 * Encoding.CUBOID_SHIFT)) | (y << Encoding.CUBOID_SHIFT) | z;
+	}
+
+	private static void _fill(boolean[] array, BlockAddress base, byte size)
+	{
+		for (int x = base.x(); x < (base.x() + size); ++x)
+		{
+			for (int y = base.y(); y < (base.y() + size); ++y)
+			{
+				for (int z = base.z(); z < (base.z() + size); ++z)
+				{
+					array[_index(x, y, z)] = true;
+				}
+			}
+		}
+	}
+
+	private static int _floodFillRegions(short[] regions, boolean[] solid)
+	{
+		int edge = Encoding.CUBOID_EDGE_SIZE;
+		int mask = Encoding.BLOCK_ADDRESS_MASK;
+		int shift = Encoding.CUBOID_SHIFT;
+		for (int i = 0; i < regions.length; ++i)
+		{
+			regions[i] = NO_REGION;
+		}
+
+		// We use a primitive stack, since this is hot and a cuboid can't hold more than BLOCKS_PER_CUBOID entries.
+		int[] stack = new int[BLOCKS_PER_CUBOID];
+		short nextRegion = 0;
+		for (int start = 0; start < regions.length; ++start)
+		{
+			if (!solid[start] && (NO_REGION == regions[start]))
+			{
+				short region = nextRegion;
+				nextRegion += 1;
+				int top = 0;
+				regions[start] = region;
+				stack[top] = start;
+				top += 1;
+				while (top > 0)
+				{
+					top -= 1;
+					int index = stack[top];
+					int x = index >> (2 * shift);
+					int y = (index >> shift) & mask;
+					int z = index & mask;
+					// Check each of the 6 neighbours which are inside the cuboid.
+					if (x > 0)
+					{
+						top = _push(regions, solid, stack, top, _index(x - 1, y, z), region);
+					}
+					if (x < (edge - 1))
+					{
+						top = _push(regions, solid, stack, top, _index(x + 1, y, z), region);
+					}
+					if (y > 0)
+					{
+						top = _push(regions, solid, stack, top, _index(x, y - 1, z), region);
+					}
+					if (y < (edge - 1))
+					{
+						top = _push(regions, solid, stack, top, _index(x, y + 1, z), region);
+					}
+					if (z > 0)
+					{
+						top = _push(regions, solid, stack, top, _index(x, y, z - 1), region);
+					}
+					if (z < (edge - 1))
+					{
+						top = _push(regions, solid, stack, top, _index(x, y, z + 1), region);
+					}
+				}
+			}
+		}
+		return nextRegion;
+	}
+
+	private static int _push(short[] regions, boolean[] solid, int[] stack, int top, int index, short region)
+	{
+		if (!solid[index] && (NO_REGION == regions[index]))
+		{
+			regions[index] = region;
+			stack[top] = index;
+			top += 1;
+		}
+		return top;
+	}
+}
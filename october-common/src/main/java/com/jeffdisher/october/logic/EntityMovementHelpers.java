@@ -58,6 +58,10 @@ public class EntityMovementHelpers
 	 * The maximum magnitude of flow to add due to water.
 	 */
 	public static final float MAX_FLOW_VELOCITY_MAGNITUDE = 2.0f;
+	/**
+	 * The environmental vector returned when there is no flow.
+	 */
+	public static final EntityLocation NO_FLOW_VELOCITY = new EntityLocation(0.0f, 0.0f, 0.0f);
 
 	/**
 	 * Finds a path from start, along vectorToMove, using the interactive helper.  This will handle collisions with
@@ -301,7 +305,8 @@ public class EntityMovementHelpers
 		}
 		else
 		{
-			flowVelocity = new EntityLocation(0.0f, 0.0f, 0.0f);
+			// This is the common case so we return a shared instance (since the record is immutable).
+			flowVelocity = NO_FLOW_VELOCITY;
 		}
 		return flowVelocity;
 	}
@@ -319,7 +324,11 @@ public class EntityMovementHelpers
 		float x = _saturateComponentAddition(start.x(), saturatingAddend.x());
 		float y = _saturateComponentAddition(start.y(), saturatingAddend.y());
 		float z = _saturateComponentAddition(start.z(), saturatingAddend.z());
-		return new EntityLocation(x, y, z);
+		// This is usually called with a zero addend so avoid the allocation if nothing changed.
+		return ((0 == Float.compare(x, start.x())) && (0 == Float.compare(y, start.y())) && (0 == Float.compare(z, start.z())))
+			? start
+			: new EntityLocation(x, y, z)
+		;
 	}
 
 
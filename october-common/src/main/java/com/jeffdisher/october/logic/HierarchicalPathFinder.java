@@ -0,0 +1,259 @@
+package com.jeffdisher.october.logic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.jeffdisher.october.types.AbsoluteLocation;
+import com.jeffdisher.october.types.BlockAddress;
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.types.EntityLocation;
+import com.jeffdisher.october.types.TickProcessingContext;
+import com.jeffdisher.october.utils.Encoding;
+
+
+/**
+ * A 2-level path finder layered on top of PathFinder.
+ * It first searches the abstract graph of per-cuboid regions (see CuboidNavigationGraph) to determine if the target can
+ * possibly be reached and, if so, which regions the path could cross.  The block-level PathFinder search then prefers
+ * those regions, so that it doesn't flood into parts of the world which can't lead to the target.
+ * Since the abstract graph over-approximates connectivity, an abstract failure means that no block-level path exists,
+ * so this returns immediately, without searching blocks.  If the target can't be reached within the step limit through
+ * the preferred regions, the same block-level search continues into the rest of the world (rather than starting over),
+ * so a target which is unreachable within the limit costs about as much as it would with PathFinder alone.
+ * Note that a path found through the preferred regions may be longer than the shortest path PathFinder would find.
+ */
+public class HierarchicalPathFinder
+{
+	/**
+	 * Finds the path, in block locations, of every step from source to target, limiting the search distance to the
+	 * given limit of steps.  This has the same interface as PathFinder.findPathWithLimit() and finds a path whenever it
+	 * would, but will consult the navigation graphs, when available, to avoid searching unreachable or irrelevant space
+	 * (the path may not be the shortest one, though, as described in the class comment).
+	 * 
+	 * @param navigation The look-up for cuboid navigation graphs (if null, this is just PathFinder).
+	 * @param blockKind Returns the kind of block at the given location.
+	 * @param source The source location of the entity.
+	 * @param target The target location of the entity.
+	 * @param limitSteps The maximum distance which can be travelled, in units of total blocks.
+	 * @return The path to follow to reach the target, starting with the current location, null if no path exists.
+	 */
+	public static List<AbsoluteLocation> findPathWithLimit(TickProcessingContext.INavigationLookup navigation
+		, Function<AbsoluteLocation, PathFinder.BlockKind> blockKind
+		, EntityLocation source
+		, EntityLocation target
+		, float limitSteps
+	)
+	{
+		List<AbsoluteLocation> path;
+		if (null != navigation)
+		{
+			_AbstractSearch search = new _AbstractSearch(navigation, source.getBlockLocation(), limitSteps);
+			_Node sourceNode = search.nodeFor(source.getBlockLocation());
+			if (null != sourceNode)
+			{
+				Set<_Node> corridor = search.findCorridor(sourceNode, target.getBlockLocation());
+				if (null != corridor)
+				{
+					// Search the corridor first, only continuing outside of it if the target can't be reached that way.
+					path = PathFinder.findPathWithLimitPreferring(blockKind
+						, (AbsoluteLocation location) -> corridor.contains(search.nodeFor(location))
+						, source
+						, target
+						, limitSteps
+					);
+				}
+				else
+				{
+					// There is no abstract connection so there can be no block-level path.
+					path = null;
+				}
+			}
+			else
+			{
+				// We are starting somewhere solid or unloaded so just let the block-level search make the decision.
+				path = PathFinder.findPathWithLimit(blockKind, source, target, limitSteps);
+			}
+		}
+		else
+		{
+			path = PathFinder.findPathWithLimit(blockKind, source, target, limitSteps);
+		}
+		return path;
+	}
+
+
+	private static class _AbstractSearch
+	{
+		private final TickProcessingContext.INavigationLookup _navigation;
+		private final CuboidAddress _minCuboid;
+		private final CuboidAddress _maxCuboid;
+		private final Map<CuboidAddress, CuboidNavigationGraph> _graphs;
+		private final Map<_Node, List<_Node>> _adjacency;
+		
+		public _AbstractSearch(TickProcessingContext.INavigationLookup navigation, AbsoluteLocation source, float limitSteps)
+		{
+			_navigation = navigation;
+			// The cheapest step (falling) costs COST_FALL so this bounds how far a path within the limit can move.
+			int maxTravel = (int)Math.ceil(limitSteps / PathFinder.COST_FALL);
+			_minCuboid = source.getRelative(-maxTravel, -maxTravel, -maxTravel).getCuboidAddress();
+			_maxCuboid = source.getRelative(maxTravel, maxTravel, maxTravel).getCuboidAddress();
+			_graphs = new HashMap<>();
+			_adjacency = new HashMap<>();
+		}
+
+		public _Node nodeFor(AbsoluteLocation location)
+		{
+			CuboidAddress address = location.getCuboidAddress();
+			CuboidNavigationGraph graph = _isInBox(address) ? _getGraph(address) : null;
+			_Node node = null;
+			if (null != graph)
+			{
+				BlockAddress block = location.getBlockAddress();
+				short region = graph.getRegion(block.x(), block.y(), block.z());
+				if (CuboidNavigationGraph.NO_REGION != region)
+				{
+					node = new _Node(address, region);
+				}
+			}
+			return node;
+		}
+
+		public Set<_Node> findCorridor(_Node sourceNode, AbsoluteLocation target)
+		{
+			_Node targetNode = nodeFor(target);
+			Set<_Node> corridor = null;
+			if (null != targetNode)
+			{
+				Map<_Node, Integer> fromSource = _breadthFirst(sourceNode, targetNode);
+				if (fromSource.containsKey(targetNode))
+				{
+					Map<_Node, Integer> fromTarget = _breadthFirst(targetNode, null);
+					int best = fromSource.get(targetNode);
+					corridor = new HashSet<>();
+					// The corridor is every node on any of the shortest abstract paths.
+					for (Map.Entry<_Node, Integer> elt : fromSource.entrySet())
+					{
+						Integer toTarget = fromTarget.get(elt.getKey());
+						if ((null != toTarget) && ((elt.getValue() + toTarget) == best))
+						{
+							corridor.add(elt.getKey());
+						}
+					}
+				}
+			}
+			return corridor;
+		}
+
+		private Map<_Node, Integer> _breadthFirst(_Node start, _Node stopAt)
+		{
+			Map<_Node, Integer> distances = new HashMap<>();
+			Queue<_Node> queue = new LinkedList<>();
+			distances.put(start, 0);
+			queue.add(start);
+			while (!queue.isEmpty())
+			{
+				_Node node = queue.remove();
+				int distance = distances.get(node);
+				if (node.equals(stopAt))
+				{
+					// We only need distances up to the target (BFS means nothing later can be closer).
+					break;
+				}
+				for (_Node next : _getNeighbours(node))
+				{
+					if (!distances.containsKey(next))
+					{
+						distances.put(next, distance + 1);
+						queue.add(next);
+					}
+				}
+			}
+			return distances;
+		}
+
+		private List<_Node> _getNeighbours(_Node node)
+		{
+			List<_Node> neighbours = _adjacency.get(node);
+			if (null == neighbours)
+			{
+				Set<_Node> unique = new HashSet<>();
+				_addAcrossFace(unique, node, 1, 0, 0);
+				_addAcrossFace(unique, node, -1, 0, 0);
+				_addAcrossFace(unique, node, 0, 1, 0);
+				_addAcrossFace(unique, node, 0, -1, 0);
+				_addAcrossFace(unique, node, 0, 0, 1);
+				_addAcrossFace(unique, node, 0, 0, -1);
+				neighbours = new ArrayList<>(unique);
+				_adjacency.put(node, neighbours);
+			}
+			return neighbours;
+		}
+
+		private void _addAcrossFace(Set<_Node> out, _Node node, int dx, int dy, int dz)
+		{
+			CuboidAddress otherAddress = node.address.getRelative(dx, dy, dz);
+			CuboidNavigationGraph other = _isInBox(otherAddress) ? _getGraph(otherAddress) : null;
+			if ((null != other) && (other.getRegionCount() > 0))
+			{
+				CuboidNavigationGraph graph = _getGraph(node.address);
+				int last = Encoding.CUBOID_EDGE_SIZE - 1;
+				// Each face is addressed by (u, v) over the 2 axes which aren't the direction of travel.
+				for (int u = 0; u <= last; ++u)
+				{
+					for (int v = 0; v <= last; ++v)
+					{
+						int x = (0 != dx) ? ((dx > 0) ? last : 0) : u;
+						int y = (0 != dy) ? ((dy > 0) ? last : 0) : ((0 != dx) ? u : v);
+						int z = (0 != dz) ? ((dz > 0) ? last : 0) : v;
+						if (node.region == graph.getRegion(x, y, z))
+						{
+							int otherX = (0 != dx) ? (last - x) : x;
+							int otherY = (0 != dy) ? (last - y) : y;
+							int otherZ = (0 != dz) ? (last - z) : z;
+							short otherRegion = other.getRegion(otherX, otherY, otherZ);
+							if (CuboidNavigationGraph.NO_REGION != otherRegion)
+							{
+								out.add(new _Node(otherAddress, otherRegion));
+							}
+						}
+					}
+				}
+			}
+		}
+
+		private boolean _isInBox(CuboidAddress address)
+		{
+			return (address.x() >= _minCuboid.x()) && (address.x() <= _maxCuboid.x())
+				&& (address.y() >= _minCuboid.y()) && (address.y() <= _maxCuboid.y())
+				&& (address.z() >= _minCuboid.z()) && (address.z() <= _maxCuboid.z())
+			;
+		}
+
+		private CuboidNavigationGraph _getGraph(CuboidAddress address)
+		{
+			CuboidNavigationGraph graph;
+			if (_graphs.containsKey(address))
+			{
+				graph = _graphs.get(address);
+			}
+			else
+			{
+				// Note that we also cache the null (unloaded) case.
+				graph = _navigation.getGraph(address);
+				_graphs.put(address, graph);
+			}
+			return graph;
+		}
+	}
+
+	private static record _Node(CuboidAddress address, short region)
+	{
+	}
+}
@@ -9,6 +9,7 @@ import java.util.Set;
 
 import com.jeffdisher.october.aspects.AspectRegistry;
 import com.jeffdisher.october.aspects.Environment;
+import com.jeffdisher.october.data.BlockTypeIndex;
 import com.jeffdisher.october.data.IOctree;
 import com.jeffdisher.october.data.IReadOnlyCuboidData;
 import com.jeffdisher.october.types.AbsoluteLocation;
@@ -20,6 +21,7 @@ import com.jeffdisher.october.types.ItemSlot;
 import com.jeffdisher.october.types.Items;
 import com.jeffdisher.october.types.NonStackableItem;
 import com.jeffdisher.october.utils.Assert;
+import com.jeffdisher.october.utils.Encoding;
 
 
 /**
@@ -91,6 +93,9 @@ public class MiscHelpers
 	/**
 	 * A utility method used to find the closest instance of a block of type to the given centre location by searching
 	 * the given set of cuboids.
+	 * The cuboids are searched nearest-first, using their block type index to skip any which don't contain the type (or
+	 * to check the known locations directly, if the type is rare in that cuboid), and the search stops once the
+	 * remaining cuboids are too far away to contain anything closer.
 	 * 
 	 * @param cuboids The cuboids to search.
 	 * @param centre Find the closest block to this centre of the search area.
@@ -99,40 +104,44 @@ public class MiscHelpers
 	 */
 	public static AbsoluteLocation findClosestBlock(Set<IReadOnlyCuboidData> cuboids, AbsoluteLocation centre, Block type)
 	{
-		AbsoluteLocation[] outParam = new AbsoluteLocation[1];
-		AbsoluteLocation[] cuboidBase = new AbsoluteLocation[1];
-		
 		short blockToMatch = type.item().number();
-		IOctree.IWalkerCallback<Short> walker = new IOctree.IWalkerCallback<>() {
-			int squareDistance = Integer.MAX_VALUE;
-			@Override
-			public void visit(BlockAddress base, byte size, Short value)
+		_ClosestSearch search = new _ClosestSearch(centre, blockToMatch);
+		
+		// Sort the cuboids by the closest any of their blocks could be.
+		byte cuboidSize = (byte)Encoding.CUBOID_EDGE_SIZE;
+		List<IReadOnlyCuboidData> sorted = new ArrayList<>(cuboids);
+		Map<IReadOnlyCuboidData, Integer> nearestSquareDistance = new HashMap<>();
+		for (IReadOnlyCuboidData cuboid : sorted)
+		{
+			AbsoluteLocation nearest = _getClosest(centre, cuboid.getCuboidAddress().getBase(), cuboidSize);
+			nearestSquareDistance.put(cuboid, _squareDistance(centre, nearest));
+		}
+		sorted.sort((IReadOnlyCuboidData one, IReadOnlyCuboidData two) -> Integer.compare(nearestSquareDistance.get(one), nearestSquareDistance.get(two)));
+		
+		// We need to skip something so just make it the next value.
+		short valueToSkip = (short)(blockToMatch + 1);
+		for (int i = 0; (i < sorted.size()) && (nearestSquareDistance.get(sorted.get(i)) < search.squareDistance); ++i)
+		{
+			IReadOnlyCuboidData cuboid = sorted.get(i);
+			BlockTypeIndex index = cuboid.getBlockTypeIndex();
+			if (index.getCount(blockToMatch) > 0)
 			{
-				if (blockToMatch == value)
+				search.cuboidBase = cuboid.getCuboidAddress().getBase();
+				Set<BlockAddress> addresses = index.getAddressesIfRare(blockToMatch);
+				if (null != addresses)
 				{
-					AbsoluteLocation absoluteBase = cuboidBase[0].relativeForBlock(base);
-					AbsoluteLocation inBase = _getClosest(centre, absoluteBase, size);
-					int deltaX = centre.x() - inBase.x();
-					int deltaY = centre.y() - inBase.y();
-					int deltaZ = centre.z() - inBase.z();
-					int thisDistance = deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ;
-					if (thisDistance < squareDistance)
+					for (BlockAddress address : addresses)
 					{
-						squareDistance = thisDistance;
-						outParam[0] = inBase;
+						search.consider(search.cuboidBase.relativeForBlock(address));
 					}
 				}
+				else
+				{
+					cuboid.walkData(AspectRegistry.BLOCK, search, valueToSkip);
+				}
 			}
-		};
-		
-		// We need to skip something so just make it the next value.
-		short valueToSkip = (short)(blockToMatch + 1);
-		for (IReadOnlyCuboidData cuboid : cuboids)
-		{
-			cuboidBase[0] = cuboid.getCuboidAddress().getBase();
-			cuboid.walkData(AspectRegistry.BLOCK, walker, valueToSkip);
 		}
-		return outParam[0];
+		return search.closest;
 	}
 
 
@@ -168,4 +177,49 @@ public class MiscHelpers
 		}
 		return in;
 	}
+
+	private static int _squareDistance(AbsoluteLocation centre, AbsoluteLocation location)
+	{
+		int deltaX = centre.x() - location.x();
+		int deltaY = centre.y() - location.y();
+		int deltaZ = centre.z() - location.z();
+		return deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ;
+	}
+
+
+	private static class _ClosestSearch implements IOctree.IWalkerCallback<Short>
+	{
+		private final AbsoluteLocation _centre;
+		private final short _blockToMatch;
+		public AbsoluteLocation cuboidBase;
+		public AbsoluteLocation closest;
+		public int squareDistance;
+		
+		public _ClosestSearch(AbsoluteLocation centre, short blockToMatch)
+		{
+			_centre = centre;
+			_blockToMatch = blockToMatch;
+			this.squareDistance = Integer.MAX_VALUE;
+		}
+		
+		@Override
+		public void visit(BlockAddress base, byte size, Short value)
+		{
+			if (_blockToMatch == value)
+			{
+				AbsoluteLocation absoluteBase = this.cuboidBase.relativeForBlock(base);
+				this.consider(_getClosest(_centre, absoluteBase, size));
+			}
+		}
+		
+		public void consider(AbsoluteLocation location)
+		{
+			int thisDistance = _squareDistance(_centre, location);
+			if (thisDistance < this.squareDistance)
+			{
+				this.squareDistance = thisDistance;
+				this.closest = location;
+			}
+		}
+	}
 }
@@ -0,0 +1,65 @@
+package com.jeffdisher.october.logic;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.jeffdisher.october.data.IReadOnlyCuboidData;
+import com.jeffdisher.october.types.CuboidAddress;
+
+
+/**
+ * A long-lived cache of CuboidNavigationGraph instances, keyed by cuboid address.
+ * Since cuboids are copy-on-write (any change produces a new IReadOnlyCuboidData instance), each cached graph is tagged
+ * with the cuboid instance it was built from and is rebuilt, lazily, whenever it is requested for a different instance.
+ * This is safe to access concurrently from multiple tick threads:  Races between threads can only result in redundant
+ * builds of the same graph, never in an inconsistent one.
+ * The owner is expected to call retainOnly() between ticks so that the graphs of unloaded cuboids are released.
+ */
+public class NavigationGraphCache
+{
+	private final Map<CuboidAddress, _Entry> _graphs = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the navigation graph for the given cuboid, building it if it isn't cached or was built from a different
+	 * version of the cuboid.
+	 * 
+	 * @param cuboid The cuboid to summarize.
+	 * @return The navigation graph for this exact cuboid instance.
+	 */
+	public CuboidNavigationGraph getGraph(IReadOnlyCuboidData cuboid)
+	{
+		CuboidAddress address = cuboid.getCuboidAddress();
+		_Entry entry = _graphs.get(address);
+		if ((null == entry) || (entry.cuboid != cuboid))
+		{
+			entry = new _Entry(cuboid, CuboidNavigationGraph.build(cuboid));
+			_graphs.put(address, entry);
+		}
+		return entry.graph;
+	}
+
+	/**
+	 * Drops any cached graphs for cuboids which aren't in the given set of loaded cuboid addresses.
+	 * This must NOT be called concurrently with getGraph() (typically, it is called between ticks).
+	 * 
+	 * @param loadedCuboids The addresses of the cuboids which are still loaded.
+	 */
+	public void retainOnly(Set<CuboidAddress> loadedCuboids)
+	{
+		_graphs.keySet().retainAll(loadedCuboids);
+	}
+
+	/**
+	 * @return The number of graphs currently cached.
+	 */
+	public int size()
+	{
+		return _graphs.size();
+	}
+
+
+	private static record _Entry(IReadOnlyCuboidData cuboid, CuboidNavigationGraph graph)
+	{
+	}
+}
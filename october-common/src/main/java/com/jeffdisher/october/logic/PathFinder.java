@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import com.jeffdisher.october.types.AbsoluteLocation;
 import com.jeffdisher.october.types.EntityLocation;
@@ -58,7 +59,7 @@ public class PathFinder
 				+ Math.abs(source.z() - target.z())
 		;
 		float limit = 2 * manhattan;
-		return _findPathWithLimit(blockKind, source, target, limit);
+		return _findPathWithLimit(blockKind, null, source, target, limit);
 	}
 
 	/**
@@ -73,7 +74,32 @@ public class PathFinder
 	 */
 	public static List<AbsoluteLocation> findPathWithLimit(Function<AbsoluteLocation, BlockKind> blockKind, EntityLocation source, EntityLocation target, float limitSteps)
 	{
-		return _findPathWithLimit(blockKind, source, target, limitSteps);
+		return _findPathWithLimit(blockKind, null, source, target, limitSteps);
+	}
+
+	/**
+	 * Like findPathWithLimit() but the search is first confined to the locations accepted by preferred.  Only if the
+	 * target can't be reached that way are the other locations, which were passable and within the limit, added back to
+	 * continue the same search (which can then also find shorter ways to locations already visited).  This means that a
+	 * path found in the preferred locations is returned without searching anything else, and that a target which can't
+	 * be reached at all costs roughly one unrestricted search, not two.
+	 * Note that a path found only using preferred locations may be longer than the path findPathWithLimit() would find.
+	 * 
+	 * @param blockKind Returns the kind of block at the given location.
+	 * @param preferred Returns true for locations which should be searched first.
+	 * @param source The source location of the entity.
+	 * @param target The target location of the entity.
+	 * @param limitSteps The maximum distance which can be travelled, in units of total blocks.
+	 * @return The path to follow to reach the target, starting with the current location, null if no path exists.
+	 */
+	public static List<AbsoluteLocation> findPathWithLimitPreferring(Function<AbsoluteLocation, BlockKind> blockKind
+		, Predicate<AbsoluteLocation> preferred
+		, EntityLocation source
+		, EntityLocation target
+		, float limitSteps
+	)
+	{
+		return _findPathWithLimit(blockKind, preferred, source, target, limitSteps);
 	}
 
 	/**
@@ -104,6 +130,7 @@ public class PathFinder
 		// This will populate the walkBackward map
 		_populateWalkbackMap(walkBackward
 			, blockKind
+			, null
 			, source
 			, null
 			, limitSteps
@@ -127,13 +154,14 @@ public class PathFinder
 		;
 	}
 
-	private static List<AbsoluteLocation> _findPathWithLimit(Function<AbsoluteLocation, BlockKind> blockKind, EntityLocation entitySource, EntityLocation entityTarget, float limit)
+	private static List<AbsoluteLocation> _findPathWithLimit(Function<AbsoluteLocation, BlockKind> blockKind, Predicate<AbsoluteLocation> preferredOrNull, EntityLocation entitySource, EntityLocation entityTarget, float limit)
 	{
 		// Key is destination.
 		Map<AbsoluteLocation, AbsoluteLocation> walkBackward = new HashMap<>();
 		// This will populate the walkBackward map and return the final spot for entityTarget, assuming it could be reached.
 		Spot targetSpot = _populateWalkbackMap(walkBackward
 			, blockKind
+			, preferredOrNull
 			, entitySource
 			, entityTarget
 			, limit
@@ -159,6 +187,7 @@ public class PathFinder
 
 	private static Spot _populateWalkbackMap(Map<AbsoluteLocation, AbsoluteLocation> walkBackward
 		, Function<AbsoluteLocation, BlockKind> blockKind
+		, Predicate<AbsoluteLocation> preferredOrNull
 		, EntityLocation entitySource
 		, EntityLocation entityTarget
 		, float limit
@@ -189,6 +218,17 @@ public class PathFinder
 		});
 		walkBackward.put(start, null);
 		
+		// When searching preferred locations first, we hold back the steps into other locations and track the distance
+		// to everything so that, once we add those steps back, they can replace longer ways to locations already seen.
+		_Deferral deferral = (null != preferredOrNull)
+			? new _Deferral(preferredOrNull, new HashMap<>(), new ArrayList<>())
+			: null
+		;
+		if (null != deferral)
+		{
+			deferral.distances.put(start, initialDistance);
+		}
+		
 		// We only want to start this if the starting location isn't solid.
 		if (BlockKind.SOLID != blockKind.apply(start))
 		{
@@ -203,6 +243,10 @@ public class PathFinder
 			{
 				targetSpot = spot;
 			}
+			else if ((null != deferral) && (spot.distance > deferral.distances.get(spot.location)))
+			{
+				// This is a stale entry since we later found a shorter way here.
+			}
 			else
 			{
 				// We aren't yet at the target so check the spaces around us.
@@ -229,41 +273,73 @@ public class PathFinder
 					if (allowWest)
 					{
 						AbsoluteLocation west = spotLocation.getRelative(-1, 0, 0);
-						_tryAddSpot(walkBackward, workQueue, blockKind, limit, spot, west, COST_STEP_FLAT);
+						_tryAddSpot(walkBackward, workQueue, blockKind, deferral, limit, spot, west, COST_STEP_FLAT);
 					}
 					if (allowEast)
 					{
 						AbsoluteLocation east = spotLocation.getRelative(1, 0, 0);
-						_tryAddSpot(walkBackward, workQueue, blockKind, limit, spot, east, COST_STEP_FLAT);
+						_tryAddSpot(walkBackward, workQueue, blockKind, deferral, limit, spot, east, COST_STEP_FLAT);
 					}
 					if (allowSouth)
 					{
 						AbsoluteLocation south = spotLocation.getRelative(0, -1, 0);
-						_tryAddSpot(walkBackward, workQueue, blockKind, limit, spot, south, COST_STEP_FLAT);
+						_tryAddSpot(walkBackward, workQueue, blockKind, deferral, limit, spot, south, COST_STEP_FLAT);
 					}
 					if (allowNorth)
 					{
 						AbsoluteLocation north = spotLocation.getRelative(0, 1, 0);
-						_tryAddSpot(walkBackward, workQueue, blockKind, limit, spot, north, COST_STEP_FLAT);
+						_tryAddSpot(walkBackward, workQueue, blockKind, deferral, limit, spot, north, COST_STEP_FLAT);
 					}
 				}
 				// If we are currently in swimmable block, that means we can still "jump" (swim) up.
 				if (!isStandingOnAir || isSwimmable)
 				{
 					AbsoluteLocation up = spotLocation.getRelative(0, 0, 1);
-					_tryAddSpot(walkBackward, workQueue, blockKind, limit, spot, up, COST_CLIMB);
+					_tryAddSpot(walkBackward, workQueue, blockKind, deferral, limit, spot, up, COST_CLIMB);
+				}
+				_tryAddSpot(walkBackward, workQueue, blockKind, deferral, limit, spot, down, COST_FALL);
+			}
+			
+			if ((null == targetSpot) && workQueue.isEmpty() && (null != deferral) && !deferral.heldBack.isEmpty())
+			{
+				// We couldn't reach the target through the preferred locations so continue the search without restriction.
+				List<_HeldBack> heldBack = deferral.heldBack;
+				deferral = new _Deferral(null, deferral.distances, List.of());
+				for (_HeldBack step : heldBack)
+				{
+					_addOrImprove(walkBackward, workQueue, deferral, step.from, step.spot);
 				}
-				_tryAddSpot(walkBackward, workQueue, blockKind, limit, spot, down, COST_FALL);
 			}
 		}
 		return targetSpot;
 	}
 
 
-	private static void _tryAddSpot(Map<AbsoluteLocation, AbsoluteLocation> walkBackward, PriorityQueue<Spot> workQueue, Function<AbsoluteLocation, BlockKind> blockKind, float limit, Spot start, AbsoluteLocation target, float scoreToAdd)
+	private static void _tryAddSpot(Map<AbsoluteLocation, AbsoluteLocation> walkBackward, PriorityQueue<Spot> workQueue, Function<AbsoluteLocation, BlockKind> blockKind, _Deferral deferral, float limit, Spot start, AbsoluteLocation target, float scoreToAdd)
 	{
+		if (null != deferral)
+		{
+			// We are tracking distances so we also accept shorter ways to locations we have already reached.
+			float newDistance = start.distance + scoreToAdd;
+			Float existing = deferral.distances.get(target);
+			if (((null == existing) || (newDistance < existing))
+				&& (newDistance <= limit)
+				&& (BlockKind.SOLID != blockKind.apply(target))
+			)
+			{
+				Spot newStep = new Spot(target, newDistance);
+				if ((null == deferral.preferred) || deferral.preferred.test(target))
+				{
+					_addOrImprove(walkBackward, workQueue, deferral, start.location, newStep);
+				}
+				else
+				{
+					deferral.heldBack.add(new _HeldBack(start.location, newStep));
+				}
+			}
+		}
 		// Make sure that we haven't already reached this desintation via an earlier path.
-		if (!walkBackward.containsKey(target))
+		else if (!walkBackward.containsKey(target))
 		{
 			// Make sure that we can fit here.
 			if (BlockKind.SOLID != blockKind.apply(target))
@@ -299,7 +375,31 @@ public class PathFinder
 		SWIMMABLE,
 	}
 
+	private static void _addOrImprove(Map<AbsoluteLocation, AbsoluteLocation> walkBackward, PriorityQueue<Spot> workQueue, _Deferral deferral, AbsoluteLocation from, Spot step)
+	{
+		// Held back steps may have been overtaken by the time they are added so check the distance again.
+		Float existing = deferral.distances.get(step.location);
+		if ((null == existing) || (step.distance < existing))
+		{
+			walkBackward.put(step.location, from);
+			deferral.distances.put(step.location, step.distance);
+			workQueue.add(step);
+		}
+	}
+
+
 	private record Spot(AbsoluteLocation location, float distance)
 	{
 	}
+
+	private static record _Deferral(Predicate<AbsoluteLocation> preferred
+		, Map<AbsoluteLocation, Float> distances
+		, List<_HeldBack> heldBack
+	)
+	{
+	}
+
+	private static record _HeldBack(AbsoluteLocation from, Spot spot)
+	{
+	}
 }
@@ -1,10 +1,37 @@
 package com.jeffdisher.october.logic;
 
+import java.lang.management.ManagementFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import com.jeffdisher.october.types.CreatureEntity;
+import com.jeffdisher.october.types.MutableCreature;
+import com.sun.management.ThreadMXBean;
+
 
 public class ProcessorElement
 {
+	// The JDK's own ThreadMXBean, which exposes per-thread allocation counters (null if this JVM doesn't provide it).
+	private static final ThreadMXBean THREAD_BEAN = (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean)
+		? (ThreadMXBean) ManagementFactory.getThreadMXBean()
+		: null
+	;
+
+	/**
+	 * Returns the number of bytes allocated by the calling thread, over its lifetime, if the JVM supports this
+	 * measurement (returns 0 if not supported).  This is only used for allocation statistics.
+	 * 
+	 * @return The number of bytes allocated by the calling thread.
+	 */
+	public static long currentThreadAllocatedBytes()
+	{
+		long bytes = 0L;
+		if ((null != THREAD_BEAN) && THREAD_BEAN.isThreadAllocatedMemorySupported() && THREAD_BEAN.isThreadAllocatedMemoryEnabled())
+		{
+			bytes = THREAD_BEAN.getCurrentThreadAllocatedBytes();
+		}
+		return bytes;
+	}
+
 	public final int id;
 
 	// Internal variable related to parallel executor synchronization.
@@ -15,14 +42,23 @@ public class ProcessorElement
 	private int _nextWorkUnit;
 	private long _startParallelNanos;
 
+	// A per-thread wrapper which is reloaded for each creature processed by this thread (so it can't be retained).
+	private MutableCreature _reusableCreature;
+
 	// Public variables related to per-thread tick execution statistics.
 	public int playersProcessed;
 	public int playerActionsProcessed;
 	public long nanosInEnginePlayers;
+	public long bytesAllocatedInEnginePlayers;
 
 	public int creaturesProcessed;
 	public int creatureActionsProcessed;
 	public long nanosInEngineCreatures;
+	public long bytesAllocatedInEngineCreatures;
+	public int creaturesAtFullDetail;
+	public int creaturesAtReducedDetail;
+	public int creaturesAtSleepingDetail;
+	public int creaturesSkipped;
 
 	public int passivesProcessed;
 	public int passiveActionsProcessed;
@@ -88,6 +124,26 @@ public class ProcessorElement
 		return (_nextWorkUnit == _lastWorkUnit);
 	}
 
+	/**
+	 * Loads the given creature into the per-thread MutableCreature and returns it.  The same instance is returned for
+	 * every call on this thread so it must not be retained after the creature is frozen.
+	 * 
+	 * @param creature The creature to load.
+	 * @return The per-thread mutable wrapper, now loaded with creature.
+	 */
+	public MutableCreature loadReusableCreature(CreatureEntity creature)
+	{
+		if (null == _reusableCreature)
+		{
+			_reusableCreature = MutableCreature.existing(creature);
+		}
+		else
+		{
+			_reusableCreature.reload(creature);
+		}
+		return _reusableCreature;
+	}
+
 	public PerThreadStats consumeAndResetStats()
 	{
 		long endParallelNanos = System.nanoTime();
@@ -97,10 +153,16 @@ public class ProcessorElement
 			, this.playersProcessed
 			, this.playerActionsProcessed
 			, this.nanosInEnginePlayers
+			, this.bytesAllocatedInEnginePlayers
 			
 			, this.creaturesProcessed
 			, this.creatureActionsProcessed
 			, this.nanosInEngineCreatures
+			, this.bytesAllocatedInEngineCreatures
+			, this.creaturesAtFullDetail
+			, this.creaturesAtReducedDetail
+			, this.creaturesAtSleepingDetail
+			, this.creaturesSkipped
 			
 			, this.passivesProcessed
 			, this.passiveActionsProcessed
@@ -119,10 +181,16 @@ public class ProcessorElement
 		this.playersProcessed = 0;
 		this.playerActionsProcessed = 0;
 		this.nanosInEnginePlayers = 0L;
+		this.bytesAllocatedInEnginePlayers = 0L;
 		
 		this.creaturesProcessed = 0;
 		this.creatureActionsProcessed = 0;
 		this.nanosInEngineCreatures = 0L;
+		this.bytesAllocatedInEngineCreatures = 0L;
+		this.creaturesAtFullDetail = 0;
+		this.creaturesAtReducedDetail = 0;
+		this.creaturesAtSleepingDetail = 0;
+		this.creaturesSkipped = 0;
 		
 		this.passivesProcessed = 0;
 		this.passiveActionsProcessed = 0;
@@ -148,10 +216,16 @@ public class ProcessorElement
 		, int playersProcessed
 		, int playerActionsProcessed
 		, long nanosInEnginePlayers
+		, long bytesAllocatedInEnginePlayers
 		
 		, int creaturesProcessed
 		, int creatureActionsProcessed
 		, long nanosInEngineCreatures
+		, long bytesAllocatedInEngineCreatures
+		, int creaturesAtFullDetail
+		, int creaturesAtReducedDetail
+		, int creaturesAtSleepingDetail
+		, int creaturesSkipped
 		
 		, int passivesProcessed
 		, int passiveActionsProcessed
@@ -10,7 +10,6 @@ import com.jeffdisher.october.types.CreatureEntity;
 import com.jeffdisher.october.types.Entity;
 import com.jeffdisher.october.types.EntityLocation;
 import com.jeffdisher.october.types.EntityVolume;
-import com.jeffdisher.october.types.FixedRegion;
 import com.jeffdisher.october.utils.Assert;
 
 
@@ -115,57 +114,20 @@ public class RayCastHelpers
 	 */
 	public static int findFirstCollisionInCollection(Environment env, EntityLocation start, EntityLocation end, EntityCollection entities)
 	{
-		// We will check each entity for intersections with the ray and AABB using the common "Slab Method".
-		// Good summary found here:  https://en.wikipedia.org/wiki/Slab_method
-		
-		// First, get the set of entities which we could possibly intersect.
-		List<_PartialEntity> closeEntities = new ArrayList<>();
-		EntityVolume playerVolume = env.creatures.PLAYER.volume();
+		// We will check each entity for intersections with the ray and AABB using the common "Slab Method", applying the
+		// test directly to each entity we walk so that we don't need to collect the candidates.
+		// Good summary of the slab method found here:  https://en.wikipedia.org/wiki/Slab_method
 		EntityLocation base = new EntityLocation(Math.min(start.x(), end.x()), Math.min(start.y(), end.y()), Math.min(start.z(), end.z()));
 		EntityLocation edge = new EntityLocation(Math.max(start.x(), end.x()), Math.max(start.y(), end.y()), Math.max(start.z(), end.z()));
+		_ClosestHit closest = new _ClosestHit(start, end);
+		EntityVolume playerVolume = env.creatures.PLAYER.volume();
 		entities.walkAlignedEntityIntersections(base, edge, (Entity entity) -> {
-			closeEntities.add(new _PartialEntity(entity.id(), entity.location(), playerVolume));
+			closest.check(entity.id(), entity.location(), playerVolume);
 		});
 		entities.walkAlignedCreatureIntersections(base, edge, (CreatureEntity creature) -> {
-			closeEntities.add(new _PartialEntity(creature.id(), creature.location(), creature.type().volume()));
+			closest.check(creature.id(), creature.location(), creature.type().volume());
 		});
-		
-		// Extract the axis-aligned components of the ray.
-		// (we will handle the axis-parallel rays as special-cases)
-		boolean isFixedX = (end.x() == start.x());
-		boolean isFixedY = (end.y() == start.y());
-		boolean isFixedZ = (end.z() == start.z());
-		float compX = isFixedX
-				? start.x()
-				: end.x() - start.x()
-		;
-		float compY = isFixedY
-				? start.y()
-				: end.y() - start.y()
-		;
-		float compZ = isFixedZ
-				? start.z()
-				: end.z() - start.z()
-		;
-		
-		int closeId = 0;
-		float distance = Float.MAX_VALUE;
-		for (_PartialEntity partial : closeEntities)
-		{
-			float close = _findDistanceToIntersect(start, partial.base, partial.volume
-					, isFixedX, compX
-					, isFixedY, compY
-					, isFixedZ, compZ
-			);
-			
-			if (close < distance)
-			{
-				closeId = partial.id;
-				distance = close;
-			}
-		}
-		
-		return closeId;
+		return closest.closeId;
 	}
 
 
@@ -340,77 +302,115 @@ public class RayCastHelpers
 		return builder.build(collisionAxis, path, thisStep, lastFalse, rayDistance);
 	}
 
-	private static float _findDistanceToIntersect(EntityLocation start, EntityLocation base, EntityVolume volume, boolean isFixedX, float compX, boolean isFixedY, float compY, boolean isFixedZ, float compZ)
+
+	// Checks a single ray against a single bounding box using the slab method, returning the squared distance from the
+	// start of the ray to the box, or Float.MAX_VALUE if the ray doesn't hit it.
+	private static float _hitDistanceSquared(float startX, float startY, float startZ
+			, float endX, float endY, float endZ
+			, float west, float east
+			, float south, float north
+			, float down, float up
+	)
 	{
-		FixedRegion region = FixedRegion.fromBaseAndVolume(base, volume);
-		float west = region.westX;
-		float east = region.eastX;
-		float south = region.southY;
-		float north = region.northY;
-		float bottom = region.downZ;
-		float top = region.upZ;
+		// Skip anything outside of this ray's bounding box (the spatial index walk may be coarser than the ray).
+		if ((east < Math.min(startX, endX)) || (west > Math.max(startX, endX))
+				|| (north < Math.min(startY, endY)) || (south > Math.max(startY, endY))
+				|| (up < Math.min(startZ, endZ)) || (down > Math.max(startZ, endZ))
+		)
+		{
+			return Float.MAX_VALUE;
+		}
 		
-		// We will calculate the t-values relative to the end of the vector so any match will be when all axes have t values in [0..1].
-		float closeX = -Float.MAX_VALUE;
-		float farX;
+		// Extract the axis-aligned components of the ray.
+		// (we will handle the axis-parallel rays as special-cases)
+		boolean isFixedX = (endX == startX);
+		boolean isFixedY = (endY == startY);
+		boolean isFixedZ = (endZ == startZ);
+		float compX = endX - startX;
+		float compY = endY - startY;
+		float compZ = endZ - startZ;
+		
+		// We calculate the t-values relative to the end of the vector so any match will be when all axes have t values in [0..1].
+		float closeT = -Float.MAX_VALUE;
+		float farT = Float.MAX_VALUE;
 		if (isFixedX)
 		{
-			farX = ((west <= compX) && (compX <= east))
-				? Float.MAX_VALUE
-				: -Float.MAX_VALUE
-			;
+			if ((startX < west) || (startX > east))
+			{
+				farT = -Float.MAX_VALUE;
+			}
 		}
 		else
 		{
-			float txLow = (west - start.x()) / compX;
-			float txHigh = (east - start.x()) / compX;
-			closeX = Math.min(txLow, txHigh);
-			farX = Math.max(txLow, txHigh);
+			float low = (west - startX) / compX;
+			float high = (east - startX) / compX;
+			closeT = Math.max(closeT, Math.min(low, high));
+			farT = Math.min(farT, Math.max(low, high));
 		}
-		float closeY = -Float.MAX_VALUE;
-		float farY;
 		if (isFixedY)
 		{
-			farY = ((south <= compY) && (compY <= north))
-				? Float.MAX_VALUE
-				: -Float.MAX_VALUE
-			;
+			if ((startY < south) || (startY > north))
+			{
+				farT = -Float.MAX_VALUE;
+			}
 		}
 		else
 		{
-			float tyLow = (south - start.y()) / compY;
-			float tyHigh = (north - start.y()) / compY;
-			closeY = Math.min(tyLow, tyHigh);
-			farY = Math.max(tyLow, tyHigh);
+			float low = (south - startY) / compY;
+			float high = (north - startY) / compY;
+			closeT = Math.max(closeT, Math.min(low, high));
+			farT = Math.min(farT, Math.max(low, high));
 		}
-		float closeZ = -Float.MAX_VALUE;
-		float farZ;
 		if (isFixedZ)
 		{
-			farZ = ((bottom <= compZ) && (compZ <= top))
-				? Float.MAX_VALUE
-				: -Float.MAX_VALUE
-			;
+			if ((startZ < down) || (startZ > up))
+			{
+				farT = -Float.MAX_VALUE;
+			}
 		}
 		else
 		{
-			float tzLow = (bottom - start.z()) / compZ;
-			float tzHigh = (top - start.z()) / compZ;
-			closeZ = Math.min(tzLow, tzHigh);
-			farZ = Math.max(tzLow, tzHigh);
+			float low = (down - startZ) / compZ;
+			float high = (up - startZ) / compZ;
+			closeT = Math.max(closeT, Math.min(low, high));
+			farT = Math.min(farT, Math.max(low, high));
 		}
 		
-		float close = Math.max(closeX, Math.max(closeY, closeZ));
-		float far = Math.min(farX, Math.min(farY, farZ));
-		
 		// We assume that we collided if:
 		// -the "close" is less than "far" (since these will be inverted if we failed to collide on any axis)
 		// -the "close" is a positive number (since otherwise we started "inside" the volume)
-		// NOTE:  "close" is not the physical distance, but a proportional one, so actually calculate the distance.
-		return ((close <= far) && (close >= 0.0f))
-				? SpatialHelpers.distanceFromLocationToRegion(start, region)
-				: Float.MAX_VALUE
-		;
+		float distanceSquared;
+		if ((closeT <= farT) && (closeT >= 0.0f))
+		{
+			// "close" is not the physical distance, but a proportional one, so find the distance to the bounding box.
+			float dx = _distanceOutside(startX, west, east);
+			float dy = _distanceOutside(startY, south, north);
+			float dz = _distanceOutside(startZ, down, up);
+			distanceSquared = (dx * dx) + (dy * dy) + (dz * dz);
+		}
+		else
+		{
+			distanceSquared = Float.MAX_VALUE;
+		}
+		return distanceSquared;
+	}
+
+	private static float _distanceOutside(float value, float low, float high)
+	{
+		float distance;
+		if (value < low)
+		{
+			distance = low - value;
+		}
+		else if (value > high)
+		{
+			distance = value - high;
+		}
+		else
+		{
+			distance = 0.0f;
+		}
+		return distance;
 	}
 
 
@@ -449,5 +449,35 @@ public class RayCastHelpers
 		);
 	}
 
-	private static record _PartialEntity(int id, EntityLocation base, EntityVolume volume) {}
+	private static class _ClosestHit
+	{
+		private final EntityLocation _start;
+		private final EntityLocation _end;
+		// IDs are never 0 so that is how we represent "nothing".
+		public int closeId;
+		private float _closeDistanceSquared;
+		
+		public _ClosestHit(EntityLocation start, EntityLocation end)
+		{
+			_start = start;
+			_end = end;
+			this.closeId = 0;
+			_closeDistanceSquared = Float.MAX_VALUE;
+		}
+		
+		public void check(int id, EntityLocation location, EntityVolume volume)
+		{
+			float distanceSquared = _hitDistanceSquared(_start.x(), _start.y(), _start.z()
+					, _end.x(), _end.y(), _end.z()
+					, location.x(), location.x() + volume.width()
+					, location.y(), location.y() + volume.width()
+					, location.z(), location.z() + volume.height()
+			);
+			if (distanceSquared < _closeDistanceSquared)
+			{
+				this.closeId = id;
+				_closeDistanceSquared = distanceSquared;
+			}
+		}
+	}
 }
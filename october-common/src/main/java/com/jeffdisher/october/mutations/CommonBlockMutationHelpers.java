@@ -1,6 +1,7 @@
 package com.jeffdisher.october.mutations;
 
 import java.util.List;
+import java.util.function.Function;
 
 import com.jeffdisher.october.actions.EntityActionStoreToInventory;
 import com.jeffdisher.october.aspects.Environment;
@@ -49,7 +50,29 @@ public class CommonBlockMutationHelpers
 	 */
 	public static Block determineEmptyBlockType(TickProcessingContext context, AbsoluteLocation location, Block currentBlock)
 	{
-		return _determineEmptyBlockType(context, location, currentBlock);
+		return determineEmptyBlockType((AbsoluteLocation neighbour) -> _getBlockOrNull(context, neighbour), location, currentBlock);
+	}
+
+	/**
+	 * The same as the other determineEmptyBlockType() but reads the surrounding blocks through the given blockReader,
+	 * for callers which already have a cheaper way to read the previous tick's blocks.
+	 * 
+	 * @param blockReader Returns the block at a location as of the previous tick (null if not loaded).
+	 * @param location The location to investigate.
+	 * @param currentBlock The current block contents (not read from blockReader since it could be changing in caller).
+	 * @return The block type which the surrounding blocks imply the location should become.
+	 */
+	public static Block determineEmptyBlockType(Function<AbsoluteLocation, Block> blockReader, AbsoluteLocation location, Block currentBlock)
+	{
+		Environment env = Environment.getShared();
+		Block east = blockReader.apply(location.getRelative(1, 0, 0));
+		Block west = blockReader.apply(location.getRelative(-1, 0, 0));
+		Block north = blockReader.apply(location.getRelative(0, 1, 0));
+		Block south = blockReader.apply(location.getRelative(0, -1, 0));
+		Block up = blockReader.apply(location.getRelative(0, 0, 1));
+		Block down = blockReader.apply(location.getRelative(0, 0, -1));
+		
+		return env.liquids.chooseEmptyLiquidBlock(env, currentBlock, east, west, north, south, up, down);
 	}
 
 	/**
@@ -105,7 +128,8 @@ public class CommonBlockMutationHelpers
 			{
 				_setBlockCheckingFire(env, context, location, newBlock, blockType, outputDirection);
 				
-				if (env.plants.growthDivisor(blockType) > 0)
+				// Growth is only scheduled if it isn't driven by random ticks.
+				if ((env.plants.growthDivisor(blockType) > 0) && !_isUsingRandomTicks(context))
 				{
 					newBlock.requestFutureMutation(MutationBlockPeriodic.MILLIS_BETWEEN_GROWTH_CALLS);
 				}
@@ -248,7 +272,7 @@ public class CommonBlockMutationHelpers
 		// We want to see if there are any liquids around this block which we will need to handle.
 		Block block = proxy.getBlock();
 		Block emptyBlock = env.special.AIR;
-		Block eventualBlock = _determineEmptyBlockType(context, location, emptyBlock);
+		Block eventualBlock = determineEmptyBlockType(context, location, emptyBlock);
 		if (emptyBlock != eventualBlock)
 		{
 			long millisDelay = env.liquids.minFlowDelayMillis(eventualBlock, block);
@@ -330,19 +354,6 @@ public class CommonBlockMutationHelpers
 		}
 	}
 
-	private static Block _determineEmptyBlockType(TickProcessingContext context, AbsoluteLocation location, Block currentBlock)
-	{
-		Environment env = Environment.getShared();
-		Block east = _getBlockOrNull(context, location.getRelative(1, 0, 0));
-		Block west = _getBlockOrNull(context, location.getRelative(-1, 0, 0));
-		Block north = _getBlockOrNull(context, location.getRelative(0, 1, 0));
-		Block south = _getBlockOrNull(context, location.getRelative(0, -1, 0));
-		Block up = _getBlockOrNull(context, location.getRelative(0, 0, 1));
-		Block down = _getBlockOrNull(context, location.getRelative(0, 0, -1));
-		
-		return env.liquids.chooseEmptyLiquidBlock(env, currentBlock, east, west, north, south, up, down);
-	}
-
 	private static Block _getBlockOrNull(TickProcessingContext context, AbsoluteLocation location)
 	{
 		BlockProxy proxy = context.previousBlockLookUp.readBlock(location);
@@ -449,9 +460,10 @@ public class CommonBlockMutationHelpers
 			context.mutationSink.future(startFire, MutationBlockStartFire.IGNITION_DELAY_MILLIS);
 		}
 		
-		// Check if there is anything changing related to ground cover.
+		// Check if there is anything changing related to ground cover (unless spread is driven by random ticks).
+		boolean isSpreadScheduled = !_isUsingRandomTicks(context);
 		// First, see if this can spread ground cover.
-		if (env.groundCover.isGroundCover(newType))
+		if (isSpreadScheduled && env.groundCover.isGroundCover(newType))
 		{
 			List<AbsoluteLocation> targets = GroundCoverHelpers.findSpreadNeighbours(env, context.previousBlockLookUp, location, newType);
 			for (AbsoluteLocation neighbour : targets)
@@ -460,7 +472,7 @@ public class CommonBlockMutationHelpers
 				context.mutationSink.future(grow, MutationBlockGrowGroundCover.SPREAD_DELAY_MILLIS);
 			}
 		}
-		else
+		else if (isSpreadScheduled)
 		{
 			// Otherwise, check if this block can become ground cover.
 			Block shouldBecome = GroundCoverHelpers.findPotentialGroundCoverType(env, context.previousBlockLookUp, location, newType);
@@ -511,6 +523,11 @@ public class CommonBlockMutationHelpers
 		}
 	}
 
+	private static boolean _isUsingRandomTicks(TickProcessingContext context)
+	{
+		return (context.config.randomTicksPerCuboid > 0);
+	}
+
 	private static void _dropTempInventoryAsPassives(TickProcessingContext context, AbsoluteLocation location, MutableInventory tempInventory)
 	{
 		Inventory frozen = tempInventory.freeze();
@@ -61,7 +61,8 @@ public class MutationBlockPeriodic implements IMutationBlock
 		{
 			boolean shouldReschedule = PlantHelpers.shouldRescheduleAfterPlantPeriodic(env, context, _location, newBlock, block);
 			
-			if (shouldReschedule)
+			// If growth is driven by random ticks, this is just an old scheduled growth so we let it lapse.
+			if (shouldReschedule && (context.config.randomTicksPerCuboid <= 0))
 			{
 				newBlock.requestFutureMutation(MILLIS_BETWEEN_GROWTH_CALLS);
 			}
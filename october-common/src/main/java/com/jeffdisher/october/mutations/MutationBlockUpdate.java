@@ -163,8 +163,8 @@ public class MutationBlockUpdate implements IMutationBlock
 			}
 		}
 		
-		// Check if this block could become ground cover.
-		if (null != env.groundCover.canGrowGroundCover(newBlock.getBlock()))
+		// Check if this block could become ground cover (unless spread is driven by random ticks).
+		if ((context.config.randomTicksPerCuboid <= 0) && (null != env.groundCover.canGrowGroundCover(newBlock.getBlock())))
 		{
 			Block shouldBecome = GroundCoverHelpers.findPotentialGroundCoverType(env, context.previousBlockLookUp, _blockLocation, newBlock.getBlock());
 			if (null != shouldBecome)
@@ -103,6 +103,9 @@ public class NetworkLayer<IN extends Packet>
 	private final Selector _selector;
 	private final IdentityHashMap<IPeerToken, _PeerState> _connectedPeers;
 	private final ReentrantLock _lock;
+	// Only written by the internal thread but can be read from any thread.
+	private volatile long _totalBytesRead;
+	private volatile long _totalBytesWritten;
 
 	// Data related to the hand-off between internal and background threads.
 	private boolean _keepRunning;
@@ -221,6 +224,22 @@ public class NetworkLayer<IN extends Packet>
 		Assert.assertTrue(_selector.keys().isEmpty());
 	}
 
+	/**
+	 * @return The total number of bytes read from all peers since the receiver was started.
+	 */
+	public long getTotalBytesRead()
+	{
+		return _totalBytesRead;
+	}
+
+	/**
+	 * @return The total number of bytes written to all peers since the receiver was started.
+	 */
+	public long getTotalBytesWritten()
+	{
+		return _totalBytesWritten;
+	}
+
 	/**
 	 * Requests that a packet be sent to the given peer.  Note that only a single message can be outgoing for a given
 	 * peer at a given time.
@@ -512,6 +531,7 @@ public class NetworkLayer<IN extends Packet>
 			else
 			{
 				didRead = true;
+				_totalBytesRead += read;
 			}
 		}
 		catch (IOException e)
@@ -559,6 +579,7 @@ public class NetworkLayer<IN extends Packet>
 			// We must have written something or thrown.
 			Assert.assertTrue(written > 0);
 			didWrite = true;
+			_totalBytesWritten += written;
 		}
 		catch (IOException e)
 		{
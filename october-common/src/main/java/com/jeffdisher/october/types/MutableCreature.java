@@ -1,5 +1,7 @@
 package com.jeffdisher.october.types;
 
+import java.util.Objects;
+
 import com.jeffdisher.october.aspects.Environment;
 import com.jeffdisher.october.aspects.MiscConstants;
 import com.jeffdisher.october.logic.MiscHelpers;
@@ -25,7 +27,8 @@ public class MutableCreature implements IMutableMinimalEntity
 
 
 	// Some data elements are actually immutable (id, for example) so they are just left in the original, along with the original data.
-	private final CreatureEntity _creature;
+	// Note that this is only non-final so that the instance can be reloaded with another creature (see reload()).
+	private CreatureEntity _creature;
 
 	// The location is immutable but can be directly replaced.
 	public EntityType newType;
@@ -50,22 +53,20 @@ public class MutableCreature implements IMutableMinimalEntity
 
 	private MutableCreature(CreatureEntity creature)
 	{
-		_creature = creature;
-		this.newType = creature.type();
-		this.newLocation = creature.location();
-		this.newVelocity = creature.velocity();
-		this.newYaw = creature.yaw();
-		this.newPitch = creature.pitch();
-		this.newHealth = creature.health();
-		this.newBreath = creature.breath();
-		this.newExtendedData = creature.extendedData();
-		
-		this.movementPlan = creature.ephemeral().movementPlan();
-		this.nextMovementPlanMillis = creature.ephemeral().nextMovementPlanMillis();
-		this.despawnMillis = creature.ephemeral().despawnMillis();
-		this.nextActionMillis = creature.ephemeral().nextActionMillis();
-		this.nextTakeDamageMillis = creature.ephemeral().nextTakeDamageMillis();
-		this.lastInjuryVector = null;
+		_load(creature);
+	}
+
+	/**
+	 * Reloads the receiver with the elements of an existing creature, discarding all of its previous state.  This
+	 * allows a single instance to be reused to process a sequence of creatures on one thread, without allocating a new
+	 * wrapper for each of them.
+	 * Note that this means that the receiver must not be retained after the creature it was loaded with is frozen.
+	 * 
+	 * @param creature An existing creature.
+	 */
+	public void reload(CreatureEntity creature)
+	{
+		_load(creature);
 	}
 
 	@Override
@@ -251,32 +252,35 @@ public class MutableCreature implements IMutableMinimalEntity
 			// We require that this vector was handled within the tick since we don't persist it across.
 			Assert.assertTrue(null == this.lastInjuryVector);
 			
-			CreatureEntity.Ephemeral ephemeral = new CreatureEntity.Ephemeral(
-				this.movementPlan
-				, this.nextMovementPlanMillis
-				, this.despawnMillis
-				, this.nextActionMillis
-				, this.nextTakeDamageMillis
-			);
-			CreatureEntity immutable = new CreatureEntity(_creature.id()
-					, this.newType
-					, this.newLocation
-					, this.newVelocity
-					, this.newYaw
-					, this.newPitch
-					, this.newHealth
-					, this.newBreath
-					, ((null == this.newExtendedData) || !this.newExtendedData.equals(_creature.extendedData()))
-						? this.newExtendedData
-						: _creature.extendedData()
-					
-					, ephemeral.equals(_creature.ephemeral()) ? _creature.ephemeral() : ephemeral
-			);
-			// See if these are identical.
-			newInstance = _creature.equals(immutable)
-					? _creature
-					: immutable
-			;
+			if (_isUnchanged())
+			{
+				// This is the common case for idle creatures so we avoid allocating anything.
+				newInstance = _creature;
+			}
+			else
+			{
+				CreatureEntity.Ephemeral ephemeral = new CreatureEntity.Ephemeral(
+					this.movementPlan
+					, this.nextMovementPlanMillis
+					, this.despawnMillis
+					, this.nextActionMillis
+					, this.nextTakeDamageMillis
+				);
+				newInstance = new CreatureEntity(_creature.id()
+						, this.newType
+						, this.newLocation
+						, this.newVelocity
+						, this.newYaw
+						, this.newPitch
+						, this.newHealth
+						, this.newBreath
+						, ((null == this.newExtendedData) || !this.newExtendedData.equals(_creature.extendedData()))
+							? this.newExtendedData
+							: _creature.extendedData()
+						
+						, ephemeral.equals(_creature.ephemeral()) ? _creature.ephemeral() : ephemeral
+				);
+			}
 		}
 		else
 		{
@@ -284,4 +288,46 @@ public class MutableCreature implements IMutableMinimalEntity
 		}
 		return newInstance;
 	}
+
+
+	private void _load(CreatureEntity creature)
+	{
+		_creature = creature;
+		this.newType = creature.type();
+		this.newLocation = creature.location();
+		this.newVelocity = creature.velocity();
+		this.newYaw = creature.yaw();
+		this.newPitch = creature.pitch();
+		this.newHealth = creature.health();
+		this.newBreath = creature.breath();
+		this.newExtendedData = creature.extendedData();
+		
+		this.movementPlan = creature.ephemeral().movementPlan();
+		this.nextMovementPlanMillis = creature.ephemeral().nextMovementPlanMillis();
+		this.despawnMillis = creature.ephemeral().despawnMillis();
+		this.nextActionMillis = creature.ephemeral().nextActionMillis();
+		this.nextTakeDamageMillis = creature.ephemeral().nextTakeDamageMillis();
+		this.lastInjuryVector = null;
+		this.shouldTakeActionInTick = false;
+	}
+
+	private boolean _isUnchanged()
+	{
+		// This is the same comparison as the record equals() would do, just without building a new record to compare.
+		CreatureEntity.Ephemeral ephemeral = _creature.ephemeral();
+		return Objects.equals(this.newType, _creature.type())
+			&& Objects.equals(this.newLocation, _creature.location())
+			&& Objects.equals(this.newVelocity, _creature.velocity())
+			&& (this.newYaw == _creature.yaw())
+			&& (this.newPitch == _creature.pitch())
+			&& (this.newHealth == _creature.health())
+			&& (this.newBreath == _creature.breath())
+			&& Objects.equals(this.newExtendedData, _creature.extendedData())
+			&& Objects.equals(this.movementPlan, ephemeral.movementPlan())
+			&& (this.nextMovementPlanMillis == ephemeral.nextMovementPlanMillis())
+			&& (this.despawnMillis == ephemeral.despawnMillis())
+			&& (this.nextActionMillis == ephemeral.nextActionMillis())
+			&& (this.nextTakeDamageMillis == ephemeral.nextTakeDamageMillis())
+		;
+	}
 }
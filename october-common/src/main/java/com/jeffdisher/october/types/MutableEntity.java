@@ -1,5 +1,7 @@
 package com.jeffdisher.october.types;
 
+import java.util.Objects;
+
 import com.jeffdisher.october.aspects.Environment;
 import com.jeffdisher.october.aspects.MiscConstants;
 import com.jeffdisher.october.aspects.StationRegistry;
@@ -387,16 +389,16 @@ public class MutableEntity implements IMutablePlayerEntity
 		// We want to verify that the selection index is valid and that the hotbar only references valid inventory ids.
 		int newHotbarIndex = this.slotManager.getHotbarIndex();
 		Assert.assertTrue((newHotbarIndex >= 0) && (newHotbarIndex < _sharedHotbar.length));
+		IMutableInventory inventoryToCheck = _isCreativeMode
+			? new CreativeInventory()
+			: this.newInventory
+		;
 		boolean didHotbarChange = false;
 		for (int i = 0; i < _sharedHotbar.length; ++i)
 		{
 			int newKey = _sharedHotbar[i];
 			if (Entity.NO_SELECTION != newKey)
 			{
-				IMutableInventory inventoryToCheck = _isCreativeMode
-					? new CreativeInventory()
-					: this.newInventory
-				;
 				Items stack = inventoryToCheck.getStackForKey(newKey);
 				NonStackableItem nonStack = inventoryToCheck.getNonStackableForKey(newKey);
 				Assert.assertTrue((null != stack) != (null != nonStack));
@@ -415,35 +417,71 @@ public class MutableEntity implements IMutablePlayerEntity
 				break;
 			}
 		}
-		Entity.Ephemeral_Shared ephemeralShared = new Entity.Ephemeral_Shared(this.newLocalCraftOperation
-			, this.chargeMillis
-		);
-		Entity.Ephemeral_Local ephemeralLocal = new Entity.Ephemeral_Local(this.ephemeral_lastSpecialActionMillis
-			, this.ephemeral_nextTakeDamageMillis
-			, this.newEnergyDeficit
-		);
-		Entity newInstance = new Entity(_original.id()
-			, _original.type()
-			, _isCreativeMode
-			, this.newLocation
-			, this.newVelocity
-			, this.newYaw
-			, this.newPitch
-			, this.newInventory.freeze()
-			, didHotbarChange ? _sharedHotbar : _original.hotbarItems()
-			, newHotbarIndex
-			, didArmourChange ? this.newArmour : _original.armourSlots()
-			, this.newHealth
-			, this.newFood
-			, this.newBreath
-			, this.newSpawn
-			, ephemeralShared.equals(_original.ephemeralShared()) ? _original.ephemeralShared() : ephemeralShared
-			, ephemeralLocal.equals(_original.ephemeralLocal()) ? _original.ephemeralLocal() : ephemeralLocal
-		);
-		// See if these are identical.
-		return _original.equals(newInstance)
-				? _original
-				: newInstance
+		Inventory inventory = this.newInventory.freeze();
+		int[] hotbar = didHotbarChange ? _sharedHotbar : _original.hotbarItems();
+		NonStackableItem[] armour = didArmourChange ? this.newArmour : _original.armourSlots();
+		
+		Entity result;
+		if (_isUnchanged(inventory, hotbar, newHotbarIndex, armour))
+		{
+			// This is the common case for idle players so we avoid allocating anything.
+			result = _original;
+		}
+		else
+		{
+			Entity.Ephemeral_Shared ephemeralShared = new Entity.Ephemeral_Shared(this.newLocalCraftOperation
+				, this.chargeMillis
+			);
+			Entity.Ephemeral_Local ephemeralLocal = new Entity.Ephemeral_Local(this.ephemeral_lastSpecialActionMillis
+				, this.ephemeral_nextTakeDamageMillis
+				, this.newEnergyDeficit
+			);
+			result = new Entity(_original.id()
+				, _original.type()
+				, _isCreativeMode
+				, this.newLocation
+				, this.newVelocity
+				, this.newYaw
+				, this.newPitch
+				, inventory
+				, hotbar
+				, newHotbarIndex
+				, armour
+				, this.newHealth
+				, this.newFood
+				, this.newBreath
+				, this.newSpawn
+				, ephemeralShared.equals(_original.ephemeralShared()) ? _original.ephemeralShared() : ephemeralShared
+				, ephemeralLocal.equals(_original.ephemeralLocal()) ? _original.ephemeralLocal() : ephemeralLocal
+			);
+		}
+		return result;
+	}
+
+
+	private boolean _isUnchanged(Inventory inventory, int[] hotbar, int hotbarIndex, NonStackableItem[] armour)
+	{
+		// This is the same comparison as the record equals() would do, just without building a new record to compare.
+		Entity.Ephemeral_Shared shared = _original.ephemeralShared();
+		Entity.Ephemeral_Local local = _original.ephemeralLocal();
+		return (_isCreativeMode == _original.isCreativeMode())
+			&& Objects.equals(this.newLocation, _original.location())
+			&& Objects.equals(this.newVelocity, _original.velocity())
+			&& (this.newYaw == _original.yaw())
+			&& (this.newPitch == _original.pitch())
+			&& Objects.equals(inventory, _original.inventory())
+			&& (hotbar == _original.hotbarItems())
+			&& (hotbarIndex == _original.hotbarIndex())
+			&& (armour == _original.armourSlots())
+			&& (this.newHealth == _original.health())
+			&& (this.newFood == _original.food())
+			&& (this.newBreath == _original.breath())
+			&& Objects.equals(this.newSpawn, _original.spawnLocation())
+			&& Objects.equals(this.newLocalCraftOperation, shared.localCraftOperation())
+			&& (this.chargeMillis == shared.chargeMillis())
+			&& (this.ephemeral_lastSpecialActionMillis == local.lastSpecialActionMillis())
+			&& (this.ephemeral_nextTakeDamageMillis == local.nextTakeDamageMillis())
+			&& (this.newEnergyDeficit == local.energyDeficit())
 		;
 	}
 }
@@ -6,6 +6,8 @@ import java.util.function.Consumer;
 import java.util.function.IntUnaryOperator;
 
 import com.jeffdisher.october.data.BlockProxy;
+import com.jeffdisher.october.logic.BlockKindCache;
+import com.jeffdisher.october.logic.CuboidNavigationGraph;
 
 
 /**
@@ -35,6 +37,18 @@ public class TickProcessingContext
 	 */
 	public final IPassiveSearch previousPassiveLookUp;
 
+	/**
+	 * Looks up the navigation summaries of loaded cuboids, as of the beginning of this tick, for hierarchical
+	 * path-finding.  This may be null, in which case path-finding only uses the block-level search.
+	 */
+	public final INavigationLookup navigation;
+
+	/**
+	 * The cache of path-finding block classifications shared by everything running in this context.  This may be null,
+	 * in which case callers will need to classify blocks on their own.
+	 */
+	public final BlockKindCache blockKindCache;
+
 	/**
 	 * A helper used for scheduling and executing transactions.
 	 */
@@ -106,6 +120,8 @@ public class TickProcessingContext
 			, IBlockFetcher previousBlockLookUp
 			, IEntitySearch previousEntityLookUp
 			, IPassiveSearch previousPassiveLookUp
+			, INavigationLookup navigation
+			, BlockKindCache blockKindCache
 			, ITransactionSupport transactions
 			, IByteLookup<AbsoluteLocation> skyLight
 			, IMutationSink mutationSink
@@ -124,6 +140,8 @@ public class TickProcessingContext
 		this.previousBlockLookUp = previousBlockLookUp;
 		this.previousEntityLookUp = previousEntityLookUp;
 		this.previousPassiveLookUp = previousPassiveLookUp;
+		this.navigation = navigation;
+		this.blockKindCache = blockKindCache;
 		this.transactions = transactions;
 		this.skyLight = skyLight;
 		this.mutationSink = mutationSink;
@@ -288,6 +306,20 @@ public class TickProcessingContext
 		Map<AbsoluteLocation, BlockProxy> readBlockBatch(Collection<AbsoluteLocation> locations);
 	}
 
+	/**
+	 * The interface used to find the CuboidNavigationGraph of loaded cuboids.
+	 */
+	public static interface INavigationLookup
+	{
+		/**
+		 * Looks up the navigation graph for the cuboid at the given address, as of the previous tick.
+		 * 
+		 * @param address The address of the cuboid.
+		 * @return The navigation graph or null if this cuboid was not present in the previous tick snapshot.
+		 */
+		CuboidNavigationGraph getGraph(CuboidAddress address);
+	}
+
 	/**
 	 * An interface used to implement transactional mutation support.
 	 */
@@ -103,6 +103,32 @@ public class WorldConfig
 	public static final String KEY_DEFAULT_PLAYER_MODE = "default_player_mode";
 	public volatile DefaultPlayerMode defaultPlayerMode;
 
+	/**
+	 * Creatures within this many blocks of any player run their full AI every tick.  Beyond this, they only run at a
+	 * reduced frequency (see EngineCreatures.DetailLevel).
+	 */
+	public static final String KEY_CREATURE_FULL_DETAIL_DISTANCE = "creature_full_detail_distance";
+	public volatile int creatureFullDetailDistance;
+
+	/**
+	 * Creatures further than this many blocks from every player "sleep":  They are only processed when woken by
+	 * something acting on them or changing the blocks around them (must be >= creature_full_detail_distance).
+	 */
+	public static final String KEY_CREATURE_SLEEP_DISTANCE = "creature_sleep_distance";
+	public volatile int creatureSleepDistance;
+
+	/**
+	 * If greater than 0, plant growth and ground cover spread are driven by sampling random growable blocks in each
+	 * loaded cuboid, every tick (see EngineRandomTicks), instead of scheduling periodic and spread mutations for each
+	 * block.  The sample rate is derived from the scheduled growth interval, so growth speed is unchanged, and this is
+	 * the most samples any one cuboid can take in a tick, bounding the cost per cuboid, instead of per plant.  A cuboid
+	 * entirely full of plants needs 164 samples per tick to keep up at 50 ms per tick, so lower values only slow growth
+	 * in the densest cuboids.
+	 * 0 (the default) keeps the scheduled approach.
+	 */
+	public static final String KEY_RANDOM_TICKS_PER_CUBOID = "random_ticks_per_cuboid";
+	public volatile int randomTicksPerCuboid;
+
 	/**
 	 * Creates a world config with all default options.
 	 */
@@ -124,6 +150,11 @@ public class WorldConfig
 		this.clientViewDistanceMaximum = MAX_CLIENT_VIEW_DISTANCE_MAXIMUM;
 		this.serverName = "OctoberProject Server";
 		this.defaultPlayerMode = DefaultPlayerMode.SURVIVAL;
+		// By default, creatures within 2 cuboids of a player are fully active and those beyond 4 cuboids sleep.
+		this.creatureFullDetailDistance = 64;
+		this.creatureSleepDistance = 128;
+		// We default to the scheduled growth approach.
+		this.randomTicksPerCuboid = 0;
 	}
 
 	public void loadOverrides(Map<String, String> overrides)
@@ -187,6 +218,21 @@ public class WorldConfig
 		{
 			this.defaultPlayerMode = DefaultPlayerMode.valueOf(overrides.get(KEY_DEFAULT_PLAYER_MODE));
 		}
+		if (overrides.containsKey(KEY_CREATURE_FULL_DETAIL_DISTANCE))
+		{
+			this.creatureFullDetailDistance = Integer.parseInt(overrides.get(KEY_CREATURE_FULL_DETAIL_DISTANCE));
+			Assert.assertTrue(this.creatureFullDetailDistance >= 0);
+		}
+		if (overrides.containsKey(KEY_CREATURE_SLEEP_DISTANCE))
+		{
+			this.creatureSleepDistance = Integer.parseInt(overrides.get(KEY_CREATURE_SLEEP_DISTANCE));
+		}
+		Assert.assertTrue(this.creatureSleepDistance >= this.creatureFullDetailDistance);
+		if (overrides.containsKey(KEY_RANDOM_TICKS_PER_CUBOID))
+		{
+			this.randomTicksPerCuboid = Integer.parseInt(overrides.get(KEY_RANDOM_TICKS_PER_CUBOID));
+			Assert.assertTrue(this.randomTicksPerCuboid >= 0);
+		}
 	}
 
 	public Map<String, String> getRawOptions()
@@ -205,6 +251,9 @@ public class WorldConfig
 		map.put(KEY_CLIENT_VIEW_DISTANCE_MAXIMUM, Integer.toString(this.clientViewDistanceMaximum));
 		map.put(KEY_SERVER_NAME, this.serverName);
 		map.put(KEY_DEFAULT_PLAYER_MODE, this.defaultPlayerMode.name());
+		map.put(KEY_CREATURE_FULL_DETAIL_DISTANCE, Integer.toString(this.creatureFullDetailDistance));
+		map.put(KEY_CREATURE_SLEEP_DISTANCE, Integer.toString(this.creatureSleepDistance));
+		map.put(KEY_RANDOM_TICKS_PER_CUBOID, Integer.toString(this.randomTicksPerCuboid));
 		return Collections.unmodifiableMap(map);
 	}
 
@@ -4,6 +4,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -327,4 +328,81 @@ public class TestCuboidData
 		Assert.assertEquals(address5, sorted[7]);
 		Assert.assertEquals(address6, sorted[8]);
 	}
+
+	@Test
+	public void blockTypeIndex()
+	{
+		CuboidAddress cuboidAddress = CuboidAddress.fromInt(0, 0, 0);
+		CuboidData input = CuboidGenerator.createFilledCuboid(cuboidAddress, ENV.special.AIR);
+		short air = ENV.special.AIR.item().number();
+		short stone = STONE_ITEM.number();
+		BlockAddress one = BlockAddress.fromInt(1, 2, 3);
+		BlockAddress two = BlockAddress.fromInt(31, 31, 31);
+		input.setData15(AspectRegistry.BLOCK, one, stone);
+		
+		// The first request builds the index.
+		BlockTypeIndex index = input.getBlockTypeIndex();
+		Assert.assertEquals(32 * 32 * 32 - 1, index.getCount(air));
+		Assert.assertNull(index.getAddressesIfRare(air));
+		Assert.assertEquals(1, index.getCount(stone));
+		Assert.assertEquals(Set.of(one), index.getAddressesIfRare(stone));
+		
+		// Single writes update it in place.
+		input.setData15(AspectRegistry.BLOCK, two, stone);
+		Assert.assertTrue(index == input.getBlockTypeIndex());
+		Assert.assertEquals(Set.of(one, two), index.getAddressesIfRare(stone));
+		
+		// A clone carries its own copy.
+		CuboidData clone = CuboidData.mutableClone(input);
+		clone.setData15(AspectRegistry.BLOCK, one, air);
+		Assert.assertEquals(Set.of(two), clone.getBlockTypeIndex().getAddressesIfRare(stone));
+		Assert.assertEquals(32 * 32 * 32 - 1, clone.getBlockTypeIndex().getCount(air));
+		Assert.assertEquals(2, index.getCount(stone));
+		
+		// Once a type is no longer rare, we stop tracking its addresses.
+		for (int i = 0; i < BlockTypeIndex.RARE_TYPE_LIMIT; ++i)
+		{
+			clone.setData15(AspectRegistry.BLOCK, BlockAddress.fromInt(i, 0, 0), stone);
+		}
+		Assert.assertEquals(BlockTypeIndex.RARE_TYPE_LIMIT + 1, clone.getBlockTypeIndex().getCount(stone));
+		Assert.assertNull(clone.getBlockTypeIndex().getAddressesIfRare(stone));
+		
+		// Batch writes cause it to be rebuilt.
+		input.batchWiteData15(AspectRegistry.BLOCK, new BlockAddress[] { one }, new short[] { air });
+		Assert.assertTrue(index != input.getBlockTypeIndex());
+		Assert.assertEquals(Set.of(two), input.getBlockTypeIndex().getAddressesIfRare(stone));
+	}
+
+	@Test
+	public void growableIndex()
+	{
+		CuboidAddress cuboidAddress = CuboidAddress.fromInt(0, 0, 0);
+		CuboidData input = CuboidGenerator.createFilledCuboid(cuboidAddress, ENV.special.AIR);
+		short air = ENV.special.AIR.item().number();
+		short grass = ENV.items.getItemById("op.grass").number();
+		short seedling = ENV.items.getItemById("op.wheat_seedling").number();
+		short stone = STONE_ITEM.number();
+		BlockAddress one = BlockAddress.fromInt(1, 2, 3);
+		BlockAddress two = BlockAddress.fromInt(4, 5, 6);
+		input.setData15(AspectRegistry.BLOCK, one, grass);
+		
+		// Growable blocks are tracked, however common they are.
+		BlockTypeIndex index = input.getBlockTypeIndex();
+		Assert.assertEquals(1, index.getGrowableCount());
+		Assert.assertEquals(one, index.getGrowableAddress(0));
+		
+		// Changing between growable types doesn't change the set but changing to anything else removes it.
+		input.setData15(AspectRegistry.BLOCK, two, seedling);
+		input.setData15(AspectRegistry.BLOCK, one, seedling);
+		Assert.assertEquals(2, index.getGrowableCount());
+		input.setData15(AspectRegistry.BLOCK, one, stone);
+		Assert.assertEquals(1, index.getGrowableCount());
+		Assert.assertEquals(two, index.getGrowableAddress(0));
+		input.setData15(AspectRegistry.BLOCK, two, air);
+		Assert.assertEquals(0, index.getGrowableCount());
+		
+		// A whole cuboid of plants is still fully tracked.
+		CuboidData field = CuboidGenerator.createFilledCuboid(cuboidAddress, ENV.blocks.fromItem(ENV.items.getItemById("op.wheat_seedling")));
+		Assert.assertEquals(32 * 32 * 32, field.getBlockTypeIndex().getGrowableCount());
+	}
 }
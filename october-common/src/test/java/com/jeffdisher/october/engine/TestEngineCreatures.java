@@ -5,6 +5,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.junit.AfterClass;
@@ -1151,6 +1152,76 @@ public class TestEngineCreatures
 		Assert.assertEquals(firstContextMillis + MiscConstants.DAMAGE_TAKEN_TIMEOUT_MILLIS, unchanged.ephemeral().nextTakeDamageMillis());
 	}
 
+	@Test
+	public void detailLevels()
+	{
+		WorldConfig config = new WorldConfig();
+		config.creatureFullDetailDistance = 10;
+		config.creatureSleepDistance = 20;
+		List<EntityLocation> players = List.of(new EntityLocation(0.0f, 0.0f, 0.0f), new EntityLocation(100.0f, 0.0f, 0.0f));
+		
+		Assert.assertEquals(EngineCreatures.DetailLevel.FULL, EngineCreatures.chooseDetailLevel(config, new EntityLocation(5.0f, 5.0f, 5.0f), players));
+		Assert.assertEquals(EngineCreatures.DetailLevel.FULL, EngineCreatures.chooseDetailLevel(config, new EntityLocation(95.0f, 0.0f, 0.0f), players));
+		Assert.assertEquals(EngineCreatures.DetailLevel.REDUCED, EngineCreatures.chooseDetailLevel(config, new EntityLocation(0.0f, 0.0f, -15.0f), players));
+		Assert.assertEquals(EngineCreatures.DetailLevel.SLEEPING, EngineCreatures.chooseDetailLevel(config, new EntityLocation(50.0f, 0.0f, 0.0f), players));
+		Assert.assertEquals(EngineCreatures.DetailLevel.SLEEPING, EngineCreatures.chooseDetailLevel(config, new EntityLocation(50.0f, 0.0f, 0.0f), List.of()));
+	}
+
+	@Test
+	public void skipByDetailLevel()
+	{
+		CreatureEntity creature = CreatureEntity.create(-9, COW, new EntityLocation(0.0f, 0.0f, 0.0f), 0L);
+		TickProcessingContext tick1 = ContextBuilder.build().tick(1L).finish();
+		TickProcessingContext tick2 = ContextBuilder.nextTick(tick1, 1L).finish();
+		TickProcessingContext tick5 = ContextBuilder.nextTick(tick1, EngineCreatures.REDUCED_DETAIL_TICK_INTERVAL).finish();
+		long environmentTick = MiscConstants.DAMAGE_ENVIRONMENT_CHECK_MILLIS / ContextBuilder.DEFAULT_MILLIS_PER_TICK;
+		TickProcessingContext tickEnvironment = ContextBuilder.build().tick(environmentTick).finish();
+		// Dormant creatures have their environment tick spread by ID (this creature is -9 so it is 9 ticks later).
+		TickProcessingContext tickCreatureEnvironment = ContextBuilder.build().tick(environmentTick + 9L).finish();
+		
+		// Full detail is never skipped.
+		Assert.assertFalse(EngineCreatures.canSkipCreature(tick2, EngineCreatures.DetailLevel.FULL, creature, List.of(), false));
+		
+		// Reduced detail runs periodically, spread by ID.
+		Assert.assertFalse(EngineCreatures.canSkipCreature(tick1, EngineCreatures.DetailLevel.REDUCED, creature, List.of(), false));
+		Assert.assertTrue(EngineCreatures.canSkipCreature(tick2, EngineCreatures.DetailLevel.REDUCED, creature, List.of(), false));
+		Assert.assertFalse(EngineCreatures.canSkipCreature(tick5, EngineCreatures.DetailLevel.REDUCED, creature, List.of(), false));
+		
+		// Sleeping creatures are skipped unless something wakes them.
+		Assert.assertTrue(EngineCreatures.canSkipCreature(tick1, EngineCreatures.DetailLevel.SLEEPING, creature, List.of(), false));
+		Assert.assertFalse(EngineCreatures.canSkipCreature(tick1, EngineCreatures.DetailLevel.SLEEPING, creature, List.of(), true));
+		Assert.assertTrue(EngineCreatures.canSkipCreature(tickEnvironment, EngineCreatures.DetailLevel.SLEEPING, creature, List.of(), false));
+		Assert.assertFalse(EngineCreatures.canSkipCreature(tickCreatureEnvironment, EngineCreatures.DetailLevel.SLEEPING, creature, List.of(), false));
+		Assert.assertTrue(EngineCreatures.isEnvironmentTickForCreature(tickEnvironment, EngineCreatures.DetailLevel.FULL, creature));
+		Assert.assertFalse(EngineCreatures.isEnvironmentTickForCreature(tickEnvironment, EngineCreatures.DetailLevel.SLEEPING, creature));
+		Assert.assertTrue(EngineCreatures.isEnvironmentTickForCreature(tickCreatureEnvironment, EngineCreatures.DetailLevel.REDUCED, creature));
+		EntityActionTakeDamageFromEntity<MutableCreature> change = new EntityActionTakeDamageFromEntity<>(BodyPart.FEET, 10, 1);
+		Assert.assertFalse(EngineCreatures.canSkipCreature(tick1, EngineCreatures.DetailLevel.SLEEPING, creature, List.of(change), false));
+		MutableCreature mutable = MutableCreature.existing(creature);
+		mutable.newVelocity = new EntityLocation(0.0f, 0.0f, -1.0f);
+		CreatureEntity falling = mutable.freeze();
+		Assert.assertFalse(EngineCreatures.canSkipCreature(tick1, EngineCreatures.DetailLevel.SLEEPING, falling, List.of(), false));
+	}
+
+	@Test
+	public void blocksChangedNearbyAcrossCuboids()
+	{
+		// A creature standing on the bottom of a cuboid is supported by the cuboid below it, so changes there must wake it.
+		CreatureEntity standing = CreatureEntity.create(-1, COW, new EntityLocation(5.0f, 5.0f, 32.0f), 0L);
+		Assert.assertTrue(EngineCreatures.didBlocksChangeNearby(standing, Set.of(CuboidAddress.fromInt(0, 0, 1))));
+		Assert.assertTrue(EngineCreatures.didBlocksChangeNearby(standing, Set.of(CuboidAddress.fromInt(0, 0, 0))));
+		Assert.assertFalse(EngineCreatures.didBlocksChangeNearby(standing, Set.of(CuboidAddress.fromInt(0, 0, 2))));
+		Assert.assertFalse(EngineCreatures.didBlocksChangeNearby(standing, Set.of(CuboidAddress.fromInt(0, 0, -1))));
+		Assert.assertFalse(EngineCreatures.didBlocksChangeNearby(standing, Set.of()));
+		
+		// A creature straddling a cuboid edge is woken by changes on either side.
+		CreatureEntity straddling = CreatureEntity.create(-2, COW, new EntityLocation(31.5f, 5.0f, 40.0f), 0L);
+		Assert.assertTrue(EngineCreatures.didBlocksChangeNearby(straddling, Set.of(CuboidAddress.fromInt(1, 0, 1))));
+		Assert.assertTrue(EngineCreatures.didBlocksChangeNearby(straddling, Set.of(CuboidAddress.fromInt(0, 0, 1))));
+		Assert.assertFalse(EngineCreatures.didBlocksChangeNearby(straddling, Set.of(CuboidAddress.fromInt(0, 0, 0))));
+		Assert.assertFalse(EngineCreatures.didBlocksChangeNearby(straddling, Set.of(CuboidAddress.fromInt(-1, 0, 1))));
+	}
+
 
 	private static TickProcessingContext _createContext()
 	{
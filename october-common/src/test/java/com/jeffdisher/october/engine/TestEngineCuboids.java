@@ -18,12 +18,17 @@ import com.jeffdisher.october.data.IReadOnlyCuboidData;
 import com.jeffdisher.october.logic.HeightMapHelpers;
 import com.jeffdisher.october.logic.ScheduledMutation;
 import com.jeffdisher.october.mutations.MutationBlockIncrementalBreak;
+import com.jeffdisher.october.mutations.MutationBlockLiquidFlowInto;
 import com.jeffdisher.october.mutations.MutationBlockOverwriteByEntity;
 import com.jeffdisher.october.types.AbsoluteLocation;
 import com.jeffdisher.october.types.Block;
+import com.jeffdisher.october.types.BlockAddress;
 import com.jeffdisher.october.types.ContextBuilder;
 import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.types.EntityLocation;
 import com.jeffdisher.october.types.EventRecord;
+import com.jeffdisher.october.types.IMutationBlock;
+import com.jeffdisher.october.types.PassiveType;
 import com.jeffdisher.october.types.TickProcessingContext;
 import com.jeffdisher.october.utils.CuboidGenerator;
 
@@ -168,4 +173,135 @@ public class TestEngineCuboids
 		Assert.assertEquals(damage, newCuboid.getDataSpecial(AspectRegistry.DAMAGE, target.getBlockAddress()).intValue());
 		Assert.assertNull(newMap);
 	}
+
+	@Test
+	public void liquidFlowsShareNeighbourReads()
+	{
+		// Schedule flows (one of them twice) next to a water source resting on stone and verify they each fill their block.
+		CuboidAddress address = CuboidAddress.fromInt(0, 0, 0);
+		CuboidData cuboid = CuboidGenerator.createFilledCuboid(address, ENV.special.AIR);
+		Block waterSource = ENV.blocks.fromItem(ENV.items.getItemById("op.water_source"));
+		Block waterStrong = ENV.blocks.fromItem(ENV.items.getItemById("op.water_strong"));
+		AbsoluteLocation source = new AbsoluteLocation(5, 5, 16);
+		cuboid.setData15(AspectRegistry.BLOCK, source.getBlockAddress(), waterSource.item().number());
+		for (int x = 3; x <= 7; ++x)
+		{
+			cuboid.setData15(AspectRegistry.BLOCK, BlockAddress.fromInt(x, 5, 15), STONE.item().number());
+		}
+		
+		TickProcessingContext context = ContextBuilder.build()
+			.lookups(ContextBuilder.buildFetcher((AbsoluteLocation location) -> {
+				return (cuboid.getCuboidAddress().equals(location.getCuboidAddress()))
+					? BlockProxy.load(location.getBlockAddress(), cuboid)
+					: null
+				;
+			}), null, null)
+			.eventSink((EventRecord event) -> {})
+			.finish()
+		;
+		
+		AbsoluteLocation east = source.getRelative(1, 0, 0);
+		AbsoluteLocation west = source.getRelative(-1, 0, 0);
+		AbsoluteLocation later = source.getRelative(0, 1, 0);
+		EngineCuboids.SingleCuboidResult result = EngineCuboids.processOneCuboid(context
+			, Set.of(address)
+			, List.of(new ScheduledMutation(new MutationBlockLiquidFlowInto(east), 0L)
+				, new ScheduledMutation(new MutationBlockLiquidFlowInto(west), 0L)
+				, new ScheduledMutation(new MutationBlockLiquidFlowInto(east), 0L)
+				, new ScheduledMutation(new MutationBlockLiquidFlowInto(later), 100L)
+			)
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Set.of()
+			, address
+			, cuboid
+			, null
+		);
+		IReadOnlyCuboidData newCuboid = result.changedCuboidOrNull();
+		
+		Assert.assertEquals(3, result.mutationsProcessed());
+		Assert.assertEquals(1, result.notYetReadyMutations().size());
+		Assert.assertEquals(waterStrong.item().number(), newCuboid.getData15(AspectRegistry.BLOCK, east.getBlockAddress()));
+		Assert.assertEquals(waterStrong.item().number(), newCuboid.getData15(AspectRegistry.BLOCK, west.getBlockAddress()));
+		Assert.assertEquals(ENV.special.AIR.item().number(), newCuboid.getData15(AspectRegistry.BLOCK, later.getBlockAddress()));
+		Assert.assertEquals(2, result.changedBlocks().size());
+	}
+
+	@Test
+	public void liquidFlowsKeepScheduledOrder()
+	{
+		// Liquid flows run in the order they were scheduled, interleaved with the cuboid's other ready mutations, so a flow
+		// into a block only fills it if it was broken earlier in the tick.
+		CuboidAddress address = CuboidAddress.fromInt(0, 0, 0);
+		CuboidData cuboid = CuboidGenerator.createFilledCuboid(address, ENV.special.AIR);
+		Block waterSource = ENV.blocks.fromItem(ENV.items.getItemById("op.water_source"));
+		Block waterStrong = ENV.blocks.fromItem(ENV.items.getItemById("op.water_strong"));
+		Block dirt = ENV.blocks.fromItem(ENV.items.getItemById("op.dirt"));
+		AbsoluteLocation source = new AbsoluteLocation(5, 5, 16);
+		AbsoluteLocation east = source.getRelative(1, 0, 0);
+		cuboid.setData15(AspectRegistry.BLOCK, source.getBlockAddress(), waterSource.item().number());
+		cuboid.setData15(AspectRegistry.BLOCK, east.getBlockAddress(), dirt.item().number());
+		for (int x = 3; x <= 7; ++x)
+		{
+			cuboid.setData15(AspectRegistry.BLOCK, BlockAddress.fromInt(x, 5, 15), STONE.item().number());
+		}
+		
+		TickProcessingContext context = ContextBuilder.build()
+			.lookups(ContextBuilder.buildFetcher((AbsoluteLocation location) -> {
+				return (cuboid.getCuboidAddress().equals(location.getCuboidAddress()))
+					? BlockProxy.load(location.getBlockAddress(), cuboid)
+					: null
+				;
+			}), null, null)
+			.sinks(new TickProcessingContext.IMutationSink() {
+				@Override
+				public boolean next(IMutationBlock mutation)
+				{
+					return true;
+				}
+				@Override
+				public boolean future(IMutationBlock mutation, long millisToDelay)
+				{
+					return true;
+				}
+			}, null)
+			.passive((PassiveType type, EntityLocation location, EntityLocation velocity, Object extendedData) -> {})
+			.eventSink((EventRecord event) -> {})
+			.finish()
+		;
+		
+		// The flow is scheduled first so it finds the dirt still there and does nothing, leaving the broken block as air.
+		EngineCuboids.SingleCuboidResult result = _runMutations(context, cuboid, List.of(new ScheduledMutation(new MutationBlockLiquidFlowInto(east), 0L)
+			, new ScheduledMutation(new MutationBlockIncrementalBreak(east, 10_000, 0), 0L)
+		));
+		Assert.assertEquals(2, result.mutationsProcessed());
+		Assert.assertEquals(ENV.special.AIR.item().number(), result.changedCuboidOrNull().getData15(AspectRegistry.BLOCK, east.getBlockAddress()));
+		
+		// If the break is scheduled first, the flow fills the broken block.
+		result = _runMutations(context, cuboid, List.of(new ScheduledMutation(new MutationBlockIncrementalBreak(east, 10_000, 0), 0L)
+			, new ScheduledMutation(new MutationBlockLiquidFlowInto(east), 0L)
+		));
+		Assert.assertEquals(2, result.mutationsProcessed());
+		Assert.assertEquals(waterStrong.item().number(), result.changedCuboidOrNull().getData15(AspectRegistry.BLOCK, east.getBlockAddress()));
+	}
+
+
+	private static EngineCuboids.SingleCuboidResult _runMutations(TickProcessingContext context, CuboidData cuboid, List<ScheduledMutation> mutations)
+	{
+		CuboidAddress address = cuboid.getCuboidAddress();
+		return EngineCuboids.processOneCuboid(context
+			, Set.of(address)
+			, mutations
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Set.of()
+			, address
+			, cuboid
+			, null
+		);
+	}
 }
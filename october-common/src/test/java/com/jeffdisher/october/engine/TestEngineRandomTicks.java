@@ -0,0 +1,166 @@
+package com.jeffdisher.october.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jeffdisher.october.aspects.AspectRegistry;
+import com.jeffdisher.october.aspects.Environment;
+import com.jeffdisher.october.data.BlockProxy;
+import com.jeffdisher.october.data.CuboidData;
+import com.jeffdisher.october.data.MutableBlockProxy;
+import com.jeffdisher.october.mutations.MutationBlockGrowGroundCover;
+import com.jeffdisher.october.mutations.MutationBlockOverwriteByEntity;
+import com.jeffdisher.october.types.AbsoluteLocation;
+import com.jeffdisher.october.types.Block;
+import com.jeffdisher.october.types.BlockAddress;
+import com.jeffdisher.october.types.ContextBuilder;
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.types.EventRecord;
+import com.jeffdisher.october.types.IMutationBlock;
+import com.jeffdisher.october.types.LazyLocationCache;
+import com.jeffdisher.october.types.TickProcessingContext;
+import com.jeffdisher.october.types.WorldConfig;
+import com.jeffdisher.october.utils.CuboidGenerator;
+
+
+public class TestEngineRandomTicks
+{
+	private static Environment ENV;
+	private static Block WHEAT_SEEDLING;
+	@BeforeClass
+	public static void setup() throws Throwable
+	{
+		ENV = Environment.createSharedInstance();
+		WHEAT_SEEDLING = ENV.blocks.fromItem(ENV.items.getItemById("op.wheat_seedling"));
+	}
+	@AfterClass
+	public static void tearDown()
+	{
+		Environment.clearSharedInstance();
+	}
+
+	@Test
+	public void growPlant()
+	{
+		// The random generator always returns 1, meaning we always sample the same growable block and growth succeeds.
+		CuboidAddress address = CuboidAddress.fromInt(0, 0, 0);
+		CuboidData cuboid = CuboidGenerator.createFilledCuboid(address, WHEAT_SEEDLING);
+		TickProcessingContext context = _buildContext(cuboid, null);
+		LazyLocationCache<MutableBlockProxy> cache = new LazyLocationCache<>((AbsoluteLocation location) -> new MutableBlockProxy(location, cuboid));
+		
+		int growable = EngineRandomTicks.processRandomTicks(context, cuboid, cache, 1);
+		Assert.assertEquals(1, growable);
+		Collection<MutableBlockProxy> sampled = cache.extractCache().values();
+		Assert.assertEquals(1, sampled.size());
+		MutableBlockProxy proxy = sampled.iterator().next();
+		Assert.assertEquals(ENV.plants.nextPhaseForPlant(WHEAT_SEEDLING), proxy.getBlock());
+		// We never request a periodic mutation for growth.
+		Assert.assertEquals(0L, proxy.periodicDelayMillis);
+	}
+
+	@Test
+	public void sampleRate()
+	{
+		// Each growable block is sampled once per growth interval, on average, up to the limit per cuboid.
+		CuboidAddress address = CuboidAddress.fromInt(0, 0, 0);
+		CuboidData cuboid = CuboidGenerator.createFilledCuboid(address, WHEAT_SEEDLING);
+		TickProcessingContext context = _buildContext(cuboid, null);
+		LazyLocationCache<MutableBlockProxy> cache = new LazyLocationCache<>((AbsoluteLocation location) -> new MutableBlockProxy(location, cuboid));
+		
+		// 32768 plants at 100 ms per tick is 327.68 samples per tick (rounded up since our random value is low).
+		int growable = EngineRandomTicks.processRandomTicks(context, cuboid, cache, 1000);
+		Assert.assertEquals(328, growable);
+		growable = EngineRandomTicks.processRandomTicks(context, cuboid, cache, 100);
+		Assert.assertEquals(100, growable);
+	}
+
+	@Test
+	public void skipEmptyCuboid()
+	{
+		// A cuboid with nothing growable is never sampled.
+		CuboidAddress address = CuboidAddress.fromInt(0, 0, 0);
+		CuboidData cuboid = CuboidGenerator.createFilledCuboid(address, ENV.special.AIR);
+		TickProcessingContext context = _buildContext(cuboid, null);
+		LazyLocationCache<MutableBlockProxy> cache = new LazyLocationCache<>((AbsoluteLocation location) -> new MutableBlockProxy(location, cuboid));
+		
+		int growable = EngineRandomTicks.processRandomTicks(context, cuboid, cache, 1000);
+		Assert.assertEquals(0, growable);
+		Assert.assertTrue(cache.extractCache().isEmpty());
+	}
+
+	@Test
+	public void spreadGroundCover()
+	{
+		// Sample a grass block beside dirt and verify that it sends a spread mutation to it.
+		Block dirt = ENV.blocks.fromItem(ENV.items.getItemById("op.dirt"));
+		Block grass = ENV.blocks.fromItem(ENV.items.getItemById("op.grass"));
+		CuboidAddress address = CuboidAddress.fromInt(0, 0, 0);
+		CuboidData cuboid = CuboidGenerator.createFilledCuboid(address, ENV.special.AIR);
+		cuboid.setData15(AspectRegistry.BLOCK, BlockAddress.fromInt(1, 0, 0), grass.item().number());
+		cuboid.setData15(AspectRegistry.BLOCK, BlockAddress.fromInt(2, 0, 0), dirt.item().number());
+		List<IMutationBlock> out_mutations = new ArrayList<>();
+		TickProcessingContext context = _buildContext(cuboid, out_mutations);
+		LazyLocationCache<MutableBlockProxy> cache = new LazyLocationCache<>((AbsoluteLocation location) -> new MutableBlockProxy(location, cuboid));
+		
+		int growable = EngineRandomTicks.processRandomTicks(context, cuboid, cache, 1);
+		Assert.assertEquals(1, growable);
+		Assert.assertEquals(1, out_mutations.size());
+		MutationBlockGrowGroundCover grow = (MutationBlockGrowGroundCover) out_mutations.get(0);
+		Assert.assertEquals(new AbsoluteLocation(2, 0, 0), grow.getAbsoluteLocation());
+	}
+
+	@Test
+	public void noScheduledGrowth()
+	{
+		// Show that planting a seed doesn't schedule growth when we are using random ticks.
+		AbsoluteLocation target = new AbsoluteLocation(1, 1, 1);
+		CuboidData cuboid = CuboidGenerator.createFilledCuboid(target.getCuboidAddress(), ENV.special.AIR);
+		cuboid.setData15(AspectRegistry.BLOCK, target.getRelative(0, 0, -1).getBlockAddress(), ENV.blocks.fromItem(ENV.items.getItemById("op.tilled_soil")).item().number());
+		TickProcessingContext context = _buildContext(cuboid, new ArrayList<>());
+		MutableBlockProxy proxy = new MutableBlockProxy(target, cuboid);
+		
+		MutationBlockOverwriteByEntity mutation = new MutationBlockOverwriteByEntity(target, WHEAT_SEEDLING, null, 1);
+		mutation.applyMutation(context, proxy);
+		Assert.assertEquals(WHEAT_SEEDLING, proxy.getBlock());
+		Assert.assertEquals(0L, proxy.periodicDelayMillis);
+	}
+
+
+	private static TickProcessingContext _buildContext(CuboidData cuboid, List<IMutationBlock> out_mutations)
+	{
+		WorldConfig config = new WorldConfig();
+		config.randomTicksPerCuboid = 1;
+		return ContextBuilder.build()
+			.lookups(ContextBuilder.buildFetcher((AbsoluteLocation location) -> {
+				return (cuboid.getCuboidAddress().equals(location.getCuboidAddress()))
+					? BlockProxy.load(location.getBlockAddress(), cuboid)
+					: null
+				;
+			}), null, null)
+			.skyLight((AbsoluteLocation location) -> (byte)15)
+			.sinks(new TickProcessingContext.IMutationSink() {
+				@Override
+				public boolean next(IMutationBlock mutation)
+				{
+					out_mutations.add(mutation);
+					return true;
+				}
+				@Override
+				public boolean future(IMutationBlock mutation, long millisToDelay)
+				{
+					throw new AssertionError("Not expected in test");
+				}
+			}, null)
+			.eventSink((EventRecord event) -> {})
+			.modRandom(1)
+			.config(config)
+			.finish()
+		;
+	}
+}
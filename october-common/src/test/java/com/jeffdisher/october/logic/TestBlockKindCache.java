@@ -0,0 +1,127 @@
+package com.jeffdisher.october.logic;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jeffdisher.october.aspects.AspectRegistry;
+import com.jeffdisher.october.aspects.Environment;
+import com.jeffdisher.october.data.BlockProxy;
+import com.jeffdisher.october.data.CuboidData;
+import com.jeffdisher.october.types.AbsoluteLocation;
+import com.jeffdisher.october.types.Block;
+import com.jeffdisher.october.types.BlockAddress;
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.types.EntityLocation;
+import com.jeffdisher.october.types.EntityVolume;
+import com.jeffdisher.october.types.TickProcessingContext;
+import com.jeffdisher.october.utils.CuboidGenerator;
+
+
+public class TestBlockKindCache
+{
+	private static Environment ENV;
+	private static Block STONE;
+	private static Block WATER_SOURCE;
+	@BeforeClass
+	public static void setup() throws Throwable
+	{
+		ENV = Environment.createSharedInstance();
+		STONE = ENV.blocks.fromItem(ENV.items.getItemById("op.stone"));
+		WATER_SOURCE = ENV.blocks.fromItem(ENV.items.getItemById("op.water_source"));
+	}
+	@AfterClass
+	public static void tearDown()
+	{
+		Environment.clearSharedInstance();
+	}
+
+
+	@Test
+	public void singleBlockVolume()
+	{
+		CuboidData cuboid = _buildCuboid();
+		int[] readCount = new int[1];
+		BlockKindCache cache = new BlockKindCache(_buildFetcher(cuboid, readCount));
+		Function<AbsoluteLocation, PathFinder.BlockKind> lookup = cache.getLookup(new EntityLocation(0.0f, 0.0f, 0.0f), new EntityVolume(0.7f, 0.4f));
+		
+		Assert.assertEquals(PathFinder.BlockKind.SOLID, lookup.apply(new AbsoluteLocation(5, 5, 0)));
+		Assert.assertEquals(PathFinder.BlockKind.WALKABLE, lookup.apply(new AbsoluteLocation(5, 6, 1)));
+		Assert.assertEquals(PathFinder.BlockKind.SWIMMABLE, lookup.apply(new AbsoluteLocation(5, 5, 1)));
+		// Missing cuboids are solid.
+		Assert.assertEquals(PathFinder.BlockKind.SOLID, lookup.apply(new AbsoluteLocation(-1, 5, 1)));
+		Assert.assertEquals(4, readCount[0]);
+		
+		// Asking again doesn't read anything.
+		Assert.assertEquals(PathFinder.BlockKind.SWIMMABLE, lookup.apply(new AbsoluteLocation(5, 5, 1)));
+		Assert.assertEquals(4, readCount[0]);
+	}
+
+	@Test
+	public void shareVolumeClass()
+	{
+		CuboidData cuboid = _buildCuboid();
+		int[] readCount = new int[1];
+		BlockKindCache cache = new BlockKindCache(_buildFetcher(cuboid, readCount));
+		
+		// These are different volumes but both are within a single block, so they should share a volume class.
+		Function<AbsoluteLocation, PathFinder.BlockKind> orc = cache.getLookup(new EntityLocation(0.1f, 0.1f, 0.0f), new EntityVolume(0.7f, 0.4f));
+		Function<AbsoluteLocation, PathFinder.BlockKind> calf = cache.getLookup(new EntityLocation(0.2f, 0.3f, 0.0f), new EntityVolume(0.4f, 0.6f));
+		Assert.assertEquals(1, cache.getVolumeClassCount());
+		Assert.assertEquals(PathFinder.BlockKind.WALKABLE, orc.apply(new AbsoluteLocation(8, 8, 1)));
+		Assert.assertEquals(PathFinder.BlockKind.WALKABLE, calf.apply(new AbsoluteLocation(8, 8, 1)));
+		Assert.assertEquals(1, readCount[0]);
+		
+		// A large creature spans more blocks so it is a different volume class, but it only reads the new blocks.
+		Function<AbsoluteLocation, PathFinder.BlockKind> cow = cache.getLookup(new EntityLocation(0.5f, 0.5f, 0.0f), new EntityVolume(0.9f, 1.2f));
+		Assert.assertEquals(2, cache.getVolumeClassCount());
+		Assert.assertEquals(PathFinder.BlockKind.WALKABLE, cow.apply(new AbsoluteLocation(8, 8, 1)));
+		Assert.assertEquals(1 + 3, readCount[0]);
+		
+		// The cow overlapping the water is swimmable, even though its base block isn't.
+		Assert.assertEquals(PathFinder.BlockKind.SWIMMABLE, cow.apply(new AbsoluteLocation(4, 4, 1)));
+		Assert.assertEquals(PathFinder.BlockKind.WALKABLE, orc.apply(new AbsoluteLocation(4, 4, 1)));
+	}
+
+
+	private static CuboidData _buildCuboid()
+	{
+		CuboidData cuboid = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR);
+		CuboidGenerator.fillPlane(cuboid, (byte)0, STONE);
+		cuboid.setData15(AspectRegistry.BLOCK, BlockAddress.fromInt(5, 5, 1), WATER_SOURCE.item().number());
+		return cuboid;
+	}
+
+	private static TickProcessingContext.IBlockFetcher _buildFetcher(CuboidData cuboid, int[] readCount)
+	{
+		return new TickProcessingContext.IBlockFetcher() {
+			@Override
+			public BlockProxy readBlock(AbsoluteLocation location)
+			{
+				// Not used in test.
+				Assert.fail();
+				return null;
+			}
+			@Override
+			public Map<AbsoluteLocation, BlockProxy> readBlockBatch(Collection<AbsoluteLocation> locations)
+			{
+				Map<AbsoluteLocation, BlockProxy> result = new HashMap<>();
+				for (AbsoluteLocation location : locations)
+				{
+					readCount[0] += 1;
+					if (cuboid.getCuboidAddress().equals(location.getCuboidAddress()))
+					{
+						result.put(location, BlockProxy.load(location.getBlockAddress(), cuboid));
+					}
+				}
+				return result;
+			}
+		};
+	}
+}
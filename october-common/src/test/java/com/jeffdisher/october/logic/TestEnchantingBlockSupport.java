@@ -475,6 +475,8 @@ public class TestEnchantingBlockSupport
 			, null
 			, null
 			, null
+			, null
+			, null
 			, mutationSink
 			, null
 			, null
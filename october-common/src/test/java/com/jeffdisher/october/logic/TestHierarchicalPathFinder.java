@@ -0,0 +1,233 @@
+package com.jeffdisher.october.logic;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jeffdisher.october.aspects.AspectRegistry;
+import com.jeffdisher.october.aspects.Environment;
+import com.jeffdisher.october.data.CuboidData;
+import com.jeffdisher.october.types.AbsoluteLocation;
+import com.jeffdisher.october.types.Block;
+import com.jeffdisher.october.types.BlockAddress;
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.types.EntityLocation;
+import com.jeffdisher.october.types.TickProcessingContext;
+import com.jeffdisher.october.utils.CuboidGenerator;
+
+
+public class TestHierarchicalPathFinder
+{
+	private static Environment ENV;
+	private static Block STONE;
+	@BeforeClass
+	public static void setup() throws Throwable
+	{
+		ENV = Environment.createSharedInstance();
+		STONE = ENV.blocks.fromItem(ENV.items.getItemById("op.stone"));
+	}
+	@AfterClass
+	public static void tearDown()
+	{
+		Environment.clearSharedInstance();
+	}
+
+
+	@Test
+	public void uniformGraphs()
+	{
+		CuboidData air = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR);
+		CuboidData stone = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, -1), STONE);
+		
+		CuboidNavigationGraph airGraph = CuboidNavigationGraph.build(air);
+		Assert.assertEquals(1, airGraph.getRegionCount());
+		Assert.assertEquals(0, airGraph.getRegion(5, 6, 7));
+		
+		CuboidNavigationGraph stoneGraph = CuboidNavigationGraph.build(stone);
+		Assert.assertEquals(0, stoneGraph.getRegionCount());
+		Assert.assertEquals(CuboidNavigationGraph.NO_REGION, stoneGraph.getRegion(5, 6, 7));
+	}
+
+	@Test
+	public void wallSplitsRegions()
+	{
+		CuboidData cuboid = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR);
+		_fillPlaneX(cuboid, 16, STONE);
+		
+		CuboidNavigationGraph graph = CuboidNavigationGraph.build(cuboid);
+		Assert.assertEquals(2, graph.getRegionCount());
+		Assert.assertEquals(CuboidNavigationGraph.NO_REGION, graph.getRegion(16, 3, 3));
+		Assert.assertNotEquals(graph.getRegion(15, 3, 3), graph.getRegion(17, 3, 3));
+		Assert.assertEquals(graph.getRegion(0, 0, 0), graph.getRegion(15, 31, 31));
+	}
+
+	@Test
+	public void pathAcrossCuboids()
+	{
+		// Two open cuboids on a stone floor should produce the same path length as the flat search.
+		CuboidData west = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR);
+		CuboidData east = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(1, 0, 0), ENV.special.AIR);
+		CuboidGenerator.fillPlane(west, (byte)0, STONE);
+		CuboidGenerator.fillPlane(east, (byte)0, STONE);
+		Map<CuboidAddress, CuboidData> world = Map.of(west.getCuboidAddress(), west, east.getCuboidAddress(), east);
+		Function<AbsoluteLocation, PathFinder.BlockKind> blockKind = _blockKind(world, new int[1]);
+		
+		EntityLocation source = new EntityLocation(28.0f, 5.0f, 1.0f);
+		EntityLocation target = new EntityLocation(36.0f, 9.0f, 1.0f);
+		List<AbsoluteLocation> flat = PathFinder.findPathWithLimit(blockKind, source, target, 16.0f);
+		List<AbsoluteLocation> path = HierarchicalPathFinder.findPathWithLimit(_navigation(world), blockKind, source, target, 16.0f);
+		Assert.assertEquals(1 + 8 + 4, flat.size());
+		Assert.assertEquals(flat.size(), path.size());
+		Assert.assertEquals(source.getBlockLocation(), path.get(0));
+		Assert.assertEquals(target.getBlockLocation(), path.get(path.size() - 1));
+	}
+
+	@Test
+	public void unreachableSkipsBlockSearch()
+	{
+		// A full wall at the cuboid boundary means that the abstract search fails without reading any blocks.
+		CuboidData west = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR);
+		CuboidData east = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(1, 0, 0), ENV.special.AIR);
+		CuboidGenerator.fillPlane(west, (byte)0, STONE);
+		CuboidGenerator.fillPlane(east, (byte)0, STONE);
+		_fillPlaneX(east, 0, STONE);
+		Map<CuboidAddress, CuboidData> world = Map.of(west.getCuboidAddress(), west, east.getCuboidAddress(), east);
+		int[] lookupCount = new int[1];
+		Function<AbsoluteLocation, PathFinder.BlockKind> blockKind = _blockKind(world, lookupCount);
+		
+		EntityLocation source = new EntityLocation(28.0f, 5.0f, 1.0f);
+		EntityLocation target = new EntityLocation(36.0f, 9.0f, 1.0f);
+		List<AbsoluteLocation> path = HierarchicalPathFinder.findPathWithLimit(_navigation(world), blockKind, source, target, 16.0f);
+		Assert.assertNull(path);
+		Assert.assertEquals(0, lookupCount[0]);
+		
+		// The flat search reaches the same conclusion, but only after walking everything in range.
+		Assert.assertNull(PathFinder.findPathWithLimit(blockKind, source, target, 16.0f));
+		Assert.assertTrue(lookupCount[0] > 1000);
+	}
+
+	@Test
+	public void detourOutsideCorridor()
+	{
+		// The wall between west and east is only open high above the floor, so the abstract search finds a direct
+		// corridor which can't be walked, but the search continues around through the cuboids to the north.
+		CuboidData west = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR);
+		CuboidData east = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(1, 0, 0), ENV.special.AIR);
+		CuboidData northWest = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 1, 0), ENV.special.AIR);
+		CuboidData northEast = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(1, 1, 0), ENV.special.AIR);
+		for (CuboidData cuboid : List.of(west, east, northWest, northEast))
+		{
+			CuboidGenerator.fillPlane(cuboid, (byte)0, STONE);
+		}
+		_fillPlaneX(east, 0, STONE);
+		east.setData15(AspectRegistry.BLOCK, BlockAddress.fromInt(0, 5, 20), ENV.special.AIR.item().number());
+		Map<CuboidAddress, CuboidData> world = Map.of(west.getCuboidAddress(), west
+			, east.getCuboidAddress(), east
+			, northWest.getCuboidAddress(), northWest
+			, northEast.getCuboidAddress(), northEast
+		);
+		Function<AbsoluteLocation, PathFinder.BlockKind> blockKind = _blockKind(world, new int[1]);
+		
+		EntityLocation source = new EntityLocation(28.0f, 28.0f, 1.0f);
+		EntityLocation target = new EntityLocation(36.0f, 28.0f, 1.0f);
+		List<AbsoluteLocation> flat = PathFinder.findPathWithLimit(blockKind, source, target, 40.0f);
+		List<AbsoluteLocation> path = HierarchicalPathFinder.findPathWithLimit(_navigation(world), blockKind, source, target, 40.0f);
+		Assert.assertNotNull(flat);
+		Assert.assertEquals(flat.size(), path.size());
+		Assert.assertEquals(target.getBlockLocation(), path.get(path.size() - 1));
+		Assert.assertTrue(path.stream().anyMatch((AbsoluteLocation location) -> (location.y() >= 32)));
+	}
+
+	@Test
+	public void tooFarCostsOneSearch()
+	{
+		// When there is a corridor but the target is beyond the step limit, the search continues outside the corridor
+		// instead of starting over, so it reads about as many blocks as the flat search.
+		CuboidData west = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR);
+		CuboidData east = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(1, 0, 0), ENV.special.AIR);
+		CuboidData northWest = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 1, 0), ENV.special.AIR);
+		for (CuboidData cuboid : List.of(west, east, northWest))
+		{
+			CuboidGenerator.fillPlane(cuboid, (byte)0, STONE);
+		}
+		Map<CuboidAddress, CuboidData> world = Map.of(west.getCuboidAddress(), west
+			, east.getCuboidAddress(), east
+			, northWest.getCuboidAddress(), northWest
+		);
+		int[] flatCount = new int[1];
+		int[] hierarchicalCount = new int[1];
+		
+		EntityLocation source = new EntityLocation(20.0f, 28.0f, 1.0f);
+		EntityLocation target = new EntityLocation(60.0f, 5.0f, 1.0f);
+		Assert.assertNull(PathFinder.findPathWithLimit(_blockKind(world, flatCount), source, target, 16.0f));
+		Assert.assertNull(HierarchicalPathFinder.findPathWithLimit(_navigation(world), _blockKind(world, hierarchicalCount), source, target, 16.0f));
+		Assert.assertTrue(hierarchicalCount[0] <= flatCount[0]);
+	}
+
+	@Test
+	public void cacheRebuildsOnChange()
+	{
+		CuboidData cuboid = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(0, 0, 0), ENV.special.AIR);
+		NavigationGraphCache cache = new NavigationGraphCache();
+		CuboidNavigationGraph first = cache.getGraph(cuboid);
+		Assert.assertTrue(first == cache.getGraph(cuboid));
+		
+		// A new instance of the cuboid (even identical) invalidates the graph.
+		CuboidData changed = CuboidData.mutableClone(cuboid);
+		_fillPlaneX(changed, 16, STONE);
+		CuboidNavigationGraph second = cache.getGraph(changed);
+		Assert.assertTrue(first != second);
+		Assert.assertEquals(2, second.getRegionCount());
+		Assert.assertEquals(1, cache.size());
+		
+		cache.retainOnly(Set.of());
+		Assert.assertEquals(0, cache.size());
+	}
+
+
+	private static void _fillPlaneX(CuboidData cuboid, int x, Block block)
+	{
+		for (int y = 0; y < 32; ++y)
+		{
+			for (int z = 0; z < 32; ++z)
+			{
+				cuboid.setData15(AspectRegistry.BLOCK, BlockAddress.fromInt(x, y, z), block.item().number());
+			}
+		}
+	}
+
+	private static TickProcessingContext.INavigationLookup _navigation(Map<CuboidAddress, CuboidData> world)
+	{
+		NavigationGraphCache cache = new NavigationGraphCache();
+		return (CuboidAddress address) -> {
+			CuboidData cuboid = world.get(address);
+			return (null != cuboid) ? cache.getGraph(cuboid) : null;
+		};
+	}
+
+	private static Function<AbsoluteLocation, PathFinder.BlockKind> _blockKind(Map<CuboidAddress, CuboidData> world, int[] lookupCount)
+	{
+		return (AbsoluteLocation location) -> {
+			lookupCount[0] += 1;
+			CuboidData cuboid = world.get(location.getCuboidAddress());
+			PathFinder.BlockKind kind;
+			if (null != cuboid)
+			{
+				short number = cuboid.getData15(AspectRegistry.BLOCK, location.getBlockAddress());
+				Block block = ENV.blocks.fromItem(ENV.items.ITEMS_BY_TYPE[number]);
+				kind = ENV.blocks.isSolid(block, false) ? PathFinder.BlockKind.SOLID : PathFinder.BlockKind.WALKABLE;
+			}
+			else
+			{
+				kind = PathFinder.BlockKind.SOLID;
+			}
+			return kind;
+		};
+	}
+}
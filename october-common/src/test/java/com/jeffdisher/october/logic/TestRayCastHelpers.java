@@ -11,6 +11,7 @@ import org.junit.Test;
 import com.jeffdisher.october.aspects.Environment;
 import com.jeffdisher.october.aspects.MiscConstants;
 import com.jeffdisher.october.types.AbsoluteLocation;
+import com.jeffdisher.october.types.CreatureEntity;
 import com.jeffdisher.october.types.Entity;
 import com.jeffdisher.october.types.EntityLocation;
 import com.jeffdisher.october.types.MutableEntity;
@@ -286,6 +287,31 @@ public class TestRayCastHelpers
 		Assert.assertEquals(1.00f, result.rayDistance(), 0.01f);
 	}
 
+	@Test
+	public void entityCollisionWithCreatures() throws Throwable
+	{
+		// Show that rays find the closest of both players and creatures.
+		Map<Integer, Entity> players = Map.of(1, _buildPlayer(1, new EntityLocation(1.0f, 1.0f, 1.0f))
+			, 2, _buildPlayer(2, new EntityLocation(2.0f, 2.0f, 2.0f))
+		);
+		CreatureEntity orc = CreatureEntity.create(-1, ENV.creatures.getTypeById("op.orc"), new EntityLocation(-3.0f, 1.0f, 1.0f), 0L);
+		EntityCollection collection = EntityCollection.fromMaps(players, Map.of(orc.id(), orc));
+		
+		EntityLocation[][] rays = new EntityLocation[][] {
+			{ new EntityLocation(3.0f, 3.0f, 3.0f), new EntityLocation(-5.0f, -5.0f, -5.0f) },
+			{ new EntityLocation(3.0f, 3.0f, 3.0f), new EntityLocation(5.0f, 5.0f, 5.0f) },
+			{ new EntityLocation(0.0f, 0.0f, 0.0f), new EntityLocation(5.0f, 5.0f, 5.0f) },
+			{ new EntityLocation(1.5f, 1.2f, 1.2f), new EntityLocation(-5.0f, 1.2f, 1.2f) },
+			{ new EntityLocation(-1.0f, 1.2f, 1.2f), new EntityLocation(-5.0f, 1.2f, 1.2f) },
+			{ new EntityLocation(-1.0f, 5.0f, 1.2f), new EntityLocation(-5.0f, 5.0f, 1.2f) },
+		};
+		int[] expected = new int[] { 2, 0, 1, 1, orc.id(), 0 };
+		for (int i = 0; i < rays.length; ++i)
+		{
+			Assert.assertEquals(expected[i], RayCastHelpers.findFirstCollisionInCollection(ENV, rays[i][0], rays[i][1], collection));
+		}
+	}
+
 
 	private static void _checkPathOneBlockStep(List<AbsoluteLocation> path)
 	{
@@ -11,6 +11,7 @@ import java.util.function.IntUnaryOperator;
 import org.junit.Assert;
 
 import com.jeffdisher.october.data.BlockProxy;
+import com.jeffdisher.october.logic.BlockKindCache;
 
 
 /**
@@ -30,6 +31,7 @@ public class ContextBuilder
 		ContextBuilder builder = new ContextBuilder()
 				.tick(previous.currentTick + ticksToAdvance)
 				.lookups(previous.previousBlockLookUp, previous.previousEntityLookUp, previous.previousPassiveLookUp)
+				.navigation(previous.navigation)
 				.sinks(previous.mutationSink, previous.newChangeSink)
 				.spawner(previous.creatureSpawner)
 				.passive(previous.passiveSpawner)
@@ -70,6 +72,8 @@ public class ContextBuilder
 	public TickProcessingContext.IBlockFetcher previousBlockLookUp;
 	public TickProcessingContext.IEntitySearch previousEntityLookUp;
 	public TickProcessingContext.IPassiveSearch previousPassiveLookUp;
+	public TickProcessingContext.INavigationLookup navigation;
+	public BlockKindCache blockKindCache;
 	public TickProcessingContext.ITransactionSupport transactions;
 	public IByteLookup<AbsoluteLocation> skyLight;
 	public TickProcessingContext.IMutationSink mutationSink;
@@ -111,6 +115,18 @@ public class ContextBuilder
 		return this;
 	}
 
+	public ContextBuilder navigation(TickProcessingContext.INavigationLookup navigation)
+	{
+		this.navigation = navigation;
+		return this;
+	}
+
+	public ContextBuilder blockKindCache(BlockKindCache blockKindCache)
+	{
+		this.blockKindCache = blockKindCache;
+		return this;
+	}
+
 	public ContextBuilder transactions(TickProcessingContext.ITransactionSupport transactions)
 	{
 		this.transactions = transactions;
@@ -202,6 +218,8 @@ public class ContextBuilder
 				, this.previousBlockLookUp
 				, this.previousEntityLookUp
 				, this.previousPassiveLookUp
+				, this.navigation
+				, this.blockKindCache
 				, this.transactions
 				, this.skyLight
 				, this.mutationSink
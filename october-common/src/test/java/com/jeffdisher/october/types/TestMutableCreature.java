@@ -80,6 +80,35 @@ public class TestMutableCreature
 		Assert.assertTrue(output.extendedData() instanceof ExtensionLivestock.LivestockData);
 	}
 
+	@Test
+	public void reloadReuse() throws Throwable
+	{
+		// Show that a reloaded instance has no state left over from the previous creature.
+		CreatureEntity first = _buildTestEntity();
+		CreatureEntity second = CreatureEntity.create(-2
+				, COW
+				, new EntityLocation(5.0f, 6.0f, 7.0f)
+				, 0L
+		);
+		MutableCreature mutable = MutableCreature.existing(first);
+		mutable.setHealth((byte)20);
+		mutable.newLocation = new EntityLocation(1.0f, 0.0f, 0.0f);
+		CreatureEntity output = mutable.freeze();
+		Assert.assertEquals(20, output.health());
+		Assert.assertTrue(mutable.shouldTakeActionInTick);
+		
+		mutable.reload(second);
+		Assert.assertEquals(-2, mutable.getId());
+		Assert.assertEquals(second.location(), mutable.newLocation);
+		Assert.assertFalse(mutable.shouldTakeActionInTick);
+		Assert.assertTrue(second == mutable.freeze());
+		
+		// Setting something back to its original value is still considered unchanged.
+		mutable.reload(second);
+		mutable.newVelocity = new EntityLocation(0.0f, 0.0f, 0.0f);
+		Assert.assertTrue(second == mutable.freeze());
+	}
+
 
 	private static CreatureEntity _buildTestEntity()
 	{
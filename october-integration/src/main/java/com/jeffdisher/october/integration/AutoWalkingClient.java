@@ -56,6 +56,10 @@ public class AutoWalkingClient
 	 * We will report current location every 10 seconds.
 	 */
 	public static final long REPORT_INTERVAL_MILLIS = 10_000L;
+	/**
+	 * The client takes a step of its command every 100 ms.
+	 */
+	public static final long STEP_INTERVAL_MILLIS = 100L;
 
 	public static void main(String[] args) throws IOException, InterruptedException, ClientProcess.DisconnectException, TabListReader.TabListException
 	{
@@ -120,55 +124,22 @@ public class AutoWalkingClient
 		Environment env = Environment.getShared();
 		
 		// Select the block (note that this assumes that we are in creative mode).
-		Block stoneBrick = env.blocks.getAsPlaceableBlock(env.items.getItemById("op.stone_brick"));
-		Block lantern = env.blocks.getAsPlaceableBlock(env.items.getItemById("op.lantern"));
-		Item toSelect = (_Action.LANTERN == command.action)
-				? lantern.item()
-				: stoneBrick.item()
-		;
-		EntitySubActionSelectItem select = new EntitySubActionSelectItem(toSelect.number());
-		client.sendAction(select, System.currentTimeMillis());
+		Walker walker = new Walker(env, client, command.action, command.direction, listener.thisEntity);
+		walker.selectItem(System.currentTimeMillis());
 		
 		// We can now run the loop.
 		System.out.println("Running command " + command.action + " " + command.direction);
 		long lastReport = 0L;
-		AbsoluteLocation lastBlock = listener.thisEntity.location().getBlockLocation();
 		while (listener.isConnected)
 		{
-			Thread.sleep(100L);
+			Thread.sleep(STEP_INTERVAL_MILLIS);
 			long currentTimeMillis = System.currentTimeMillis();
 			if (currentTimeMillis >= (lastReport + REPORT_INTERVAL_MILLIS))
 			{
 				System.out.println("Location: " + listener.thisEntity.location());
 				lastReport = currentTimeMillis;
 			}
-			if (_isOutsideOfBlock(env, lastBlock, listener.thisEntity))
-			{
-				// Take special action.
-				switch (command.action)
-				{
-				case WALK:
-					// Do nothing special.
-					break;
-				case BREAK:
-					EntitySubActionIncrementalBlockBreak change = new EntitySubActionIncrementalBlockBreak(lastBlock.getRelative(0, 0, -1));
-					client.sendAction(change, currentTimeMillis);
-					break;
-				case BRICK:
-				case LANTERN:
-					client.sendAction(new EntitySubActionPlaceSelectedBlock(lastBlock, lastBlock), currentTimeMillis);
-					break;
-					default:
-						throw Assert.unreachable();
-				}
-				lastBlock = listener.thisEntity.location().getBlockLocation();
-			}
-			else
-			{
-				byte yaw = command.direction.yaw;
-				client.setOrientation(yaw, OrientationHelpers.PITCH_FLAT);
-				client.walk(RelativeDirection.FORWARD, false, currentTimeMillis);
-			}
+			walker.step(listener.thisEntity, currentTimeMillis);
 		}
 		client.disconnect();
 	}
@@ -178,25 +149,13 @@ public class AutoWalkingClient
 		String[] parts = commandText.split(" ");
 		// We only expect the 2 strings: "ACTION DIRECTION"
 		Assert.assertTrue(2 == parts.length);
-		_Action action = _Action.valueOf(parts[0]);
+		Action action = Action.valueOf(parts[0]);
 		Assert.assertTrue(null != action);
-		_Direction direction = _Direction.valueOf(parts[1]);
+		Direction direction = Direction.valueOf(parts[1]);
 		Assert.assertTrue(null != direction);
 		return new _Command(action, direction);
 	}
 
-	private static boolean _isOutsideOfBlock(Environment env, AbsoluteLocation block, Entity entity)
-	{
-		EntityLocation base = entity.location();
-		EntityVolume volume = env.creatures.PLAYER.volume();
-		EntityLocation edge = base.getRelative(volume.width(), volume.width(), volume.height());
-		
-		// We will say that we are out of this block if neither the base nor the edge are within this block (note that this could fail if the volume is larger than 1 block in any direction).
-		AbsoluteLocation baseBlock = base.getBlockLocation();
-		AbsoluteLocation edgeBlock = edge.getBlockLocation();
-		return !block.equals(baseBlock) && !block.equals(edgeBlock);
-	}
-
 
 	private static class _Listener implements ClientProcess.IListener
 	{
@@ -305,16 +264,8 @@ public class AutoWalkingClient
 		}
 	}
 
-	private static enum _Action
-	{
-		WALK,
-		BREAK,
-		BRICK,
-		LANTERN,
-	}
-
-	private static record _Command(_Action action
-			, _Direction direction
+	private static record _Command(Action action
+			, Direction direction
 	) {}
 
 	private static record _Packaged(_Listener listener
@@ -322,7 +273,33 @@ public class AutoWalkingClient
 			, _Command command
 	) {}
 
-	private static enum _Direction
+	/**
+	 * The special action a Walker takes each time it leaves a block.
+	 */
+	static enum Action
+	{
+		/**
+		 * Just walk.
+		 */
+		WALK,
+		/**
+		 * Break the block below the one which was just left.
+		 */
+		BREAK,
+		/**
+		 * Place a stone brick block in the one which was just left.
+		 */
+		BRICK,
+		/**
+		 * Place a lantern in the block which was just left.
+		 */
+		LANTERN,
+	}
+
+	/**
+	 * The cardinal direction a Walker walks.
+	 */
+	static enum Direction
 	{
 		NORTH(OrientationHelpers.YAW_NORTH),
 		EAST(OrientationHelpers.YAW_EAST),
@@ -330,9 +307,107 @@ public class AutoWalkingClient
 		WEST(OrientationHelpers.YAW_WEST),
 		;
 		final byte yaw;
-		private _Direction(byte yaw)
+		private Direction(byte yaw)
 		{
 			this.yaw = yaw;
 		}
 	}
+
+	/**
+	 * The per-client logic of walking in a direction and potentially breaking or placing a block each time a block is
+	 * left behind.  This has no thread of its own so it is stepped by whatever loop owns the client, which allows many
+	 * of these to be driven from a few threads (see LoadGenerator).
+	 * Note that this assumes that the client is in creative mode if breaking or placing.
+	 */
+	static class Walker
+	{
+		private final Environment _env;
+		private final ClientProcess _client;
+		private final Action _action;
+		private final Direction _direction;
+		private AbsoluteLocation _lastBlock;
+		
+		/**
+		 * Creates the walker for a connected client.
+		 * 
+		 * @param env The environment.
+		 * @param client The client to drive.
+		 * @param action The action to take when leaving a block.
+		 * @param direction The direction to walk.
+		 * @param thisEntity The client's current projected entity.
+		 */
+		public Walker(Environment env, ClientProcess client, Action action, Direction direction, Entity thisEntity)
+		{
+			_env = env;
+			_client = client;
+			_action = action;
+			_direction = direction;
+			_lastBlock = thisEntity.location().getBlockLocation();
+		}
+		
+		/**
+		 * Selects the block the action places (stone brick unless placing lanterns).
+		 * 
+		 * @param currentTimeMillis The current time, in milliseconds.
+		 */
+		public void selectItem(long currentTimeMillis)
+		{
+			Block stoneBrick = _env.blocks.getAsPlaceableBlock(_env.items.getItemById("op.stone_brick"));
+			Block lantern = _env.blocks.getAsPlaceableBlock(_env.items.getItemById("op.lantern"));
+			Item toSelect = (Action.LANTERN == _action)
+					? lantern.item()
+					: stoneBrick.item()
+			;
+			EntitySubActionSelectItem select = new EntitySubActionSelectItem(toSelect.number());
+			_client.sendAction(select, currentTimeMillis);
+		}
+		
+		/**
+		 * Takes the next step:  Either the special action, if the entity has left the last block, or walking forward.
+		 * 
+		 * @param thisEntity The client's current projected entity.
+		 * @param currentTimeMillis The current time, in milliseconds.
+		 */
+		public void step(Entity thisEntity, long currentTimeMillis)
+		{
+			if (_isOutsideOfBlock(_env, _lastBlock, thisEntity))
+			{
+				// Take special action.
+				switch (_action)
+				{
+				case WALK:
+					// Do nothing special.
+					break;
+				case BREAK:
+					EntitySubActionIncrementalBlockBreak change = new EntitySubActionIncrementalBlockBreak(_lastBlock.getRelative(0, 0, -1));
+					_client.sendAction(change, currentTimeMillis);
+					break;
+				case BRICK:
+				case LANTERN:
+					_client.sendAction(new EntitySubActionPlaceSelectedBlock(_lastBlock, _lastBlock), currentTimeMillis);
+					break;
+					default:
+						throw Assert.unreachable();
+				}
+				_lastBlock = thisEntity.location().getBlockLocation();
+			}
+			else
+			{
+				_client.setOrientation(_direction.yaw, OrientationHelpers.PITCH_FLAT);
+				_client.walk(RelativeDirection.FORWARD, false, currentTimeMillis);
+			}
+		}
+		
+		private static boolean _isOutsideOfBlock(Environment env, AbsoluteLocation block, Entity entity)
+		{
+			EntityLocation base = entity.location();
+			EntityVolume volume = env.creatures.PLAYER.volume();
+			EntityLocation edge = base.getRelative(volume.width(), volume.width(), volume.height());
+			
+			// We will say that we are out of this block if neither the base nor the edge are within this block (note that this could fail if the volume is larger than 1 block in any direction).
+			AbsoluteLocation baseBlock = base.getBlockLocation();
+			AbsoluteLocation edgeBlock = edge.getBlockLocation();
+			return !block.equals(baseBlock) && !block.equals(edgeBlock);
+		}
+	}
 }
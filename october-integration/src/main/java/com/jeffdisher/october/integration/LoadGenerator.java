@@ -0,0 +1,548 @@
+package com.jeffdisher.october.integration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.jeffdisher.october.aspects.Aspect;
+import com.jeffdisher.october.aspects.Environment;
+import com.jeffdisher.october.config.TabListReader;
+import com.jeffdisher.october.data.ColumnHeightMap;
+import com.jeffdisher.october.data.IReadOnlyCuboidData;
+import com.jeffdisher.october.persistence.ResourceLoader;
+import com.jeffdisher.october.process.ClientProcess;
+import com.jeffdisher.october.process.CuboidDecodePool;
+import com.jeffdisher.october.process.ServerProcess;
+import com.jeffdisher.october.server.MonitoringAgent;
+import com.jeffdisher.october.server.ServerRunner;
+import com.jeffdisher.october.ticks.TickSnapshot;
+import com.jeffdisher.october.types.BlockAddress;
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.types.Entity;
+import com.jeffdisher.october.types.EventRecord;
+import com.jeffdisher.october.types.PartialEntity;
+import com.jeffdisher.october.types.PartialPassive;
+import com.jeffdisher.october.types.WorldConfig;
+import com.jeffdisher.october.utils.Assert;
+import com.jeffdisher.october.worldgen.IWorldGenerator;
+import com.jeffdisher.october.worldgen.WorldGenHelpers;
+
+
+/**
+ * A load-testing program which starts a ServerProcess on an ephemeral loopback port, with a new flat world in a
+ * temporary directory, and then connects many clients to it from within this JVM.  Each client is driven by an
+ * AutoWalkingClient.Walker, so it walks out from the spawn in one of the cardinal directions and potentially breaks or
+ * places blocks behind it as it goes.  The world gives new players creative mode so that breaking and placing work.
+ * Once all the clients are connected, it measures for the requested duration and then reports:
+ * -the server's tick time percentiles
+ * -the mean number of bytes sent by the server to each client (and received from each client)
+ * -client-observed latency percentiles:  The time from the server publishing a tick until the end of that tick arrives
+ *  on a client's network thread
+ * -harness delay percentiles:  The time from the end of a tick arriving on a client until the driver thread ran the
+ *  client's pending calls and completed the tick (the load generator's own overhead, reported so it isn't mistaken for
+ *  server latency)
+ * 
+ * Starting the program takes 3 arguments:
+ * -client count
+ * -duration in seconds
+ * -pattern:  "WALK", "BREAK", "BRICK", or "LANTERN" to have every client take that action, or "MIXED" to have the
+ *  clients cycle through them
+ * 
+ * The point of this is to have a repeatable way to measure how many clients a server build can carry, on one machine.
+ * Note that the clients share the machine with the server so the client-observed latency includes time they spend
+ * waiting for a CPU.
+ */
+public class LoadGenerator
+{
+	/**
+	 * The clients only look at the cuboids immediately around them so we keep their view distance small.
+	 */
+	public static final int CLIENT_VIEW_DISTANCE = 1;
+	public static final String PATTERN_MIXED = "MIXED";
+	/**
+	 * The driver threads check for incoming updates this often, between taking steps.
+	 */
+	public static final long POLL_INTERVAL_MILLIS = 5L;
+
+	public static void main(String[] args) throws IOException, InterruptedException, ClientProcess.DisconnectException, TabListReader.TabListException
+	{
+		if (3 == args.length)
+		{
+			int clientCount = Integer.parseInt(args[0]);
+			long durationMillis = Long.parseLong(args[1]) * 1_000L;
+			String pattern = args[2];
+			AutoWalkingClient.Action[] actions = PATTERN_MIXED.equals(pattern)
+					? AutoWalkingClient.Action.values()
+					: new AutoWalkingClient.Action[] { AutoWalkingClient.Action.valueOf(pattern) }
+			;
+			
+			Environment.createSharedInstance();
+			File worldDirectory = Files.createTempDirectory("october-load").toFile();
+			System.out.println("Starting " + clientCount + " clients (" + pattern + ") with world in " + worldDirectory);
+			run(worldDirectory, clientCount, durationMillis, actions, System.out);
+			_deleteRecursively(worldDirectory);
+			Environment.clearSharedInstance();
+		}
+		else
+		{
+			System.out.println("Usage:  <client_count> <duration_seconds> <WALK|BREAK|BRICK|LANTERN|MIXED>");
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Runs the load test to completion, returning once the clients have disconnected and the server has stopped.
+	 * Note that this requires that the shared Environment instance already exists.
+	 * 
+	 * @param worldDirectory The empty directory where the world will be stored.
+	 * @param clientCount The number of clients to connect.
+	 * @param durationMillis The length of the measurement, starting once all clients are connected.
+	 * @param actions The actions the clients take, assigned round-robin.
+	 * @param out The stream where the progress and results are reported.
+	 * @return The results of the measurement.
+	 * @throws IOException There was a problem starting the server or connecting a client.
+	 * @throws InterruptedException The thread was interrupted while waiting.
+	 * @throws ClientProcess.DisconnectException A client was disconnected during start-up.
+	 * @throws TabListReader.TabListException The world generator's data was invalid.
+	 */
+	static Result run(File worldDirectory
+			, int clientCount
+			, long durationMillis
+			, AutoWalkingClient.Action[] actions
+			, PrintStream out
+	) throws IOException, InterruptedException, ClientProcess.DisconnectException, TabListReader.TabListException
+	{
+		Environment env = Environment.getShared();
+		WorldConfig config = new WorldConfig();
+		config.worldGeneratorName = WorldConfig.WorldGeneratorName.FLAT;
+		config.defaultPlayerMode = WorldConfig.DefaultPlayerMode.CREATIVE;
+		IWorldGenerator worldGen = WorldGenHelpers.createConfiguredWorldGenerator(env, config);
+		config.worldSpawn = worldGen.getDefaultSpawnLocation().getBlockLocation();
+		ResourceLoader cuboidLoader = new ResourceLoader(worldDirectory
+			, worldGen
+			, config
+		);
+		_TickTimingAgent monitoringAgent = new _TickTimingAgent();
+		ServerProcess server = new ServerProcess(0
+			, Runtime.getRuntime().availableProcessors()
+			, ServerRunner.DEFAULT_MILLIS_PER_TICK
+			, cuboidLoader
+			, () -> System.currentTimeMillis()
+			, monitoringAgent
+			, config
+		);
+		
+		// Start all the connections before waiting on any of them, so that the handshakes overlap.
+		InetAddress address = InetAddress.getLoopbackAddress();
+		AutoWalkingClient.Direction[] directions = AutoWalkingClient.Direction.values();
+		List<_Listener> listeners = new ArrayList<>();
+		List<ClientProcess> clients = new ArrayList<>();
+		// The clients all share one pool for decoding cuboids, instead of each starting its own threads.
+		CuboidDecodePool decodePool = new CuboidDecodePool(CuboidDecodePool.DEFAULT_THREAD_COUNT);
+		for (int i = 0; i < clientCount; ++i)
+		{
+			_Listener listener = new _Listener(monitoringAgent);
+			listeners.add(listener);
+			ClientProcess client = new ClientProcess(listener, address, server.getPort(), "load" + i, CLIENT_VIEW_DISTANCE, decodePool);
+			listener.client = client;
+			clients.add(client);
+		}
+		List<_DrivenClient> driven = new ArrayList<>();
+		for (int i = 0; i < clientCount; ++i)
+		{
+			_Listener listener = listeners.get(i);
+			ClientProcess client = clients.get(i);
+			client.waitForLocalEntity(System.currentTimeMillis());
+			AutoWalkingClient.Walker walker = new AutoWalkingClient.Walker(env
+				, client
+				, actions[i % actions.length]
+				, directions[i % directions.length]
+				, listener.thisEntity
+			);
+			walker.selectItem(System.currentTimeMillis());
+			driven.add(new _DrivenClient(listener, client, walker));
+		}
+		out.println("Connected " + clientCount + " clients");
+		
+		// We leave a core for the server, split the clients across the rest, and then measure while they run.
+		int driverCount = Math.max(1, Math.min(clientCount, Runtime.getRuntime().availableProcessors() - 1));
+		_Drivers drivers = new _Drivers(driven, driverCount);
+		long[] bytesToClientsAtStart = new long[clientCount];
+		long[] bytesFromClientsAtStart = new long[clientCount];
+		for (int i = 0; i < clientCount; ++i)
+		{
+			bytesToClientsAtStart[i] = clients.get(i).getNetworkBytesReceived();
+			bytesFromClientsAtStart[i] = clients.get(i).getNetworkBytesSent();
+		}
+		monitoringAgent.setMeasuring(true);
+		Thread.sleep(durationMillis);
+		monitoringAgent.setMeasuring(false);
+		long totalBytesToClients = 0L;
+		long totalBytesFromClients = 0L;
+		for (int i = 0; i < clientCount; ++i)
+		{
+			totalBytesToClients += clients.get(i).getNetworkBytesReceived() - bytesToClientsAtStart[i];
+			totalBytesFromClients += clients.get(i).getNetworkBytesSent() - bytesFromClientsAtStart[i];
+		}
+		drivers.stop();
+		
+		for (ClientProcess client : clients)
+		{
+			client.disconnect();
+		}
+		decodePool.shutdown();
+		// Let the server finish unloading the disconnected entities before stopping it, so they are only written back once.
+		while (!monitoringAgent.getLastSnapshot().entities().isEmpty())
+		{
+			server.waitForTicksToPass(1L);
+		}
+		server.stop();
+		
+		// Now that everything has stopped, we can read the samples without racing.
+		List<Long> latencyNanos = new ArrayList<>();
+		List<Long> harnessDelayNanos = new ArrayList<>();
+		for (_Listener listener : listeners)
+		{
+			latencyNanos.addAll(listener.latencyNanos);
+			harnessDelayNanos.addAll(listener.harnessDelayNanos);
+		}
+		List<Long> tickNanos = monitoringAgent.getTickNanos();
+		Result result = new Result(clientCount
+			, tickNanos.size()
+			, _buildPercentiles(tickNanos)
+			, (clientCount > 0) ? (totalBytesToClients / clientCount) : 0L
+			, (clientCount > 0) ? (totalBytesFromClients / clientCount) : 0L
+			, latencyNanos.size()
+			, _buildPercentiles(latencyNanos)
+			, _buildPercentiles(harnessDelayNanos)
+		);
+		out.printf("Measured %d ticks over %d ms with %d clients on %d driver threads\n", result.tickCount, durationMillis, clientCount, driverCount);
+		out.printf("Server tick time:  p50 %d us, p90 %d us, p99 %d us, max %d us\n"
+			, result.tickNanos.p50 / 1_000L
+			, result.tickNanos.p90 / 1_000L
+			, result.tickNanos.p99 / 1_000L
+			, result.tickNanos.max / 1_000L
+		);
+		out.printf("Bytes per client:  %d sent by server (%d bytes/s), %d received by server\n"
+			, result.meanBytesSentToClient
+			, (durationMillis > 0L) ? (result.meanBytesSentToClient * 1_000L / durationMillis) : 0L
+			, result.meanBytesReceivedFromClient
+		);
+		out.printf("Client-observed latency (%d samples):  p50 %d us, p90 %d us, p99 %d us, max %d us\n"
+			, result.latencySampleCount
+			, result.latencyNanos.p50 / 1_000L
+			, result.latencyNanos.p90 / 1_000L
+			, result.latencyNanos.p99 / 1_000L
+			, result.latencyNanos.max / 1_000L
+		);
+		out.printf("Harness delay before completing ticks:  p50 %d us, p90 %d us, p99 %d us, max %d us\n"
+			, result.harnessDelayNanos.p50 / 1_000L
+			, result.harnessDelayNanos.p90 / 1_000L
+			, result.harnessDelayNanos.p99 / 1_000L
+			, result.harnessDelayNanos.max / 1_000L
+		);
+		return result;
+	}
+
+
+	private static Percentiles _buildPercentiles(List<Long> samples)
+	{
+		long[] sorted = samples.stream().mapToLong((Long sample) -> sample).sorted().toArray();
+		return new Percentiles(_nearestRank(sorted, 50)
+			, _nearestRank(sorted, 90)
+			, _nearestRank(sorted, 99)
+			, _nearestRank(sorted, 100)
+		);
+	}
+
+	private static long _nearestRank(long[] sorted, int percent)
+	{
+		long value = 0L;
+		if (sorted.length > 0)
+		{
+			int rank = (sorted.length * percent + 99) / 100;
+			value = sorted[Math.max(0, rank - 1)];
+		}
+		return value;
+	}
+
+	private static void _deleteRecursively(File file)
+	{
+		File[] children = file.listFiles();
+		if (null != children)
+		{
+			for (File child : children)
+			{
+				_deleteRecursively(child);
+			}
+		}
+		file.delete();
+	}
+
+
+	/**
+	 * The results of a load test.
+	 * 
+	 * @param clientCount The number of clients connected.
+	 * @param tickCount The number of ticks published by the server during the measurement.
+	 * @param tickNanos The time the server spent running each tick.
+	 * @param meanBytesSentToClient The mean number of bytes each client received from the server.
+	 * @param meanBytesReceivedFromClient The mean number of bytes each client sent to the server.
+	 * @param latencySampleCount The number of ends of ticks observed by clients during the measurement.
+	 * @param latencyNanos The time from the server publishing a tick until the end of that tick arrived on a client.
+	 * @param harnessDelayNanos The time from the end of a tick arriving on a client until the driver completed it.
+	 */
+	public static record Result(int clientCount
+			, int tickCount
+			, Percentiles tickNanos
+			, long meanBytesSentToClient
+			, long meanBytesReceivedFromClient
+			, int latencySampleCount
+			, Percentiles latencyNanos
+			, Percentiles harnessDelayNanos
+	) {}
+
+	/**
+	 * Nearest-rank percentiles of a set of samples (all 0 if there were no samples).
+	 */
+	public static record Percentiles(long p50
+			, long p90
+			, long p99
+			, long max
+	) {}
+
+	private static record _DrivenClient(_Listener listener
+			, ClientProcess client
+			, AutoWalkingClient.Walker walker
+	) {}
+
+	/**
+	 * Collects the time spent in each tick and when it was published, but only while measuring.
+	 * Note that the publish time is taken with System.nanoTime() so it can be compared against the clients' view.
+	 */
+	private static class _TickTimingAgent extends MonitoringAgent
+	{
+		private final List<Long> _tickNanos = new ArrayList<>();
+		private final Map<Long, Long> _publishNanosByTick = new HashMap<>();
+		private boolean _isMeasuring;
+		
+		@Override
+		public void snapshotPublished(TickSnapshot snapshot)
+		{
+			super.snapshotPublished(snapshot);
+			long publishNanos = System.nanoTime();
+			synchronized (this)
+			{
+				if (_isMeasuring)
+				{
+					TickSnapshot.TickStats stats = snapshot.stats();
+					_tickNanos.add(stats.nanosInPreamble() + stats.nanosInParallelPhase() + stats.nanosInPostamble());
+					_publishNanosByTick.put(snapshot.tickNumber(), publishNanos);
+				}
+			}
+		}
+		public synchronized void setMeasuring(boolean isMeasuring)
+		{
+			_isMeasuring = isMeasuring;
+		}
+		public synchronized List<Long> getTickNanos()
+		{
+			return new ArrayList<>(_tickNanos);
+		}
+		public synchronized long getPublishNanos(long tickNumber)
+		{
+			// We return 0 for any tick published outside of the measurement.
+			Long nanos = _publishNanosByTick.get(tickNumber);
+			return (null != nanos)
+					? nanos
+					: 0L
+			;
+		}
+	}
+
+	/**
+	 * The threads which drive the clients, each running the pending calls of its share of the clients and stepping
+	 * their walkers every AutoWalkingClient.STEP_INTERVAL_MILLIS.
+	 */
+	private static class _Drivers
+	{
+		private final Thread[] _threads;
+		private volatile boolean _keepRunning;
+		
+		public _Drivers(List<_DrivenClient> clients, int threadCount)
+		{
+			_threads = new Thread[threadCount];
+			_keepRunning = true;
+			for (int i = 0; i < threadCount; ++i)
+			{
+				List<_DrivenClient> share = new ArrayList<>();
+				for (int j = i; j < clients.size(); j += threadCount)
+				{
+					share.add(clients.get(j));
+				}
+				_threads[i] = new Thread(() -> _backgroundDrive(share), "Load Driver #" + i);
+				_threads[i].start();
+			}
+		}
+		
+		public void stop() throws InterruptedException
+		{
+			_keepRunning = false;
+			for (Thread thread : _threads)
+			{
+				thread.join();
+			}
+		}
+		
+		private void _backgroundDrive(List<_DrivenClient> clients)
+		{
+			long nextStepMillis = 0L;
+			while (_keepRunning)
+			{
+				long currentTimeMillis = System.currentTimeMillis();
+				boolean shouldStep = (currentTimeMillis >= nextStepMillis);
+				for (_DrivenClient driven : clients)
+				{
+					driven.client.runPendingCalls(currentTimeMillis);
+					if (shouldStep && driven.listener.isConnected)
+					{
+						driven.walker.step(driven.listener.thisEntity, currentTimeMillis);
+					}
+				}
+				if (shouldStep)
+				{
+					nextStepMillis = currentTimeMillis + AutoWalkingClient.STEP_INTERVAL_MILLIS;
+				}
+				try
+				{
+					Thread.sleep(POLL_INTERVAL_MILLIS);
+				}
+				catch (InterruptedException e)
+				{
+					// We don't use interruption.
+					throw Assert.unexpected(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Note that the callbacks are issued on whichever thread runs the client's pending calls:  A driver thread, once the
+	 * client is connected.
+	 */
+	private static class _Listener implements ClientProcess.IListener
+	{
+		private final _TickTimingAgent _agent;
+		// Set right after the client is created, before any callbacks can run.
+		public ClientProcess client;
+		public volatile boolean isConnected;
+		public Entity thisEntity;
+		public final List<Long> latencyNanos = new ArrayList<>();
+		public final List<Long> harnessDelayNanos = new ArrayList<>();
+		
+		public _Listener(_TickTimingAgent agent)
+		{
+			_agent = agent;
+		}
+		
+		@Override
+		public void connectionEstablished(int assignedEntityId, int currentViewDistance)
+		{
+			this.isConnected = true;
+		}
+		@Override
+		public void connectionClosed()
+		{
+			this.isConnected = false;
+		}
+		@Override
+		public void cuboidDidLoad(IReadOnlyCuboidData cuboid, ColumnHeightMap heightMap)
+		{
+		}
+		@Override
+		public void cuboidDidChange(IReadOnlyCuboidData cuboid
+				, ColumnHeightMap heightMap
+				, Set<BlockAddress> changedBlocks
+				, Set<Aspect<?, ?>> changedAspects
+		)
+		{
+		}
+		@Override
+		public void cuboidDidUnload(CuboidAddress address)
+		{
+		}
+		@Override
+		public void thisEntityDidLoad(Entity authoritativeEntity)
+		{
+			this.thisEntity = authoritativeEntity;
+		}
+		@Override
+		public void thisEntityDidChange(Entity projectedEntity)
+		{
+			this.thisEntity = projectedEntity;
+		}
+		@Override
+		public void otherEntityDidLoad(PartialEntity entity)
+		{
+		}
+		@Override
+		public void otherEntityDidChange(PartialEntity entity)
+		{
+		}
+		@Override
+		public void otherEntityDidUnload(int id)
+		{
+		}
+		@Override
+		public void passiveEntityDidLoad(PartialPassive entity)
+		{
+		}
+		@Override
+		public void passiveEntityDidChange(PartialPassive entity)
+		{
+		}
+		@Override
+		public void passiveEntityDidUnload(int id)
+		{
+		}
+		@Override
+		public void tickDidComplete(long gameTick)
+		{
+			long publishNanos = _agent.getPublishNanos(gameTick);
+			if (0L != publishNanos)
+			{
+				// We split the latency at the point where the end of the tick arrived on the client's network thread.
+				long arrivalNanos = this.client.getCompletedTickArrivalNanos();
+				this.latencyNanos.add(arrivalNanos - publishNanos);
+				this.harnessDelayNanos.add(System.nanoTime() - arrivalNanos);
+			}
+		}
+		@Override
+		public void handleEvent(EventRecord event)
+		{
+		}
+		@Override
+		public void configUpdated(int ticksPerDay, int dayStartTick)
+		{
+		}
+		@Override
+		public void otherClientLeft(int clientId)
+		{
+		}
+		@Override
+		public void otherClientJoined(int clientId, String name)
+		{
+		}
+		@Override
+		public void receivedChatMessage(int senderId, String message)
+		{
+		}
+	}
+}
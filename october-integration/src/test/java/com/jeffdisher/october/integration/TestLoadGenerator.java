@@ -0,0 +1,54 @@
+package com.jeffdisher.october.integration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.jeffdisher.october.aspects.Environment;
+
+
+public class TestLoadGenerator
+{
+	@ClassRule
+	public static TemporaryFolder DIRECTORY = new TemporaryFolder();
+	@BeforeClass
+	public static void setup() throws Throwable
+	{
+		Environment.createSharedInstance();
+	}
+	@AfterClass
+	public static void tearDown()
+	{
+		Environment.clearSharedInstance();
+	}
+
+	@Test
+	public void smallMixedLoad() throws Throwable
+	{
+		// Run a few clients with every pattern for a short time and make sure that we measured something of everything.
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		LoadGenerator.Result result = LoadGenerator.run(DIRECTORY.newFolder()
+			, 4
+			, 1_000L
+			, AutoWalkingClient.Action.values()
+			, new PrintStream(bytes)
+		);
+		
+		Assert.assertEquals(4, result.clientCount());
+		Assert.assertTrue(result.tickCount() > 0);
+		Assert.assertTrue(result.tickNanos().max() >= result.tickNanos().p50());
+		Assert.assertTrue(result.meanBytesSentToClient() > 0L);
+		Assert.assertTrue(result.meanBytesReceivedFromClient() > 0L);
+		Assert.assertTrue(result.latencySampleCount() > 0);
+		Assert.assertTrue(result.latencyNanos().max() >= result.latencyNanos().p50());
+		Assert.assertTrue(result.harnessDelayNanos().max() >= result.harnessDelayNanos().p50());
+		Assert.assertTrue(bytes.toString().contains("Harness delay before completing ticks:"));
+		Assert.assertTrue(bytes.toString().contains("Server tick time:"));
+	}
+}
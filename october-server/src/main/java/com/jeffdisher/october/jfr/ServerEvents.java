@@ -0,0 +1,213 @@
+package com.jeffdisher.october.jfr;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.utils.Assert;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * The JFR (Java Flight Recorder) events emitted by the server.  These are always emitted but cost almost nothing unless
+ * a recording is running, either started with the console's RECORD_START command or by the JVM's own JFR options.
+ * Each event records its duration and the thread which emitted it, so a recording can show which phase, cuboid,
+ * creature, or client was responsible for a slow tick.
+ * Note that the events are created, begun, and committed inline at the instrumented site, as is normal for JFR.  The
+ * exceptions are the per-cuboid and per-creature events, which are emitted often enough within a tick that the sites
+ * check the corresponding EventType, first, and don't allocate the event at all when it isn't being recorded.
+ */
+public class ServerEvents
+{
+	/**
+	 * All the event types defined here (enabled in any recording started with startRecording()).
+	 */
+	public static final List<Class<? extends Event>> ALL_EVENT_TYPES = List.of(TickPhase.class
+		, CuboidProcessed.class
+		, CreatureProcessed.class
+		, ClientSerialize.class
+		, ClusterWrite.class
+		, WorldGen.class
+	);
+	/**
+	 * The type of CuboidProcessed, checked before allocating one since these are emitted for every cuboid in a tick.
+	 */
+	public static final EventType CUBOID_PROCESSED_TYPE = EventType.getEventType(CuboidProcessed.class);
+	/**
+	 * The type of CreatureProcessed, checked before allocating one since these are emitted for every creature in a tick.
+	 */
+	public static final EventType CREATURE_PROCESSED_TYPE = EventType.getEventType(CreatureProcessed.class);
+
+	/**
+	 * Starts a new JFR recording using the JDK's "default" settings, with all the server events enabled, which will be
+	 * written to the given destination when it is stopped.
+	 * 
+	 * @param destination The file where the recording should be written.
+	 * @return The running recording.
+	 * @throws IOException The destination couldn't be used.
+	 */
+	public static Recording startRecording(Path destination) throws IOException
+	{
+		Configuration configuration;
+		try
+		{
+			configuration = Configuration.getConfiguration("default");
+		}
+		catch (ParseException e)
+		{
+			// This configuration is part of the JDK so it can't be malformed.
+			throw Assert.unexpected(e);
+		}
+		Recording recording = new Recording(configuration);
+		for (Class<? extends Event> type : ALL_EVENT_TYPES)
+		{
+			recording.enable(type);
+		}
+		recording.setDestination(destination);
+		recording.start();
+		return recording;
+	}
+
+
+	private ServerEvents()
+	{
+		// This is just a container for the event types.
+	}
+
+
+	@Name("com.jeffdisher.october.TickPhase")
+	@Label("Tick Phase")
+	@Description("One phase of a tick:  The single-threaded preamble or postamble or one thread's parallel phase")
+	@Category({"October", "Ticks"})
+	@StackTrace(false)
+	public static class TickPhase extends Event
+	{
+		public static final String PREAMBLE = "preamble";
+		public static final String PARALLEL = "parallel";
+		public static final String POSTAMBLE = "postamble";
+		
+		@Label("Tick Number")
+		public long tickNumber;
+		@Label("Phase")
+		public String phase;
+	}
+
+	@Name("com.jeffdisher.october.CuboidProcessed")
+	@Label("Cuboid Processed")
+	@Description("The block mutations, updates, and lighting of a single cuboid in a tick")
+	@Category({"October", "Ticks"})
+	@StackTrace(false)
+	public static class CuboidProcessed extends Event
+	{
+		@Label("Tick Number")
+		public long tickNumber;
+		@Label("Cuboid X")
+		public int cuboidX;
+		@Label("Cuboid Y")
+		public int cuboidY;
+		@Label("Cuboid Z")
+		public int cuboidZ;
+		@Label("Mutations Processed")
+		public int mutationsProcessed;
+		@Label("Block Updates Processed")
+		public int blockUpdatesProcessed;
+		
+		public void setCuboid(CuboidAddress address)
+		{
+			this.cuboidX = address.x();
+			this.cuboidY = address.y();
+			this.cuboidZ = address.z();
+		}
+	}
+
+	@Name("com.jeffdisher.october.CreatureProcessed")
+	@Label("Creature Processed")
+	@Description("The actions and AI of a single creature in a tick (not emitted for skipped creatures)")
+	@Category({"October", "Ticks"})
+	@StackTrace(false)
+	public static class CreatureProcessed extends Event
+	{
+		@Label("Tick Number")
+		public long tickNumber;
+		@Label("Creature ID")
+		public int creatureId;
+		@Label("Creature Type")
+		public String creatureType;
+		@Label("Detail Level")
+		public String detailLevel;
+		@Label("Cuboid X")
+		public int cuboidX;
+		@Label("Cuboid Y")
+		public int cuboidY;
+		@Label("Cuboid Z")
+		public int cuboidZ;
+		
+		public void setCuboid(CuboidAddress address)
+		{
+			this.cuboidX = address.x();
+			this.cuboidY = address.y();
+			this.cuboidZ = address.z();
+		}
+	}
+
+	@Name("com.jeffdisher.october.ClientSerialize")
+	@Label("Client Serialize")
+	@Description("Serializing the end-of-tick updates for a single client")
+	@Category({"October", "Network"})
+	@StackTrace(false)
+	public static class ClientSerialize extends Event
+	{
+		@Label("Tick Number")
+		public long tickNumber;
+		@Label("Client ID")
+		public int clientId;
+	}
+
+	@Name("com.jeffdisher.october.ClusterWrite")
+	@Label("Cluster Write")
+	@Description("Writing a cuboid cluster file")
+	@Category({"October", "Persistence"})
+	@StackTrace(false)
+	public static class ClusterWrite extends Event
+	{
+		@Label("File")
+		public String file;
+		@Label("Bytes Written")
+		@DataAmount
+		public long bytesWritten;
+	}
+
+	@Name("com.jeffdisher.october.WorldGen")
+	@Label("World Generation")
+	@Description("Generating a single cuboid")
+	@Category({"October", "Persistence"})
+	@StackTrace(false)
+	public static class WorldGen extends Event
+	{
+		@Label("Cuboid X")
+		public int cuboidX;
+		@Label("Cuboid Y")
+		public int cuboidY;
+		@Label("Cuboid Z")
+		public int cuboidZ;
+		
+		public void setCuboid(CuboidAddress address)
+		{
+			this.cuboidX = address.x();
+			this.cuboidY = address.y();
+			this.cuboidZ = address.z();
+		}
+	}
+}
@@ -3,10 +3,14 @@ package com.jeffdisher.october.persistence;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 
+import com.jeffdisher.october.jfr.ServerEvents;
 import com.jeffdisher.october.types.CuboidAddress;
 import com.jeffdisher.october.utils.Assert;
 
@@ -19,6 +23,9 @@ import com.jeffdisher.october.utils.Assert;
  * -64 ints describing the size, in bytes, of each cuboid in z-y-x magnitudes (0,0,0,1 is 1, 0,0,1,1 is 5, etc).
  * What follows is each of the cuboids in the same order as the size index.  Note that 0-size cuboids are considered
  * "null" and are not present in the file.
+ * In memory, each cuboid is a read-only slice of the file image it was loaded from (or of the array it was last written
+ * with) and the file is written with a gathering write of these slices, so neither direction copies the cuboid data.
+ * This does mean that the file image is kept alive until every cuboid loaded from it has been replaced.
  */
 public class CuboidCluster
 {
@@ -35,11 +42,51 @@ public class CuboidCluster
 	 */
 	public static final int UPDATE_BUFFER_SIZE_BYTES = 1024 * 1024;
 
+	/**
+	 * Upgrades the cluster in the given file to the current storage version, if it isn't already, without loading it
+	 * for use.  The upgraded cluster is written to a temporary file and then atomically replaces the original so an
+	 * interrupted upgrade never leaves a partial cluster behind.  Note that this is safe to call on different files
+	 * from different threads.
+	 * 
+	 * @param backingStore The cluster file.
+	 * @return True if the file was upgraded, false if it was already the current version.
+	 * @throws IOException There was an error reading or writing the file.
+	 */
+	public static boolean upgradeBackingStore(File backingStore) throws IOException
+	{
+		// We can usually skip the file just by looking at the version (this is what makes re-running cheap).
+		int version;
+		try (FileChannel channel = FileChannel.open(backingStore.toPath(), StandardOpenOption.READ))
+		{
+			ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+			while (header.hasRemaining())
+			{
+				// Every cluster file starts with the version so we should never see the end, here.
+				int read = channel.read(header);
+				Assert.assertTrue(read > 0);
+			}
+			header.flip();
+			version = header.getInt();
+		}
+		
+		boolean didUpgrade = false;
+		if (StorageVersions.CURRENT != version)
+		{
+			CuboidCluster cluster = new CuboidCluster(backingStore);
+			didUpgrade = cluster._loadAndUpgrade(Files.readAllBytes(backingStore.toPath()));
+			Assert.assertTrue(didUpgrade);
+			File tempFile = new File(backingStore.getParentFile(), backingStore.getName() + ".tmp");
+			cluster._writeToFile(tempFile);
+			Files.move(tempFile.toPath(), backingStore.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		return didUpgrade;
+	}
+
 	private final File _backingStore;
 	/**
 	 * The index of raw data is 64 elements since the cluster contains 64 cuboids.
 	 */
-	private final byte[][] _rawCuboidData;
+	private final ByteBuffer[] _rawCuboidData;
 
 	private final boolean[] _isReferenced;
 	private int _refCount;
@@ -52,7 +99,7 @@ public class CuboidCluster
 	public CuboidCluster(File backingStore)
 	{
 		_backingStore = backingStore;
-		_rawCuboidData = new byte[4 * 4 * 4][];
+		_rawCuboidData = new ByteBuffer[4 * 4 * 4];
 		_isReferenced = new boolean[4 * 4 * 4];
 	}
 
@@ -64,34 +111,12 @@ public class CuboidCluster
 	public void loadFromBackingStore() throws IOException
 	{
 		byte[] rawData = Files.readAllBytes(_backingStore.toPath());
-		ByteBuffer buffer = ByteBuffer.wrap(rawData);
-		int version = buffer.getInt();
-		
-		if (StorageVersions.CURRENT == version)
-		{
-			_loadCurrentData(buffer);
-		}
-		else if (StorageVersions.V13 == version)
+		boolean didUpgrade = _loadAndUpgrade(rawData);
+		if (didUpgrade)
 		{
-			// V13 only added data so just read and immediately re-write it.
-			_loadCurrentData(buffer);
-			
 			// Write it back, immediately.
 			_writeToBackingStore();
 		}
-		else if (StorageVersions.V12 == version)
-		{
-			// Convert this data.
-			_loadAndConvertV12(buffer);
-			
-			// Write it back, immediately.
-			_writeToBackingStore();
-		}
-		else
-		{
-			// Earlier versions didn't use the cluster and future versions are unknown.
-			throw new RuntimeException("UNSUPPORTED ENTITY STORAGE VERSION:  " + version);
-		}
 	}
 
 	/**
@@ -100,25 +125,29 @@ public class CuboidCluster
 	 * before shutdown or another read attempt).
 	 * 
 	 * @param address The cuboid address (assumed to be in this cluster).
-	 * @return The raw cuboid data or null, if never written.
+	 * @return A read-only view of the raw cuboid data or null, if never written.
 	 */
-	public byte[] readCuboid(CuboidAddress address)
+	public ByteBuffer readCuboid(CuboidAddress address)
 	{
 		int index = _getIndexIntoCluster(address);
-		byte[] data = _rawCuboidData[index];
+		ByteBuffer data = _rawCuboidData[index];
 		
 		// This shouldn't already be referenced.
 		Assert.assertTrue(!_isReferenced[index]);
 		
-		// We are going to set this as referenced so set an empty array as a placeholder until it is written back, later.
+		// We are going to set this as referenced so set an empty buffer as a placeholder until it is written back, later.
 		if (null == data)
 		{
-			_rawCuboidData[index] = new byte[0];
+			_rawCuboidData[index] = ByteBuffer.allocate(0).asReadOnlyBuffer();
 		}
 		
 		_isReferenced[index] = true;
 		_refCount += 1;
-		return data;
+		// We hand out a duplicate so that the caller's position doesn't change what we will write.
+		return (null != data)
+			? data.duplicate()
+			: null
+		;
 	}
 
 	/**
@@ -139,11 +168,12 @@ public class CuboidCluster
 		Assert.assertTrue(null != _rawCuboidData[index]);
 		
 		// Compare if these changed.
-		boolean didChange = !Arrays.equals(_rawCuboidData[index], data);
+		ByteBuffer newData = ByteBuffer.wrap(data).asReadOnlyBuffer();
+		boolean didChange = !_rawCuboidData[index].equals(newData);
 		
 		if (didChange)
 		{
-			_rawCuboidData[index] = data;
+			_rawCuboidData[index] = newData;
 			_writeToBackingStore();
 		}
 		
@@ -161,6 +191,28 @@ public class CuboidCluster
 		return shouldKeepLoaded;
 	}
 
+	/**
+	 * Marks the given cuboid address as no longer referenced, without changing its data, then returns whether or not
+	 * the receiver should still be kept in memory.  This is used when the caller knows that the data is unchanged.
+	 * 
+	 * @param address The cuboid address (assumed to be in this cluster).
+	 * @return True if the receiver must still be kept in memory (at least one of the data elements is still referenced).
+	 */
+	public boolean releaseCuboid(CuboidAddress address)
+	{
+		int index = _getIndexIntoCluster(address);
+		
+		// This must not be null since it was read or initialized.
+		Assert.assertTrue(null != _rawCuboidData[index]);
+		Assert.assertTrue(_isReferenced[index]);
+		
+		_isReferenced[index] = false;
+		_refCount -= 1;
+		
+		boolean shouldKeepLoaded = (_refCount > 0);
+		return shouldKeepLoaded;
+	}
+
 	/**
 	 * Used in some tests in order to retire an entry which was referenced by reading, but returned null.  This is not
 	 * used in normal runs but is used by tests which do not have a world generator.
@@ -197,48 +249,88 @@ public class CuboidCluster
 		;
 	}
 
-	private void _writeToBackingStore() throws IOException
+	private boolean _loadAndUpgrade(byte[] rawData)
 	{
-		// TODO:  We probably want to move this flush decision to a higher-level in the stack if we are often batch writing since that will cause redundant writes.
-		int combinedSize = Integer.BYTES + 64 * Integer.BYTES;
-		for (int i = 0; i < _rawCuboidData.length; ++i)
+		ByteBuffer buffer = ByteBuffer.wrap(rawData);
+		int version = buffer.getInt();
+		
+		boolean didUpgrade;
+		if (StorageVersions.CURRENT == version)
 		{
-			byte[] one = _rawCuboidData[i];
-			if (null != one)
-			{
-				// Note that some of these may be the zero-length placeholders but that is harmless.
-				combinedSize += one.length;
-			}
+			_loadCurrentData(buffer);
+			didUpgrade = false;
+		}
+		else if (StorageVersions.V13 == version)
+		{
+			// V13 only added data so just read it.
+			_loadCurrentData(buffer);
+			didUpgrade = true;
 		}
+		else if (StorageVersions.V12 == version)
+		{
+			// Convert this data.
+			_loadAndConvertV12(buffer);
+			didUpgrade = true;
+		}
+		else
+		{
+			// Earlier versions didn't use the cluster and future versions are unknown.
+			throw new RuntimeException("UNSUPPORTED ENTITY STORAGE VERSION:  " + version);
+		}
+		return didUpgrade;
+	}
+
+	private void _writeToBackingStore() throws IOException
+	{
+		// TODO:  We probably want to move this flush decision to a higher-level in the stack if we are often batch writing since that will cause redundant writes.
+		_writeToFile(_backingStore);
+	}
+
+	private void _writeToFile(File file) throws IOException
+	{
+		ServerEvents.ClusterWrite event = new ServerEvents.ClusterWrite();
+		event.begin();
 		
-		byte[] serializedBytes = new byte[combinedSize];
-		ByteBuffer buffer = ByteBuffer.wrap(serializedBytes);
-		buffer.putInt(StorageVersions.CURRENT);
+		// We write the header and then gather the cuboids directly from their buffers, instead of building the image.
+		ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 64 * Integer.BYTES);
+		long totalBytes = header.capacity();
+		header.putInt(StorageVersions.CURRENT);
+		List<ByteBuffer> toWrite = new ArrayList<>();
+		toWrite.add(header);
 		for (int i = 0; i < _rawCuboidData.length; ++i)
 		{
-			byte[] one = _rawCuboidData[i];
+			ByteBuffer one = _rawCuboidData[i];
 			int size;
 			if (null != one)
 			{
-				size = one.length;
+				// Note that some of these may be the zero-length placeholders but that is harmless.
+				size = one.remaining();
+				totalBytes += size;
+				toWrite.add(one.duplicate());
 			}
 			else
 			{
 				// Nulls are just 0-size since 0-size cuboids don't exist.
 				size = 0;
 			}
-			buffer.putInt(size);
+			header.putInt(size);
 		}
-		for (int i = 0; i < _rawCuboidData.length; ++i)
+		header.flip();
+		
+		ByteBuffer[] buffers = toWrite.toArray((int size) -> new ByteBuffer[size]);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
 		{
-			byte[] one = _rawCuboidData[i];
-			if (null != one)
+			// We count the bytes written, instead of checking the last buffer, since trailing buffers may be empty placeholders.
+			long bytesWritten = 0L;
+			while (bytesWritten < totalBytes)
 			{
-				buffer.put(one);
+				bytesWritten += channel.write(buffers);
 			}
 		}
 		
-		Files.write(_backingStore.toPath(), serializedBytes, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		event.file = file.getPath();
+		event.bytesWritten = totalBytes;
+		event.commit();
 	}
 
 	private void _loadCurrentData(ByteBuffer buffer)
@@ -254,9 +346,9 @@ public class CuboidCluster
 			int thisSize = sizes[i];
 			if (thisSize > 0)
 			{
-				byte[] rawCuboid = new byte[thisSize];
-				buffer.get(rawCuboid);
-				_rawCuboidData[i] = rawCuboid;
+				// This is just a view of the file image so we don't copy anything.
+				_rawCuboidData[i] = buffer.slice(buffer.position(), thisSize).asReadOnlyBuffer();
+				buffer.position(buffer.position() + thisSize);
 			}
 		}
 	}
@@ -276,11 +368,9 @@ public class CuboidCluster
 			int thisSize = sizes[i];
 			if (thisSize > 0)
 			{
-				byte[] rawCuboid = new byte[thisSize];
-				buffer.get(rawCuboid);
-				
 				// Use the CuboidTranslator to convert this, inline.
-				ByteBuffer inBuffer = ByteBuffer.wrap(rawCuboid);
+				ByteBuffer inBuffer = buffer.slice(buffer.position(), thisSize);
+				buffer.position(buffer.position() + thisSize);
 				CuboidTranslator.changeToLatestVersion(updateBuffer
 					, inBuffer
 					, StorageVersions.V12
@@ -290,7 +380,7 @@ public class CuboidCluster
 				byte[] updatedCuboid = new byte[updateBuffer.remaining()];
 				updateBuffer.get(updatedCuboid);
 				updateBuffer.clear();
-				_rawCuboidData[i] = updatedCuboid;
+				_rawCuboidData[i] = ByteBuffer.wrap(updatedCuboid).asReadOnlyBuffer();
 			}
 		}
 	}
@@ -2,6 +2,7 @@ package com.jeffdisher.october.persistence;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -53,10 +54,10 @@ public class CuboidClusterManager
 	 * a write made to this cuboid address before shutdown or another read attempt).
 	 * 
 	 * @param address The cuboid address.
-	 * @return The raw cuboid data or null, if never written.
+	 * @return A read-only view of the raw cuboid data or null, if never written.
 	 * @throws IOException There was an error populating the internal cache from external data store.
 	 */
-	public byte[] readCuboid(CuboidAddress address) throws IOException
+	public ByteBuffer readCuboid(CuboidAddress address) throws IOException
 	{
 		_CuboidFile file = _CuboidFile.fromAddress(address);
 		CuboidCluster cluster = _clusters.get(file);
@@ -112,6 +113,25 @@ public class CuboidClusterManager
 		}
 	}
 
+	/**
+	 * Marks the cuboid address as no longer referenced without writing anything.  This is used when the caller knows
+	 * that the cuboid is unchanged since it was last read or written.
+	 * 
+	 * @param address The cuboid address.
+	 */
+	public void releaseCuboid(CuboidAddress address)
+	{
+		_CuboidFile file = _CuboidFile.fromAddress(address);
+		CuboidCluster cluster = _clusters.get(file);
+		Assert.assertTrue(null != cluster);
+		
+		boolean shouldKeepLoaded = cluster.releaseCuboid(address);
+		if (!shouldKeepLoaded)
+		{
+			_clusters.remove(file);
+		}
+	}
+
 	/**
 	 * Used in some tests in order to retire an entry which was referenced by reading, but returned null.  This is not
 	 * used in normal runs but is used by tests which do not have a world generator.
@@ -47,44 +47,16 @@ public class CuboidCodec
 		Assert.assertTrue(null == state);
 		
 		// 2) Write the creatures.
-		List<CreatureEntity> entities = data.creatures();
-		outBuffer.putInt(entities.size());
-		for (CreatureEntity entity : entities)
-		{
-			CodecHelpers.writeCreatureEntity(outBuffer, entity, gameTimeMillis);
-		}
+		_writeCreatures(outBuffer, data.creatures(), gameTimeMillis);
 		
 		// 3) Write suspended mutations.
-		List<ScheduledMutation> mutationsToWrite = data.pendingMutations().stream().filter((ScheduledMutation scheduled) -> scheduled.mutation().canSaveToDisk()).toList();
-		outBuffer.putInt(mutationsToWrite.size());
-		for (ScheduledMutation scheduled : mutationsToWrite)
-		{
-			// Write the parts of the data.
-			outBuffer.putLong(scheduled.millisUntilReady());
-			MutationBlockCodec.serializeToBuffer(outBuffer, scheduled.mutation());
-		}
+		_writeMutations(outBuffer, data.pendingMutations());
 		
 		// 4) Write periodic mutations.
-		Map<BlockAddress, Long> periodic = data.periodicMutationMillis();
-		outBuffer.putInt(periodic.size());
-		for (Map.Entry<BlockAddress, Long> elt : periodic.entrySet())
-		{
-			BlockAddress block = elt.getKey();
-			long millisUntilReady = elt.getValue();
-			
-			outBuffer.put(block.x());
-			outBuffer.put(block.y());
-			outBuffer.put(block.z());
-			outBuffer.putLong(millisUntilReady);
-		}
+		_writePeriodic(outBuffer, data.periodicMutationMillis());
 		
 		// 5) Write passive entities.
-		List<PassiveEntity> passives = data.passives();
-		outBuffer.putInt(passives.size());
-		for (PassiveEntity passive : passives)
-		{
-			CodecHelpers.writePassiveEntity(outBuffer, passive);
-		}
+		_writePassives(outBuffer, data.passives());
 		
 		// From here, the entire cuboid is serialized into the outBuffer so we can return.
 	}
@@ -127,21 +99,41 @@ public class CuboidCodec
 		return _readCreatures(context, creatureIdAssigner);
 	}
 
+	public static void writeCreatures(ByteBuffer outBuffer, List<CreatureEntity> creatures, long gameTimeMillis)
+	{
+		_writeCreatures(outBuffer, creatures, gameTimeMillis);
+	}
+
 	public static List<PassiveEntity> readPassives(DeserializationContext context, PassiveIdAssigner passiveIdAssigner)
 	{
 		return _readPassives(context, passiveIdAssigner);
 	}
 
+	public static void writePassives(ByteBuffer outBuffer, List<PassiveEntity> passives)
+	{
+		_writePassives(outBuffer, passives);
+	}
+
 	public static List<ScheduledMutation> readMutations(DeserializationContext context)
 	{
 		return _readMutations(context);
 	}
 
+	public static void writeMutations(ByteBuffer outBuffer, List<ScheduledMutation> pendingMutations)
+	{
+		_writeMutations(outBuffer, pendingMutations);
+	}
+
 	public static Map<BlockAddress, Long> readPeriodic(ByteBuffer buffer)
 	{
 		return _readPeriodic(buffer);
 	}
 
+	public static void writePeriodic(ByteBuffer outBuffer, Map<BlockAddress, Long> periodic)
+	{
+		_writePeriodic(outBuffer, periodic);
+	}
+
 	public static CuboidData readCuboid(CuboidAddress address, DeserializationContext context)
 	{
 		return _readCuboid(address, context);
@@ -168,6 +160,15 @@ public class CuboidCodec
 		return creatures;
 	}
 
+	private static void _writeCreatures(ByteBuffer outBuffer, List<CreatureEntity> creatures, long gameTimeMillis)
+	{
+		outBuffer.putInt(creatures.size());
+		for (CreatureEntity entity : creatures)
+		{
+			CodecHelpers.writeCreatureEntity(outBuffer, entity, gameTimeMillis);
+		}
+	}
+
 	private static List<PassiveEntity> _readPassives(DeserializationContext context, PassiveIdAssigner passiveIdAssigner)
 	{
 		ByteBuffer buffer = context.buffer();
@@ -181,6 +182,28 @@ public class CuboidCodec
 		return passives;
 	}
 
+	private static void _writePassives(ByteBuffer outBuffer, List<PassiveEntity> passives)
+	{
+		outBuffer.putInt(passives.size());
+		for (PassiveEntity passive : passives)
+		{
+			CodecHelpers.writePassiveEntity(outBuffer, passive);
+		}
+	}
+
+	private static void _writeMutations(ByteBuffer outBuffer, List<ScheduledMutation> pendingMutations)
+	{
+		// Some mutations are not saved so we need to filter them before writing the count.
+		List<ScheduledMutation> mutationsToWrite = pendingMutations.stream().filter((ScheduledMutation scheduled) -> scheduled.mutation().canSaveToDisk()).toList();
+		outBuffer.putInt(mutationsToWrite.size());
+		for (ScheduledMutation scheduled : mutationsToWrite)
+		{
+			// Write the parts of the data.
+			outBuffer.putLong(scheduled.millisUntilReady());
+			MutationBlockCodec.serializeToBuffer(outBuffer, scheduled.mutation());
+		}
+	}
+
 	private static List<ScheduledMutation> _readMutations(DeserializationContext context)
 	{
 		ByteBuffer buffer = context.buffer();
@@ -220,4 +243,19 @@ public class CuboidCodec
 		}
 		return periodicMutations;
 	}
+
+	private static void _writePeriodic(ByteBuffer outBuffer, Map<BlockAddress, Long> periodic)
+	{
+		outBuffer.putInt(periodic.size());
+		for (Map.Entry<BlockAddress, Long> elt : periodic.entrySet())
+		{
+			BlockAddress block = elt.getKey();
+			long millisUntilReady = elt.getValue();
+			
+			outBuffer.put(block.x());
+			outBuffer.put(block.y());
+			outBuffer.put(block.z());
+			outBuffer.putLong(millisUntilReady);
+		}
+	}
 }
@@ -0,0 +1,167 @@
+package com.jeffdisher.october.persistence;
+
+import com.jeffdisher.october.data.CuboidData;
+import com.jeffdisher.october.jfr.ServerEvents;
+import com.jeffdisher.october.logic.CreatureIdAssigner;
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.utils.Assert;
+import com.jeffdisher.october.utils.MessageQueue;
+import com.jeffdisher.october.worldgen.IWorldGenerator;
+
+
+/**
+ * A fixed pool of threads which run the world generator so that cuboids can be generated concurrently, instead of one
+ * at a time on the ResourceLoader's background thread.
+ * Each generation request is given its own CreatureIdAssigner so that the result doesn't depend on which other
+ * requests happened to be running at the same time.  The caller is responsible for re-assigning the creature IDs from
+ * the shared assigner, in request order, so that the final output is identical to generating sequentially.
+ * Note that this means that the IWorldGenerator must be safe to call from multiple threads at once.
+ */
+public class CuboidGenerationPool
+{
+	/**
+	 * By default, we use half the processors for generation since the tick threads are also running.
+	 */
+	public static final int DEFAULT_THREAD_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+	private final IWorldGenerator _generator;
+	private final MessageQueue _queue;
+	private final Thread[] _threads;
+
+	/**
+	 * Creates the pool and starts its threads.
+	 * 
+	 * @param generator The world generator to run (must be thread-safe).
+	 * @param threadCount The number of generation threads to start (must be at least 1).
+	 */
+	public CuboidGenerationPool(IWorldGenerator generator, int threadCount)
+	{
+		Assert.assertTrue(threadCount > 0);
+		_generator = generator;
+		_queue = new MessageQueue();
+		_threads = new Thread[threadCount];
+		for (int i = 0; i < threadCount; ++i)
+		{
+			_threads[i] = new Thread(() -> {
+				_background_main();
+			}, "Cuboid Generator " + i);
+			_threads[i].start();
+		}
+	}
+
+	/**
+	 * Requests that the given cuboid be generated in the background.
+	 * 
+	 * @param address The address of the cuboid to generate.
+	 * @param gameTimeMillis The millisecond time of the requesting tick.
+	 * @return The handle to use to wait for the result.
+	 */
+	public PendingCuboid requestGeneration(CuboidAddress address, long gameTimeMillis)
+	{
+		PendingCuboid pending = new PendingCuboid(address);
+		boolean didEnqueue = _queue.enqueue("generate", () -> {
+			// Each request gets a private assigner so that the IDs it uses only depend on this cuboid.
+			CreatureIdAssigner privateAssigner = new CreatureIdAssigner();
+			try
+			{
+				ServerEvents.WorldGen event = new ServerEvents.WorldGen();
+				event.begin();
+				SuspendedCuboid<CuboidData> result = _generator.generateCuboid(privateAssigner, address, gameTimeMillis);
+				event.setCuboid(address);
+				event.commit();
+				pending._setResult(result, null);
+			}
+			catch (RuntimeException | Error e)
+			{
+				// We hand this back so that the failure is reported on the thread waiting for it.
+				pending._setResult(null, e);
+			}
+		});
+		Assert.assertTrue(didEnqueue);
+		return pending;
+	}
+
+	/**
+	 * Waits for any outstanding requests to complete and then stops the threads.
+	 */
+	public void shutdown()
+	{
+		_queue.waitForEmptyQueue();
+		_queue.shutdown();
+		for (Thread thread : _threads)
+		{
+			try
+			{
+				thread.join();
+			}
+			catch (InterruptedException e)
+			{
+				// We don't use interruption.
+				throw Assert.unexpected(e);
+			}
+		}
+	}
+
+
+	private void _background_main()
+	{
+		MessageQueue.TimedRunnable toRun = _queue.pollForNext(0L, null);
+		while (null != toRun)
+		{
+			toRun.run();
+			toRun = _queue.pollForNext(0L, null);
+		}
+	}
+
+
+	/**
+	 * The handle to a cuboid being generated in the pool.
+	 */
+	public static final class PendingCuboid
+	{
+		public final CuboidAddress address;
+		private boolean _isDone;
+		private SuspendedCuboid<CuboidData> _result;
+		private Throwable _error;
+		
+		private PendingCuboid(CuboidAddress address)
+		{
+			this.address = address;
+		}
+		
+		/**
+		 * Blocks until the generation has completed.  Note that the creatures in the result have IDs from a private
+		 * assigner (starting at -1) and must be re-assigned before they are used.
+		 * 
+		 * @return The generated cuboid (null if the generator had nothing for this address).
+		 */
+		public synchronized SuspendedCuboid<CuboidData> waitForResult()
+		{
+			while (!_isDone)
+			{
+				try
+				{
+					this.wait();
+				}
+				catch (InterruptedException e)
+				{
+					// We don't use interruption.
+					throw Assert.unexpected(e);
+				}
+			}
+			if (null != _error)
+			{
+				throw new RuntimeException("Generation failed: " + this.address, _error);
+			}
+			return _result;
+		}
+		
+		private synchronized void _setResult(SuspendedCuboid<CuboidData> result, Throwable error)
+		{
+			_result = result;
+			_error = error;
+			_isDone = true;
+			this.notifyAll();
+		}
+	}
+}
@@ -0,0 +1,289 @@
+package com.jeffdisher.october.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import com.jeffdisher.october.utils.Assert;
+
+
+/**
+ * Stores all of the serialized player entities in a single log-structured file, instead of one file per entity.
+ * Each write appends a record (int ID, int size, int CRC32, then the bytes) and an in-memory index maps each ID to its
+ * most recent record.  Writes are not forced to storage until flush() is called, so that a write-back of many entities
+ * only needs one sync.
+ * When the file is opened, the index is rebuilt by scanning it and any torn record at the end is truncated.
+ * Since every write appends, the file is compacted (the live records rewritten to a new file) whenever it is opened or
+ * flushed and most of it is superseded records, so a long-running server doesn't grow it without bound.
+ * Note that this is only used from the ResourceLoader's background thread (or before it starts).
+ */
+public class EntityStore
+{
+	public static final String FILE_NAME = "entities.store";
+	/**
+	 * We won't bother compacting the file until there are at least this many bytes of superseded records.
+	 */
+	public static final long COMPACTION_MIN_GARBAGE_BYTES = 1024 * 1024;
+
+	// Every record starts with the int ID, the int size of the data, and the int CRC32 of the data.
+	private static final int RECORD_HEADER_BYTES = 3 * Integer.BYTES;
+
+	private final File _file;
+	private final Map<Integer, _Location> _index;
+	private FileChannel _channel;
+	private long _endOffset;
+	private long _liveBytes;
+	private boolean _isDirty;
+
+	/**
+	 * Opens the store in the given directory, creating it if it doesn't exist.
+	 * 
+	 * @param entityDirectory The directory where the store file is kept (must exist).
+	 * @throws IOException There was a problem reading or creating the file.
+	 */
+	public EntityStore(File entityDirectory) throws IOException
+	{
+		_file = new File(entityDirectory, FILE_NAME);
+		_index = new HashMap<>();
+		_open();
+		_compactIfMostlyGarbage();
+	}
+
+	/**
+	 * Reads the most recent data written for the given entity.
+	 * 
+	 * @param id The entity ID.
+	 * @return The data last written for this entity or null, if it has never been written.
+	 * @throws IOException There was a problem reading the file.
+	 */
+	public byte[] read(int id) throws IOException
+	{
+		_Location location = _index.get(id);
+		byte[] data = null;
+		if (null != location)
+		{
+			data = new byte[location.size];
+			_readFully(ByteBuffer.wrap(data), location.offset);
+		}
+		return data;
+	}
+
+	/**
+	 * Writes new data for the given entity, replacing anything previously written.  Note that this is not forced to
+	 * storage until flush() is called.
+	 * 
+	 * @param id The entity ID.
+	 * @param data The data to store.
+	 * @throws IOException There was a problem writing the file.
+	 */
+	public void write(int id, byte[] data) throws IOException
+	{
+		ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + data.length);
+		record.putInt(id);
+		record.putInt(data.length);
+		record.putInt(_checksum(data, 0, data.length));
+		record.put(data);
+		record.flip();
+		long recordOffset = _endOffset;
+		while (record.hasRemaining())
+		{
+			_endOffset += _channel.write(record, _endOffset);
+		}
+		
+		_Location old = _index.put(id, new _Location(recordOffset + RECORD_HEADER_BYTES, data.length));
+		if (null != old)
+		{
+			_liveBytes -= RECORD_HEADER_BYTES + old.size;
+		}
+		_liveBytes += RECORD_HEADER_BYTES + data.length;
+		_isDirty = true;
+	}
+
+	/**
+	 * Forces any writes since the last flush to storage, compacting the file if those writes left it mostly superseded
+	 * records.
+	 * 
+	 * @throws IOException There was a problem writing the file.
+	 */
+	public void flush() throws IOException
+	{
+		// Superseded records only accumulate through writes so we only need to check for compaction if we wrote.
+		if (_isDirty)
+		{
+			_force();
+			_compactIfMostlyGarbage();
+		}
+	}
+
+	/**
+	 * @param id The entity ID.
+	 * @return True if data has been written for this entity.
+	 */
+	public boolean contains(int id)
+	{
+		return _index.containsKey(id);
+	}
+
+	/**
+	 * @return The IDs of all entities which have been written (a copy).
+	 */
+	public Set<Integer> getIds()
+	{
+		return Set.copyOf(_index.keySet());
+	}
+
+	/**
+	 * @return The current size of the store file, in bytes.
+	 */
+	public long size()
+	{
+		return _endOffset;
+	}
+
+	/**
+	 * Flushes any outstanding writes and closes the file.
+	 * 
+	 * @throws IOException There was a problem writing or closing the file.
+	 */
+	public void close() throws IOException
+	{
+		// We don't compact on close since we will check that when next opened.
+		if (_isDirty)
+		{
+			_force();
+		}
+		_channel.close();
+	}
+
+
+	private void _open() throws IOException
+	{
+		_channel = FileChannel.open(_file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		_index.clear();
+		_liveBytes = 0L;
+		
+		// Scan the file to build the index, stopping at the first record which is incomplete or corrupt.
+		long fileSize = _channel.size();
+		long offset = 0L;
+		boolean isTorn = false;
+		ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+		while (!isTorn && ((fileSize - offset) >= RECORD_HEADER_BYTES))
+		{
+			header.clear();
+			_readFully(header, offset);
+			header.flip();
+			int id = header.getInt();
+			int size = header.getInt();
+			int checksum = header.getInt();
+			long dataOffset = offset + RECORD_HEADER_BYTES;
+			if ((size < 0) || (size > (fileSize - dataOffset)))
+			{
+				isTorn = true;
+			}
+			else
+			{
+				byte[] data = new byte[size];
+				_readFully(ByteBuffer.wrap(data), dataOffset);
+				if (checksum != _checksum(data, 0, size))
+				{
+					isTorn = true;
+				}
+				else
+				{
+					_Location old = _index.put(id, new _Location(dataOffset, size));
+					if (null != old)
+					{
+						_liveBytes -= RECORD_HEADER_BYTES + old.size;
+					}
+					_liveBytes += RECORD_HEADER_BYTES + size;
+					offset = dataOffset + size;
+				}
+			}
+		}
+		
+		// Drop anything after the last complete record (this can only happen if we crashed while writing).
+		if (offset < fileSize)
+		{
+			_channel.truncate(offset);
+			_channel.force(false);
+		}
+		_endOffset = offset;
+		_isDirty = false;
+	}
+
+	private void _force() throws IOException
+	{
+		_channel.force(false);
+		_isDirty = false;
+	}
+
+	private void _compactIfMostlyGarbage() throws IOException
+	{
+		long garbageBytes = _endOffset - _liveBytes;
+		if ((garbageBytes > COMPACTION_MIN_GARBAGE_BYTES) && (garbageBytes > _liveBytes))
+		{
+			_compact();
+		}
+	}
+
+	private void _compact() throws IOException
+	{
+		// Write the live records to a new file and then atomically replace the old file.
+		File tempFile = new File(_file.getParentFile(), FILE_NAME + ".tmp");
+		try (FileChannel out = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			for (Map.Entry<Integer, _Location> elt : _index.entrySet())
+			{
+				_Location location = elt.getValue();
+				ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + location.size);
+				record.position(RECORD_HEADER_BYTES);
+				_readFully(record, location.offset);
+				byte[] raw = record.array();
+				record.putInt(0, elt.getKey());
+				record.putInt(Integer.BYTES, location.size);
+				record.putInt(2 * Integer.BYTES, _checksum(raw, RECORD_HEADER_BYTES, location.size));
+				record.flip();
+				while (record.hasRemaining())
+				{
+					out.write(record);
+				}
+			}
+			out.force(false);
+		}
+		_channel.close();
+		Files.move(tempFile.toPath(), _file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		_open();
+		Assert.assertTrue(_endOffset == _liveBytes);
+	}
+
+	private void _readFully(ByteBuffer buffer, long offset) throws IOException
+	{
+		long position = offset;
+		while (buffer.hasRemaining())
+		{
+			int read = _channel.read(buffer, position);
+			// We only read within the known file size so we should never see the end.
+			Assert.assertTrue(read > 0);
+			position += read;
+		}
+	}
+
+	private static int _checksum(byte[] data, int offset, int length)
+	{
+		CRC32 crc = new CRC32();
+		crc.update(data, offset, length);
+		return (int) crc.getValue();
+	}
+
+
+	private static record _Location(long offset, int size)
+	{}
+}
@@ -7,15 +7,13 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.NoSuchFileException;
-import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.locks.ReentrantLock;
 
 import com.jeffdisher.october.actions.EntityActionPeriodic;
@@ -28,6 +26,8 @@ import com.jeffdisher.october.data.DeserializationContext;
 import com.jeffdisher.october.logic.CreatureIdAssigner;
 import com.jeffdisher.october.logic.PassiveIdAssigner;
 import com.jeffdisher.october.logic.ScheduledChange;
+import com.jeffdisher.october.mutations.MutationBlockSetBlock;
+import com.jeffdisher.october.types.CreatureEntity;
 import com.jeffdisher.october.types.CuboidAddress;
 import com.jeffdisher.october.types.EntityLocation;
 import com.jeffdisher.october.types.EntityVolume;
@@ -51,18 +51,24 @@ public class ResourceLoader
 	public static final EntityLocation ENTITY_DEFAULT_LOCATION = new EntityLocation(0.0f, 0.0f, 0.0f);
 	public static final float ENTITY_DEFAULT_BLOCKS_PER_TICK_SPEED = 0.5f;
 
-	private final File _entityDirectory;
+	private final EntityStore _entityStore;
 	private final CuboidClusterManager _cuboidClusterManager;
-	private final IWorldGenerator _cuboidGenerator;
+	private final CuboidGenerationPool _generationPool;
 	private final WorldConfig _config;
 	private final MessageQueue _queue;
 	private final Thread _background;
 	private final ByteBuffer _backround_serializationBuffer;
+	private final WriteAheadLog _writeAheadLog;
 
 	// This collection contains the serialized versions entities which are considered live within the system (not yet
 	// retired by a call to writeBackToDiskAndRetire) and used to avoid redundant write-back to disk.
 	private final Map<Integer, byte[]> _background_serializedEntityBuffer;
 
+	// Similarly, this contains the last version of each live cuboid which we know is on disk (since we read or wrote it),
+	// so that we can skip serializing cuboids which haven't changed.  Cuboids which were generated aren't here until
+	// they are first written.
+	private final Map<CuboidAddress, PackagedCuboid> _background_persistedCuboids;
+
 	// We store the last read time which we use to re-write any abandoned reads.
 	private long _background_lastReadMillis;
 
@@ -83,6 +89,15 @@ public class ResourceLoader
 			, IWorldGenerator cuboidGenerator
 			, WorldConfig config
 	)
+	{
+		this(saveDirectory, cuboidGenerator, config, CuboidGenerationPool.DEFAULT_THREAD_COUNT);
+	}
+
+	public ResourceLoader(File saveDirectory
+			, IWorldGenerator cuboidGenerator
+			, WorldConfig config
+			, int generationThreadCount
+	)
 	{
 		// The save directory must exist as a directory before we get here.
 		Assert.assertTrue(saveDirectory.isDirectory());
@@ -93,10 +108,10 @@ public class ResourceLoader
 		// We MUST be given a world generator (even if just the PreloadedWorldGenerator with nothing).
 		Assert.assertTrue(null != cuboidGenerator);
 		
-		_entityDirectory = new File(saveDirectory, "entities");
-		if (!_entityDirectory.exists())
+		File entityDirectory = new File(saveDirectory, "entities");
+		if (!entityDirectory.exists())
 		{
-			boolean didCreate = _entityDirectory.mkdir();
+			boolean didCreate = entityDirectory.mkdir();
 			Assert.assertTrue(didCreate);
 		}
 		File cuboidDirectory = new File(saveDirectory, "cuboids");
@@ -107,44 +122,78 @@ public class ResourceLoader
 		}
 		_cuboidClusterManager = new CuboidClusterManager(cuboidDirectory);
 		_backround_serializationBuffer = ByteBuffer.allocate(SERIALIZATION_BUFFER_SIZE_BYTES);
+		StorageModelMigration.IProgress migrationProgress = new StorageModelMigration.IProgress() {
+			int _previousReport = -1;
+			@Override
+			public void itemCompleted(String activity, int completedCount, int totalCount)
+			{
+				int thisCount = (100 * completedCount / totalCount);
+				if (thisCount > _previousReport)
+				{
+					System.out.printf("%s %d%% (%d / %d)\n", activity, thisCount, completedCount, totalCount);
+					_previousReport = thisCount;
+				}
+				if (completedCount == totalCount)
+				{
+					// Changing modes so reset.
+					_previousReport = -1;
+				}
+			}
+		};
 		if (StorageModelMigration.requiresMigration(saveDirectory))
 		{
 			System.out.println("Beginning storage migration...");
 			StorageModelMigration.migrateStorage(saveDirectory
-				, _entityDirectory
+				, entityDirectory
 				, _cuboidClusterManager
 				, _backround_serializationBuffer
-				, new StorageModelMigration.IProgress() {
-					int _previousReport = -1;
-					@Override
-					public void itemCompleted(String activity, int completedCount, int totalCount)
-					{
-						int thisCount = (100 * completedCount / totalCount);
-						if (thisCount > _previousReport)
-						{
-							System.out.printf("%s %d%% (%d / %d)\n", activity, thisCount, completedCount, totalCount);
-							_previousReport = thisCount;
-						}
-						if (completedCount == totalCount)
-						{
-							// Changing modes so reset.
-							_previousReport = -1;
-						}
-					}
-				}
+				, migrationProgress
 			);
 			System.out.println("Storage migration completed!");
 		}
-		_cuboidGenerator = cuboidGenerator;
+		try
+		{
+			_entityStore = new EntityStore(entityDirectory);
+		}
+		catch (IOException e)
+		{
+			// We will treat this as a static start-up failure.
+			throw Assert.unexpected(e);
+		}
+		// Older worlds (including those just migrated, above) stored each entity in its own file.
+		if (StorageModelMigration.requiresEntityStoreMigration(entityDirectory))
+		{
+			System.out.println("Beginning entity storage migration...");
+			StorageModelMigration.migrateEntityFiles(entityDirectory, _entityStore, migrationProgress);
+			System.out.println("Entity storage migration completed!");
+		}
+		_generationPool = new CuboidGenerationPool(cuboidGenerator, generationThreadCount);
 		_config = config;
 		_queue = new MessageQueue();
 		_background = new Thread(() -> {
 			_background_main();
 		}, "Cuboid Loader");
 		_background_serializedEntityBuffer = new HashMap<>();
+		_background_persistedCuboids = new HashMap<>();
 		this.creatureIdAssigner = new CreatureIdAssigner();
 		this.passiveIdAssigner = new PassiveIdAssigner();
 		
+		// If the server didn't shut down cleanly, there will be a write-ahead log to replay before we read anything.
+		File logFile = WriteAheadLog.getLogFile(saveDirectory);
+		try
+		{
+			if (logFile.exists())
+			{
+				_replayWriteAheadLog(logFile, cuboidGenerator);
+			}
+			_writeAheadLog = new WriteAheadLog(saveDirectory);
+		}
+		catch (IOException e)
+		{
+			// We will treat this as a static start-up failure.
+			throw Assert.unexpected(e);
+		}
+		
 		_sharedDataLock = new ReentrantLock();
 		
 		_background.start();
@@ -164,6 +213,8 @@ public class ResourceLoader
 			// We don't use interruption.
 			throw Assert.unexpected(e);
 		}
+		// The background thread was the only user of the generation pool so it is now idle.
+		_generationPool.shutdown();
 		
 		// Make sure that any reads which completed before the caller could ask about them are written-back, now.
 		// _background has also joined so we can access these, directly.
@@ -187,7 +238,19 @@ public class ResourceLoader
 		
 		// Once everything is done, we expect those internal caches to be empty (otherwise, something is leaking).
 		Assert.assertTrue(_background_serializedEntityBuffer.isEmpty());
+		Assert.assertTrue(_background_persistedCuboids.isEmpty());
 		_cuboidClusterManager.shutdown();
+		
+		// Everything has been written back so the log is no longer needed.
+		try
+		{
+			_entityStore.close();
+			_writeAheadLog.closeAndDelete();
+		}
+		catch (IOException e)
+		{
+			throw Assert.unexpected(e);
+		}
 	}
 
 	/**
@@ -218,20 +281,52 @@ public class ResourceLoader
 			Collection<CuboidAddress> copiedCuboids = new ArrayList<>(requestedCuboids);
 			Collection<Integer> copiedEntityIds = new ArrayList<>(requestedEntityIds);
 			_queue.enqueue("read", () -> {
+				// Priority of loads:
+				// 1) Disk (since that is always considered authoritative)
+				// 2) The generator (if present).
+				// 3) Return null (only happens in tests)
+				// We check the disk for everything first, sending anything missing to the generation pool, but we
+				// only deserialize or accept generated results in request order so that creature IDs are assigned in
+				// the same order as if this were all done sequentially.
+				List<ByteBuffer> rawCuboids = new ArrayList<>();
+				List<CuboidGenerationPool.PendingCuboid> pendingGeneration = new ArrayList<>();
 				for (CuboidAddress address : copiedCuboids)
 				{
-					// Priority of loads:
-					// 1) Disk (since that is always considered authoritative)
-					// 2) _inFlight (since these are supposed to be prioritized over generation
-					// 3) The generator (if present).
-					// 4) Return null (only happens in tests)
+					ByteBuffer rawData = _background_readRawCuboidFromDisk(address);
+					rawCuboids.add(rawData);
+					pendingGeneration.add((null == rawData)
+						? _generationPool.requestGeneration(address, currentGameMillis)
+						: null
+					);
+				}
+				int index = 0;
+				for (CuboidAddress address : copiedCuboids)
+				{
+					ByteBuffer rawData = rawCuboids.get(index);
+					CuboidGenerationPool.PendingCuboid pending = pendingGeneration.get(index);
+					index += 1;
 					
-					// See if we can load this from disk.
-					SuspendedCuboid<CuboidData> data = _background_readCuboidFromDisk(address, currentGameMillis);
-					if (null == data)
+					SuspendedCuboid<CuboidData> data;
+					if (null != rawData)
+					{
+						data = _background_deserializeCuboid(address, rawData, currentGameMillis);
+						
+						// This is what is on disk so we don't need to write it back unless it changes.
+						_background_persistedCuboids.put(address, new PackagedCuboid(data.cuboid()
+							, data.creatures()
+							, data.pendingMutations()
+							, data.periodicMutationMillis()
+							, data.passives()
+						));
+					}
+					else
 					{
-						data = _cuboidGenerator.generateCuboid(this.creatureIdAssigner, address, currentGameMillis);
-						if (null == data)
+						data = pending.waitForResult();
+						if (null != data)
+						{
+							data = _reassignCreatureIds(this.creatureIdAssigner, data, currentGameMillis);
+						}
+						else
 						{
 							// This only happens in tests but we want to tell the cluster manager to drop this.
 							_cuboidClusterManager.dropForTesting(address);
@@ -319,6 +414,20 @@ public class ResourceLoader
 			{
 				_background_writeEntityToDisk(entity, false);
 			}
+			
+			// These are now stored so make sure that nothing logged before this is replayed over them.
+			List<CuboidAddress> addresses = cuboids.stream().map((PackagedCuboid cuboid) -> cuboid.cuboid().getCuboidAddress()).toList();
+			List<Integer> entityIds = entities.stream().map((SuspendedEntity entity) -> entity.entity().id()).toList();
+			try
+			{
+				// We only sync the entity store once for the whole batch.
+				_entityStore.flush();
+				_writeAheadLog.appendRetired(addresses, entityIds);
+			}
+			catch (IOException e)
+			{
+				throw Assert.unexpected(e);
+			}
 		});
 	}
 
@@ -338,11 +447,50 @@ public class ResourceLoader
 				{
 					_background_writeEntityToDisk(entity, true);
 				}
+				
+				// This was everything still loaded so anything which was logged before now is stored.
+				try
+				{
+					_entityStore.flush();
+					_writeAheadLog.checkpoint();
+				}
+				catch (IOException e)
+				{
+					throw Assert.unexpected(e);
+				}
 				_isAttemptedWritePending = false;
 			});
 		}
 	}
 
+	/**
+	 * Requests that the changes made in a single tick be appended to the write-ahead log.  This call will return
+	 * immediately while the append completes asynchronously, but it is ordered with respect to the write-back calls.
+	 * On start-up, anything in the log which wasn't later written back is replayed on top of what is on disk, so a crash
+	 * only loses the ticks which hadn't yet been forced to the log (at most a few, since the log is group-committed).
+	 * 
+	 * @param tickNumber The tick which made these changes.
+	 * @param gameTimeMillis The millisecond time of this tick (used for storing "time remaining" in some counters).
+	 * @param cuboids The cuboids which had block, scheduled mutation, periodic mutation, creature, or passive changes
+	 * in this tick.
+	 * @param entities The entities which changed in this tick.
+	 */
+	public void appendToLog(long tickNumber, long gameTimeMillis, Collection<WriteAheadLog.CuboidDelta> cuboids, Collection<SuspendedEntity> entities)
+	{
+		// This one should only be called if there is something to log.
+		Assert.assertTrue(!cuboids.isEmpty() || !entities.isEmpty());
+		_queue.enqueue("log", () -> {
+			try
+			{
+				_writeAheadLog.appendTick(tickNumber, gameTimeMillis, cuboids, entities);
+			}
+			catch (IOException e)
+			{
+				throw Assert.unexpected(e);
+			}
+		});
+	}
+
 	/**
 	 * Reads the world config from disk, updating corresponding options in the given config object.
 	 * NOTE:  This call is synchronous so should only be called during start-up.
@@ -400,6 +548,99 @@ public class ResourceLoader
 	}
 
 
+	private static SuspendedCuboid<CuboidData> _reassignCreatureIds(CreatureIdAssigner creatureIdAssigner, SuspendedCuboid<CuboidData> generated, long currentGameMillis)
+	{
+		// The generation pool uses a private assigner per cuboid so we replace those IDs with ones from the shared assigner.
+		// Generated creatures have no ephemeral state beyond what is derived from their ID so we can rebuild that.
+		List<CreatureEntity> creatures = new ArrayList<>();
+		for (CreatureEntity creature : generated.creatures())
+		{
+			Assert.assertTrue(CreatureEntity.createEmptyEphemeral(creature.id(), currentGameMillis).equals(creature.ephemeral()));
+			int id = creatureIdAssigner.next();
+			creatures.add(new CreatureEntity(id
+				, creature.type()
+				, creature.location()
+				, creature.velocity()
+				, creature.yaw()
+				, creature.pitch()
+				, creature.health()
+				, creature.breath()
+				, creature.extendedData()
+				, CreatureEntity.createEmptyEphemeral(id, currentGameMillis)
+			));
+		}
+		return new SuspendedCuboid<>(generated.cuboid()
+			, generated.heightMap()
+			, creatures
+			, generated.pendingMutations()
+			, generated.periodicMutationMillis()
+			, generated.passives()
+		);
+	}
+
+	private void _replayWriteAheadLog(File logFile, IWorldGenerator cuboidGenerator) throws IOException
+	{
+		// This is called during start-up, before the background thread starts, so we use the background helpers directly.
+		Environment env = Environment.getShared();
+		WriteAheadLog.Replay replay = WriteAheadLog.readLog(logFile, env);
+		if (replay.recordCount() > 0)
+		{
+			System.out.printf("Replaying write-ahead log through tick %d (%d cuboids, %d entities)...\n", replay.lastTickNumber(), replay.cuboids().size(), replay.entities().size());
+		}
+		
+		// We use 0 as the game time for both reading and writing since that leaves the relative times unchanged.
+		long gameTimeMillis = 0L;
+		for (WriteAheadLog.CuboidDelta delta : replay.cuboids())
+		{
+			CuboidAddress address = delta.address();
+			ByteBuffer rawData = _background_readRawCuboidFromDisk(address);
+			SuspendedCuboid<CuboidData> suspended;
+			if (null != rawData)
+			{
+				suspended = _background_deserializeCuboid(address, rawData, gameTimeMillis);
+			}
+			else
+			{
+				// This was generated but never written back so generate it again.
+				suspended = cuboidGenerator.generateCuboid(this.creatureIdAssigner, address, gameTimeMillis);
+			}
+			
+			if (null != suspended)
+			{
+				CuboidData cuboid = suspended.cuboid();
+				for (MutationBlockSetBlock change : delta.blockChanges())
+				{
+					change.applyState(cuboid);
+				}
+				// Everything other than the blocks was logged as the complete state so it replaces what was stored.
+				PackagedCuboid data = new PackagedCuboid(cuboid
+					, delta.creatures()
+					, delta.scheduledMutations()
+					, delta.periodicMutationMillis()
+					, delta.passives()
+				);
+				_background_writeCuboidToDisk(data, gameTimeMillis, false);
+			}
+			else
+			{
+				// This only happens in tests.
+				_cuboidClusterManager.dropForTesting(address);
+			}
+		}
+		for (Map.Entry<Integer, byte[]> elt : replay.entities().entrySet())
+		{
+			byte[] serialized = elt.getValue();
+			ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + serialized.length);
+			buffer.putInt(StorageVersions.CURRENT);
+			buffer.put(serialized);
+			_background_writeEntityBytesToStore(elt.getKey(), buffer.array());
+		}
+		
+		// Everything is now stored so we can discard the log.
+		_entityStore.flush();
+		Files.delete(logFile.toPath());
+	}
+
 	private void _background_main()
 	{
 		MessageQueue.TimedRunnable toRun = _queue.pollForNext(0L, null);
@@ -444,76 +685,114 @@ public class ResourceLoader
 		}
 	}
 
-	private SuspendedCuboid<CuboidData> _background_readCuboidFromDisk(CuboidAddress address, long currentGameMillis)
+	private ByteBuffer _background_readRawCuboidFromDisk(CuboidAddress address)
 	{
-		// These data files are relatively small so we can just read this in, completely.
-		SuspendedCuboid<CuboidData> result;
+		// These data files are relatively small so we can just read this in, completely (null if not on disk).
 		try
 		{
-			byte[] rawData = _cuboidClusterManager.readCuboid(address);
-			if (null == rawData)
-			{
-				throw new NoSuchFileException("Address missing: " + address);
-			}
-			ByteBuffer buffer = ByteBuffer.wrap(rawData);
-			
-			// Note that the CuboidClusterManager is responsible for updating when the version changes so we always see the most up-to-date version of data at this level.
-			Environment env = Environment.getShared();
-			DeserializationContext context = DeserializationContext.current(env
-				, buffer
-				, currentGameMillis
-			);
-			result = CuboidCodec.deserializeCuboidWithoutVersionHeader(context
-				, address
-				, this.creatureIdAssigner
-				, this.passiveIdAssigner
-			);
-		}
-		catch (NoSuchFileException e)
-		{
-			// This is ok and means we should return null.
-			result = null;
+			return _cuboidClusterManager.readCuboid(address);
 		}
 		catch (IOException e)
 		{
 			throw Assert.unexpected(e);
 		}
-		return result;
+	}
+
+	private SuspendedCuboid<CuboidData> _background_deserializeCuboid(CuboidAddress address, ByteBuffer buffer, long currentGameMillis)
+	{
+		// Note that the CuboidClusterManager is responsible for updating when the version changes so we always see the most up-to-date version of data at this level.
+		Environment env = Environment.getShared();
+		DeserializationContext context = DeserializationContext.current(env
+			, buffer
+			, currentGameMillis
+		);
+		return CuboidCodec.deserializeCuboidWithoutVersionHeader(context
+			, address
+			, this.creatureIdAssigner
+			, this.passiveIdAssigner
+		);
 	}
 
 	private void _background_writeCuboidToDisk(PackagedCuboid data, long gameTimeMillis, boolean maintainCache)
 	{
-		// Serialize the entire cuboid into memory and write it out.
-		// Note that the version header is managed by the CuboidClusterManager.
-		Assert.assertTrue(0 == _backround_serializationBuffer.position());
-		
-		CuboidCodec.serializeCuboidWithoutVersionHeader(_backround_serializationBuffer, data, gameTimeMillis);
-		
-		// We are done the write so flip the buffer and write it out.
-		_backround_serializationBuffer.flip();
-		byte[] serializedBytes = new byte[_backround_serializationBuffer.remaining()];
-		_backround_serializationBuffer.get(serializedBytes);
-		Assert.assertTrue(!_backround_serializationBuffer.hasRemaining());
-		_backround_serializationBuffer.clear();
-		
 		CuboidAddress address = data.cuboid().getCuboidAddress();
-		try
+		PackagedCuboid persisted = _background_persistedCuboids.get(address);
+		if ((null != persisted) && _isUnchanged(persisted, data))
 		{
-			_cuboidClusterManager.writeCuboid(address, serializedBytes, maintainCache);
+			// This is what is already on disk so we only need to release it, if retiring.
+			if (!maintainCache)
+			{
+				_cuboidClusterManager.releaseCuboid(address);
+			}
 		}
-		catch (IOException e)
+		else
 		{
-			throw Assert.unexpected(e);
+			// Serialize the entire cuboid into memory and write it out.
+			// Note that the version header is managed by the CuboidClusterManager.
+			Assert.assertTrue(0 == _backround_serializationBuffer.position());
+			
+			CuboidCodec.serializeCuboidWithoutVersionHeader(_backround_serializationBuffer, data, gameTimeMillis);
+			
+			// We are done the write so flip the buffer and write it out.
+			_backround_serializationBuffer.flip();
+			byte[] serializedBytes = new byte[_backround_serializationBuffer.remaining()];
+			_backround_serializationBuffer.get(serializedBytes);
+			Assert.assertTrue(!_backround_serializationBuffer.hasRemaining());
+			_backround_serializationBuffer.clear();
+			
+			try
+			{
+				_cuboidClusterManager.writeCuboid(address, serializedBytes, maintainCache);
+			}
+			catch (IOException e)
+			{
+				throw Assert.unexpected(e);
+			}
+			
+			if (maintainCache)
+			{
+				_background_persistedCuboids.put(address, data);
+			}
+		}
+		
+		// If we should clear the cache, do that whether we wrote or not.
+		if (!maintainCache)
+		{
+			_background_persistedCuboids.remove(address);
 		}
 	}
 
+	private static boolean _isUnchanged(PackagedCuboid persisted, PackagedCuboid data)
+	{
+		// The tick logic replaces the cuboid instance whenever a block changes so we can compare by instance but the other
+		// collections are rebuilt every tick so we compare them by value.
+		// Creature extended data is stored relative to the current time so we can't skip writing those.
+		boolean hasTimeRelativeData = (null != data.creatures()) && data.creatures().stream().anyMatch((CreatureEntity creature) -> (null != creature.extendedData()));
+		return (persisted.cuboid() == data.cuboid())
+			&& !hasTimeRelativeData
+			&& Objects.equals(persisted.creatures(), data.creatures())
+			&& Objects.equals(persisted.pendingMutations(), data.pendingMutations())
+			&& Objects.equals(persisted.periodicMutationMillis(), data.periodicMutationMillis())
+			&& Objects.equals(persisted.passives(), data.passives())
+		;
+	}
+
 	private SuspendedEntity _background_readEntityFromDisk(int id, long currentGameMillis)
 	{
-		// These data files are relatively small so we can just read this in, completely.
-		SuspendedEntity result;
+		// These entities are relatively small so we can just read this in, completely.
+		byte[] rawData;
 		try
 		{
-			byte[] rawData = Files.readAllBytes(_getEntityFile(id));
+			rawData = _entityStore.read(id);
+		}
+		catch (IOException e)
+		{
+			throw Assert.unexpected(e);
+		}
+		
+		SuspendedEntity result;
+		if (null != rawData)
+		{
 			ByteBuffer buffer = ByteBuffer.wrap(rawData);
 			
 			// Verify the version is one we can understand.
@@ -536,7 +815,7 @@ public class ResourceLoader
 				_backround_serializationBuffer.clear();
 				
 				// Save this out.
-				_background_writeEntityBytesToFile(id, serializedBytes);
+				_background_writeEntityBytesToStore(id, serializedBytes);
 				
 				// Update our local variables to this new content and proceed with the common path.
 				rawData = serializedBytes;
@@ -549,15 +828,11 @@ public class ResourceLoader
 			// We got this far so store the raw data for later comparisons on write-back.
 			_background_serializedEntityBuffer.put(id, rawData);
 		}
-		catch (NoSuchFileException e)
+		else
 		{
 			// This is ok and means we should return null.
 			result = null;
 		}
-		catch (IOException e)
-		{
-			throw Assert.unexpected(e);
-		}
 		return result;
 	}
 
@@ -583,7 +858,7 @@ public class ResourceLoader
 		
 		if (!Arrays.equals(originalBytes, serializedBytes))
 		{
-			_background_writeEntityBytesToFile(entityId, serializedBytes);
+			_background_writeEntityBytesToStore(entityId, serializedBytes);
 			
 			// Now that we are done, update the entity buffer.
 			if (maintainCache)
@@ -599,12 +874,6 @@ public class ResourceLoader
 		}
 	}
 
-	private Path _getEntityFile(int id)
-	{
-		String fileName = "entity_" + id + ".entity";
-		return new File(_entityDirectory, fileName).toPath();
-	}
-
 	private static SuspendedEntity _buildDefaultEntity(int id, EntityLocation spawn, boolean isCreative)
 	{
 		List<ScheduledChange> initialChanges = List.of(
@@ -621,15 +890,12 @@ public class ResourceLoader
 		return new File(saveDirectory, fileName);
 	}
 
-	private void _background_writeEntityBytesToFile(int entityId, byte[] serializedBytes) throws AssertionError
+	private void _background_writeEntityBytesToStore(int entityId, byte[] serializedBytes) throws AssertionError
 	{
+		// Note that this isn't synced until the caller flushes the store.
 		try
 		{
-			Files.write(_getEntityFile(entityId), serializedBytes, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
-		}
-		catch (NoSuchFileException e)
-		{
-			throw Assert.unexpected(e);
+			_entityStore.write(entityId, serializedBytes);
 		}
 		catch (IOException e)
 		{
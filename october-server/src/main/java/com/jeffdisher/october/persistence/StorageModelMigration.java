@@ -8,7 +8,12 @@ import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
@@ -33,6 +38,13 @@ import com.jeffdisher.october.utils.Assert;
  * 
  * At this point, the update is complete and the lack of old files means it will not be triggered again.  The backup is
  * left behind but can be deleted by the user if they like.
+ * 
+ * Separately, entities were once stored as one file per entity in the entity directory but are now stored in a single
+ * EntityStore.  That migration imports every entity file into the store, flushes the store, and only then deletes the
+ * files so it is safe to repeat if interrupted (the files will just be imported again).
+ * 
+ * Finally, newer version changes are normally applied lazily, as each cluster or entity is loaded, but upgradeAll()
+ * can be used to apply them all up-front, in parallel, while the server isn't running.
  */
 public class StorageModelMigration
 {
@@ -97,6 +109,148 @@ public class StorageModelMigration
 		_deleteOldFiles(oldRoot);
 	}
 
+	/**
+	 * Returns true if the entity directory still contains individual entity files which need to be moved into the
+	 * EntityStore.
+	 * 
+	 * @param entityDirectory The directory where the entities are stored.
+	 * @return True if the entity files must be migrated into the store.
+	 */
+	public static boolean requiresEntityStoreMigration(File entityDirectory)
+	{
+		boolean requiresMigration = false;
+		for (File sub : entityDirectory.listFiles())
+		{
+			if (sub.getName().startsWith(PREFIX_ENTITY))
+			{
+				requiresMigration = true;
+				break;
+			}
+		}
+		return requiresMigration;
+	}
+
+	/**
+	 * Imports all of the individual entity files in entityDirectory into the given store, deleting them once the store
+	 * has been flushed.  The data is copied as-is since the store uses the same versioned format as the files.
+	 * 
+	 * @param entityDirectory The directory where the entities are stored.
+	 * @param store The store where the entities should be written.
+	 * @param progress The progress tracker.
+	 */
+	public static void migrateEntityFiles(File entityDirectory, EntityStore store, IProgress progress)
+	{
+		File[] entityFiles = entityDirectory.listFiles((File dir, String name) -> name.startsWith(PREFIX_ENTITY));
+		try
+		{
+			int doneCount = 0;
+			for (File sub : entityFiles)
+			{
+				byte[] data = Files.readAllBytes(sub.toPath());
+				store.write(_parseEntityIdFromName(sub.getName()), data);
+				doneCount += 1;
+				progress.itemCompleted("Entities", doneCount, entityFiles.length);
+			}
+			store.flush();
+		}
+		catch (IOException e)
+		{
+			// This is a fatal error, at this point, so we should just fail out.
+			throw Assert.unexpected(e);
+		}
+		
+		// Everything is in the store so we can now remove the old files.
+		for (File sub : entityFiles)
+		{
+			boolean didDelete = sub.delete();
+			Assert.assertTrue(didDelete);
+		}
+	}
+
+	/**
+	 * Upgrades everything in the world directory to the current storage version, offline, instead of each cluster and
+	 * entity being upgraded when it is first loaded.  Any of the older migrations are run first (single-threaded) and
+	 * then all cuboid clusters and entities are upgraded using threadCount threads.
+	 * Each cluster is atomically replaced once upgraded and anything already at the current version is skipped so an
+	 * interrupted upgrade can just be run again to resume.
+	 * 
+	 * @param saveDirectory The root directory for the storage model.
+	 * @param threadCount The number of threads to use for the upgrade (must be at least 1).
+	 * @param progress The progress tracker (calls are serialized, even though the work is done in parallel).
+	 * @return The summary of the work done.
+	 */
+	public static UpgradeResult upgradeAll(File saveDirectory, int threadCount, IProgress progress)
+	{
+		Assert.assertTrue(threadCount > 0);
+		long startMillis = System.currentTimeMillis();
+		File entityDirectory = _getOrCreateDirectory(saveDirectory, "entities");
+		File cuboidDirectory = _getOrCreateDirectory(saveDirectory, "cuboids");
+		if (requiresMigration(saveDirectory))
+		{
+			CuboidClusterManager manager = new CuboidClusterManager(cuboidDirectory);
+			migrateStorage(saveDirectory, entityDirectory, manager, ByteBuffer.allocate(ResourceLoader.SERIALIZATION_BUFFER_SIZE_BYTES), progress);
+			manager.shutdown();
+		}
+		
+		try
+		{
+			EntityStore store = new EntityStore(entityDirectory);
+			if (requiresEntityStoreMigration(entityDirectory))
+			{
+				migrateEntityFiles(entityDirectory, store, progress);
+			}
+			
+			// Each cluster is its own file so these can be upgraded independently.
+			List<File> clusterFiles = new ArrayList<>();
+			for (File region : cuboidDirectory.listFiles((File dir, String name) -> name.endsWith(".cd8")))
+			{
+				clusterFiles.addAll(List.of(region.listFiles((File dir, String name) -> name.endsWith(".c4"))));
+			}
+			AtomicInteger upgradedClusters = new AtomicInteger();
+			new _ParallelStage<File>(clusterFiles, "Clusters", progress, (File file, ByteBuffer scratchBuffer) -> {
+				if (CuboidCluster.upgradeBackingStore(file))
+				{
+					upgradedClusters.incrementAndGet();
+				}
+			}).run(threadCount);
+			
+			// The store can't be used concurrently so we read the old entities up-front and serialize the writes.
+			Set<Integer> entityIds = store.getIds();
+			List<Map.Entry<Integer, byte[]>> oldEntities = new ArrayList<>();
+			for (int id : entityIds)
+			{
+				byte[] data = store.read(id);
+				if (StorageVersions.CURRENT != ByteBuffer.wrap(data).getInt())
+				{
+					oldEntities.add(Map.entry(id, data));
+				}
+			}
+			new _ParallelStage<Map.Entry<Integer, byte[]>>(oldEntities, "Entity upgrade", progress, (Map.Entry<Integer, byte[]> elt, ByteBuffer scratchBuffer) -> {
+				ByteBuffer inBuffer = ByteBuffer.wrap(elt.getValue());
+				int version = inBuffer.getInt();
+				scratchBuffer.putInt(StorageVersions.CURRENT);
+				EntityTranslator.changeToLatestVersion(scratchBuffer, inBuffer, version);
+				Assert.assertTrue(0 == inBuffer.remaining());
+				byte[] updatedData = new byte[scratchBuffer.position()];
+				scratchBuffer.flip();
+				scratchBuffer.get(updatedData);
+				synchronized (store)
+				{
+					store.write(elt.getKey(), updatedData);
+				}
+			}).run(threadCount);
+			store.close();
+			
+			long millis = System.currentTimeMillis() - startMillis;
+			return new UpgradeResult(clusterFiles.size(), upgradedClusters.get(), entityIds.size(), oldEntities.size(), millis);
+		}
+		catch (IOException e)
+		{
+			// This is a fatal error, at this point, so we should just fail out.
+			throw Assert.unexpected(e);
+		}
+	}
+
 
 	private static boolean _isBackupComplete(File backupZipFile)
 	{
@@ -225,7 +379,7 @@ public class StorageModelMigration
 					scratchBuffer.clear();
 					
 					CuboidAddress address = _parseAddressFromName(name);
-					byte[] empty = cuboidClusterManager.readCuboid(address);
+					ByteBuffer empty = cuboidClusterManager.readCuboid(address);
 					Assert.assertTrue(null == empty);
 					cuboidClusterManager.writeCuboid(address, updatedData, false);
 				}
@@ -277,6 +431,17 @@ public class StorageModelMigration
 		}
 	}
 
+	private static File _getOrCreateDirectory(File parent, String name)
+	{
+		File directory = new File(parent, name);
+		if (!directory.exists())
+		{
+			boolean didCreate = directory.mkdir();
+			Assert.assertTrue(didCreate);
+		}
+		return directory;
+	}
+
 	private static CuboidAddress _parseAddressFromName(String fileName)
 	{
 		// The shape of the string is "cuboid_X_Y_Z.cuboid" so we want to split by "." and then split by "_".
@@ -287,6 +452,13 @@ public class StorageModelMigration
 		return new CuboidAddress(x, y, z);
 	}
 
+	private static int _parseEntityIdFromName(String fileName)
+	{
+		// The shape of the string is "entity_ID.entity" so we want to split by "." and then take what is after the "_".
+		String base = fileName.split("\\.")[0];
+		return Integer.parseInt(base.substring(PREFIX_ENTITY.length()));
+	}
+
 	private static void _deleteOldFiles(File oldRoot)
 	{
 		for (File sub : oldRoot.listFiles())
@@ -310,10 +482,133 @@ public class StorageModelMigration
 		/**
 		 * A callback issued for every individual item processed in each stage of the migration.
 		 * 
-		 * @param activity The human-readable name of the stage (currently "Backup" or "Extract").
+		 * @param activity The human-readable name of the stage (currently "Backup", "Extract", "Entities", "Clusters", or
+		 * "Entity upgrade").
 		 * @param completedCount The number of items completed in this stage (even if they didn't require any action).
 		 * @param totalCount The total number of items included in this stage.
 		 */
 		void itemCompleted(String activity, int completedCount, int totalCount);
 	}
+
+	/**
+	 * The summary of an upgradeAll() run.
+	 * 
+	 * @param clusterCount The number of cuboid cluster files found.
+	 * @param upgradedClusters The number of those clusters which needed to be upgraded.
+	 * @param entityCount The number of entities found.
+	 * @param upgradedEntities The number of those entities which needed to be upgraded.
+	 * @param millis The time taken for the whole run.
+	 */
+	public static record UpgradeResult(int clusterCount
+		, int upgradedClusters
+		, int entityCount
+		, int upgradedEntities
+		, long millis
+	)
+	{}
+
+
+	private static interface _Task<T>
+	{
+		void run(T item, ByteBuffer scratchBuffer) throws IOException;
+	}
+
+	/**
+	 * Runs a task over a list of items on a set of threads, pulling the next item from the shared list until it is
+	 * drained (or something fails).  Progress is reported under the receiver's monitor so the IProgress doesn't need
+	 * to be thread-safe.
+	 */
+	private static class _ParallelStage<T>
+	{
+		private final List<T> _items;
+		private final String _activity;
+		private final IProgress _progress;
+		private final _Task<T> _task;
+		private int _nextIndex;
+		private int _completedCount;
+		private Throwable _error;
+		
+		public _ParallelStage(List<T> items, String activity, IProgress progress, _Task<T> task)
+		{
+			_items = items;
+			_activity = activity;
+			_progress = progress;
+			_task = task;
+		}
+		
+		public void run(int threadCount)
+		{
+			Thread[] threads = new Thread[Math.min(threadCount, _items.size())];
+			for (int i = 0; i < threads.length; ++i)
+			{
+				threads[i] = new Thread(() -> {
+					_background_main();
+				}, "Storage Upgrade " + i);
+				threads[i].start();
+			}
+			for (Thread thread : threads)
+			{
+				try
+				{
+					thread.join();
+				}
+				catch (InterruptedException e)
+				{
+					// We don't use interruption.
+					throw Assert.unexpected(e);
+				}
+			}
+			if (null != _error)
+			{
+				throw new RuntimeException("Storage upgrade failed: " + _activity, _error);
+			}
+		}
+		
+		private void _background_main()
+		{
+			ByteBuffer scratchBuffer = ByteBuffer.allocate(ResourceLoader.SERIALIZATION_BUFFER_SIZE_BYTES);
+			T item = _getNext();
+			while (null != item)
+			{
+				try
+				{
+					_task.run(item, scratchBuffer);
+					item = _completeAndGetNext();
+				}
+				catch (IOException | RuntimeException | Error e)
+				{
+					// We hand this back so that the failure is reported on the calling thread.
+					_fail(e);
+					item = null;
+				}
+				scratchBuffer.clear();
+			}
+		}
+		
+		private synchronized T _getNext()
+		{
+			T next = null;
+			if ((null == _error) && (_nextIndex < _items.size()))
+			{
+				next = _items.get(_nextIndex);
+				_nextIndex += 1;
+			}
+			return next;
+		}
+		
+		private synchronized T _completeAndGetNext()
+		{
+			_completedCount += 1;
+			_progress.itemCompleted(_activity, _completedCount, _items.size());
+			return _getNext();
+		}
+		
+		private synchronized void _fail(Throwable e)
+		{
+			if (null == _error)
+			{
+				_error = e;
+			}
+		}
+	}
 }
@@ -0,0 +1,412 @@
+package com.jeffdisher.october.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import com.jeffdisher.october.aspects.Environment;
+import com.jeffdisher.october.data.DeserializationContext;
+import com.jeffdisher.october.logic.CreatureIdAssigner;
+import com.jeffdisher.october.logic.PassiveIdAssigner;
+import com.jeffdisher.october.logic.ScheduledMutation;
+import com.jeffdisher.october.mutations.MutationBlockSetBlock;
+import com.jeffdisher.october.net.CodecHelpers;
+import com.jeffdisher.october.types.BlockAddress;
+import com.jeffdisher.october.types.CreatureEntity;
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.types.PassiveEntity;
+import com.jeffdisher.october.utils.Assert;
+
+
+/**
+ * An append-only log of the per-tick changes to loaded cuboids and entities, so that these changes can be recovered if
+ * the server stops without writing everything back to the cluster and entity files (a crash, for example).
+ * Each tick appends one record containing the block changes (as MutationBlockSetBlock) of the cuboids which changed,
+ * the complete lists of their scheduled mutations, periodic mutations, creatures, and passives, and the entities which
+ * changed.  Tick records are group-committed:  The log is forced to
+ * storage once FORCE_INTERVAL_TICKS tick records or FORCE_INTERVAL_MILLIS have accumulated (whichever comes first), so a
+ * crash can lose at most those last few ticks, without paying for a sync on every tick.
+ * When everything loaded has been written back (a checkpoint), the log is truncated.  When something is written back
+ * and retired, a record is appended to note that its earlier changes are already stored.
+ * On start-up, any existing log is read via readLog() and applied on top of the stored data.  Records are checksummed
+ * so that a record torn by a crash (which must be the last one) is ignored.
+ * Note that this is only used from the ResourceLoader's background thread.
+ */
+public class WriteAheadLog
+{
+	public static final String FILE_NAME = "world.wal";
+	public static final int INITIAL_BUFFER_SIZE_BYTES = 64 * 1024;
+	/**
+	 * The log is forced to storage after at most this many unforced tick records.
+	 */
+	public static final int FORCE_INTERVAL_TICKS = 5;
+	/**
+	 * The log is forced to storage on the next tick record once this long has passed since the last force.
+	 */
+	public static final long FORCE_INTERVAL_MILLIS = 250L;
+
+	private static final byte RECORD_TICK = 1;
+	private static final byte RECORD_RETIRED = 2;
+	// Every record starts with the int size of its payload and the int CRC32 of the payload.
+	private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+
+	/**
+	 * @param saveDirectory The directory where the world data is stored.
+	 * @return The location of the log file for this world (may not exist).
+	 */
+	public static File getLogFile(File saveDirectory)
+	{
+		return new File(saveDirectory, FILE_NAME);
+	}
+
+	/**
+	 * Reads the entire log at logFile, collapsing all of its records into the state which must be applied on top of what
+	 * is in the cluster and entity files.  Anything logged before a retired record for the same cuboid or entity is
+	 * discarded.  Reading stops at the first incomplete or corrupt record.
+	 * 
+	 * @param logFile The log file to read (must exist).
+	 * @param env The environment.
+	 * @return The collapsed contents of the log.
+	 * @throws IOException There was a problem reading the file.
+	 */
+	public static Replay readLog(File logFile, Environment env) throws IOException
+	{
+		byte[] raw = Files.readAllBytes(logFile.toPath());
+		ByteBuffer buffer = ByteBuffer.wrap(raw);
+		Map<CuboidAddress, _CuboidState> cuboids = new LinkedHashMap<>();
+		Map<Integer, byte[]> entities = new HashMap<>();
+		int recordCount = 0;
+		long lastTickNumber = 0L;
+		boolean isTorn = false;
+		while (!isTorn && (buffer.remaining() >= RECORD_HEADER_BYTES))
+		{
+			int size = buffer.getInt();
+			int checksum = buffer.getInt();
+			if ((size <= 0) || (size > buffer.remaining()) || (checksum != _checksum(raw, buffer.position(), size)))
+			{
+				isTorn = true;
+			}
+			else
+			{
+				ByteBuffer payload = buffer.slice(buffer.position(), size);
+				buffer.position(buffer.position() + size);
+				byte type = payload.get();
+				if (RECORD_TICK == type)
+				{
+					lastTickNumber = _readTick(payload, env, cuboids, entities);
+				}
+				else
+				{
+					Assert.assertTrue(RECORD_RETIRED == type);
+					_readRetired(payload, cuboids, entities);
+				}
+				Assert.assertTrue(!payload.hasRemaining());
+				recordCount += 1;
+			}
+		}
+		
+		List<CuboidDelta> deltas = new ArrayList<>();
+		for (Map.Entry<CuboidAddress, _CuboidState> elt : cuboids.entrySet())
+		{
+			_CuboidState state = elt.getValue();
+			deltas.add(new CuboidDelta(elt.getKey()
+				, state.blockChanges
+				, state.scheduledMutations
+				, state.periodicMutationMillis
+				, state.creatures
+				, state.passives
+			));
+		}
+		return new Replay(deltas, entities, recordCount, lastTickNumber);
+	}
+
+
+	private final File _logFile;
+	private final FileChannel _channel;
+	private ByteBuffer _buffer;
+	private int _unforcedTicks;
+	private long _lastForceMillis;
+
+	/**
+	 * Opens the log file for this world, creating it if it doesn't exist.  Note that any existing content should have
+	 * already been replayed since new records are appended.
+	 * 
+	 * @param saveDirectory The directory where the world data is stored.
+	 * @throws IOException There was a problem opening the file.
+	 */
+	public WriteAheadLog(File saveDirectory) throws IOException
+	{
+		_logFile = getLogFile(saveDirectory);
+		_channel = FileChannel.open(_logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		_buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE_BYTES);
+		_unforcedTicks = 0;
+		_lastForceMillis = System.currentTimeMillis();
+	}
+
+	/**
+	 * Appends the changes from a single tick.  These are forced to storage before returning only if this completes a
+	 * group commit (see FORCE_INTERVAL_TICKS and FORCE_INTERVAL_MILLIS).
+	 * 
+	 * @param tickNumber The tick which made these changes.
+	 * @param gameTimeMillis The millisecond time of this tick (used for storing "time remaining" in some counters).
+	 * @param cuboids The cuboids changed in this tick.
+	 * @param entities The entities changed in this tick.
+	 * @throws IOException There was a problem writing the file.
+	 */
+	public void appendTick(long tickNumber, long gameTimeMillis, Collection<CuboidDelta> cuboids, Collection<SuspendedEntity> entities) throws IOException
+	{
+		_appendRecord((ByteBuffer buffer) -> {
+			buffer.put(RECORD_TICK);
+			buffer.putLong(tickNumber);
+			buffer.putInt(cuboids.size());
+			for (CuboidDelta delta : cuboids)
+			{
+				CodecHelpers.writeCuboidAddress(buffer, delta.address());
+				buffer.putInt(delta.blockChanges().size());
+				for (MutationBlockSetBlock change : delta.blockChanges())
+				{
+					// The set block mutation consumes the rest of its buffer so we need to write its size.
+					int sizePosition = buffer.position();
+					buffer.putInt(0);
+					change.serializeToBuffer(buffer);
+					buffer.putInt(sizePosition, buffer.position() - sizePosition - Integer.BYTES);
+				}
+				CuboidCodec.writeMutations(buffer, delta.scheduledMutations());
+				CuboidCodec.writePeriodic(buffer, delta.periodicMutationMillis());
+				CuboidCodec.writeCreatures(buffer, delta.creatures(), gameTimeMillis);
+				CuboidCodec.writePassives(buffer, delta.passives());
+			}
+			buffer.putInt(entities.size());
+			for (SuspendedEntity entity : entities)
+			{
+				buffer.putInt(entity.entity().id());
+				int sizePosition = buffer.position();
+				buffer.putInt(0);
+				EntityCodec.serializeEntityWithoutVersionHeader(buffer, entity);
+				buffer.putInt(sizePosition, buffer.position() - sizePosition - Integer.BYTES);
+			}
+		});
+		_unforcedTicks += 1;
+		if ((_unforcedTicks >= FORCE_INTERVAL_TICKS) || ((System.currentTimeMillis() - _lastForceMillis) >= FORCE_INTERVAL_MILLIS))
+		{
+			_force();
+		}
+	}
+
+	/**
+	 * Appends a note that the given cuboids and entities have been written back to their files and retired, meaning
+	 * that anything logged for them before this point must not be replayed.  This is forced to storage before returning
+	 * since replaying an older list of scheduled mutations over what was stored would lose newer ones.
+	 * 
+	 * @param cuboids The cuboids which were retired.
+	 * @param entityIds The IDs of the entities which were retired.
+	 * @throws IOException There was a problem writing the file.
+	 */
+	public void appendRetired(Collection<CuboidAddress> cuboids, Collection<Integer> entityIds) throws IOException
+	{
+		_appendRecord((ByteBuffer buffer) -> {
+			buffer.put(RECORD_RETIRED);
+			buffer.putInt(cuboids.size());
+			for (CuboidAddress address : cuboids)
+			{
+				CodecHelpers.writeCuboidAddress(buffer, address);
+			}
+			buffer.putInt(entityIds.size());
+			for (int id : entityIds)
+			{
+				buffer.putInt(id);
+			}
+		});
+		// (this also forces any tick records waiting for a group commit)
+		_force();
+	}
+
+	/**
+	 * Discards the entire log.  This must only be called once everything loaded has been written back.
+	 * 
+	 * @throws IOException There was a problem writing the file.
+	 */
+	public void checkpoint() throws IOException
+	{
+		_channel.truncate(0L);
+		_force();
+	}
+
+	/**
+	 * @return The current size of the log, in bytes.
+	 * @throws IOException There was a problem reading the file state.
+	 */
+	public long size() throws IOException
+	{
+		return _channel.size();
+	}
+
+	/**
+	 * Closes the log and deletes the file.  This must only be called once everything has been written back.
+	 * 
+	 * @throws IOException There was a problem closing or deleting the file.
+	 */
+	public void closeAndDelete() throws IOException
+	{
+		_channel.close();
+		Files.delete(_logFile.toPath());
+	}
+
+
+	private void _force() throws IOException
+	{
+		_channel.force(false);
+		_unforcedTicks = 0;
+		_lastForceMillis = System.currentTimeMillis();
+	}
+
+	private void _appendRecord(Consumer<ByteBuffer> writer) throws IOException
+	{
+		// We don't know how large the record will be so we grow the buffer until it fits.
+		boolean didFit = false;
+		while (!didFit)
+		{
+			_buffer.clear();
+			_buffer.position(RECORD_HEADER_BYTES);
+			try
+			{
+				writer.accept(_buffer);
+				didFit = true;
+			}
+			catch (BufferOverflowException e)
+			{
+				_buffer = ByteBuffer.allocate(2 * _buffer.capacity());
+			}
+		}
+		int size = _buffer.position() - RECORD_HEADER_BYTES;
+		_buffer.putInt(0, size);
+		_buffer.putInt(Integer.BYTES, _checksum(_buffer.array(), RECORD_HEADER_BYTES, size));
+		_buffer.flip();
+		while (_buffer.hasRemaining())
+		{
+			_channel.write(_buffer);
+		}
+	}
+
+	private static int _checksum(byte[] data, int offset, int length)
+	{
+		CRC32 crc = new CRC32();
+		crc.update(data, offset, length);
+		return (int) crc.getValue();
+	}
+
+	private static long _readTick(ByteBuffer payload, Environment env, Map<CuboidAddress, _CuboidState> cuboids, Map<Integer, byte[]> entities)
+	{
+		long tickNumber = payload.getLong();
+		// Times are stored relative to the tick which logged them so we read them relative to 0 (and replay writes them
+		// back the same way).
+		DeserializationContext context = DeserializationContext.current(env, payload, 0L);
+		// Creature and passive IDs aren't stored so we assign throw-away IDs until the cuboid is loaded.
+		CreatureIdAssigner creatureIdAssigner = new CreatureIdAssigner();
+		PassiveIdAssigner passiveIdAssigner = new PassiveIdAssigner();
+		int cuboidCount = payload.getInt();
+		for (int i = 0; i < cuboidCount; ++i)
+		{
+			CuboidAddress address = CodecHelpers.readCuboidAddress(payload);
+			_CuboidState state = cuboids.get(address);
+			if (null == state)
+			{
+				state = new _CuboidState();
+				cuboids.put(address, state);
+			}
+			int changeCount = payload.getInt();
+			for (int j = 0; j < changeCount; ++j)
+			{
+				int size = payload.getInt();
+				ByteBuffer slice = payload.slice(payload.position(), size);
+				payload.position(payload.position() + size);
+				state.blockChanges.add(MutationBlockSetBlock.deserializeFromBuffer(slice));
+			}
+			// Everything but the block changes is the complete state so it replaces whatever we saw before.
+			state.scheduledMutations = CuboidCodec.readMutations(context);
+			state.periodicMutationMillis = CuboidCodec.readPeriodic(payload);
+			state.creatures = CuboidCodec.readCreatures(context, creatureIdAssigner);
+			state.passives = CuboidCodec.readPassives(context, passiveIdAssigner);
+		}
+		int entityCount = payload.getInt();
+		for (int i = 0; i < entityCount; ++i)
+		{
+			int id = payload.getInt();
+			byte[] serialized = new byte[payload.getInt()];
+			payload.get(serialized);
+			entities.put(id, serialized);
+		}
+		return tickNumber;
+	}
+
+	private static void _readRetired(ByteBuffer payload, Map<CuboidAddress, _CuboidState> cuboids, Map<Integer, byte[]> entities)
+	{
+		int cuboidCount = payload.getInt();
+		for (int i = 0; i < cuboidCount; ++i)
+		{
+			cuboids.remove(CodecHelpers.readCuboidAddress(payload));
+		}
+		int entityCount = payload.getInt();
+		for (int i = 0; i < entityCount; ++i)
+		{
+			entities.remove(payload.getInt());
+		}
+	}
+
+
+	/**
+	 * The changes made to a single cuboid, either in one tick (when appending) or collapsed over the entire log (when
+	 * replaying).
+	 * 
+	 * @param address The cuboid address.
+	 * @param blockChanges The block changes, in the order they must be applied.
+	 * @param scheduledMutations The complete list of scheduled mutations for the cuboid after these changes.
+	 * @param periodicMutationMillis The complete map of periodic mutations for the cuboid after these changes.
+	 * @param creatures The complete list of creatures in the cuboid after these changes.
+	 * @param passives The complete list of passives in the cuboid after these changes.
+	 */
+	public static record CuboidDelta(CuboidAddress address
+		, List<MutationBlockSetBlock> blockChanges
+		, List<ScheduledMutation> scheduledMutations
+		, Map<BlockAddress, Long> periodicMutationMillis
+		, List<CreatureEntity> creatures
+		, List<PassiveEntity> passives
+	)
+	{}
+
+	/**
+	 * The collapsed contents of a log.
+	 * 
+	 * @param cuboids The changes to apply to cuboids.
+	 * @param entities The serialized entities (without version header) to write, by ID.
+	 * @param recordCount The number of valid records read.
+	 * @param lastTickNumber The number of the last tick logged (0 if there were none).
+	 */
+	public static record Replay(List<CuboidDelta> cuboids
+		, Map<Integer, byte[]> entities
+		, int recordCount
+		, long lastTickNumber
+	)
+	{}
+
+	private static class _CuboidState
+	{
+		public final List<MutationBlockSetBlock> blockChanges = new ArrayList<>();
+		public List<ScheduledMutation> scheduledMutations = List.of();
+		public Map<BlockAddress, Long> periodicMutationMillis = Map.of();
+		public List<CreatureEntity> creatures = List.of();
+		public List<PassiveEntity> passives = List.of();
+	}
+}
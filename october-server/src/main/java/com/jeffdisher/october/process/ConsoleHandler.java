@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +18,7 @@ import com.jeffdisher.october.actions.EntityActionOperatorSpawnCreature;
 import com.jeffdisher.october.aspects.Environment;
 import com.jeffdisher.october.data.IReadOnlyCuboidData;
 import com.jeffdisher.october.engine.EnginePlayers;
+import com.jeffdisher.october.jfr.ServerEvents;
 import com.jeffdisher.october.logic.MiscHelpers;
 import com.jeffdisher.october.logic.PropagationHelpers;
 import com.jeffdisher.october.net.NetworkLayer;
@@ -31,6 +33,10 @@ import com.jeffdisher.october.types.EntityType;
 import com.jeffdisher.october.types.Item;
 import com.jeffdisher.october.types.WorldConfig;
 import com.jeffdisher.october.utils.Assert;
+import com.jeffdisher.october.worldgen.IWorldGenerator;
+import com.jeffdisher.october.worldgen.WorldGenHelpers;
+
+import jdk.jfr.Recording;
 
 
 /**
@@ -161,6 +167,8 @@ public class ConsoleHandler
 		public boolean canContinue = true;
 		public final MonitoringAgent monitoringAgent;
 		public final WorldConfig mutableSharedConfig;
+		// The JFR recording started by RECORD_START, if one is running.
+		public Recording recording;
 		public _ConsoleState(MonitoringAgent monitoringAgent, WorldConfig mutableSharedConfig)
 		{
 			this.monitoringAgent = monitoringAgent;
@@ -183,6 +191,11 @@ public class ConsoleHandler
 			}
 		}),
 		STOP((PrintStream out, _ConsoleState state, String[] parameters) -> {
+			// Make sure that we don't lose a recording which is still running.
+			if (null != state.recording)
+			{
+				_stopRecording(out, state);
+			}
 			state.canContinue = false;
 		}),
 		LIST_CLIENTS((PrintStream out, _ConsoleState state, String[] parameters) -> {
@@ -224,6 +237,17 @@ public class ConsoleHandler
 			out.println("\tCuboids: " + cuboidCount);
 			out.println("\tCreatures: " + creatureCount);
 		}),
+		WORLDGEN_STATS((PrintStream out, _ConsoleState state, String[] parameters) -> {
+			IWorldGenerator worldGen = state.monitoringAgent.getWorldGenerator();
+			if (null != worldGen)
+			{
+				WorldGenHelpers.printCacheStats(out, worldGen);
+			}
+			else
+			{
+				out.println("World generator not available");
+			}
+		}),
 		DISCONNECT((PrintStream out, _ConsoleState state, String[] parameters) -> {
 			if (parameters.length > 0)
 			{
@@ -515,6 +539,51 @@ public class ConsoleHandler
 				out.println("Usage:  <block_id> <x> <y> <z>");
 			}
 		}),
+		RECORD_START((PrintStream out, _ConsoleState state, String[] parameters) -> {
+			// We expect <file>.
+			if (1 == parameters.length)
+			{
+				if (null == state.recording)
+				{
+					Path destination = Path.of(parameters[0]);
+					try
+					{
+						state.recording = ServerEvents.startRecording(destination);
+						out.println("Recording to " + destination.toAbsolutePath());
+					}
+					catch (IOException e)
+					{
+						out.println("Error:  Could not record to \"" + destination + "\": " + e.getMessage());
+					}
+				}
+				else
+				{
+					out.println("Error:  A recording is already running");
+				}
+			}
+			else
+			{
+				out.println("Usage:  <file>");
+			}
+		}),
+		RECORD_STOP((PrintStream out, _ConsoleState state, String[] parameters) -> {
+			// We expect no parameters.
+			if (0 == parameters.length)
+			{
+				if (null != state.recording)
+				{
+					_stopRecording(out, state);
+				}
+				else
+				{
+					out.println("Error:  No recording is running");
+				}
+			}
+			else
+			{
+				out.println("Error:  No parameters expected");
+			}
+		}),
 		;
 		
 		public final _CommandHandler handler;
@@ -538,6 +607,17 @@ public class ConsoleHandler
 			return read;
 		}
 		
+		private static void _stopRecording(PrintStream out, _ConsoleState state)
+		{
+			// Stopping the recording writes it to its destination.
+			Recording recording = state.recording;
+			Path destination = recording.getDestination();
+			recording.stop();
+			recording.close();
+			state.recording = null;
+			out.println("Recording written to " + destination.toAbsolutePath());
+		}
+		
 		private static String _joinList(int start, String[] list)
 		{
 			String message = list[start];
@@ -7,9 +7,11 @@ import com.jeffdisher.october.aspects.Environment;
 import com.jeffdisher.october.config.TabListReader;
 import com.jeffdisher.october.logic.PropagationHelpers;
 import com.jeffdisher.october.persistence.ResourceLoader;
+import com.jeffdisher.october.persistence.StorageModelMigration;
 import com.jeffdisher.october.server.MonitoringAgent;
 import com.jeffdisher.october.server.ServerRunner;
 import com.jeffdisher.october.ticks.TickSnapshot;
+import com.jeffdisher.october.types.CuboidAddress;
 import com.jeffdisher.october.types.EntityLocation;
 import com.jeffdisher.october.types.WorldConfig;
 import com.jeffdisher.october.utils.Assert;
@@ -19,47 +21,70 @@ import com.jeffdisher.october.worldgen.WorldGenHelpers;
 
 public class ServerMain
 {
+	public static final String PREGENERATE_FLAG = "--pregenerate";
+	public static final String MIGRATE_FLAG = "--migrate";
+	public static final String REPLAY_FLAG = "--replay";
+
 	public static void main(String[] args)
 	{
 		_setupDefaultExceptionHandler();
 		
-		// For now, we will only assume 1 argument:  port number.
-		if (1 == args.length)
+		// We either take 1 argument (port number) to run the server, the migration flag, the replay flag and its recording, or the pre-generation flag and its region.
+		if ((1 == args.length) && MIGRATE_FLAG.equals(args[0]))
 		{
-			int port = Integer.parseInt(args[0]);
-			
-			System.out.println("Reading local resources and configuration...");
-			File worldDirectory = new File("world");
-			if (!worldDirectory.isDirectory())
+			File worldDirectory = _getWorldDirectory();
+			// The translators need the shared environment but we don't need a world generator.
+			try
 			{
-				Assert.assertTrue(worldDirectory.mkdirs());
+				Environment.createSharedInstance();
 			}
-			MonitoringAgent monitoringAgent = new MonitoringAgent();
-			WorldConfig config = new WorldConfig();
-			Environment env;
-			IWorldGenerator worldGen;
+			catch (IOException | TabListReader.TabListException e)
+			{
+				// This is a fatal error.
+				throw new FatalStartupError("Pre-start loading", e);
+			}
+			// There is nothing else running so we can give all the processors to the upgrade.
+			int threadCount = Runtime.getRuntime().availableProcessors();
+			System.out.printf("Upgrading world storage using %d threads\n", threadCount);
+			StorageModelMigration.UpgradeResult result = StorageModelMigration.upgradeAll(worldDirectory, threadCount, new _ThroughputProgress());
+			System.out.printf("Storage upgrade complete in %d ms:  upgraded %d of %d clusters and %d of %d entities\n"
+				, result.millis()
+				, result.upgradedClusters()
+				, result.clusterCount()
+				, result.upgradedEntities()
+				, result.entityCount()
+			);
+			Environment.clearSharedInstance();
+		}
+		else if ((2 == args.length) && REPLAY_FLAG.equals(args[0]))
+		{
+			File recordingFile = new File(args[1]);
+			// The replay doesn't touch the world directory but it needs the shared environment to read the recording.
 			try
 			{
-				env = Environment.createSharedInstance();
-				boolean didLoadConfig = ResourceLoader.populateWorldConfig(worldDirectory, config);
-				worldGen = WorldGenHelpers.createConfiguredWorldGenerator(env, config);
-				if (!didLoadConfig)
-				{
-					// There is no config so ask the world-gen for the default spawn.
-					EntityLocation spawnLocation = worldGen.getDefaultSpawnLocation();
-					config.worldSpawn = spawnLocation.getBlockLocation();
-					ResourceLoader.storeWorldConfig(worldDirectory, config);
-				}
+				Environment.createSharedInstance();
+				TickReplay.replay(recordingFile, System.out);
 			}
 			catch (IOException | TabListReader.TabListException e)
 			{
 				// This is a fatal error.
-				throw new FatalStartupError("Pre-start loading", e);
+				throw new FatalStartupError("Replaying recording", e);
 			}
+			Environment.clearSharedInstance();
+		}
+		else if (1 == args.length)
+		{
+			int port = Integer.parseInt(args[0]);
+			
+			File worldDirectory = _getWorldDirectory();
+			MonitoringAgent monitoringAgent = new MonitoringAgent();
+			WorldConfig config = new WorldConfig();
+			IWorldGenerator worldGen = _loadWorld(worldDirectory, config);
 			ResourceLoader cuboidLoader = new ResourceLoader(worldDirectory
 				, worldGen
 				, config
 			);
+			monitoringAgent.setWorldGenerator(worldGen);
 			// By default, we assume that the server has access to all the processors.
 			int maxThreadsForServer = Runtime.getRuntime().availableProcessors();
 			
@@ -97,14 +122,83 @@ public class ServerMain
 			}
 			Environment.clearSharedInstance();
 		}
+		else if ((4 == args.length) && PREGENERATE_FLAG.equals(args[0]))
+		{
+			int radius = Integer.parseInt(args[1]);
+			int minZ = Integer.parseInt(args[2]);
+			int maxZ = Integer.parseInt(args[3]);
+			
+			File worldDirectory = _getWorldDirectory();
+			WorldConfig config = new WorldConfig();
+			IWorldGenerator worldGen = _loadWorld(worldDirectory, config);
+			// There is nothing else running so we can give all the processors to generation.
+			ResourceLoader cuboidLoader = new ResourceLoader(worldDirectory
+				, worldGen
+				, config
+				, Runtime.getRuntime().availableProcessors()
+			);
+			CuboidAddress centre = config.worldSpawn.getCuboidAddress();
+			System.out.printf("Pre-generating cuboids within %d of %s, from z=%d to z=%d\n", radius, centre, minZ, maxZ);
+			try
+			{
+				WorldPreGenerator.run(worldDirectory, cuboidLoader, centre, radius, minZ, maxZ, System.out);
+				WorldGenHelpers.printCacheStats(System.out, worldGen);
+			}
+			catch (IOException | InterruptedException e)
+			{
+				// This is a fatal error.
+				throw new FatalStartupError("Pre-generating world", e);
+			}
+			Environment.clearSharedInstance();
+		}
 		else
 		{
 			System.err.println("Usage:  ServerMain PORT");
+			System.err.println("   or:  ServerMain " + PREGENERATE_FLAG + " CUBOID_RADIUS MIN_CUBOID_Z MAX_CUBOID_Z");
+			System.err.println("   or:  ServerMain " + MIGRATE_FLAG);
+			System.err.println("   or:  ServerMain " + REPLAY_FLAG + " RECORDING_FILE");
 			System.exit(1);
 		}
 	}
 
 
+	private static File _getWorldDirectory()
+	{
+		System.out.println("Reading local resources and configuration...");
+		File worldDirectory = new File("world");
+		if (!worldDirectory.isDirectory())
+		{
+			Assert.assertTrue(worldDirectory.mkdirs());
+		}
+		return worldDirectory;
+	}
+
+	private static IWorldGenerator _loadWorld(File worldDirectory, WorldConfig config)
+	{
+		// Note that this creates the shared Environment instance.
+		IWorldGenerator worldGen;
+		try
+		{
+			Environment env = Environment.createSharedInstance();
+			boolean didLoadConfig = ResourceLoader.populateWorldConfig(worldDirectory, config);
+			worldGen = WorldGenHelpers.createConfiguredWorldGenerator(env, config);
+			if (!didLoadConfig)
+			{
+				// There is no config so ask the world-gen for the default spawn.
+				EntityLocation spawnLocation = worldGen.getDefaultSpawnLocation();
+				config.worldSpawn = spawnLocation.getBlockLocation();
+				ResourceLoader.storeWorldConfig(worldDirectory, config);
+			}
+		}
+		catch (IOException | TabListReader.TabListException e)
+		{
+			// This is a fatal error.
+			throw new FatalStartupError("Pre-start loading", e);
+		}
+		return worldGen;
+	}
+
+
 	private static void _setupDefaultExceptionHandler()
 	{
 		Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler()
@@ -120,6 +214,38 @@ public class ServerMain
 	}
 
 
+	/**
+	 * Prints the progress of each migration activity, once per percent, along with its throughput so far.
+	 */
+	private static class _ThroughputProgress implements StorageModelMigration.IProgress
+	{
+		private int _previousReport = -1;
+		private long _activityStartMillis;
+		
+		@Override
+		public void itemCompleted(String activity, int completedCount, int totalCount)
+		{
+			if (-1 == _previousReport)
+			{
+				// This is the first item in a new activity (we only see completions so this slightly under-counts).
+				_activityStartMillis = System.currentTimeMillis();
+			}
+			int thisCount = (100 * completedCount / totalCount);
+			if (thisCount > _previousReport)
+			{
+				long millis = Math.max(1L, System.currentTimeMillis() - _activityStartMillis);
+				System.out.printf("%s %d%% (%d / %d, %.1f items/sec)\n", activity, thisCount, completedCount, totalCount, (1000.0 * completedCount) / millis);
+				_previousReport = thisCount;
+			}
+			if (completedCount == totalCount)
+			{
+				// Changing modes so reset.
+				_previousReport = -1;
+			}
+		}
+	}
+
+
 	public static class FatalStartupError extends RuntimeException
 	{
 		public FatalStartupError(String activity, Throwable t)
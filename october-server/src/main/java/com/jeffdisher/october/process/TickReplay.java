@@ -0,0 +1,135 @@
+package com.jeffdisher.october.process;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import com.jeffdisher.october.logic.CreatureIdAssigner;
+import com.jeffdisher.october.logic.PassiveIdAssigner;
+import com.jeffdisher.october.ticks.TickRecording;
+import com.jeffdisher.october.ticks.TickRunner;
+import com.jeffdisher.october.ticks.TickSnapshot;
+import com.jeffdisher.october.utils.Assert;
+
+
+/**
+ * Replays a TickRecording through a TickRunner, without a network or a ResourceLoader and without waiting between
+ * ticks, reporting the time taken by each tick and a hash of the final world state.
+ * The replay uses a single tick thread and the recorded random seed so replaying the same recording always produces
+ * the same final state, making it usable as a repeatable performance test of a captured session.  The server also
+ * records with a single tick thread and ends the recording with the hash of its final state, so the replay reports
+ * whether it reached the same state as the recorded session.
+ */
+public class TickReplay
+{
+	/**
+	 * Replays the given recording to completion.
+	 * 
+	 * @param recordingFile The recording to replay.
+	 * @param out The stream where the per-tick timings and summary are reported.
+	 * @return The summary of the replay.
+	 * @throws IOException There was a problem reading the recording.
+	 */
+	public static Result replay(File recordingFile, PrintStream out) throws IOException
+	{
+		TickRecording.Reader reader = TickRecording.openReader(recordingFile);
+		Random random = new Random(reader.getRandomSeed());
+		CreatureIdAssigner creatureIdAssigner = new CreatureIdAssigner();
+		PassiveIdAssigner passiveIdAssigner = new PassiveIdAssigner();
+		TickRunner runner = new TickRunner(1
+			, reader.getMillisPerTick()
+			, creatureIdAssigner
+			, passiveIdAssigner
+			, (int bound) -> random.nextInt(bound)
+			, (TickSnapshot completed) -> {}
+			, reader.getConfig()
+		);
+		runner.start();
+		
+		List<Long> nanosPerTick = new ArrayList<>();
+		TickSnapshot snapshot = runner.waitForPreviousTick();
+		// Note that we only read the next tick once the previous is done since reading resets the ID assigners.
+		TickRecording.RecordedTick tick = reader.readNextTick(creatureIdAssigner, passiveIdAssigner);
+		while (null != tick)
+		{
+			// The recording has every tick so the numbers should line up.
+			Assert.assertTrue((snapshot.tickNumber() + 1L) == tick.tickNumber());
+			runner.setupChangesForTick(tick.newCuboids()
+				, tick.cuboidsToDrop()
+				, tick.newEntities()
+				, tick.removedEntityIds()
+			);
+			for (TickRecording.ClientChange change : tick.clientChanges())
+			{
+				boolean didEnqueue = runner.enqueueEntityChange(change.entityId(), change.change(), change.commitLevel());
+				Assert.assertTrue(didEnqueue);
+			}
+			for (TickRecording.OperatorChange change : tick.operatorChanges())
+			{
+				runner.enqueueOperatorMutation(change.entityId(), change.change());
+			}
+			runner.startNextTick();
+			
+			snapshot = runner.waitForPreviousTick();
+			TickSnapshot.TickStats stats = snapshot.stats();
+			long nanos = stats.nanosInPreamble() + stats.nanosInParallelPhase() + stats.nanosInPostamble();
+			nanosPerTick.add(nanos);
+			out.printf("Tick %d:  %d us\n", snapshot.tickNumber(), nanos / 1_000L);
+			
+			tick = reader.readNextTick(creatureIdAssigner, passiveIdAssigner);
+		}
+		Long recordedWorldHash = reader.getFinalWorldHashOrNull();
+		reader.close();
+		
+		long worldHash = TickRecording.hashWorldState(snapshot, reader.getMillisPerTick());
+		runner.shutdown();
+		
+		long[] sorted = nanosPerTick.stream().mapToLong((Long nanos) -> nanos).sorted().toArray();
+		long totalNanos = Arrays.stream(sorted).sum();
+		long medianNanos = (sorted.length > 0) ? sorted[sorted.length / 2] : 0L;
+		long maxNanos = (sorted.length > 0) ? sorted[sorted.length - 1] : 0L;
+		out.printf("Replayed %d ticks in %d ms (median %d us, max %d us), final state hash %08x\n"
+			, sorted.length
+			, totalNanos / 1_000_000L
+			, medianNanos / 1_000L
+			, maxNanos / 1_000L
+			, worldHash
+		);
+		if (null == recordedWorldHash)
+		{
+			out.println("Recording has no final state hash (the session didn't shut down cleanly)");
+		}
+		else if (worldHash == recordedWorldHash)
+		{
+			out.println("Final state matches the recorded session");
+		}
+		else
+		{
+			out.printf("Final state DIFFERS from the recorded session (recorded hash %08x)\n", recordedWorldHash);
+		}
+		return new Result(sorted.length, totalNanos, maxNanos, worldHash, recordedWorldHash);
+	}
+
+
+	/**
+	 * The summary of a replay.
+	 * 
+	 * @param tickCount The number of ticks replayed.
+	 * @param totalNanos The total time spent running the ticks.
+	 * @param maxNanos The time spent running the slowest tick.
+	 * @param worldHash The hash of the final world state (see TickRecording.hashWorldState()).
+	 * @param recordedWorldHashOrNull The hash of the final world state of the recorded session (null if the recording
+	 * was cut off).
+	 */
+	public static record Result(int tickCount
+		, long totalNanos
+		, long maxNanos
+		, long worldHash
+		, Long recordedWorldHashOrNull
+	)
+	{}
+}
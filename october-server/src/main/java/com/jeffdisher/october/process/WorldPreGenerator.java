@@ -0,0 +1,231 @@
+package com.jeffdisher.october.process;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.jeffdisher.october.data.CuboidData;
+import com.jeffdisher.october.persistence.CuboidCluster;
+import com.jeffdisher.october.persistence.PackagedCuboid;
+import com.jeffdisher.october.persistence.ResourceLoader;
+import com.jeffdisher.october.persistence.SuspendedCuboid;
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.utils.Assert;
+
+
+/**
+ * Generates and persists all the cuboids in a region of the world, without starting a server, so that players joining
+ * later don't have to wait for the world generator.
+ * The region is processed one cuboid cluster at a time (so that each cluster file is written once) and progress is
+ * recorded in the world directory so that an interrupted run can be resumed.  Since the ResourceLoader always prefers
+ * what is on disk, re-running over a region which was already generated is safe, just slower.
+ */
+public class WorldPreGenerator
+{
+	public static final String PROGRESS_FILE_NAME = "pregeneration_progress.txt";
+	public static final long POLL_INTERVAL_MILLIS = 10L;
+	/**
+	 * If the loader returns nothing for this long while cuboids in a batch are still missing, generation has failed.
+	 */
+	public static final long STALL_TIMEOUT_MILLIS = 60_000L;
+
+	/**
+	 * Builds the list of batches to process for the given region, each batch being the part of the region within a
+	 * single cuboid cluster.  The order is deterministic so that progress can be recorded as a batch count.
+	 * 
+	 * @param centre The cuboid at the centre of the region.
+	 * @param radius The number of cuboids to include on each side of the centre, in X and Y.
+	 * @param minZ The lowest cuboid Z to include.
+	 * @param maxZ The highest cuboid Z to include.
+	 * @return The batches of cuboid addresses, in processing order.
+	 */
+	public static List<List<CuboidAddress>> buildBatches(CuboidAddress centre, int radius, int minZ, int maxZ)
+	{
+		Assert.assertTrue(radius >= 0);
+		Assert.assertTrue(minZ <= maxZ);
+		int minX = centre.x() - radius;
+		int maxX = centre.x() + radius;
+		int minY = centre.y() - radius;
+		int maxY = centre.y() + radius;
+		int shift = CuboidCluster.SHIFT_ADDRESS_CLUSTER;
+		
+		List<List<CuboidAddress>> batches = new ArrayList<>();
+		for (int clusterZ = (minZ >> shift); clusterZ <= (maxZ >> shift); ++clusterZ)
+		{
+			for (int clusterY = (minY >> shift); clusterY <= (maxY >> shift); ++clusterY)
+			{
+				for (int clusterX = (minX >> shift); clusterX <= (maxX >> shift); ++clusterX)
+				{
+					List<CuboidAddress> batch = new ArrayList<>();
+					for (int z = Math.max(minZ, clusterZ << shift); z <= Math.min(maxZ, ((clusterZ + 1) << shift) - 1); ++z)
+					{
+						for (int y = Math.max(minY, clusterY << shift); y <= Math.min(maxY, ((clusterY + 1) << shift) - 1); ++y)
+						{
+							for (int x = Math.max(minX, clusterX << shift); x <= Math.min(maxX, ((clusterX + 1) << shift) - 1); ++x)
+							{
+								batch.add(CuboidAddress.fromInt(x, y, z));
+							}
+						}
+					}
+					batches.add(batch);
+				}
+			}
+		}
+		return batches;
+	}
+
+	/**
+	 * Generates (or loads) every cuboid in the given region and writes it back to disk.  This returns once everything
+	 * is written, at which point the loader has been shut down.
+	 * 
+	 * @param worldDirectory The world directory (where the progress file is stored).
+	 * @param loader The loader to use for generation and storage (will be shut down before returning).
+	 * @param centre The cuboid at the centre of the region.
+	 * @param radius The number of cuboids to include on each side of the centre, in X and Y.
+	 * @param minZ The lowest cuboid Z to include.
+	 * @param maxZ The highest cuboid Z to include.
+	 * @param out The stream where progress is reported.
+	 * @return The summary of the work done.
+	 * @throws IOException There was a problem reading or writing the progress file.
+	 * @throws InterruptedException The thread was interrupted while waiting for results.
+	 */
+	public static Result run(File worldDirectory
+			, ResourceLoader loader
+			, CuboidAddress centre
+			, int radius
+			, int minZ
+			, int maxZ
+			, PrintStream out
+	) throws IOException, InterruptedException
+	{
+		List<List<CuboidAddress>> batches = buildBatches(centre, radius, minZ, maxZ);
+		File progressFile = new File(worldDirectory, PROGRESS_FILE_NAME);
+		String region = String.format("%d\t%d\t%d\t%d\t%d", centre.x(), centre.y(), radius, minZ, maxZ);
+		int skippedBatches = _readCompletedBatches(progressFile, region);
+		if (skippedBatches > 0)
+		{
+			out.printf("Resuming pre-generation after %d of %d clusters\n", skippedBatches, batches.size());
+		}
+		
+		long startMillis = System.currentTimeMillis();
+		int cuboidCount = 0;
+		for (int i = skippedBatches; i < batches.size(); ++i)
+		{
+			List<CuboidAddress> batch = batches.get(i);
+			long batchStartMillis = System.currentTimeMillis();
+			List<SuspendedCuboid<CuboidData>> results = _loadBatch(loader, batch);
+			
+			// The loader processes requests in order so, once this batch has been read, the write-back of the previous
+			// batch must be on disk and we can record it as complete.
+			if (i > skippedBatches)
+			{
+				_writeCompletedBatches(progressFile, region, i);
+			}
+			
+			// Write back the whole batch at once so the cluster is written as a unit.
+			List<PackagedCuboid> toWrite = new ArrayList<>();
+			for (SuspendedCuboid<CuboidData> suspended : results)
+			{
+				toWrite.add(new PackagedCuboid(suspended.cuboid()
+					, suspended.creatures()
+					, suspended.pendingMutations()
+					, suspended.periodicMutationMillis()
+					, suspended.passives()
+				));
+			}
+			loader.writeBackToDiskAndRetire(toWrite, List.of(), 0L);
+			
+			cuboidCount += batch.size();
+			long batchMillis = Math.max(1L, System.currentTimeMillis() - batchStartMillis);
+			out.printf("Cluster %d / %d:  %d cuboids in %d ms (%.1f cuboids/sec)\n", i + 1, batches.size(), batch.size(), batchMillis, (1000.0 * batch.size()) / batchMillis);
+		}
+		
+		// Shutting down the loader flushes the final write-back so we are now done.
+		loader.shutdown();
+		progressFile.delete();
+		
+		long totalMillis = Math.max(1L, System.currentTimeMillis() - startMillis);
+		out.printf("Pre-generation complete:  %d cuboids in %d ms (%.1f cuboids/sec)\n", cuboidCount, totalMillis, (1000.0 * cuboidCount) / totalMillis);
+		return new Result(batches.size(), skippedBatches, cuboidCount, totalMillis);
+	}
+
+
+	private static List<SuspendedCuboid<CuboidData>> _loadBatch(ResourceLoader loader, List<CuboidAddress> batch) throws InterruptedException
+	{
+		// The loader drops any cuboid which couldn't be loaded or generated so we track what is still missing and give up
+		// if nothing arrives for too long, instead of waiting forever.
+		Set<CuboidAddress> missing = new HashSet<>(batch);
+		List<SuspendedCuboid<CuboidData>> results = new ArrayList<>();
+		loader.getResultsAndRequestBackgroundLoad(results, List.of(), batch, List.of(), 0L);
+		long lastProgressMillis = System.currentTimeMillis();
+		int seen = 0;
+		while (!missing.isEmpty())
+		{
+			for (; seen < results.size(); ++seen)
+			{
+				missing.remove(results.get(seen).cuboid().getCuboidAddress());
+				lastProgressMillis = System.currentTimeMillis();
+			}
+			if (!missing.isEmpty())
+			{
+				if ((System.currentTimeMillis() - lastProgressMillis) > STALL_TIMEOUT_MILLIS)
+				{
+					throw new RuntimeException("Loader returned no cuboid for " + missing.size() + " addresses, including " + missing.iterator().next());
+				}
+				Thread.sleep(POLL_INTERVAL_MILLIS);
+				loader.getResultsAndRequestBackgroundLoad(results, List.of(), List.of(), List.of(), 0L);
+			}
+		}
+		Assert.assertTrue(results.size() == batch.size());
+		return results;
+	}
+
+	private static int _readCompletedBatches(File progressFile, String region) throws IOException
+	{
+		// The file contains the region description and the number of completed batches, on separate lines.  If this was
+		// for a different region, we start over.
+		int completed = 0;
+		if (progressFile.exists())
+		{
+			List<String> lines = Files.readAllLines(progressFile.toPath(), StandardCharsets.UTF_8);
+			if ((2 == lines.size()) && region.equals(lines.get(0)))
+			{
+				completed = Integer.parseInt(lines.get(1));
+			}
+		}
+		return completed;
+	}
+
+	private static void _writeCompletedBatches(File progressFile, String region, int completed) throws IOException
+	{
+		// We write a temporary file and move it over the old one so that a crash can't leave a partial progress file.
+		String contents = region + "\n" + completed + "\n";
+		Path temp = new File(progressFile.getParentFile(), progressFile.getName() + ".tmp").toPath();
+		Files.writeString(temp, contents, StandardCharsets.UTF_8);
+		Files.move(temp, progressFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+
+	/**
+	 * The summary of a pre-generation run.
+	 * 
+	 * @param totalBatches The number of cluster batches in the region.
+	 * @param skippedBatches The number of batches skipped since they were completed by a previous run.
+	 * @param cuboidCount The number of cuboids processed in this run.
+	 * @param millis The time taken by this run.
+	 */
+	public static record Result(int totalBatches
+		, int skippedBatches
+		, int cuboidCount
+		, long millis
+	)
+	{}
+}
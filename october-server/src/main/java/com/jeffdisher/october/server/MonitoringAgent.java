@@ -10,6 +10,7 @@ import com.jeffdisher.october.ticks.TickSnapshot;
 import com.jeffdisher.october.types.IEntityAction;
 import com.jeffdisher.october.types.IMutablePlayerEntity;
 import com.jeffdisher.october.utils.Assert;
+import com.jeffdisher.october.worldgen.IWorldGenerator;
 
 
 /**
@@ -24,6 +25,7 @@ public class MonitoringAgent
 	private volatile NetworkServer<?> _network;
 	private volatile TickSnapshot _lastSnapshot;
 	private volatile OperatorCommandSink _commandSink;
+	private volatile IWorldGenerator _worldGenerator;
 
 	public void setNetwork(NetworkServer<?> network)
 	{
@@ -81,6 +83,16 @@ public class MonitoringAgent
 		return _lastSnapshot;
 	}
 
+	public void setWorldGenerator(IWorldGenerator worldGenerator)
+	{
+		_worldGenerator = worldGenerator;
+	}
+
+	public IWorldGenerator getWorldGenerator()
+	{
+		return _worldGenerator;
+	}
+
 
 	public static interface OperatorCommandSink
 	{
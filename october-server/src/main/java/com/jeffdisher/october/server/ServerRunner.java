@@ -1,5 +1,7 @@
 package com.jeffdisher.october.server;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Random;
 import java.util.concurrent.CountDownLatch;
@@ -15,6 +17,8 @@ import com.jeffdisher.october.persistence.PackagedCuboid;
 import com.jeffdisher.october.persistence.ResourceLoader;
 import com.jeffdisher.october.persistence.SuspendedCuboid;
 import com.jeffdisher.october.persistence.SuspendedEntity;
+import com.jeffdisher.october.persistence.WriteAheadLog;
+import com.jeffdisher.october.ticks.TickRecording;
 import com.jeffdisher.october.ticks.TickRunner;
 import com.jeffdisher.october.ticks.TickSnapshot;
 import com.jeffdisher.october.types.CuboidAddress;
@@ -43,6 +47,13 @@ public class ServerRunner
 	 * this value is, a value of 1 is always the minimum).
 	 */
 	public static final String ENV_VAR_OCTOBER_PROJECT_TICK_RUNNER_THREAD_COUNT = "OCTOBER_PROJECT_TICK_RUNNER_THREAD_COUNT";
+	/**
+	 * The name of the environment variable to set in order to record everything injected into each tick to the file it
+	 * names (see TickRecording), so that the session can later be replayed with TickReplay.
+	 * Since the tick threads share the random generator, only a single-threaded session can be reproduced, so setting
+	 * this also forces TickRunner to use 1 thread (over-riding ENV_VAR_OCTOBER_PROJECT_TICK_RUNNER_THREAD_COUNT).
+	 */
+	public static final String ENV_VAR_OCTOBER_PROJECT_TICK_RECORDING_FILE = "OCTOBER_PROJECT_TICK_RECORDING_FILE";
 
 	// General and configuration variables.
 	private final long _millisPerTick;
@@ -50,6 +61,8 @@ public class ServerRunner
 	private final IServerAdapter _network;
 	private final ResourceLoader _loader;
 	private final TickRunner _tickRunner;
+	// Null unless the ticks are being recorded.
+	private final TickRecording.Writer _recording;
 
 	// Information related to internal thread state and message passing.
 	private final MessageQueue _messages;
@@ -101,6 +114,12 @@ public class ServerRunner
 		{
 			idealTickRunnerThreadCount = Integer.parseInt(envVar);
 		}
+		// If we are recording the ticks, we need to use exactly 1 thread so that the replay can reproduce them.
+		String recordingFile = System.getenv(ENV_VAR_OCTOBER_PROJECT_TICK_RECORDING_FILE);
+		if (null != recordingFile)
+		{
+			idealTickRunnerThreadCount = 1;
+		}
 		// At minimum, we need 1 thread.
 		int tickRunnerThreadCount = Math.max(idealTickRunnerThreadCount, 1);
 		
@@ -110,7 +129,9 @@ public class ServerRunner
 		network.readyAndStartListening(networkListener);
 		_network = network;
 		_loader = loader;
-		Random random = new Random();
+		// We pick the seed explicitly so that it can be recorded.
+		long randomSeed = new Random().nextLong();
+		Random random = new Random(randomSeed);
 		TickListener tickListener = new TickListener();
 		_tickRunner = new TickRunner(tickRunnerThreadCount
 				, _millisPerTick
@@ -120,6 +141,22 @@ public class ServerRunner
 				, tickListener
 				, config
 		);
+		if (null != recordingFile)
+		{
+			try
+			{
+				_recording = TickRecording.openWriter(new File(recordingFile), _millisPerTick, randomSeed, config);
+			}
+			catch (IOException e)
+			{
+				throw Assert.unexpected(e);
+			}
+			_tickRunner.setRecording(_recording);
+		}
+		else
+		{
+			_recording = null;
+		}
 		
 		_messages = new MessageQueue();
 		
@@ -231,9 +268,25 @@ public class ServerRunner
 			throw Assert.unexpected(e);
 		}
 		
+		// Now that the background thread has stopped, no more ticks can start so this is the final state.
+		TickSnapshot finalSnapshot = _tickRunner.waitForPreviousTick();
+		
 		// Shut down the tick runner.
 		_tickRunner.shutdown();
 		
+		// Now that the ticks have stopped, we can finish the recording with the final state it should replay to.
+		if (null != _recording)
+		{
+			try
+			{
+				_recording.close(TickRecording.hashWorldState(finalSnapshot, _millisPerTick));
+			}
+			catch (IOException e)
+			{
+				throw Assert.unexpected(e);
+			}
+		}
+		
 		// Shut down the cuboid loader.
 		_loader.shutdown();
 	}
@@ -468,6 +521,11 @@ public class ServerRunner
 			_loader.tryWriteBackToDisk(cuboids, entities, gameTimeMillis);
 		}
 		@Override
+		public void resources_appendToLog(long tickNumber, long gameTimeMillis, Collection<WriteAheadLog.CuboidDelta> cuboids, Collection<SuspendedEntity> entities)
+		{
+			_loader.appendToLog(tickNumber, gameTimeMillis, cuboids, entities);
+		}
+		@Override
 		public void resources_getAndRequestBackgroundLoad(Collection<SuspendedCuboid<CuboidData>> out_loadedCuboids
 				, Collection<SuspendedEntity> out_loadedEntities
 				, Collection<CuboidAddress> requestedCuboids
@@ -17,6 +17,7 @@ import com.jeffdisher.october.aspects.Environment;
 import com.jeffdisher.october.aspects.MiscConstants;
 import com.jeffdisher.october.data.CuboidData;
 import com.jeffdisher.october.data.IReadOnlyCuboidData;
+import com.jeffdisher.october.jfr.ServerEvents;
 import com.jeffdisher.october.logic.ScheduledChange;
 import com.jeffdisher.october.logic.ScheduledMutation;
 import com.jeffdisher.october.logic.SpatialHelpers;
@@ -50,6 +51,7 @@ import com.jeffdisher.october.net.Packet_ServerSendConfigUpdate;
 import com.jeffdisher.october.persistence.PackagedCuboid;
 import com.jeffdisher.october.persistence.SuspendedCuboid;
 import com.jeffdisher.october.persistence.SuspendedEntity;
+import com.jeffdisher.october.persistence.WriteAheadLog;
 import com.jeffdisher.october.ticks.TickSnapshot;
 import com.jeffdisher.october.types.AbsoluteLocation;
 import com.jeffdisher.october.types.BlockAddress;
@@ -112,7 +114,17 @@ public class ServerStateManager
 	private _EntityIndex<Entity> _entityIndex;
 	private _EntityIndex<CreatureEntity> _creatureIndex;
 	private _EntityIndex<PassiveEntity> _passiveIndex;
+	// A spatial index of which creatures are in each cuboid, updated from the added/removed/changed creatures each tick.
+	private final Map<CuboidAddress, Set<Integer>> _creatureIdsByCuboid;
+	private final Map<Integer, CuboidAddress> _creatureCuboids;
 	private Map<CuboidAddress, List<MutationBlockSetBlock>> _blockChanges;
+	// The cuboids whose scheduled mutations were added to or consumed in the last tick (not just their timers advancing).
+	private Set<CuboidAddress> _changedScheduledMutations;
+	// The cuboids whose periodic mutations were added or removed in the last tick (not just their timers advancing).
+	private Set<CuboidAddress> _changedPeriodicMutations;
+	// The cuboids where a creature or passive was added, removed, or changed (including both ends of a move) in the last tick.
+	private Set<CuboidAddress> _changedEntityCuboids;
+	private List<Entity> _changedEntities;
 
 	public ServerStateManager(ICallouts callouts, long millisPerTick)
 	{
@@ -136,7 +148,13 @@ public class ServerStateManager
 		_commitLevels = Collections.emptyMap();
 		_creatureIndex = _EntityIndex.empty();
 		_passiveIndex = _EntityIndex.empty();
+		_creatureIdsByCuboid = new HashMap<>();
+		_creatureCuboids = new HashMap<>();
 		_blockChanges = Collections.emptyMap();
+		_changedScheduledMutations = Collections.emptySet();
+		_changedPeriodicMutations = Collections.emptySet();
+		_changedEntityCuboids = Collections.emptySet();
+		_changedEntities = Collections.emptyList();
 	}
 
 	public void setOwningThread()
@@ -377,6 +395,44 @@ public class ServerStateManager
 
 	private void _handleEndOfTickWriteBack(Collection<Integer> removedClients, Set<CuboidAddress> orphanedCuboids)
 	{
+		// Log what changed in this tick before any write-back so that a crash can't lose it, even if we don't write it.
+		// A cuboid needs a delta if its blocks, scheduled mutations, periodic mutations, creatures, or passives changed.
+		// Everything but the blocks is logged as the cuboid's complete state, so the last delta for a cuboid wins.
+		Set<CuboidAddress> changedCuboids = new HashSet<>(_blockChanges.keySet());
+		changedCuboids.addAll(_changedScheduledMutations);
+		changedCuboids.addAll(_changedPeriodicMutations);
+		for (CuboidAddress address : _changedEntityCuboids)
+		{
+			// A creature or passive can leave a cuboid as it is unloaded but that cuboid has already been written back.
+			if (_completedCuboids.containsKey(address))
+			{
+				changedCuboids.add(address);
+			}
+		}
+		if (!changedCuboids.isEmpty() || !_changedEntities.isEmpty())
+		{
+			List<IReadOnlyCuboidData> cuboidsToLog = changedCuboids.stream().map(
+					(CuboidAddress address) -> _completedCuboids.get(address)
+			).toList();
+			Map<CuboidAddress, List<CreatureEntity>> creaturesToLog = _findCreaturesToUnload(cuboidsToLog);
+			Map<CuboidAddress, List<PassiveEntity>> passivesToLog = _findPassivesToUnload(cuboidsToLog);
+			List<WriteAheadLog.CuboidDelta> cuboidDeltas = new ArrayList<>();
+			for (CuboidAddress address : changedCuboids)
+			{
+				List<MutationBlockSetBlock> blockChanges = _blockChanges.getOrDefault(address, List.of());
+				cuboidDeltas.add(new WriteAheadLog.CuboidDelta(address
+					, blockChanges
+					, _scheduledBlockMutations.get(address)
+					, _periodicBlockMutations.get(address)
+					, creaturesToLog.get(address)
+					, passivesToLog.get(address)
+				));
+			}
+			Collection<SuspendedEntity> entityDeltas = _packageEntitiesForUnloading(_changedEntities);
+			long gameTimeMillis = _tickNumber * _millisPerTick;
+			_callouts.resources_appendToLog(_tickNumber, gameTimeMillis, cuboidDeltas, entityDeltas);
+		}
+		
 		// (this is most important in the corner-case where the same entity left and rejoined in the same tick)
 		if (!orphanedCuboids.isEmpty() || !removedClients.isEmpty())
 		{
@@ -464,6 +520,8 @@ public class ServerStateManager
 			, List<EventRecord> postedEvents
 	)
 	{
+		ServerEvents.ClientSerialize event = new ServerEvents.ClientSerialize();
+		event.begin();
 		OutpacketBuffer buffer = _callouts.network_openOutputBuffer(clientId);
 		if (null != newCuboidLocation)
 		{
@@ -489,6 +547,10 @@ public class ServerStateManager
 		Packet_EndOfTick packet = new Packet_EndOfTick(_tickNumber, commitLevel);
 		buffer.writePacket(packet);
 		_callouts.network_closeOutputBuffer(clientId, buffer);
+		
+		event.tickNumber = _tickNumber;
+		event.clientId = clientId;
+		event.commit();
 	}
 
 	private void _drainAllClientPacketsAndUpdateClients()
@@ -1009,19 +1071,71 @@ public class ServerStateManager
 		for (IReadOnlyCuboidData cuboid : cuboidsToPackage)
 		{
 			CuboidAddress address = cuboid.getCuboidAddress();
-			creaturesToUnload.put(address, new ArrayList<>());
+			List<CreatureEntity> list = new ArrayList<>();
+			Set<Integer> ids = _creatureIdsByCuboid.get(address);
+			if (null != ids)
+			{
+				for (Integer id : ids)
+				{
+					list.add(_creatureIndex.completed.get(id));
+				}
+			}
+			creaturesToUnload.put(address, list);
 		}
-		// TODO:  Change this to use some sort of spatial look-up mechanism since this loop is attrocious.
-		for (CreatureEntity creature : _creatureIndex.completed.values())
+		return creaturesToUnload;
+	}
+
+	private void _updateCreatureCuboidIndex()
+	{
+		// Only creatures which were added, removed, or changed could have moved between cuboids.
+		// These are also the cuboids whose creatures need to be logged.
+		for (Integer id : _creatureIndex.removed)
 		{
-			CuboidAddress address = creature.location().getBlockLocation().getCuboidAddress();
-			List<CreatureEntity> list = creaturesToUnload.get(address);
-			if (null != list)
+			CuboidAddress address = _creatureCuboids.remove(id);
+			_removeCreatureFromCuboid(address, id);
+			_changedEntityCuboids.add(address);
+		}
+		for (CreatureEntity creature : _creatureIndex.added)
+		{
+			_placeCreatureInCuboid(creature);
+		}
+		for (CreatureEntity creature : _creatureIndex.changed)
+		{
+			_placeCreatureInCuboid(creature);
+		}
+	}
+
+	private void _placeCreatureInCuboid(CreatureEntity creature)
+	{
+		int id = creature.id();
+		CuboidAddress address = creature.location().getBlockLocation().getCuboidAddress();
+		CuboidAddress previous = _creatureCuboids.put(id, address);
+		_changedEntityCuboids.add(address);
+		if (!address.equals(previous))
+		{
+			if (null != previous)
+			{
+				_removeCreatureFromCuboid(previous, id);
+				_changedEntityCuboids.add(previous);
+			}
+			Set<Integer> ids = _creatureIdsByCuboid.get(address);
+			if (null == ids)
 			{
-				list.add(creature);
+				ids = new HashSet<>();
+				_creatureIdsByCuboid.put(address, ids);
 			}
+			ids.add(id);
+		}
+	}
+
+	private void _removeCreatureFromCuboid(CuboidAddress address, int id)
+	{
+		Set<Integer> ids = _creatureIdsByCuboid.get(address);
+		ids.remove(id);
+		if (ids.isEmpty())
+		{
+			_creatureIdsByCuboid.remove(address);
 		}
-		return creaturesToUnload;
 	}
 
 	private Map<CuboidAddress, List<PassiveEntity>> _findPassivesToUnload(Collection<IReadOnlyCuboidData> cuboidsToPackage)
@@ -1312,6 +1426,57 @@ public class ServerStateManager
 		return referencedCuboids;
 	}
 
+	private static boolean _didScheduledMutationsChange(List<ScheduledMutation> previous, List<ScheduledMutation> current)
+	{
+		// Mutations keep their instance while waiting (only their timer changes) so we compare the instances, in order.
+		// A cuboid which wasn't loaded before only counts as changed if it has something scheduled.
+		boolean didChange;
+		if (null == previous)
+		{
+			didChange = !current.isEmpty();
+		}
+		else if (previous.size() != current.size())
+		{
+			didChange = true;
+		}
+		else
+		{
+			didChange = false;
+			for (int i = 0; !didChange && (i < current.size()); ++i)
+			{
+				didChange = (previous.get(i).mutation() != current.get(i).mutation());
+			}
+		}
+		return didChange;
+	}
+
+	private static boolean _didPeriodicMutationsChange(Map<BlockAddress, Long> previous, Map<BlockAddress, Long> current)
+	{
+		// Like scheduled mutations, the timers count down every tick so we only consider which blocks have an entry.
+		return (null == previous)
+			? !current.isEmpty()
+			: !previous.keySet().equals(current.keySet())
+		;
+	}
+
+	private void _findChangedPassiveCuboids(_EntityIndex<PassiveEntity> previousIndex)
+	{
+		// We don't keep a spatial index of passives so we look at where the added, changed, and removed ones were.
+		for (PassiveEntity passive : _passiveIndex.added)
+		{
+			_changedEntityCuboids.add(passive.location().getBlockLocation().getCuboidAddress());
+		}
+		for (PassiveEntity passive : _passiveIndex.changed)
+		{
+			_changedEntityCuboids.add(passive.location().getBlockLocation().getCuboidAddress());
+			_changedEntityCuboids.add(_passiveIndex.previousVersions.get(passive.id()).location().getBlockLocation().getCuboidAddress());
+		}
+		for (Integer id : _passiveIndex.removed)
+		{
+			_changedEntityCuboids.add(previousIndex.completed.get(id).location().getBlockLocation().getCuboidAddress());
+		}
+	}
+
 	private Pair<Set<CuboidAddress>, Set<CuboidAddress>> _absorbSnapshot(TickSnapshot snapshot
 		, AbsoluteLocation worldSpawn
 	)
@@ -1319,9 +1484,14 @@ public class ServerStateManager
 		_tickNumber = snapshot.tickNumber();
 		
 		// We start by reseting everything indexed by cuboid address.
+		Map<CuboidAddress, List<ScheduledMutation>> previousScheduledBlockMutations = _scheduledBlockMutations;
+		Map<CuboidAddress, Map<BlockAddress, Long>> previousPeriodicBlockMutations = _periodicBlockMutations;
 		_completedCuboids = new HashMap<>();
 		_scheduledBlockMutations = new HashMap<>();
+		_changedScheduledMutations = new HashSet<>();
 		_periodicBlockMutations = new HashMap<>();
+		_changedPeriodicMutations = new HashSet<>();
+		_changedEntityCuboids = new HashSet<>();
 		_blockChanges = new HashMap<>();
 		for (TickSnapshot.SnapshotCuboid elt : snapshot.cuboids().values())
 		{
@@ -1330,10 +1500,20 @@ public class ServerStateManager
 			_completedCuboids.put(address, cuboid);
 			
 			// Never null but could be empty.
-			_scheduledBlockMutations.put(address, elt.scheduledBlockMutations());
+			List<ScheduledMutation> scheduledMutations = elt.scheduledBlockMutations();
+			_scheduledBlockMutations.put(address, scheduledMutations);
+			if (_didScheduledMutationsChange(previousScheduledBlockMutations.get(address), scheduledMutations))
+			{
+				_changedScheduledMutations.add(address);
+			}
 			
 			// Never null but could be empty.
-			_periodicBlockMutations.put(address, elt.periodicMutationMillis());
+			Map<BlockAddress, Long> periodicMutations = elt.periodicMutationMillis();
+			_periodicBlockMutations.put(address, periodicMutations);
+			if (_didPeriodicMutationsChange(previousPeriodicBlockMutations.get(address), periodicMutations))
+			{
+				_changedPeriodicMutations.add(address);
+			}
 			
 			// This one is a bit special in that we on make an entry in the map if non-null.
 			List<MutationBlockSetBlock> blockChanges = elt.blockChanges();
@@ -1347,12 +1527,17 @@ public class ServerStateManager
 		// Extract the other entities meta-data.
 		_scheduledEntityMutations = new HashMap<>();
 		_commitLevels = new HashMap<>();
+		_changedEntities = new ArrayList<>();
 		for (TickSnapshot.SnapshotEntity elt : snapshot.entities().values())
 		{
 			Entity completed = elt.completed();
 			int id = completed.id();
 			_scheduledEntityMutations.put(id, elt.scheduledMutations());
 			_commitLevels.put(id, elt.commitLevel());
+			if (null != elt.previousVersion())
+			{
+				_changedEntities.add(completed);
+			}
 		}
 		
 		// Reset the entities.
@@ -1360,9 +1545,12 @@ public class ServerStateManager
 		
 		// Reset the creatures.
 		_creatureIndex = _extractCreatureIndex(_creatureIndex, snapshot);
+		_updateCreatureCuboidIndex();
 		
 		// Reset the passives.
-		_passiveIndex = _extractPassiveIndex(_passiveIndex, snapshot);
+		_EntityIndex<PassiveEntity> previousPassiveIndex = _passiveIndex;
+		_passiveIndex = _extractPassiveIndex(previousPassiveIndex, snapshot);
+		_findChangedPassiveCuboids(previousPassiveIndex);
 		
 		Set<CuboidAddress> completedCuboidAddresses = _completedCuboids.keySet();
 		
@@ -1432,6 +1620,17 @@ public class ServerStateManager
 		 * counters, etc).
 		 */
 		void resources_tryWriteToDisk(Collection<PackagedCuboid> cuboids, Collection<SuspendedEntity> entities, long gameTimeMillis);
+		/**
+		 * Appends the changes made in a single tick to the write-ahead log so that they can be recovered after a crash,
+		 * even if they were not yet written back.
+		 * 
+		 * @param tickNumber The tick which made these changes.
+		 * @param gameTimeMillis The millisecond time of this tick (used for storing "time remaining" in some counters).
+		 * @param cuboids The cuboids which had block, scheduled mutation, periodic mutation, creature, or passive changes
+		 * in this tick.
+		 * @param entities The entities which changed in this tick.
+		 */
+		void resources_appendToLog(long tickNumber, long gameTimeMillis, Collection<WriteAheadLog.CuboidDelta> cuboids, Collection<SuspendedEntity> entities);
 		void resources_getAndRequestBackgroundLoad(Collection<SuspendedCuboid<CuboidData>> out_loadedCuboids
 				, Collection<SuspendedEntity> out_loadedEntities
 				, Collection<CuboidAddress> requestedCuboids
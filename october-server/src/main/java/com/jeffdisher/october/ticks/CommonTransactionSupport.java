@@ -1,6 +1,7 @@
 package com.jeffdisher.october.ticks;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -16,24 +17,23 @@ import com.jeffdisher.october.types.TickProcessingContext;
 
 /**
  * The transaction support created by TickContextBuilder, pulled out so that it can be more easily tested.
- * The transactions that this utility supports are very uncommon so we don't do any expensive setup (although that could
- * change in the future).
+ * The count of mutations ready at each block is indexed at most once per tick, by buildReadyMutationCounts(), the
+ * first time a transaction asks for it (see ReadyMutationIndex), so checks only cost in proportion to the locations
+ * they are given and ticks without transactions never build it.
  */
 public class CommonTransactionSupport implements TickProcessingContext.ITransactionSupport
 {
-	private final TickMaterials _materials;
-
-	public CommonTransactionSupport(TickMaterials materials)
-	{
-		_materials = materials;
-	}
-
-	@Override
-	public boolean checkScheduledMutationCount(Collection<AbsoluteLocation> locations, int expectedMutations)
+	/**
+	 * Builds the index of how many mutations (including periodic) are ready to run at each block in the given tick
+	 * input.  Blocks with none ready are not in the index.
+	 * 
+	 * @param highLevel The work units for the tick.
+	 * @return The map of ready mutation counts, by block location.
+	 */
+	public static Map<AbsoluteLocation, Integer> buildReadyMutationCounts(TickInput highLevel)
 	{
-		// In the future, we might want to optimize this since the current approach is quite expensive but adds no overhead when not called.
 		Map<AbsoluteLocation, Integer> mutationsThisTick = new HashMap<>();
-		for (TickInput.ColumnInput column : _materials.highLevel().columns())
+		for (TickInput.ColumnInput column : highLevel.columns())
 		{
 			for (TickInput.CuboidInput cuboid : column.cuboids())
 			{
@@ -59,7 +59,21 @@ public class CommonTransactionSupport implements TickProcessingContext.ITransact
 				}
 			}
 		}
-		
+		return Collections.unmodifiableMap(mutationsThisTick);
+	}
+
+
+	private final TickMaterials _materials;
+
+	public CommonTransactionSupport(TickMaterials materials)
+	{
+		_materials = materials;
+	}
+
+	@Override
+	public boolean checkScheduledMutationCount(Collection<AbsoluteLocation> locations, int expectedMutations)
+	{
+		Map<AbsoluteLocation, Integer> mutationsThisTick = _materials.readyMutationIndex().getCounts();
 		boolean didMatch = true;
 		Set<CuboidAddress> loadedCuboids = _materials.completedCuboids().keySet();
 		for (AbsoluteLocation location : locations)
@@ -138,4 +152,41 @@ public class CommonTransactionSupport implements TickProcessingContext.ITransact
 		}
 		set.add(location);
 	}
+
+
+	/**
+	 * Lazily builds the ready mutation counts for a tick, the first time they are requested.  Transactions are rare
+	 * so most ticks never need this.  Since transactions are checked from the parallel phase, this is thread-safe.
+	 */
+	public static final class ReadyMutationIndex
+	{
+		private final TickInput _highLevel;
+		private volatile Map<AbsoluteLocation, Integer> _counts;
+		
+		public ReadyMutationIndex(TickInput highLevel)
+		{
+			_highLevel = highLevel;
+		}
+		
+		/**
+		 * @return The map of ready mutation counts, by block location (absent means 0).
+		 */
+		public Map<AbsoluteLocation, Integer> getCounts()
+		{
+			Map<AbsoluteLocation, Integer> counts = _counts;
+			if (null == counts)
+			{
+				synchronized (this)
+				{
+					counts = _counts;
+					if (null == counts)
+					{
+						counts = buildReadyMutationCounts(_highLevel);
+						_counts = counts;
+					}
+				}
+			}
+			return counts;
+		}
+	}
 }
@@ -9,9 +9,12 @@ import java.util.function.IntUnaryOperator;
 
 import com.jeffdisher.october.data.BlockProxy;
 import com.jeffdisher.october.data.ColumnHeightMap;
+import com.jeffdisher.october.data.IReadOnlyCuboidData;
+import com.jeffdisher.october.logic.BlockKindCache;
 import com.jeffdisher.october.logic.CommonChangeSink;
 import com.jeffdisher.october.logic.CommonMutationSink;
 import com.jeffdisher.october.logic.CreatureIdAssigner;
+import com.jeffdisher.october.logic.NavigationGraphCache;
 import com.jeffdisher.october.logic.PassiveIdAssigner;
 import com.jeffdisher.october.logic.PropagationHelpers;
 import com.jeffdisher.october.types.AbsoluteLocation;
@@ -46,6 +49,7 @@ public class TickContextBuilder
 
 	// Derived components used to build the context.
 	private final TickProcessingContext.IPassiveSearch _passiveSearch;
+	private final TickProcessingContext.INavigationLookup _navigation;
 	public final CommonMutationSink mutationSink;
 	public final CommonChangeSink changeSink;
 	private final TickProcessingContext.ICreatureSpawner _spawnConsumer;
@@ -57,6 +61,7 @@ public class TickContextBuilder
 		, PassiveIdAssigner passiveIdAssigner
 		, IntUnaryOperator random
 		, WorldConfig config
+		, NavigationGraphCache navigationCache
 	)
 	{
 		_materials = materials;
@@ -70,6 +75,13 @@ public class TickContextBuilder
 		this.cuboidsMarkedAliveInternally = new HashSet<>();
 		
 		_passiveSearch = new LazyPassiveIndex(materials.completedPassives());
+		_navigation = (CuboidAddress address) -> {
+			IReadOnlyCuboidData cuboid = materials.completedCuboids().get(address);
+			return (null != cuboid)
+				? navigationCache.getGraph(cuboid)
+				: null
+			;
+		};
 		
 		this.mutationSink = new CommonMutationSink(materials.completedCuboids().keySet());
 		this.changeSink = new CommonChangeSink(materials.completedEntities().keySet(), materials.completedCreatures().keySet(), materials.completedPassives().keySet());
@@ -108,6 +120,8 @@ public class TickContextBuilder
 			, blockFetcher
 			, new LazyEntityIndex(_materials.completedEntities(), _materials.completedCreatures())
 			, _passiveSearch
+			, _navigation
+			, new BlockKindCache(blockFetcher)
 			, transactions
 			, (AbsoluteLocation blockLocation) -> {
 				CuboidColumnAddress column = blockLocation.getCuboidAddress().getColumn();
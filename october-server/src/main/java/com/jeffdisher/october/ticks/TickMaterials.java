@@ -13,6 +13,7 @@ import com.jeffdisher.october.types.CreatureEntity;
 import com.jeffdisher.october.types.CuboidAddress;
 import com.jeffdisher.october.types.CuboidColumnAddress;
 import com.jeffdisher.october.types.Entity;
+import com.jeffdisher.october.types.EntityLocation;
 import com.jeffdisher.october.types.IEntityAction;
 import com.jeffdisher.october.types.IMutablePlayerEntity;
 import com.jeffdisher.october.types.PassiveEntity;
@@ -47,6 +48,11 @@ public record TickMaterials(long thisGameTick
 	// Higher-level data associated with the materials.
 	, EntityCollection entityCollection
 	, TickInput highLevel
+	// The number of mutations (including periodic) ready to run at each block in this tick, derived from highLevel the
+	// first time a transaction check needs it, so that ticks without transactions don't walk the whole world.
+	, CommonTransactionSupport.ReadyMutationIndex readyMutationIndex
+	// The locations of all players at the start of the tick, used to choose the level of detail for creatures.
+	, List<EntityLocation> playerLocations
 	
 	// Data related to internal statistics to be passed back at the end of the tick.
 	, long nanosInPreamble
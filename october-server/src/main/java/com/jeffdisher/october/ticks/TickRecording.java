@@ -0,0 +1,658 @@
+package com.jeffdisher.october.ticks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import com.jeffdisher.october.actions.IEntityActionFromClient;
+import com.jeffdisher.october.aspects.Environment;
+import com.jeffdisher.october.data.CuboidData;
+import com.jeffdisher.october.data.DeserializationContext;
+import com.jeffdisher.october.data.IReadOnlyCuboidData;
+import com.jeffdisher.october.logic.CreatureIdAssigner;
+import com.jeffdisher.october.logic.PassiveIdAssigner;
+import com.jeffdisher.october.net.CodecHelpers;
+import com.jeffdisher.october.net.EntityActionCodec;
+import com.jeffdisher.october.persistence.CuboidCodec;
+import com.jeffdisher.october.persistence.EntityCodec;
+import com.jeffdisher.october.persistence.PackagedCuboid;
+import com.jeffdisher.october.persistence.ResourceLoader;
+import com.jeffdisher.october.persistence.StorageVersions;
+import com.jeffdisher.october.persistence.SuspendedCuboid;
+import com.jeffdisher.october.persistence.SuspendedEntity;
+import com.jeffdisher.october.types.CreatureEntity;
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.types.IEntityAction;
+import com.jeffdisher.october.types.IMutablePlayerEntity;
+import com.jeffdisher.october.types.PassiveEntity;
+import com.jeffdisher.october.types.WorldConfig;
+import com.jeffdisher.october.utils.Assert;
+
+
+/**
+ * A recording of everything injected into a TickRunner from outside, tick by tick, so that a session can be replayed
+ * headless (see TickReplay).
+ * The recording starts with a header (the storage version, the millis per tick, the seed of the tick random generator,
+ * and the world config) followed by one record per tick containing what the tick consumed when it started:  the loaded
+ * and unloaded cuboids and entities, the client change selected for each entity, and any operator mutations.  Since
+ * world generation happens before cuboids are handed to the TickRunner, the generated cuboids are recorded directly,
+ * instead of the world generator seed.
+ * When the recording is closed, it ends with a hash of the final world state (see hashWorldState()) so that a replay can
+ * check that it reached the same state as the recorded session.
+ * Cuboids, entities, and actions are stored with the same codecs used for the on-disk storage so the recording is only
+ * readable by the same storage version.  Note that, just like loading from disk, any mutations which can't be saved to
+ * disk are dropped.
+ * Since the on-disk storage doesn't keep the IDs of creatures and passives, the IDs they had in the session are recorded
+ * next to each cuboid, and each tick also records the last IDs handed out by the creature and passive ID assigners, so
+ * that the replay gives out the same IDs (as long as the loader wasn't assigning IDs while that tick was running).
+ */
+public class TickRecording
+{
+	public static final int MAGIC = 0x4F435452;
+
+	// CodecHelpers writes cuboid addresses as 3 shorts.
+	private static final int CUBOID_ADDRESS_BYTES = 3 * Short.BYTES;
+	// Written in place of a tick number to mark the end of the recording (tick numbers are never negative).
+	private static final long END_OF_RECORDING = -1L;
+
+	/**
+	 * Opens a new recording, overwriting the file if it already exists, and writes its header.
+	 * 
+	 * @param file The file where the recording should be written.
+	 * @param millisPerTick The number of milliseconds in a tick.
+	 * @param randomSeed The seed used for the TickRunner's random generator.
+	 * @param config The world config.
+	 * @return The writer for the rest of the recording.
+	 * @throws IOException There was a problem opening or writing the file.
+	 */
+	public static Writer openWriter(File file, long millisPerTick, long randomSeed, WorldConfig config) throws IOException
+	{
+		OutputStream stream = new BufferedOutputStream(new FileOutputStream(file));
+		Writer writer = new Writer(stream);
+		writer._writeHeader(millisPerTick, randomSeed, config);
+		return writer;
+	}
+
+	/**
+	 * Opens an existing recording and reads its header.
+	 * 
+	 * @param file The recording file.
+	 * @return The reader for the rest of the recording.
+	 * @throws IOException There was a problem reading the file or it isn't a recording from this version.
+	 */
+	public static Reader openReader(File file) throws IOException
+	{
+		InputStream stream = new BufferedInputStream(new FileInputStream(file));
+		Reader reader = new Reader(stream);
+		reader._readHeader();
+		return reader;
+	}
+
+	/**
+	 * Computes a hash of the world state in the given snapshot:  The cuboids, players, creatures, and passives.
+	 * 
+	 * @param snapshot The snapshot to hash.
+	 * @param millisPerTick The number of milliseconds in a tick.
+	 * @return The CRC32 of the serialized world state.
+	 */
+	public static long hashWorldState(TickSnapshot snapshot, long millisPerTick)
+	{
+		long gameTimeMillis = snapshot.tickNumber() * millisPerTick;
+		ByteBuffer buffer = ByteBuffer.allocate(ResourceLoader.SERIALIZATION_BUFFER_SIZE_BYTES);
+		CRC32 crc = new CRC32();
+		
+		// We visit everything in a stable order, since the snapshot maps are unordered.
+		Map<CuboidAddress, TickSnapshot.SnapshotCuboid> cuboids = new TreeMap<>(Comparator.comparingInt(CuboidAddress::x)
+			.thenComparingInt(CuboidAddress::y)
+			.thenComparingInt(CuboidAddress::z)
+		);
+		cuboids.putAll(snapshot.cuboids());
+		for (TickSnapshot.SnapshotCuboid cuboid : cuboids.values())
+		{
+			IReadOnlyCuboidData data = cuboid.completed();
+			CodecHelpers.writeCuboidAddress(buffer, data.getCuboidAddress());
+			Object state = data.serializeResumable(null, buffer);
+			// The buffer is large enough for any cuboid.
+			Assert.assertTrue(null == state);
+			_updateAndClear(crc, buffer);
+		}
+		for (TickSnapshot.SnapshotEntity entity : new TreeMap<>(snapshot.entities()).values())
+		{
+			CodecHelpers.writeEntityDisk(buffer, entity.completed());
+			_updateAndClear(crc, buffer);
+		}
+		for (Map.Entry<Integer, TickSnapshot.SnapshotCreature> elt : new TreeMap<>(snapshot.creatures()).entrySet())
+		{
+			buffer.putInt(elt.getKey());
+			CodecHelpers.writeCreatureEntity(buffer, elt.getValue().completed(), gameTimeMillis);
+			_updateAndClear(crc, buffer);
+		}
+		for (Map.Entry<Integer, TickSnapshot.SnapshotPassive> elt : new TreeMap<>(snapshot.passives()).entrySet())
+		{
+			buffer.putInt(elt.getKey());
+			CodecHelpers.writePassiveEntity(buffer, elt.getValue().completed());
+			_updateAndClear(crc, buffer);
+		}
+		return crc.getValue();
+	}
+
+
+	private static void _updateAndClear(CRC32 crc, ByteBuffer buffer)
+	{
+		crc.update(buffer.array(), 0, buffer.position());
+		buffer.clear();
+	}
+
+
+	/**
+	 * Writes the per-tick records.  This is called on the TickRunner thread which starts each tick.
+	 */
+	public static class Writer
+	{
+		private final OutputStream _stream;
+		private final ByteBuffer _scratch;
+		
+		private Writer(OutputStream stream)
+		{
+			_stream = stream;
+			_scratch = ByteBuffer.allocate(ResourceLoader.SERIALIZATION_BUFFER_SIZE_BYTES);
+		}
+		
+		/**
+		 * Writes the record of everything consumed by a tick as it started.  Any of the collections may be null.
+		 * 
+		 * @param tickNumber The number of the tick.
+		 * @param millisPerTick The number of milliseconds in a tick.
+		 * @param lastCreatureId The last ID handed out by the creature ID assigner, as the tick started.
+		 * @param lastPassiveId The last ID handed out by the passive ID assigner, as the tick started.
+		 * @param newCuboids The cuboids loaded in this tick.
+		 * @param cuboidsToDrop The cuboids unloaded in this tick.
+		 * @param newEntities The entities loaded in this tick.
+		 * @param removedEntityIds The entities unloaded in this tick.
+		 * @param clientChanges The client change run on each entity in this tick.
+		 * @param operatorChanges The operator mutations enqueued for this tick.
+		 */
+		public void writeTick(long tickNumber
+			, long millisPerTick
+			, int lastCreatureId
+			, int lastPassiveId
+			, Collection<SuspendedCuboid<IReadOnlyCuboidData>> newCuboids
+			, Collection<CuboidAddress> cuboidsToDrop
+			, Collection<SuspendedEntity> newEntities
+			, Collection<Integer> removedEntityIds
+			, List<ClientChange> clientChanges
+			, List<OperatorChange> operatorChanges
+		)
+		{
+			long gameTimeMillis = tickNumber * millisPerTick;
+			try
+			{
+				_scratch.clear();
+				_scratch.putLong(tickNumber);
+				_scratch.putInt(lastCreatureId);
+				_scratch.putInt(lastPassiveId);
+				
+				_scratch.putInt(_size(newCuboids));
+				_flush();
+				if (null != newCuboids)
+				{
+					for (SuspendedCuboid<IReadOnlyCuboidData> suspended : newCuboids)
+					{
+						CodecHelpers.writeCuboidAddress(_scratch, suspended.cuboid().getCuboidAddress());
+						int start = _startBlob();
+						PackagedCuboid packaged = new PackagedCuboid(suspended.cuboid()
+							, suspended.creatures()
+							, suspended.pendingMutations()
+							, suspended.periodicMutationMillis()
+							, suspended.passives()
+						);
+						CuboidCodec.serializeCuboidWithoutVersionHeader(_scratch, packaged, gameTimeMillis);
+						_endBlob(start);
+						// The codec doesn't store the IDs so we write them after it, in the same order.
+						_scratch.putInt(suspended.creatures().size());
+						for (CreatureEntity creature : suspended.creatures())
+						{
+							_scratch.putInt(creature.id());
+						}
+						_scratch.putInt(suspended.passives().size());
+						for (PassiveEntity passive : suspended.passives())
+						{
+							_scratch.putInt(passive.id());
+						}
+						_flush();
+					}
+				}
+				
+				_scratch.putInt(_size(cuboidsToDrop));
+				if (null != cuboidsToDrop)
+				{
+					for (CuboidAddress address : cuboidsToDrop)
+					{
+						CodecHelpers.writeCuboidAddress(_scratch, address);
+					}
+				}
+				_flush();
+				
+				_scratch.putInt(_size(newEntities));
+				_flush();
+				if (null != newEntities)
+				{
+					for (SuspendedEntity suspended : newEntities)
+					{
+						int start = _startBlob();
+						EntityCodec.serializeEntityWithoutVersionHeader(_scratch, suspended);
+						_endBlob(start);
+						_flush();
+					}
+				}
+				
+				_scratch.putInt(_size(removedEntityIds));
+				if (null != removedEntityIds)
+				{
+					for (int id : removedEntityIds)
+					{
+						_scratch.putInt(id);
+					}
+				}
+				_flush();
+				
+				_scratch.putInt(clientChanges.size());
+				_flush();
+				for (ClientChange change : clientChanges)
+				{
+					_scratch.putInt(change.entityId());
+					_scratch.putLong(change.commitLevel());
+					int start = _startBlob();
+					EntityActionCodec.serializeToBuffer(_scratch, change.change());
+					_endBlob(start);
+					_flush();
+				}
+				
+				_scratch.putInt(operatorChanges.size());
+				_flush();
+				for (OperatorChange change : operatorChanges)
+				{
+					_scratch.putInt(change.entityId());
+					int start = _startBlob();
+					EntityActionCodec.serializeToBuffer(_scratch, change.change());
+					_endBlob(start);
+					_flush();
+				}
+			}
+			catch (IOException e)
+			{
+				throw Assert.unexpected(e);
+			}
+		}
+		
+		/**
+		 * Ends the recording with the hash of the state reached by the recorded session, then flushes and closes it.
+		 * 
+		 * @param finalWorldHash The hashWorldState() of the snapshot of the last recorded tick.
+		 * @throws IOException There was a problem writing or closing the file.
+		 */
+		public void close(long finalWorldHash) throws IOException
+		{
+			_scratch.clear();
+			_scratch.putLong(END_OF_RECORDING);
+			_scratch.putLong(finalWorldHash);
+			_flush();
+			_stream.close();
+		}
+		
+		private void _writeHeader(long millisPerTick, long randomSeed, WorldConfig config) throws IOException
+		{
+			Map<String, String> options = config.getRawOptions();
+			_scratch.clear();
+			_scratch.putInt(MAGIC);
+			_scratch.putInt(StorageVersions.CURRENT);
+			_scratch.putLong(millisPerTick);
+			_scratch.putLong(randomSeed);
+			int start = _startBlob();
+			_scratch.putInt(options.size());
+			for (Map.Entry<String, String> elt : options.entrySet())
+			{
+				CodecHelpers.writeString(_scratch, elt.getKey());
+				CodecHelpers.writeString(_scratch, elt.getValue());
+			}
+			_endBlob(start);
+			_flush();
+		}
+		
+		private int _startBlob()
+		{
+			// We reserve space for the size and fill it in once we know it.
+			int start = _scratch.position();
+			_scratch.putInt(0);
+			return start;
+		}
+		
+		private void _endBlob(int start)
+		{
+			int size = _scratch.position() - start - Integer.BYTES;
+			_scratch.putInt(start, size);
+		}
+		
+		private void _flush() throws IOException
+		{
+			_stream.write(_scratch.array(), 0, _scratch.position());
+			_scratch.clear();
+		}
+		
+		private static int _size(Collection<?> collection)
+		{
+			return (null != collection)
+				? collection.size()
+				: 0
+			;
+		}
+	}
+
+
+	/**
+	 * Reads back the records written by a Writer.
+	 */
+	public static class Reader
+	{
+		private final InputStream _stream;
+		private long _millisPerTick;
+		private long _randomSeed;
+		private WorldConfig _config;
+		private Long _finalWorldHash;
+		
+		private Reader(InputStream stream)
+		{
+			_stream = stream;
+		}
+		
+		/**
+		 * @return The number of milliseconds in a tick, in the recorded session.
+		 */
+		public long getMillisPerTick()
+		{
+			return _millisPerTick;
+		}
+		
+		/**
+		 * @return The seed used for the TickRunner's random generator, in the recorded session.
+		 */
+		public long getRandomSeed()
+		{
+			return _randomSeed;
+		}
+		
+		/**
+		 * @return The world config of the recorded session.
+		 */
+		public WorldConfig getConfig()
+		{
+			return _config;
+		}
+		
+		/**
+		 * Returns the hash of the final world state of the recorded session, once readNextTick() has reached the end of
+		 * the recording.
+		 * 
+		 * @return The recorded hashWorldState() or null, if the end hasn't been reached or the recording was cut off.
+		 */
+		public Long getFinalWorldHashOrNull()
+		{
+			return _finalWorldHash;
+		}
+		
+		/**
+		 * Reads the record of the next tick.  Note that a record cut off at the end of the file (the server stopped
+		 * while writing it) is treated the same as the end of the recording.
+		 * 
+		 * @param creatureIdAssigner The creature ID assigner of the replay, reset to where it was in the session.
+		 * @param passiveIdAssigner The passive ID assigner of the replay, reset to where it was in the session.
+		 * @return The next tick or null, if the end of the recording was reached.
+		 * @throws IOException There was a problem reading the file.
+		 */
+		public RecordedTick readNextTick(CreatureIdAssigner creatureIdAssigner, PassiveIdAssigner passiveIdAssigner) throws IOException
+		{
+			RecordedTick tick;
+			try
+			{
+				long tickNumber = _readBuffer(Long.BYTES).getLong();
+				if (END_OF_RECORDING == tickNumber)
+				{
+					_finalWorldHash = _readBuffer(Long.BYTES).getLong();
+					tick = null;
+				}
+				else
+				{
+					tick = _readTick(tickNumber, creatureIdAssigner, passiveIdAssigner);
+				}
+			}
+			catch (EOFException e)
+			{
+				tick = null;
+			}
+			return tick;
+		}
+		
+		/**
+		 * Closes the recording.
+		 * 
+		 * @throws IOException There was a problem closing the file.
+		 */
+		public void close() throws IOException
+		{
+			_stream.close();
+		}
+		
+		private RecordedTick _readTick(long tickNumber, CreatureIdAssigner creatureIdAssigner, PassiveIdAssigner passiveIdAssigner) throws IOException
+		{
+			Environment env = Environment.getShared();
+			long gameTimeMillis = tickNumber * _millisPerTick;
+			
+			ByteBuffer assigners = _readBuffer(2 * Integer.BYTES);
+			int lastCreatureId = assigners.getInt();
+			int lastPassiveId = assigners.getInt();
+			
+			int cuboidCount = _readInt();
+			List<SuspendedCuboid<IReadOnlyCuboidData>> newCuboids = new ArrayList<>();
+			for (int i = 0; i < cuboidCount; ++i)
+			{
+				CuboidAddress address = CodecHelpers.readCuboidAddress(_readBuffer(CUBOID_ADDRESS_BYTES));
+				DeserializationContext context = DeserializationContext.current(env, _readBlob(), gameTimeMillis);
+				// The codec assigns new IDs so we replace them with the recorded ones.
+				SuspendedCuboid<CuboidData> suspended = CuboidCodec.deserializeCuboidWithoutVersionHeader(context
+					, address
+					, new CreatureIdAssigner()
+					, new PassiveIdAssigner()
+				);
+				List<CreatureEntity> creatures = new ArrayList<>();
+				int creatureCount = _readInt();
+				Assert.assertTrue(suspended.creatures().size() == creatureCount);
+				for (CreatureEntity creature : suspended.creatures())
+				{
+					int id = _readInt();
+					creatures.add(new CreatureEntity(id
+						, creature.type()
+						, creature.location()
+						, creature.velocity()
+						, creature.yaw()
+						, creature.pitch()
+						, creature.health()
+						, creature.breath()
+						, creature.extendedData()
+						, CreatureEntity.createEmptyEphemeral(id, gameTimeMillis)
+					));
+				}
+				List<PassiveEntity> passives = new ArrayList<>();
+				int passiveCount = _readInt();
+				Assert.assertTrue(suspended.passives().size() == passiveCount);
+				for (PassiveEntity passive : suspended.passives())
+				{
+					passives.add(new PassiveEntity(_readInt()
+						, passive.type()
+						, passive.location()
+						, passive.velocity()
+						, passive.extendedData()
+						, passive.lastAliveMillis()
+					));
+				}
+				newCuboids.add(new SuspendedCuboid<>(suspended.cuboid()
+					, suspended.heightMap()
+					, creatures
+					, suspended.pendingMutations()
+					, suspended.periodicMutationMillis()
+					, passives
+				));
+			}
+			
+			int dropCount = _readInt();
+			List<CuboidAddress> cuboidsToDrop = new ArrayList<>();
+			for (int i = 0; i < dropCount; ++i)
+			{
+				cuboidsToDrop.add(CodecHelpers.readCuboidAddress(_readBuffer(CUBOID_ADDRESS_BYTES)));
+			}
+			
+			int entityCount = _readInt();
+			List<SuspendedEntity> newEntities = new ArrayList<>();
+			for (int i = 0; i < entityCount; ++i)
+			{
+				newEntities.add(EntityCodec.deserializeEntityWithoutVersionHeader(_readBlob(), gameTimeMillis));
+			}
+			
+			int removedCount = _readInt();
+			List<Integer> removedEntityIds = new ArrayList<>();
+			for (int i = 0; i < removedCount; ++i)
+			{
+				removedEntityIds.add(_readInt());
+			}
+			
+			int clientChangeCount = _readInt();
+			List<ClientChange> clientChanges = new ArrayList<>();
+			for (int i = 0; i < clientChangeCount; ++i)
+			{
+				ByteBuffer header = _readBuffer(Integer.BYTES + Long.BYTES);
+				int entityId = header.getInt();
+				long commitLevel = header.getLong();
+				@SuppressWarnings("unchecked")
+				IEntityActionFromClient<IMutablePlayerEntity> change = (IEntityActionFromClient<IMutablePlayerEntity>) _readAction(env);
+				clientChanges.add(new ClientChange(entityId, change, commitLevel));
+			}
+			
+			int operatorChangeCount = _readInt();
+			List<OperatorChange> operatorChanges = new ArrayList<>();
+			for (int i = 0; i < operatorChangeCount; ++i)
+			{
+				int entityId = _readInt();
+				operatorChanges.add(new OperatorChange(entityId, _readAction(env)));
+			}
+			
+			// Now that the whole tick has been read, reset the assigners so that anything spawned in the tick gets the same IDs.
+			creatureIdAssigner.setLastAssigned(lastCreatureId);
+			passiveIdAssigner.setLastAssigned(lastPassiveId);
+			
+			return new RecordedTick(tickNumber
+				, newCuboids
+				, cuboidsToDrop
+				, newEntities
+				, removedEntityIds
+				, clientChanges
+				, operatorChanges
+			);
+		}
+		
+		private void _readHeader() throws IOException
+		{
+			ByteBuffer header = _readBuffer(2 * Integer.BYTES + 2 * Long.BYTES);
+			int magic = header.getInt();
+			int version = header.getInt();
+			if ((MAGIC != magic) || (StorageVersions.CURRENT != version))
+			{
+				throw new IOException("Not a recording from storage version " + StorageVersions.CURRENT);
+			}
+			_millisPerTick = header.getLong();
+			_randomSeed = header.getLong();
+			ByteBuffer optionBuffer = _readBlob();
+			int optionCount = optionBuffer.getInt();
+			Map<String, String> options = new HashMap<>();
+			for (int i = 0; i < optionCount; ++i)
+			{
+				String key = CodecHelpers.readString(optionBuffer);
+				String value = CodecHelpers.readString(optionBuffer);
+				options.put(key, value);
+			}
+			_config = new WorldConfig();
+			_config.loadOverrides(options);
+		}
+		
+		private IEntityAction<IMutablePlayerEntity> _readAction(Environment env) throws IOException
+		{
+			DeserializationContext context = DeserializationContext.empty(env, _readBlob());
+			return EntityActionCodec.parseAndSeekContext(context);
+		}
+		
+		private int _readInt() throws IOException
+		{
+			return _readBuffer(Integer.BYTES).getInt();
+		}
+		
+		private ByteBuffer _readBlob() throws IOException
+		{
+			int size = _readInt();
+			return _readBuffer(size);
+		}
+		
+		private ByteBuffer _readBuffer(int size) throws IOException
+		{
+			byte[] bytes = _stream.readNBytes(size);
+			if (bytes.length < size)
+			{
+				throw new EOFException();
+			}
+			return ByteBuffer.wrap(bytes);
+		}
+	}
+
+
+	/**
+	 * The change a client sent which was run on its entity in a tick.
+	 */
+	public static record ClientChange(int entityId
+		, IEntityActionFromClient<IMutablePlayerEntity> change
+		, long commitLevel
+	)
+	{}
+
+	/**
+	 * A mutation from the server console, enqueued for a tick.
+	 */
+	public static record OperatorChange(int entityId
+		, IEntityAction<IMutablePlayerEntity> change
+	)
+	{}
+
+	/**
+	 * Everything consumed by a single tick, as it started.
+	 */
+	public static record RecordedTick(long tickNumber
+		, List<SuspendedCuboid<IReadOnlyCuboidData>> newCuboids
+		, List<CuboidAddress> cuboidsToDrop
+		, List<SuspendedEntity> newEntities
+		, List<Integer> removedEntityIds
+		, List<ClientChange> clientChanges
+		, List<OperatorChange> operatorChanges
+	)
+	{}
+}
@@ -25,10 +25,12 @@ import com.jeffdisher.october.engine.EngineSpawner;
 import com.jeffdisher.october.engine.EnginePlayers;
 import com.jeffdisher.october.engine.EngineCuboids;
 import com.jeffdisher.october.engine.EnginePassives;
+import com.jeffdisher.october.jfr.ServerEvents;
 import com.jeffdisher.october.logic.BlockChangeDescription;
 import com.jeffdisher.october.logic.CreatureIdAssigner;
 import com.jeffdisher.october.logic.EntityCollection;
 import com.jeffdisher.october.logic.HeightMapHelpers;
+import com.jeffdisher.october.logic.NavigationGraphCache;
 import com.jeffdisher.october.logic.PassiveIdAssigner;
 import com.jeffdisher.october.logic.ProcessorElement;
 import com.jeffdisher.october.logic.ScheduledChange;
@@ -43,6 +45,7 @@ import com.jeffdisher.october.types.CreatureEntity;
 import com.jeffdisher.october.types.CuboidAddress;
 import com.jeffdisher.october.types.CuboidColumnAddress;
 import com.jeffdisher.october.types.Entity;
+import com.jeffdisher.october.types.EntityLocation;
 import com.jeffdisher.october.types.IEntityAction;
 import com.jeffdisher.october.types.IMutablePlayerEntity;
 import com.jeffdisher.october.types.IPassiveAction;
@@ -77,6 +80,10 @@ public class TickRunner
 	private final IntUnaryOperator _random;
 	private final Consumer<TickSnapshot> _tickCompletionListener;
 	private final WorldConfig _config;
+	// The per-cuboid navigation graphs persist across ticks (they are rebuilt lazily when a cuboid changes).
+	private final NavigationGraphCache _navigationCache;
+	// Null unless the inputs of each tick are being recorded (only set before start()).
+	private TickRecording.Writer _recording;
 
 	// Read-only snapshot of the previously-completed tick.
 	private TickSnapshot _snapshot;
@@ -127,6 +134,7 @@ public class TickRunner
 		_random = randomInt;
 		_tickCompletionListener = tickCompletionListener;
 		_config = config;
+		_navigationCache = new NavigationGraphCache();
 		
 		_entitySharedAccess = new HashMap<>();
 		_partial = new TickOutput[threadCount];
@@ -143,6 +151,19 @@ public class TickRunner
 		}
 	}
 
+	/**
+	 * Requests that everything consumed by each tick be written to the given recording, as the tick starts.  Must be
+	 * called before start().
+	 * 
+	 * @param recording The recording to write.
+	 */
+	public void setRecording(TickRecording.Writer recording)
+	{
+		Assert.assertTrue(null == _snapshot);
+		Assert.assertTrue(null == _recording);
+		_recording = recording;
+	}
+
 	/**
 	 * Starts the tick runner.
 	 */
@@ -331,6 +352,16 @@ public class TickRunner
 		}
 	}
 
+	/**
+	 * Provided only for tests so that they can observe which navigation graphs are cached between ticks.
+	 * 
+	 * @return The long-lived navigation graph cache used by this runner.
+	 */
+	public NavigationGraphCache test_getNavigationCache()
+	{
+		return _navigationCache;
+	}
+
 	/**
 	 * Shuts down the tick runner.  Note that this will block until all runner threads have joined.
 	 */
@@ -382,8 +413,12 @@ public class TickRunner
 				, _passiveIdAssigner
 				, _random
 				, _config
+				, _navigationCache
 			);
 			
+			ServerEvents.TickPhase parallelEvent = new ServerEvents.TickPhase();
+			parallelEvent.begin();
+			
 			// We cluster work together in cuboid columns in order to improve per-thread world cache utilization and allow some result merging in the parallel phase.
 			// First, we will handle the one-off special-cases.
 			_runParallelSpecialCases(thisThread, materials, contextContainer);
@@ -391,6 +426,10 @@ public class TickRunner
 			// Now, loop over the rest of the high-level units.
 			TickOutput innerResults = _runParallelHighLevelUnits(thisThread, materials, contextContainer);
 			
+			parallelEvent.tickNumber = materials.thisGameTick();
+			parallelEvent.phase = ServerEvents.TickPhase.PARALLEL;
+			parallelEvent.commit();
+			
 			materials = _mergeTickStateAndWaitForNext(thisThread
 				, new TickOutput(innerResults.world()
 					, innerResults.entities()
@@ -534,6 +573,9 @@ public class TickRunner
 		BlockFetcher fetcher = contextBuilder.buildBlockFetcher(unit.populatedProxyCache());
 		TickProcessingContext context = contextBuilder.buildContext(fetcher);
 		
+		// Creatures are processed at a level of detail based on their distance from players (collected once per tick).
+		List<EntityLocation> playerLocations = materials.playerLocations();
+		
 		// We need to walk the cuboids and collect data from each of them and associated players and creatures.
 		processor.workUnitsProcessed += 1;
 		Set<CuboidAddress> loadedCuboids = materials.completedCuboids().keySet();
@@ -551,6 +593,13 @@ public class TickRunner
 			Assert.assertTrue(null != previousHeightMap);
 			
 			long startCuboidNanos = System.nanoTime();
+			// This is per-cuboid so we only allocate the event if it is being recorded.
+			ServerEvents.CuboidProcessed cuboidEvent = null;
+			if (ServerEvents.CUBOID_PROCESSED_TYPE.isEnabled())
+			{
+				cuboidEvent = new ServerEvents.CuboidProcessed();
+				cuboidEvent.begin();
+			}
 			EngineCuboids.SingleCuboidResult cuboidResult = EngineCuboids.processOneCuboid(context
 				, loadedCuboids
 				, subUnit.mutations()
@@ -600,6 +649,14 @@ public class TickRunner
 			}
 			
 			long endCuboidNanos = System.nanoTime();
+			if (null != cuboidEvent)
+			{
+				cuboidEvent.tickNumber = materials.thisGameTick();
+				cuboidEvent.setCuboid(cuboidAddress);
+				cuboidEvent.mutationsProcessed = cuboidResult.mutationsProcessed();
+				cuboidEvent.blockUpdatesProcessed = cuboidResult.blockUpdatesProcessed();
+				cuboidEvent.commit();
+			}
 			processor.cuboidBlockupdatesProcessed += cuboidResult.blockUpdatesProcessed();
 			processor.cuboidMutationsProcessed += cuboidResult.mutationsProcessed();
 			processor.nanosInEngineCuboids += (endCuboidNanos - startCuboidNanos);
@@ -607,6 +664,7 @@ public class TickRunner
 			countOfBlockUpdatesSynthesized += cuboidResult.blockUpdatesProcessed();
 			
 			// Process the player entities in this cuboid.
+			long startPlayerBytes = ProcessorElement.currentThreadAllocatedBytes();
 			for (TickInput.EntityInput entityUnit : subUnit.entities())
 			{
 				Entity entity = entityUnit.entity();
@@ -628,7 +686,9 @@ public class TickRunner
 				countOfEntityActionsRun += result.countOfEntityActionsRun();
 			}
 			long endPlayerNanos = System.nanoTime();
+			long endPlayerBytes = ProcessorElement.currentThreadAllocatedBytes();
 			processor.nanosInEnginePlayers += (endPlayerNanos - endCuboidNanos);
+			processor.bytesAllocatedInEnginePlayers += (endPlayerBytes - startPlayerBytes);
 			
 			// Process the creature entities in this cuboid.
 			for (TickInput.CreatureInput creatureUnit : subUnit.creatures())
@@ -637,27 +697,79 @@ public class TickRunner
 				List<IEntityAction<MutableCreature>> changes = creatureUnit.actions();
 				processor.creaturesProcessed += 1;
 				processor.creatureActionsProcessed += changes.size();
-				EngineCreatures.SingleCreatureResult result = EngineCreatures.processOneCreature(context
-					, materials.entityCollection()
-					, creature
-					, changes
-				);
 				
-				boolean didDie = (null == result.updatedEntity());
-				boolean wasUpdated = !didDie && (result.updatedEntity() != creature);
-				TickOutput.BasicOutput<CreatureEntity> output = new TickOutput.BasicOutput<>(creature.id()
-					, creature
-					, wasUpdated ? result.updatedEntity() : null
-					, didDie
-				);
-				updatedCreatures.add(output);
-				if (!result.didTakeSpecialAction())
+				// If there are no players at all (only in tests and tools), we just process everything at full detail.
+				EngineCreatures.DetailLevel level = playerLocations.isEmpty()
+					? EngineCreatures.DetailLevel.FULL
+					: EngineCreatures.chooseDetailLevel(context.config, creature.location(), playerLocations)
+				;
+				switch (level)
+				{
+				case FULL:
+					processor.creaturesAtFullDetail += 1;
+					break;
+				case REDUCED:
+					processor.creaturesAtReducedDetail += 1;
+					break;
+				case SLEEPING:
+					processor.creaturesAtSleepingDetail += 1;
+					break;
+				}
+				boolean didBlocksChangeNearby = EngineCreatures.didBlocksChangeNearby(creature, materials.modifiedBlocksByCuboidAddress().keySet());
+				if (EngineCreatures.canSkipCreature(context, level, creature, changes, didBlocksChangeNearby))
+				{
+					// The creature is unchanged in this tick.
+					processor.creaturesSkipped += 1;
+					updatedCreatures.add(new TickOutput.BasicOutput<>(creature.id()
+						, creature
+						, null
+						, false
+					));
+				}
+				else
 				{
-					processor.creatureActionsProcessed += 1;
+					// This is per-creature so we only allocate the event if it is being recorded.
+					ServerEvents.CreatureProcessed creatureEvent = null;
+					if (ServerEvents.CREATURE_PROCESSED_TYPE.isEnabled())
+					{
+						creatureEvent = new ServerEvents.CreatureProcessed();
+						creatureEvent.begin();
+					}
+					// We reuse the same mutable wrapper for every creature on this thread, to avoid per-creature garbage.
+					EngineCreatures.SingleCreatureResult result = EngineCreatures.processOneCreature(context
+						, materials.entityCollection()
+						, creature
+						, changes
+						, processor.loadReusableCreature(creature)
+						, EngineCreatures.isEnvironmentTickForCreature(context, level, creature)
+					);
+					if (null != creatureEvent)
+					{
+						creatureEvent.tickNumber = materials.thisGameTick();
+						creatureEvent.creatureId = creature.id();
+						creatureEvent.creatureType = creature.type().id();
+						creatureEvent.detailLevel = level.name();
+						creatureEvent.setCuboid(cuboidAddress);
+						creatureEvent.commit();
+					}
+					
+					boolean didDie = (null == result.updatedEntity());
+					boolean wasUpdated = !didDie && (result.updatedEntity() != creature);
+					TickOutput.BasicOutput<CreatureEntity> output = new TickOutput.BasicOutput<>(creature.id()
+						, creature
+						, wasUpdated ? result.updatedEntity() : null
+						, didDie
+					);
+					updatedCreatures.add(output);
+					if (!result.didTakeSpecialAction())
+					{
+						processor.creatureActionsProcessed += 1;
+					}
 				}
 			}
 			long endCreatureNanos = System.nanoTime();
 			processor.nanosInEngineCreatures += (endCreatureNanos - endPlayerNanos);
+			processor.bytesAllocatedInEngineCreatures += (ProcessorElement.currentThreadAllocatedBytes() - endPlayerBytes);
 			
 			// Process the passive entities in this cuboid.
 			for (TickInput.PassiveInput passiveUnit : subUnit.passives())
@@ -738,6 +850,8 @@ public class TickRunner
 		if (elt.synchronizeAndReleaseLast())
 		{
 			long nanosAtPostambleStart = System.nanoTime();
+			ServerEvents.TickPhase postambleEvent = new ServerEvents.TickPhase();
+			postambleEvent.begin();
 			
 			// We will merge together all the per-thread fragments into one master fragment.
 			TickOutput masterFragment = TickOutput.mergeAndClearPartialFragments(_partial);
@@ -795,6 +909,9 @@ public class TickRunner
 			long nanosInPostambleMerge = (nanosAfterPostambleMerge - nanosAtPostambleStart);
 			long nanosInPostambleFlatten = (nanosAfterPostambleFlatten - nanosAfterPostambleMerge);
 			long nanosInPostambleSnapshot = (nanosAtPostambleEnd - nanosAfterPostambleFlatten);
+			postambleEvent.tickNumber = _nextTick;
+			postambleEvent.phase = ServerEvents.TickPhase.POSTAMBLE;
+			postambleEvent.commit();
 			
 			// ***************** Tick ends here *********************
 			
@@ -839,6 +956,8 @@ public class TickRunner
 			if (_nextTick > 0)
 			{
 				long nanosAtPreambleStart = System.nanoTime();
+				ServerEvents.TickPhase preambleEvent = new ServerEvents.TickPhase();
+				preambleEvent.begin();
 				
 				// Load other cuboids and apply other mutations enqueued since the last tick.
 				List<SuspendedCuboid<IReadOnlyCuboidData>> newCuboids;
@@ -887,6 +1006,11 @@ public class TickRunner
 					_sharedDataLock.unlock();
 				}
 				
+				if (null != _recording)
+				{
+					_recordTickInputs(newCuboids, cuboidsToDrop, newEntities, removedEntityIds, newEntityChanges, newCommitLevels, operatorMutations);
+				}
+				
 				// If there were any operator mutations, split them between client operator ID and specific entities.
 				List<IEntityAction<IMutablePlayerEntity>> operatorActions = new ArrayList<>();
 				Map<Integer, List<ScheduledChange>> entityActionsFromConsole = new HashMap<>();
@@ -928,6 +1052,9 @@ public class TickRunner
 					, entityActionsFromConsole
 				);
 				
+				// Drop the navigation graphs for any cuboids which were unloaded (nothing else is using the cache in the preamble).
+				_navigationCache.retainOnly(preTickState.cuboidsByAddress().keySet());
+				
 				// Convert this raw next tick action accumulation into the CrowdProcessor input.
 				// The corresponding actions for the creatures and passives only originate from inside the tick so just pass those through.
 				Map<Integer, List<IEntityAction<MutableCreature>>> nextCreatureChanges = flatResults.creatureActionsById();
@@ -951,6 +1078,13 @@ public class TickRunner
 					, nextPassiveActions
 					, flatResults.columnProxyCaches()
 				);
+				
+				// Creatures are processed at a level of detail based on their distance from players so collect those locations once.
+				List<EntityLocation> playerLocations = new ArrayList<>();
+				for (Entity player : preTickState.entitiesById().values())
+				{
+					playerLocations.add(player.location());
+				}
 				long nanosAfterPreamblePackage = System.nanoTime();
 				
 				// Collect the last timing data for this tick preamble.
@@ -959,6 +1093,9 @@ public class TickRunner
 				long nanosInPreambleIncoming = nanosAfterPreambleIncoming - nanosAtPreambleStart;
 				long nanosInPreamblePreTick = nanosAfterPreamblePreTick - nanosAfterPreambleIncoming;
 				long nanosInPreamblePackage = nanosAfterPreamblePackage - nanosAfterPreamblePreTick;
+				preambleEvent.tickNumber = _nextTick;
+				preambleEvent.phase = ServerEvents.TickPhase.PREAMBLE;
+				preambleEvent.commit();
 				
 				_thisTickMaterials = new TickMaterials(_nextTick
 					, preTickState.cuboidsByAddress()
@@ -979,6 +1116,8 @@ public class TickRunner
 					
 					, entityCollection
 					, highLevelPlan
+					, new CommonTransactionSupport.ReadyMutationIndex(highLevelPlan)
+					, Collections.unmodifiableList(playerLocations)
 					
 					// Store the partial tick stats.
 					, nanosInPreamble
@@ -1000,6 +1139,42 @@ public class TickRunner
 		return _thisTickMaterials;
 	}
 
+	private void _recordTickInputs(List<SuspendedCuboid<IReadOnlyCuboidData>> newCuboids
+		, Set<CuboidAddress> cuboidsToDrop
+		, List<SuspendedEntity> newEntities
+		, List<Integer> removedEntityIds
+		, Map<Integer, IEntityActionFromClient<IMutablePlayerEntity>> newEntityChanges
+		, Map<Integer, Long> newCommitLevels
+		, List<_OperatorMutationWrapper> operatorMutations
+	)
+	{
+		List<TickRecording.ClientChange> clientChanges = new ArrayList<>();
+		for (Map.Entry<Integer, IEntityActionFromClient<IMutablePlayerEntity>> elt : newEntityChanges.entrySet())
+		{
+			int id = elt.getKey();
+			clientChanges.add(new TickRecording.ClientChange(id, elt.getValue(), newCommitLevels.get(id)));
+		}
+		List<TickRecording.OperatorChange> operatorChanges = new ArrayList<>();
+		if (null != operatorMutations)
+		{
+			for (_OperatorMutationWrapper wrapper : operatorMutations)
+			{
+				operatorChanges.add(new TickRecording.OperatorChange(wrapper.entityId, wrapper.mutation));
+			}
+		}
+		_recording.writeTick(_nextTick
+			, _millisPerTick
+			, _idAssigner.getLastAssigned()
+			, _passiveIdAssigner.getLastAssigned()
+			, newCuboids
+			, cuboidsToDrop
+			, newEntities
+			, removedEntityIds
+			, clientChanges
+			, operatorChanges
+		);
+	}
+
 	private synchronized void _acknowledgeTickCompleteAndWaitForNext(TickSnapshot newSnapshot)
 	{
 		_snapshot = newSnapshot;
@@ -119,9 +119,13 @@ public record TickSnapshot(long tickNumber
 				long millisInEngineCuboids = thread.nanosInEngineCuboids() / nanosPerMilli;
 				long millisInEngineSpawner = thread.nanosInEngineSpawner() / nanosPerMilli;
 				long millisProcessingOperator = thread.nanosProcessingOperator() / nanosPerMilli;
+				long bytesPerPlayer = (thread.playersProcessed() > 0) ? (thread.bytesAllocatedInEnginePlayers() / thread.playersProcessed()) : 0L;
+				long bytesPerCreature = (thread.creaturesProcessed() > 0) ? (thread.bytesAllocatedInEngineCreatures() / thread.creaturesProcessed()) : 0L;
 				out.printf("\t-Thread %d ran %d work units in %d ms\n", i, thread.workUnitsProcessed(), millisInParallelPhase);
 				out.printf("\t\t=%d ms in EnginePlayer: %d players, %d actions\n", millisInEnginePlayers, thread.playersProcessed(), thread.playerActionsProcessed());
 				out.printf("\t\t=%d ms in EngineCreatures: %d creatures, %d actions\n", millisInEngineCreatures, thread.creaturesProcessed(), thread.creatureActionsProcessed());
+				out.printf("\t\t\t(allocated: %d bytes/player, %d bytes/creature)\n", bytesPerPlayer, bytesPerCreature);
+				out.printf("\t\t\t(detail: %d full, %d reduced, %d sleeping, %d skipped)\n", thread.creaturesAtFullDetail(), thread.creaturesAtReducedDetail(), thread.creaturesAtSleepingDetail(), thread.creaturesSkipped());
 				out.printf("\t\t=%d ms in EnginePassives: %d passives, %d actions\n", millisInEnginePassives, thread.passivesProcessed(), thread.passiveActionsProcessed());
 				out.printf("\t\t=%d ms in EngineCuboids: %d cuboids, %d mutations, %d block updates\n", millisInEngineCuboids, thread.cuboidsProcessed(), thread.cuboidMutationsProcessed(), thread.cuboidBlockupdatesProcessed());
 				if (millisInEngineSpawner > 0L)
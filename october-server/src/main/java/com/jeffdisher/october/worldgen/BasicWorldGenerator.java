@@ -1,6 +1,5 @@
 package com.jeffdisher.october.worldgen;
 
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -27,6 +26,7 @@ import com.jeffdisher.october.types.Block;
 import com.jeffdisher.october.types.BlockAddress;
 import com.jeffdisher.october.types.CreatureEntity;
 import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.types.CuboidColumnAddress;
 import com.jeffdisher.october.types.EntityLocation;
 import com.jeffdisher.october.types.EntityType;
 import com.jeffdisher.october.types.FacingDirection;
@@ -113,6 +113,8 @@ public class BasicWorldGenerator implements IWorldGenerator
 	private final Structure _basicTree;
 	private final Structure _villagerHouse;
 	private final StructureRegistry _structures;
+	private final ColumnGenerationCache _columnCache;
+	private final CavernCache _cavernCache;
 
 	/**
 	 * Creates the world generator.
@@ -145,6 +147,9 @@ public class BasicWorldGenerator implements IWorldGenerator
 		_basicTree = worldGenConfig.commonStructures.basicTree;
 		_villagerHouse = worldGenConfig.commonStructures.villagerHouse;
 		
+		_columnCache = new ColumnGenerationCache(_seed, ColumnGenerationCache.DEFAULT_CAPACITY);
+		_cavernCache = new CavernCache(CavernCache.DEFAULT_CAPACITY);
+		
 		// We will place the base of the nexus castle at a random location (based directly on seed), 500 blocks from the
 		// world origin.
 		CommonStructures structures = worldGenConfig.commonStructures;
@@ -166,9 +171,10 @@ public class BasicWorldGenerator implements IWorldGenerator
 	public SuspendedCuboid<CuboidData> generateCuboid(CreatureIdAssigner creatureIdAssigner, CuboidAddress address, long gameTimeMillis)
 	{
 		// For now, we will just place dirt at the peak block in each column, stone below that, and either air or water sources above.
-		PerColumnRandomSeedField seeds = PerColumnRandomSeedField.buildSeedField9x9(_seed, address.x(), address.y());
-		PerColumnRandomSeedField.View subField = seeds.view();
-		LazyColumnHeightMapGrid heightMaps = new LazyColumnHeightMapGrid(subField);
+		// The seeds, height maps, and biome are shared by every cuboid in this column so we fetch them from the cache.
+		ColumnGenerationCache.ColumnData column = _columnCache.getColumn(address.getColumn());
+		PerColumnRandomSeedField.View subField = column.seeds;
+		LazyColumnHeightMapGrid heightMaps = column.heightMaps;
 		
 		// Generate the starting-point of the cuboid, containing only stone and empty (air/water/lava) blocks.
 		CuboidData data = _generateStoneCrustCuboid(address, heightMaps);
@@ -199,8 +205,7 @@ public class BasicWorldGenerator implements IWorldGenerator
 		
 		// Spawn the creatures within the cuboid.
 		List<CreatureEntity> entities = _spawnCreatures(creatureIdAssigner
-			, subField
-			, heightMaps.fetchHeightMapForCuboidColumn(0, 0)
+			, column
 			, data
 			, cuboidBase
 			, gameTimeMillis
@@ -222,9 +227,8 @@ public class BasicWorldGenerator implements IWorldGenerator
 	@Override
 	public EntityLocation getDefaultSpawnLocation()
 	{
-		PerColumnRandomSeedField seeds = PerColumnRandomSeedField.buildSeedField9x9(_seed, (short)0, (short)0);
-		LazyColumnHeightMapGrid heightMaps = new LazyColumnHeightMapGrid(seeds.view());
-		ColumnHeightMap heightMap = heightMaps.fetchHeightMapForCuboidColumn(0, 0);
+		ColumnGenerationCache.ColumnData column = _columnCache.getColumn(new CuboidColumnAddress((short)0, (short)0));
+		ColumnHeightMap heightMap = column.heightMaps.fetchHeightMapForCuboidColumn(0, 0);
 		// Find the largest value here and spawn there (note that this may not be in the zero-z cuboid).
 		int maxZ = Integer.MIN_VALUE;
 		int targetX = -1;
@@ -315,7 +319,39 @@ public class BasicWorldGenerator implements IWorldGenerator
 		PerColumnRandomSeedField seeds = PerColumnRandomSeedField.buildSeedField9x9(_seed, cuboidX, cuboidY);
 		LazyColumnHeightMapGrid heightMaps = new LazyColumnHeightMapGrid(seeds.view());
 		ColumnHeightMap heightMap = heightMaps.fetchHeightMapForCuboidColumn(0, 0);
-		return _findGully(heightMap);
+		return ColumnGenerationCache.findGullyDepth(heightMap);
+	}
+
+	/**
+	 * @return The number of cuboid generations which found their column data already cached.
+	 */
+	public long getColumnCacheHitCount()
+	{
+		return _columnCache.getHitCount();
+	}
+
+	/**
+	 * @return The number of cuboid generations which needed to build their column data.
+	 */
+	public long getColumnCacheMissCount()
+	{
+		return _columnCache.getMissCount();
+	}
+
+	/**
+	 * @return The number of cavern look-ups which found their descriptor already cached.
+	 */
+	public long getCavernCacheHitCount()
+	{
+		return _cavernCache.getHitCount();
+	}
+
+	/**
+	 * @return The number of cavern look-ups which needed to derive their descriptor.
+	 */
+	public long getCavernCacheMissCount()
+	{
+		return _cavernCache.getMissCount();
 	}
 
 	/**
@@ -427,7 +463,7 @@ public class BasicWorldGenerator implements IWorldGenerator
 		}
 	}
 
-	private int _generateFlora(CuboidData data, AbsoluteLocation cuboidBase, int columnSeed, ColumnHeightMap heightMap, Biomes.Biome biome)
+	private int _generateFlora(CuboidData data, AbsoluteLocation cuboidBase, int columnSeed, ColumnHeightMap heightMap, Biomes.Biome biome, int gullyDepth)
 	{
 		int herdSize = 0;
 		if ((Biomes.FIELD_CODE == biome.code()) || (Biomes.MEADOW_CODE == biome.code()))
@@ -446,7 +482,6 @@ public class BasicWorldGenerator implements IWorldGenerator
 			// We will generate wheat in a field biome in 2 ways:  A few random placements and a fully-saturated gully.
 			// First, check the gully.
 			boolean didFillGully = false;
-			int gullyDepth = _findGully(heightMap);
 			if (gullyDepth > 0)
 			{
 				// See if this applies to this cuboid.
@@ -541,28 +576,6 @@ public class BasicWorldGenerator implements IWorldGenerator
 		return herdSize;
 	}
 
-	private int _findGully(ColumnHeightMap heightMap)
-	{
-		// A gully is a point in the cuboid lower than the perimeter of the cuboid.
-		int minGully = Integer.MAX_VALUE;
-		int minPerimeter = Integer.MAX_VALUE;
-		int edge = Encoding.CUBOID_EDGE_SIZE - 1;
-		for (int y = 0; y < Encoding.CUBOID_EDGE_SIZE; ++y)
-		{
-			for (int x = 0; x < Encoding.CUBOID_EDGE_SIZE; ++x)
-			{
-				int height = heightMap.getHeight(x, y);
-				minGully = Math.min(minGully, height);
-				if ((0 == y) || (edge == y) || (0 == x) || (edge == x))
-				{
-					// This is the perimeter.
-					minPerimeter = Math.min(minPerimeter, height);
-				}
-			}
-		}
-		return minPerimeter - minGully;
-	}
-
 	private int _getLowestHeight(ColumnHeightMap heightMap)
 	{
 		int min = Integer.MAX_VALUE;
@@ -821,8 +834,7 @@ public class BasicWorldGenerator implements IWorldGenerator
 	}
 
 	private List<CreatureEntity> _spawnCreatures(CreatureIdAssigner creatureIdAssigner
-		, PerColumnRandomSeedField.View subField
-		, ColumnHeightMap heightMap
+		, ColumnGenerationCache.ColumnData column
 		, CuboidData data
 		, AbsoluteLocation cuboidBase
 		, long gameTimeMillis
@@ -830,9 +842,10 @@ public class BasicWorldGenerator implements IWorldGenerator
 	)
 	{
 		// We want to spawn the flora.  This is only ever done within a single cuboid column if it is the appropriate biome type and contains a "gully".
-		int columnSeed = subField.get(0, 0);
-		Biomes.Biome biome = Biomes.chooseBiomeFromSeeds5x5(subField);
-		int herdSizeToSpawn = _generateFlora(data, cuboidBase, columnSeed, heightMap, biome);
+		int columnSeed = column.seeds.get(0, 0);
+		Biomes.Biome biome = column.biome;
+		ColumnHeightMap heightMap = column.heightMaps.fetchHeightMapForCuboidColumn(0, 0);
+		int herdSizeToSpawn = _generateFlora(data, cuboidBase, columnSeed, heightMap, biome, column.getGullyDepth());
 		EntityType faunaType = (Biomes.FIELD_CODE == biome.code())
 				? _cow
 				: null
@@ -873,7 +886,7 @@ public class BasicWorldGenerator implements IWorldGenerator
 	private void _carveOutCaves(CuboidData data, AbsoluteLocation cuboidBase)
 	{
 		// We generate the cave system by checking whether or not a cavern should be generated in this cuboid and each of the 26 around it.
-		_Cavern[][][] caverns = new _Cavern[5][5][5];
+		CavernCache.Cavern[][][] caverns = new CavernCache.Cavern[5][5][5];
 		CuboidAddress address = data.getCuboidAddress();
 		for (int z = -1; z <= 1; ++z)
 		{
@@ -881,54 +894,44 @@ public class BasicWorldGenerator implements IWorldGenerator
 			{
 				for (int x = -1; x <= 1; ++x)
 				{
-					long seed = _getSeedForCuboid(address.getRelative(x, y, z));
-					Random random = new Random(seed);
-					if (0 == random.nextInt(RANDOM_CAVERN_DENOMINATOR))
-					{
-						byte cavernX = (byte) random.nextInt(Encoding.CUBOID_EDGE_SIZE);
-						byte cavernY = (byte) random.nextInt(Encoding.CUBOID_EDGE_SIZE);
-						byte cavernZ = (byte) random.nextInt(Encoding.CUBOID_EDGE_SIZE);
-						byte cavernRadius = (byte) random.nextInt(CAVERN_LIMIT_RADIUS);
-						caverns[2 + z][2 + y][2 + x] = new _Cavern(cavernX, cavernY, cavernZ, cavernRadius);
-					}
+					caverns[2 + z][2 + y][2 + x] = _cavernCache.getCavern(address.getRelative(x, y, z));
 				}
 			}
 		}
 		
 		// We then connect those caverns to adjacent caverns in the 6 adjacent cuboids, if they exist.
-		short stoneNumber = _blockStone.item().number();
-		short airNumber = _blockAir.item().number();
+		// Everything is rasterized into a mask first so that the cuboid is only modified once, at the end.
+		CarvingMask mask = new CarvingMask(address);
 		for (int z = -1; z <= 1; ++z)
 		{
 			for (int y = -1; y <= 1; ++y)
 			{
 				for (int x = -1; x <= 1; ++x)
 				{
-					_Cavern cavern = caverns[2 + z][2 + y][2 + x];
+					CavernCache.Cavern cavern = caverns[2 + z][2 + y][2 + x];
 					if (null != cavern)
 					{
 						CuboidAddress thisAddress = address.getRelative(x, y, z);
-						AbsoluteLocation centre = thisAddress.getBase().getRelative(cavern.x, cavern.y, cavern.z);
-						int radius = cavern.radius;
+						AbsoluteLocation centre = thisAddress.getBase().getRelative(cavern.x(), cavern.y(), cavern.z());
+						int radius = cavern.radius();
 						Assert.assertTrue(centre.getCuboidAddress().equals(thisAddress));
-						PathDigger.hollowOutSphere(data, centre, radius, stoneNumber, airNumber);
-						_hollowPath(data, caverns, address, stoneNumber, airNumber, z + 1, y, x, centre, radius);
-						_hollowPath(data, caverns, address, stoneNumber, airNumber, z - 1, y, x, centre, radius);
-						_hollowPath(data, caverns, address, stoneNumber, airNumber, z, y + 1, x, centre, radius);
-						_hollowPath(data, caverns, address, stoneNumber, airNumber, z, y - 1, x, centre, radius);
-						_hollowPath(data, caverns, address, stoneNumber, airNumber, z, y, x + 1, centre, radius);
-						_hollowPath(data, caverns, address, stoneNumber, airNumber, z, y, x - 1, centre, radius);
+						PathDigger.rasterizeSphere(mask, centre, radius);
+						_rasterizePath(mask, caverns, address, z + 1, y, x, centre, radius);
+						_rasterizePath(mask, caverns, address, z - 1, y, x, centre, radius);
+						_rasterizePath(mask, caverns, address, z, y + 1, x, centre, radius);
+						_rasterizePath(mask, caverns, address, z, y - 1, x, centre, radius);
+						_rasterizePath(mask, caverns, address, z, y, x + 1, centre, radius);
+						_rasterizePath(mask, caverns, address, z, y, x - 1, centre, radius);
 					}
 				}
 			}
 		}
+		mask.applyToCuboid(data, _blockStone.item().number(), _blockAir.item().number());
 	}
 
-	private static void _hollowPath(CuboidData data
-			, _Cavern[][][] caverns
+	private static void _rasterizePath(CarvingMask mask
+			, CavernCache.Cavern[][][] caverns
 			, CuboidAddress address
-			, short stoneNumber
-			, short airNumber
 			, int z
 			, int y
 			, int x
@@ -936,31 +939,16 @@ public class BasicWorldGenerator implements IWorldGenerator
 			, int radius
 	)
 	{
-		_Cavern one = caverns[2 + z][2 + y][2 + x];
+		CavernCache.Cavern one = caverns[2 + z][2 + y][2 + x];
 		if (null != one)
 		{
 			CuboidAddress oneAddress = address.getRelative(x, y, z);
-			AbsoluteLocation oneCentre = oneAddress.getBase().getRelative(one.x, one.y, one.z);
-			int oneRadius = one.radius;
-			PathDigger.hollowOutPath(data, centre, radius, oneCentre, oneRadius, stoneNumber, airNumber);
+			AbsoluteLocation oneCentre = oneAddress.getBase().getRelative(one.x(), one.y(), one.z());
+			int oneRadius = one.radius();
+			PathDigger.rasterizePath(mask, centre, radius, oneCentre, oneRadius);
 		}
 	}
 
-	private static long _getSeedForCuboid(CuboidAddress address)
-	{
-		// This logic is loosely derived from PerColumnRandomSeedField._deterministicRandom.
-		ByteBuffer buffer = ByteBuffer.allocate(3 * Short.BYTES + 2 * Integer.BYTES);
-		short x = address.x();
-		short y = address.y();
-		short z = address.z();
-		buffer.putShort(z);
-		buffer.putShort(y);
-		buffer.putShort(x);
-		buffer.putInt(x ^ y ^ z);
-		buffer.putInt(x + y + z);
-		return Arrays.hashCode(buffer.array());
-	}
-
 	private static boolean _isAdjacentHeightLess(int compareZ, LazyColumnHeightMapGrid heightMaps, int localX, int localY)
 	{
 		// We want to check all 8 blocks around this and see if they are less than compareZ.
@@ -1046,13 +1034,6 @@ public class BasicWorldGenerator implements IWorldGenerator
 	}
 
 
-	private static record _Cavern(byte x
-			, byte y
-			, byte z
-			, byte radius
-	)
-	{}
-
 	private static record _Update(BlockAddress address, short blockValue) {}
 
 	private static class _UpdateComparator implements Comparator<_Update>
@@ -0,0 +1,150 @@
+package com.jeffdisher.october.worldgen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.jeffdisher.october.aspects.AspectRegistry;
+import com.jeffdisher.october.data.CuboidData;
+import com.jeffdisher.october.data.IOctree;
+import com.jeffdisher.october.data.IReadOnlyCuboidData;
+import com.jeffdisher.october.types.AbsoluteLocation;
+import com.jeffdisher.october.types.BlockAddress;
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.utils.Assert;
+import com.jeffdisher.october.utils.Encoding;
+
+
+/**
+ * A dense bit mask over the blocks of a single cuboid, used to collect everything which should be carved out (caverns,
+ * tunnels, etc) before touching the cuboid's octree.  Shapes are rasterized into the mask using global coordinates and
+ * anything outside of the cuboid is ignored.  Once complete, the mask is applied to the cuboid in one batched write.
+ * Each row of blocks along the X axis is stored as a single int.
+ */
+public class CarvingMask
+{
+	private static final int EDGE = Encoding.CUBOID_EDGE_SIZE;
+
+	private final AbsoluteLocation _cuboidBase;
+	// Indexed by (z * EDGE) + y with bit x set if the block should be carved.
+	private final int[] _rowsZY;
+
+	/**
+	 * Creates an empty mask for the given cuboid.
+	 * 
+	 * @param address The address of the cuboid this mask covers.
+	 */
+	public CarvingMask(CuboidAddress address)
+	{
+		// We assume that a row fits in an int.
+		Assert.assertTrue(Integer.SIZE == EDGE);
+		_cuboidBase = address.getBase();
+		_rowsZY = new int[EDGE * EDGE];
+	}
+
+	/**
+	 * Marks the block at the given global location, if it is within this cuboid.
+	 * 
+	 * @param globalX The global X coordinate.
+	 * @param globalY The global Y coordinate.
+	 * @param globalZ The global Z coordinate.
+	 */
+	public void set(int globalX, int globalY, int globalZ)
+	{
+		int x = globalX - _cuboidBase.x();
+		int y = globalY - _cuboidBase.y();
+		int z = globalZ - _cuboidBase.z();
+		if ((x >= 0) && (x < EDGE)
+				&& (y >= 0) && (y < EDGE)
+				&& (z >= 0) && (z < EDGE)
+		)
+		{
+			_rowsZY[(z * EDGE) + y] |= (1 << x);
+		}
+	}
+
+	/**
+	 * @param address The block address within the cuboid.
+	 * @return True if this block is marked.
+	 */
+	public boolean isSet(BlockAddress address)
+	{
+		return 0 != (_rowsZY[(address.z() * EDGE) + address.y()] & (1 << address.x()));
+	}
+
+	/**
+	 * @return The number of marked blocks.
+	 */
+	public int count()
+	{
+		int count = 0;
+		for (int row : _rowsZY)
+		{
+			count += Integer.bitCount(row);
+		}
+		return count;
+	}
+
+	/**
+	 * Replaces every instance of blockToRemove in data which is marked in this mask with blockToAdd.  This is done as a
+	 * single batched write into the octree.
+	 * 
+	 * @param data The cuboid to modify (only the BLOCK aspect will be changed).
+	 * @param blockToRemove The block value of the blocks we should be replacing with blockToAdd.
+	 * @param blockToAdd The block value of the blocks we should be writing over instances of blockToRemove.
+	 * @return The number of blocks changed.
+	 */
+	public int applyToCuboid(CuboidData data, short blockToRemove, short blockToAdd)
+	{
+		Assert.assertTrue(data.getCuboidAddress().getBase().equals(_cuboidBase));
+		
+		// We walk the regions of blockToRemove in the octree and collect the marked blocks within them.
+		List<BlockAddress> toWrite = new ArrayList<>();
+		data.walkData(AspectRegistry.BLOCK, new IOctree.IWalkerCallback<>() {
+			@Override
+			public void visit(BlockAddress base, byte size, Short value)
+			{
+				if (blockToRemove == value)
+				{
+					int spanBits = _spanBits(base.x(), base.x() + size - 1);
+					for (int z = base.z(); z < (base.z() + size); ++z)
+					{
+						for (int y = base.y(); y < (base.y() + size); ++y)
+						{
+							int bits = _rowsZY[(z * EDGE) + y] & spanBits;
+							while (0 != bits)
+							{
+								int x = Integer.numberOfTrailingZeros(bits);
+								bits &= (bits - 1);
+								toWrite.add(BlockAddress.fromInt(x, y, z));
+							}
+						}
+					}
+				}
+			}
+		}, blockToAdd);
+		
+		int count = toWrite.size();
+		if (count > 0)
+		{
+			BlockAddress[] addresses = toWrite.toArray((int size) -> new BlockAddress[size]);
+			Arrays.sort(addresses, new IReadOnlyCuboidData.BlockAddressBatchComparator());
+			short[] values = new short[count];
+			Arrays.fill(values, blockToAdd);
+			data.batchWiteData15(AspectRegistry.BLOCK, addresses, values);
+		}
+		return count;
+	}
+
+
+	private static int _spanBits(int startX, int endX)
+	{
+		// Bits [startX..endX], inclusive (note that the shift is taken mod 32 so a full row must be special-cased).
+		int width = endX - startX + 1;
+		int low = (EDGE == width)
+			? -1
+			: ((1 << width) - 1)
+		;
+		return low << startX;
+	}
+}
@@ -0,0 +1,154 @@
+package com.jeffdisher.october.worldgen;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.utils.Assert;
+import com.jeffdisher.october.utils.Encoding;
+
+
+/**
+ * A bounded LRU cache of the cavern descriptor for each cuboid.  Carving caves into a cuboid needs the caverns of all
+ * 27 cuboids around it so each descriptor is otherwise re-derived (seeding a new Random) for each of its neighbours.
+ * Cuboids which have no cavern are cached, too.
+ * This is thread-safe since generation can happen on multiple threads.
+ */
+public class CavernCache
+{
+	/**
+	 * The default number of cuboid descriptors to retain (these are small).
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/**
+	 * Derives the cavern for the given cuboid, directly.
+	 * 
+	 * @param address The cuboid address.
+	 * @return The cavern in this cuboid or null if there isn't one.
+	 */
+	public static Cavern deriveCavern(CuboidAddress address)
+	{
+		long seed = _getSeedForCuboid(address);
+		Random random = new Random(seed);
+		Cavern cavern = null;
+		if (0 == random.nextInt(BasicWorldGenerator.RANDOM_CAVERN_DENOMINATOR))
+		{
+			byte cavernX = (byte) random.nextInt(Encoding.CUBOID_EDGE_SIZE);
+			byte cavernY = (byte) random.nextInt(Encoding.CUBOID_EDGE_SIZE);
+			byte cavernZ = (byte) random.nextInt(Encoding.CUBOID_EDGE_SIZE);
+			byte cavernRadius = (byte) random.nextInt(BasicWorldGenerator.CAVERN_LIMIT_RADIUS);
+			cavern = new Cavern(cavernX, cavernY, cavernZ, cavernRadius);
+		}
+		return cavern;
+	}
+
+
+	// We store this instance for cuboids with no cavern since the map can't distinguish null from missing.
+	private static final Cavern NO_CAVERN = new Cavern((byte)0, (byte)0, (byte)0, (byte)-1);
+
+	private final int _capacity;
+	private final LinkedHashMap<CuboidAddress, Cavern> _caverns;
+	private long _hits;
+	private long _misses;
+
+	/**
+	 * Creates an empty cache.
+	 * 
+	 * @param capacity The maximum number of cuboid descriptors to retain.
+	 */
+	public CavernCache(int capacity)
+	{
+		Assert.assertTrue(capacity > 0);
+		_capacity = capacity;
+		// We use access-order so that the eldest entry is the least-recently used.
+		_caverns = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<CuboidAddress, Cavern> eldest)
+			{
+				return size() > _capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cavern for the given cuboid, deriving it if it isn't already cached.
+	 * 
+	 * @param address The cuboid address.
+	 * @return The cavern in this cuboid or null if there isn't one.
+	 */
+	public synchronized Cavern getCavern(CuboidAddress address)
+	{
+		Cavern cavern = _caverns.get(address);
+		if (null != cavern)
+		{
+			_hits += 1;
+		}
+		else
+		{
+			_misses += 1;
+			cavern = deriveCavern(address);
+			if (null == cavern)
+			{
+				cavern = NO_CAVERN;
+			}
+			_caverns.put(address, cavern);
+		}
+		return (NO_CAVERN != cavern)
+			? cavern
+			: null
+		;
+	}
+
+	/**
+	 * @return The number of look-ups which found their descriptor already cached.
+	 */
+	public synchronized long getHitCount()
+	{
+		return _hits;
+	}
+
+	/**
+	 * @return The number of look-ups which needed to derive their descriptor.
+	 */
+	public synchronized long getMissCount()
+	{
+		return _misses;
+	}
+
+
+	private static long _getSeedForCuboid(CuboidAddress address)
+	{
+		// This logic is loosely derived from PerColumnRandomSeedField._deterministicRandom.
+		ByteBuffer buffer = ByteBuffer.allocate(3 * Short.BYTES + 2 * Integer.BYTES);
+		short x = address.x();
+		short y = address.y();
+		short z = address.z();
+		buffer.putShort(z);
+		buffer.putShort(y);
+		buffer.putShort(x);
+		buffer.putInt(x ^ y ^ z);
+		buffer.putInt(x + y + z);
+		return Arrays.hashCode(buffer.array());
+	}
+
+
+	/**
+	 * The description of a cavern within a cuboid.
+	 * 
+	 * @param x The local X of the cavern centre.
+	 * @param y The local Y of the cavern centre.
+	 * @param z The local Z of the cavern centre.
+	 * @param radius The radius of the cavern.
+	 */
+	public static record Cavern(byte x
+			, byte y
+			, byte z
+			, byte radius
+	)
+	{}
+}
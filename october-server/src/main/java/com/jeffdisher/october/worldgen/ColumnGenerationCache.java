@@ -0,0 +1,167 @@
+package com.jeffdisher.october.worldgen;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.jeffdisher.october.data.ColumnHeightMap;
+import com.jeffdisher.october.types.CuboidColumnAddress;
+import com.jeffdisher.october.utils.Assert;
+import com.jeffdisher.october.utils.Encoding;
+
+
+/**
+ * A bounded LRU cache of the generation data which is common to every cuboid in a column:  The seed field (which is
+ * also where the ore node placement seeds come from), the height maps, the biome, and the gully depth.
+ * Cuboids in the same column are typically generated close together (a column loaded top-to-bottom or a player
+ * digging down) so this avoids rebuilding the same data for each of them.
+ * This is thread-safe since generation can happen on multiple threads.  Note that the height maps within an entry are
+ * still built lazily, outside of the cache lock.
+ */
+public class ColumnGenerationCache
+{
+	/**
+	 * The default number of columns to retain (a 16x16 area of columns).
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+
+	/**
+	 * Finds the depth of the gully in the given height map.  A gully is a point in the cuboid lower than its perimeter.
+	 * 
+	 * @param heightMap The height map of a cuboid column.
+	 * @return The depth of the gully in this cuboid column (0 if there isn't one).
+	 */
+	public static int findGullyDepth(ColumnHeightMap heightMap)
+	{
+		int minGully = Integer.MAX_VALUE;
+		int minPerimeter = Integer.MAX_VALUE;
+		int edge = Encoding.CUBOID_EDGE_SIZE - 1;
+		for (int y = 0; y < Encoding.CUBOID_EDGE_SIZE; ++y)
+		{
+			for (int x = 0; x < Encoding.CUBOID_EDGE_SIZE; ++x)
+			{
+				int height = heightMap.getHeight(x, y);
+				minGully = Math.min(minGully, height);
+				if ((0 == y) || (edge == y) || (0 == x) || (edge == x))
+				{
+					// This is the perimeter.
+					minPerimeter = Math.min(minPerimeter, height);
+				}
+			}
+		}
+		return minPerimeter - minGully;
+	}
+
+
+	private final int _seed;
+	private final int _capacity;
+	private final LinkedHashMap<CuboidColumnAddress, ColumnData> _columns;
+	private long _hits;
+	private long _misses;
+
+	/**
+	 * Creates an empty cache.
+	 * 
+	 * @param seed The world seed used to build the seed fields.
+	 * @param capacity The maximum number of columns to retain.
+	 */
+	public ColumnGenerationCache(int seed, int capacity)
+	{
+		Assert.assertTrue(capacity > 0);
+		_seed = seed;
+		_capacity = capacity;
+		// We use access-order so that the eldest entry is the least-recently used.
+		_columns = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<CuboidColumnAddress, ColumnData> eldest)
+			{
+				return size() > _capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the generation data for the given column, building it if it isn't already cached.
+	 * 
+	 * @param column The column address.
+	 * @return The generation data for this column.
+	 */
+	public synchronized ColumnData getColumn(CuboidColumnAddress column)
+	{
+		ColumnData data = _columns.get(column);
+		if (null != data)
+		{
+			_hits += 1;
+		}
+		else
+		{
+			_misses += 1;
+			PerColumnRandomSeedField seeds = PerColumnRandomSeedField.buildSeedField9x9(_seed, column.x(), column.y());
+			PerColumnRandomSeedField.View subField = seeds.view();
+			data = new ColumnData(subField
+				, new LazyColumnHeightMapGrid(subField)
+				, Biomes.chooseBiomeFromSeeds5x5(subField)
+			);
+			_columns.put(column, data);
+		}
+		return data;
+	}
+
+	/**
+	 * @return The number of look-ups which found their column already cached.
+	 */
+	public synchronized long getHitCount()
+	{
+		return _hits;
+	}
+
+	/**
+	 * @return The number of look-ups which needed to build their column.
+	 */
+	public synchronized long getMissCount()
+	{
+		return _misses;
+	}
+
+	/**
+	 * @return The number of columns currently cached.
+	 */
+	public synchronized int size()
+	{
+		return _columns.size();
+	}
+
+
+	/**
+	 * The generation data shared by all cuboids in a column.  Everything here is either immutable or lazily built in a
+	 * thread-safe way.
+	 */
+	public static final class ColumnData
+	{
+		public final PerColumnRandomSeedField.View seeds;
+		public final LazyColumnHeightMapGrid heightMaps;
+		public final Biomes.Biome biome;
+		private int _gullyDepth;
+		private boolean _isGullyComputed;
+		
+		private ColumnData(PerColumnRandomSeedField.View seeds, LazyColumnHeightMapGrid heightMaps, Biomes.Biome biome)
+		{
+			this.seeds = seeds;
+			this.heightMaps = heightMaps;
+			this.biome = biome;
+		}
+		
+		/**
+		 * @return The depth of the gully in this column (0 if there isn't one).
+		 */
+		public synchronized int getGullyDepth()
+		{
+			if (!_isGullyComputed)
+			{
+				_gullyDepth = findGullyDepth(this.heightMaps.fetchHeightMapForCuboidColumn(0, 0));
+				_isGullyComputed = true;
+			}
+			return _gullyDepth;
+		}
+	}
+}
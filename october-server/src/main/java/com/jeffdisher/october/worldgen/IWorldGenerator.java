@@ -14,6 +14,8 @@ public interface IWorldGenerator
 {
 	/**
 	 * Generates a new cuboid.
+	 * Note that this can be called concurrently, from multiple generation threads, so implementations must be
+	 * thread-safe.  The creatureIdAssigner is private to this call.
 	 * 
 	 * @param creatureIdAssigner The ID assigner for any new creatures spawned within the cuboid.
 	 * @param address The address of the cuboid to generate.
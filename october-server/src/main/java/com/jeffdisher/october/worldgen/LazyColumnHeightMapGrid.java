@@ -7,6 +7,7 @@ import com.jeffdisher.october.utils.Encoding;
 
 /**
  * Lazily constructs the ColumnHeightMap instances around a central point.
+ * Instances can be shared between threads (see ColumnGenerationCache) so the lazy construction is synchronized.
  */
 public class LazyColumnHeightMapGrid
 {
@@ -102,7 +103,7 @@ public class LazyColumnHeightMapGrid
 	 * @param y The relative Y column coordinate, in cuboid offsets.
 	 * @return The ColumnHeightMap for the relative column.
 	 */
-	public ColumnHeightMap fetchHeightMapForCuboidColumn(int x, int y)
+	public synchronized ColumnHeightMap fetchHeightMapForCuboidColumn(int x, int y)
 	{
 		ColumnHeightMap map = _yMajorGrid[1 + y][1 + x];
 		if (null == map)
@@ -22,7 +22,7 @@ public class PreloadedWorldGenerator implements IWorldGenerator
 
 	/**
 	 * Loads the given cuboid.  Note that this must be called before any consumer of the loader starts up as there is
-	 * no synchronization on this path.
+	 * no synchronization on this path (generation is synchronized since it can be called from multiple threads).
 	 * Note that this is a temporary interface and will be replaced by a generator and/or pre-constructed world save in
 	 * the future.
 	 * 
@@ -34,7 +34,7 @@ public class PreloadedWorldGenerator implements IWorldGenerator
 	}
 
 	@Override
-	public SuspendedCuboid<CuboidData> generateCuboid(CreatureIdAssigner creatureIdAssigner, CuboidAddress address, long gameTimeMillis)
+	public synchronized SuspendedCuboid<CuboidData> generateCuboid(CreatureIdAssigner creatureIdAssigner, CuboidAddress address, long gameTimeMillis)
 	{
 		// We generally return null unless given something explicit.
 		SuspendedCuboid<CuboidData> data = null;
@@ -1,6 +1,7 @@
 package com.jeffdisher.october.worldgen;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -14,6 +15,7 @@ import com.jeffdisher.october.aspects.GroundCoverRegistry;
 import com.jeffdisher.october.aspects.LightAspect;
 import com.jeffdisher.october.aspects.PlantRegistry;
 import com.jeffdisher.october.data.CuboidData;
+import com.jeffdisher.october.data.IReadOnlyCuboidData;
 import com.jeffdisher.october.mutations.MutationBlockOverwriteInternal;
 import com.jeffdisher.october.mutations.MutationBlockPeriodic;
 import com.jeffdisher.october.properties.PropertyRegistry;
@@ -224,15 +226,8 @@ public class Structure
 			countZ = Math.min(sizeZ - readZ, Encoding.CUBOID_EDGE_SIZE);
 		}
 		
-		// Now we can copy, bearing in mind that we need to synthesize events to run after loading.
-		Environment env = Environment.getShared();
-		LightAspect lights = env.lighting;
-		PlantRegistry plants = env.plants;
-		GroundCoverRegistry groundCover = env.groundCover;
-		short replacementBlock = env.special.AIR.item().number();
-		List<MutationBlockOverwriteInternal> overwriteMutations = new ArrayList<>();
-		Map<BlockAddress, Long> periodicMutationMillis = new HashMap<>();
-		Map<AbsoluteLocation, EntityType> entitiesToSpawn = new HashMap<>();
+		// We first find the blocks of the structure which land in this cuboid, keeping the order of the structure data.
+		List<_Placement> placements = new ArrayList<>();
 		for (int c = 0; c < countZ; ++c)
 		{
 			AspectData[] layer = _allLayerBlocks[readZ + c];
@@ -254,109 +249,134 @@ public class Structure
 						)
 						{
 							AbsoluteLocation thisBlock = baseCuboidLocation.getRelative(localX, localY, writeZ + offsetLocation.z());
-							BlockAddress blockAddress = thisBlock.getBlockAddress();
-							// We will only replace this if it is the mast type or there is no mask type.
-							if ((replaceTypeMask < 0) || (replaceTypeMask == cuboid.getData15(AspectRegistry.BLOCK, blockAddress)))
-							{
-								// The block is required in the aspect data.
-								Block block = aspectData.block;
-								Assert.assertTrue(null != block);
-								
-								// Lighting updates are handled somewhat specially (not just as a simple mutation - since they
-								// are so common, they are specially optimized).  Therefore, we will just handle lighting
-								// updates and growth mutation requirements the same way:  Make the block air and return a
-								// replace block mutation.
-								boolean isActive = false;
-								boolean needsLightUpdate = (lights.getLightEmission(block, isActive) > 0);
-								boolean isGroundCover = groundCover.isGroundCover(block);
-								
-								// Schedule the periodic updates for this block type based on what type it is.
-								if (needsLightUpdate || isGroundCover)
-								{
-									// Lighting updates require that the block be placed to trigger the lighting update.
-									cuboid.setData15(AspectRegistry.BLOCK, blockAddress, replacementBlock);
-									overwriteMutations.add(new MutationBlockOverwriteInternal(thisBlock, block));
-									
-									// We can't have other data if we are using this special path.
-									Assert.assertTrue(null == aspectData.normalInventory);
-									Assert.assertTrue(null == aspectData.orientation);
-									Assert.assertTrue(null == aspectData.specialItemSlot);
-								}
-								else
-								{
-									// Anything other than a lighting update can be placed directly and some require periodic updates.
-									cuboid.setData15(AspectRegistry.BLOCK, blockAddress, block.item().number());
-									if (null != aspectData.normalInventory)
-									{
-										Assert.assertTrue(env.stations.getNormalInventorySize(block) > 0);
-										cuboid.setDataSpecial(AspectRegistry.INVENTORY, blockAddress, aspectData.normalInventory);
-									}
-									if (null != aspectData.orientation)
-									{
-										if (FacingDirection.DOWN == aspectData.orientation)
-										{
-											Assert.assertTrue(env.orientations.doesAllowDownwardOutput(block));
-										}
-										else if (!env.blocks.isMultiBlock(block))
-										{
-											// Multi-blocks all use a directed orientation.
-											Assert.assertTrue(env.orientations.doesSingleBlockRequireOrientation(block));
-										}
-										FacingDirection rotatedOrientation = rotation.rotateOrientation(aspectData.orientation);
-										cuboid.setData7(AspectRegistry.ORIENTATION, blockAddress, FacingDirection.directionToByte(rotatedOrientation));
-									}
-									if (null != aspectData.specialItemSlot)
-									{
-										Assert.assertTrue(env.specialSlot.hasSpecialSlot(block));
-										// Check the special slot since location references need to be re-interpreted (we consider them relative to the current block by north).
-										ItemSlot specialItemSlot = aspectData.specialItemSlot;
-										if ((null != specialItemSlot.nonStackable) && specialItemSlot.nonStackable.properties().containsKey(PropertyRegistry.LOCATION))
-										{
-											Map<PropertyType<?>, Object> properties = new HashMap<>(specialItemSlot.nonStackable.properties());
-											AbsoluteLocation placeholder = (AbsoluteLocation) properties.get(PropertyRegistry.LOCATION);
-											AbsoluteLocation rotatedPlaceholder = rotation.rotateAboutZ(placeholder);
-											AbsoluteLocation updated = thisBlock.getRelative(rotatedPlaceholder.x(), rotatedPlaceholder.y(), rotatedPlaceholder.z());
-											properties.put(PropertyRegistry.LOCATION, updated);
-											NonStackableItem finalItem = new NonStackableItem(specialItemSlot.nonStackable.type(), properties);
-											specialItemSlot = ItemSlot.fromNonStack(finalItem);
-										}
-										cuboid.setDataSpecial(AspectRegistry.SPECIAL_ITEM_SLOT, blockAddress, specialItemSlot);
-									}
-									if (null != aspectData.relativeMultiBlockRoot)
-									{
-										AbsoluteLocation rotatedRelativeRoot = rotation.rotateAboutZ(aspectData.relativeMultiBlockRoot);
-										AbsoluteLocation absoluteRoot = thisBlock.getRelative(rotatedRelativeRoot.x(), rotatedRelativeRoot.y(), rotatedRelativeRoot.z());
-										cuboid.setDataSpecial(AspectRegistry.MULTI_BLOCK_ROOT, blockAddress, absoluteRoot);
-									}
-									
-									boolean needsGrowth = (plants.growthDivisor(block) > 0);
-									boolean isComposite = env.composites.isActiveCornerstone(block);
-									long perioidicMillisDelay = 0L;
-									if (needsGrowth)
-									{
-										perioidicMillisDelay = MutationBlockPeriodic.MILLIS_BETWEEN_GROWTH_CALLS;
-									}
-									else if (isComposite)
-									{
-										perioidicMillisDelay = MutationBlockPeriodic.MILLIS_BETWEEN_GROWTH_CALLS;
-									}
-									
-									if (perioidicMillisDelay > 0L)
-									{
-										periodicMutationMillis.put(blockAddress, perioidicMillisDelay);
-									}
-								}
-								
-								if (null != aspectData.creatureToSpawn)
-								{
-									entitiesToSpawn.put(thisBlock, aspectData.creatureToSpawn);
-								}
-							}
+							placements.add(new _Placement(thisBlock, thisBlock.getBlockAddress(), aspectData));
 						}
 					}
 				}
 			}
 		}
+		
+		// We will only replace a block if it is the mask type or there is no mask type so read these in one batch.
+		if ((replaceTypeMask >= 0) && !placements.isEmpty())
+		{
+			placements = _filterByExistingType(cuboid, placements, replaceTypeMask);
+		}
+		
+		// Now we can copy, bearing in mind that we need to synthesize events to run after loading.
+		// Block types are collected and written in one batch, at the end, since they are most of the writes.
+		Environment env = Environment.getShared();
+		LightAspect lights = env.lighting;
+		PlantRegistry plants = env.plants;
+		GroundCoverRegistry groundCover = env.groundCover;
+		short replacementBlock = env.special.AIR.item().number();
+		List<MutationBlockOverwriteInternal> overwriteMutations = new ArrayList<>();
+		Map<BlockAddress, Long> periodicMutationMillis = new HashMap<>();
+		Map<AbsoluteLocation, EntityType> entitiesToSpawn = new HashMap<>();
+		List<_BlockWrite> blockWrites = new ArrayList<>();
+		for (_Placement placement : placements)
+		{
+			AbsoluteLocation thisBlock = placement.location;
+			BlockAddress blockAddress = placement.address;
+			AspectData aspectData = placement.data;
+			
+			// The block is required in the aspect data.
+			Block block = aspectData.block;
+			Assert.assertTrue(null != block);
+			
+			// Lighting updates are handled somewhat specially (not just as a simple mutation - since they
+			// are so common, they are specially optimized).  Therefore, we will just handle lighting
+			// updates and growth mutation requirements the same way:  Make the block air and return a
+			// replace block mutation.
+			boolean isActive = false;
+			boolean needsLightUpdate = (lights.getLightEmission(block, isActive) > 0);
+			boolean isGroundCover = groundCover.isGroundCover(block);
+			
+			// Schedule the periodic updates for this block type based on what type it is.
+			if (needsLightUpdate || isGroundCover)
+			{
+				// Lighting updates require that the block be placed to trigger the lighting update.
+				blockWrites.add(new _BlockWrite(blockAddress, replacementBlock));
+				overwriteMutations.add(new MutationBlockOverwriteInternal(thisBlock, block));
+				
+				// We can't have other data if we are using this special path.
+				Assert.assertTrue(null == aspectData.normalInventory);
+				Assert.assertTrue(null == aspectData.orientation);
+				Assert.assertTrue(null == aspectData.specialItemSlot);
+			}
+			else
+			{
+				// Anything other than a lighting update can be placed directly and some require periodic updates.
+				blockWrites.add(new _BlockWrite(blockAddress, block.item().number()));
+				if (null != aspectData.normalInventory)
+				{
+					Assert.assertTrue(env.stations.getNormalInventorySize(block) > 0);
+					cuboid.setDataSpecial(AspectRegistry.INVENTORY, blockAddress, aspectData.normalInventory);
+				}
+				if (null != aspectData.orientation)
+				{
+					if (FacingDirection.DOWN == aspectData.orientation)
+					{
+						Assert.assertTrue(env.orientations.doesAllowDownwardOutput(block));
+					}
+					else if (!env.blocks.isMultiBlock(block))
+					{
+						// Multi-blocks all use a directed orientation.
+						Assert.assertTrue(env.orientations.doesSingleBlockRequireOrientation(block));
+					}
+					FacingDirection rotatedOrientation = rotation.rotateOrientation(aspectData.orientation);
+					cuboid.setData7(AspectRegistry.ORIENTATION, blockAddress, FacingDirection.directionToByte(rotatedOrientation));
+				}
+				if (null != aspectData.specialItemSlot)
+				{
+					Assert.assertTrue(env.specialSlot.hasSpecialSlot(block));
+					// Check the special slot since location references need to be re-interpreted (we consider them relative to the current block by north).
+					ItemSlot specialItemSlot = aspectData.specialItemSlot;
+					if ((null != specialItemSlot.nonStackable) && specialItemSlot.nonStackable.properties().containsKey(PropertyRegistry.LOCATION))
+					{
+						Map<PropertyType<?>, Object> properties = new HashMap<>(specialItemSlot.nonStackable.properties());
+						AbsoluteLocation placeholder = (AbsoluteLocation) properties.get(PropertyRegistry.LOCATION);
+						AbsoluteLocation rotatedPlaceholder = rotation.rotateAboutZ(placeholder);
+						AbsoluteLocation updated = thisBlock.getRelative(rotatedPlaceholder.x(), rotatedPlaceholder.y(), rotatedPlaceholder.z());
+						properties.put(PropertyRegistry.LOCATION, updated);
+						NonStackableItem finalItem = new NonStackableItem(specialItemSlot.nonStackable.type(), properties);
+						specialItemSlot = ItemSlot.fromNonStack(finalItem);
+					}
+					cuboid.setDataSpecial(AspectRegistry.SPECIAL_ITEM_SLOT, blockAddress, specialItemSlot);
+				}
+				if (null != aspectData.relativeMultiBlockRoot)
+				{
+					AbsoluteLocation rotatedRelativeRoot = rotation.rotateAboutZ(aspectData.relativeMultiBlockRoot);
+					AbsoluteLocation absoluteRoot = thisBlock.getRelative(rotatedRelativeRoot.x(), rotatedRelativeRoot.y(), rotatedRelativeRoot.z());
+					cuboid.setDataSpecial(AspectRegistry.MULTI_BLOCK_ROOT, blockAddress, absoluteRoot);
+				}
+				
+				boolean needsGrowth = (plants.growthDivisor(block) > 0);
+				boolean isComposite = env.composites.isActiveCornerstone(block);
+				long perioidicMillisDelay = 0L;
+				if (needsGrowth)
+				{
+					perioidicMillisDelay = MutationBlockPeriodic.MILLIS_BETWEEN_GROWTH_CALLS;
+				}
+				else if (isComposite)
+				{
+					perioidicMillisDelay = MutationBlockPeriodic.MILLIS_BETWEEN_GROWTH_CALLS;
+				}
+				
+				if (perioidicMillisDelay > 0L)
+				{
+					periodicMutationMillis.put(blockAddress, perioidicMillisDelay);
+				}
+			}
+			
+			if (null != aspectData.creatureToSpawn)
+			{
+				entitiesToSpawn.put(thisBlock, aspectData.creatureToSpawn);
+			}
+		}
+		if (!blockWrites.isEmpty())
+		{
+			_batchWriteBlocks(cuboid, blockWrites);
+		}
 		return new FollowUp(overwriteMutations
 			, periodicMutationMillis
 			, entitiesToSpawn
@@ -378,6 +398,49 @@ public class Structure
 	}
 
 
+	private static List<_Placement> _filterByExistingType(CuboidData cuboid, List<_Placement> placements, short replaceTypeMask)
+	{
+		BlockAddress[] addresses = new BlockAddress[placements.size()];
+		for (int i = 0; i < addresses.length; ++i)
+		{
+			addresses[i] = placements.get(i).address;
+		}
+		Arrays.sort(addresses, new IReadOnlyCuboidData.BlockAddressBatchComparator());
+		short[] values = cuboid.batchReadData15(AspectRegistry.BLOCK, addresses);
+		Set<BlockAddress> matching = new HashSet<>();
+		for (int i = 0; i < addresses.length; ++i)
+		{
+			if (replaceTypeMask == values[i])
+			{
+				matching.add(addresses[i]);
+			}
+		}
+		List<_Placement> filtered = new ArrayList<>();
+		for (_Placement placement : placements)
+		{
+			if (matching.contains(placement.address))
+			{
+				filtered.add(placement);
+			}
+		}
+		return filtered;
+	}
+
+	private static void _batchWriteBlocks(CuboidData cuboid, List<_BlockWrite> blockWrites)
+	{
+		blockWrites.sort((_BlockWrite one, _BlockWrite two) -> IReadOnlyCuboidData.getBatchSortOrder(one.address) - IReadOnlyCuboidData.getBatchSortOrder(two.address));
+		BlockAddress[] addresses = new BlockAddress[blockWrites.size()];
+		short[] values = new short[blockWrites.size()];
+		for (int i = 0; i < addresses.length; ++i)
+		{
+			_BlockWrite write = blockWrites.get(i);
+			addresses[i] = write.address;
+			values[i] = write.value;
+		}
+		cuboid.batchWiteData15(AspectRegistry.BLOCK, addresses, values);
+	}
+
+
 	public static record FollowUp(List<MutationBlockOverwriteInternal> overwriteMutations
 		, Map<BlockAddress, Long> periodicMutationMillis
 		, Map<AbsoluteLocation, EntityType> entitiesToSpawn
@@ -428,4 +491,8 @@ public class Structure
 		// Not technically an aspect, but referenced in the structure.
 		, EntityType creatureToSpawn
 	) {}
+
+	private static record _Placement(AbsoluteLocation location, BlockAddress address, AspectData data) {}
+
+	private static record _BlockWrite(BlockAddress address, short value) {}
 }
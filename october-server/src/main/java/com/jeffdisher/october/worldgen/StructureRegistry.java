@@ -1,5 +1,6 @@
 package com.jeffdisher.october.worldgen;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,12 +15,13 @@ import com.jeffdisher.october.utils.Assert;
 
 /**
  * Handles the in-world structures which have explicit locations, allowing them to be resolved by cuboid address, alone.
- * This is to make cuboid generation scale a little better when these structures need to be put into some of them.
+ * The cuboids each structure intersects are found when it is registered so the cost of generating a cuboid only
+ * depends on the structures in that cuboid, not the total number registered.
  */
 public class StructureRegistry
 {
-	// Note that we will likely make this into a list, later on, but this keeps things simple for now.
-	private final Map<CuboidAddress, _StructureIdiom> _mappings = new HashMap<>();
+	// Structures which share a cuboid are applied in the order they were registered.
+	private final Map<CuboidAddress, List<_StructureIdiom>> _mappings = new HashMap<>();
 
 	/**
 	 * Registers the given structure at the globalRoot and rotation so that it can be generated, later.
@@ -36,8 +38,13 @@ public class StructureRegistry
 		_StructureIdiom idiom = new _StructureIdiom(structure, globalRoot, rotation);
 		for (CuboidAddress address : addresses)
 		{
-			_StructureIdiom old = _mappings.put(address, idiom);
-			Assert.assertTrue(null == old);
+			List<_StructureIdiom> list = _mappings.get(address);
+			if (null == list)
+			{
+				list = new ArrayList<>();
+				_mappings.put(address, list);
+			}
+			list.add(idiom);
 		}
 	}
 
@@ -49,19 +56,32 @@ public class StructureRegistry
 	 */
 	public Structure.FollowUp generateAllInCuboid(CuboidData data)
 	{
-		_StructureIdiom idiom = _mappings.get(data.getCuboidAddress());
-		Structure.FollowUp followUp = null;
-		if (null != idiom)
+		List<_StructureIdiom> idioms = _mappings.get(data.getCuboidAddress());
+		Structure.FollowUp followUp = Structure.FollowUp.empty();
+		if (null != idioms)
 		{
-			followUp = idiom.structure.applyToCuboid(data, idiom.globalRoot, idiom.rotation, Structure.REPLACE_ALL);
-		}
-		else
-		{
-			followUp = new Structure.FollowUp(List.of(), Map.of(), Map.of());
+			for (_StructureIdiom idiom : idioms)
+			{
+				Structure.FollowUp one = idiom.structure.applyToCuboid(data, idiom.globalRoot, idiom.rotation, Structure.REPLACE_ALL);
+				followUp = Structure.FollowUp.merge(followUp, one);
+			}
 		}
 		return followUp;
 	}
 
+	/**
+	 * @param address The address of a cuboid.
+	 * @return The number of registered structures which intersect this cuboid.
+	 */
+	public int getStructureCount(CuboidAddress address)
+	{
+		List<_StructureIdiom> idioms = _mappings.get(address);
+		return (null != idioms)
+			? idioms.size()
+			: 0
+		;
+	}
+
 
 	private static record _StructureIdiom(Structure structure, AbsoluteLocation globalRoot, FacingDirection rotation)
 	{}
@@ -1,6 +1,7 @@
 package com.jeffdisher.october.worldgen;
 
 import java.io.IOException;
+import java.io.PrintStream;
 
 import com.jeffdisher.october.aspects.Environment;
 import com.jeffdisher.october.config.TabListReader;
@@ -46,6 +47,25 @@ public class WorldGenHelpers
 		return _buildDefaultWorldGenConfig(env);
 	}
 
+	/**
+	 * Prints the hit and miss counts of the world generator's caches to out, if it has any.
+	 * 
+	 * @param out The stream where the stats are printed.
+	 * @param worldGen The world generator.
+	 */
+	public static void printCacheStats(PrintStream out, IWorldGenerator worldGen)
+	{
+		if (worldGen instanceof BasicWorldGenerator basic)
+		{
+			_printCacheLine(out, "Column cache", basic.getColumnCacheHitCount(), basic.getColumnCacheMissCount());
+			_printCacheLine(out, "Cavern cache", basic.getCavernCacheHitCount(), basic.getCavernCacheMissCount());
+		}
+		else
+		{
+			out.println("World generator has no caches");
+		}
+	}
+
 
 	private static WorldGenConfig _buildDefaultWorldGenConfig(Environment env) throws IOException, TabListReader.TabListException
 	{
@@ -60,4 +80,14 @@ public class WorldGenHelpers
 		);
 		return worldGenConfig;
 	}
+
+	private static void _printCacheLine(PrintStream out, String name, long hits, long misses)
+	{
+		long total = hits + misses;
+		double hitPercent = (total > 0L)
+			? (100.0 * hits) / total
+			: 0.0
+		;
+		out.printf("%s:  %d hits, %d misses (%.1f%% hit rate)\n", name, hits, misses, hitPercent);
+	}
 }
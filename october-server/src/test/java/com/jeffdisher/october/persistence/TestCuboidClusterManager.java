@@ -1,6 +1,8 @@
 package com.jeffdisher.october.persistence;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 
 import org.junit.Assert;
@@ -36,9 +38,9 @@ public class TestCuboidClusterManager
 		CuboidAddress address0 = CuboidAddress.fromInt(-100, 0, 50);
 		CuboidAddress address1 = CuboidAddress.fromInt(1100, -200, 50);
 		
-		byte[] cuboid0 = manager.readCuboid(address0);
+		byte[] cuboid0 = _readBytes(manager, address0);
 		Assert.assertNull(cuboid0);
-		byte[] cuboid1 = manager.readCuboid(address1);
+		byte[] cuboid1 = _readBytes(manager, address1);
 		Assert.assertNull(cuboid1);
 		
 		cuboid0 = new byte[1];
@@ -75,9 +77,9 @@ public class TestCuboidClusterManager
 		CuboidAddress address0 = CuboidAddress.fromInt(0, 0, 0);
 		CuboidAddress address1 = CuboidAddress.fromInt(2, 2, 2);
 		
-		byte[] cuboid0 = manager.readCuboid(address0);
+		byte[] cuboid0 = _readBytes(manager, address0);
 		Assert.assertNull(cuboid0);
-		byte[] cuboid1 = manager.readCuboid(address1);
+		byte[] cuboid1 = _readBytes(manager, address1);
 		Assert.assertNull(cuboid1);
 		
 		cuboid0 = new byte[1];
@@ -107,7 +109,7 @@ public class TestCuboidClusterManager
 		
 		CuboidAddress address0 = CuboidAddress.fromInt(0, 0, 0);
 		
-		byte[] cuboid0 = manager.readCuboid(address0);
+		byte[] cuboid0 = _readBytes(manager, address0);
 		Assert.assertNull(cuboid0);
 		
 		cuboid0 = new byte[1];
@@ -124,7 +126,7 @@ public class TestCuboidClusterManager
 		
 		// Re-read this, make some updates, and write them back.
 		manager = new CuboidClusterManager(topLevel);
-		cuboid0 = manager.readCuboid(address0);
+		cuboid0 = _readBytes(manager, address0);
 		Assert.assertEquals(1, cuboid0.length);
 		
 		cuboid0 = new byte[2];
@@ -137,6 +139,69 @@ public class TestCuboidClusterManager
 		Assert.assertEquals(headerSize + cuboid0.length, Files.size(cluster0.toPath()));
 	}
 
+	@Test
+	public void readBackSlices() throws Throwable
+	{
+		File topLevel = DIRECTORY.newFolder();
+		CuboidClusterManager manager = new CuboidClusterManager(topLevel);
+		CuboidAddress address0 = CuboidAddress.fromInt(0, 0, 0);
+		CuboidAddress address1 = CuboidAddress.fromInt(1, 0, 0);
+		Assert.assertNull(manager.readCuboid(address0));
+		Assert.assertNull(manager.readCuboid(address1));
+		manager.writeCuboid(address0, new byte[] { 1, 2, 3 }, false);
+		manager.writeCuboid(address1, new byte[] { 4, 5 }, false);
+		manager.shutdown();
+		
+		// Each cuboid should be a view of only its own part of the file.
+		manager = new CuboidClusterManager(topLevel);
+		ByteBuffer read0 = manager.readCuboid(address0);
+		ByteBuffer read1 = manager.readCuboid(address1);
+		Assert.assertTrue(read0.isReadOnly());
+		Assert.assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), read0);
+		Assert.assertEquals(ByteBuffer.wrap(new byte[] { 4, 5 }), read1);
+		
+		// Consuming what we were given doesn't change what is written back.
+		read0.get();
+		manager.writeCuboid(address1, new byte[] { 6 }, false);
+		manager.writeCuboid(address0, new byte[] { 1, 2, 3 }, false);
+		manager.shutdown();
+		
+		manager = new CuboidClusterManager(topLevel);
+		Assert.assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), manager.readCuboid(address0));
+		Assert.assertEquals(ByteBuffer.wrap(new byte[] { 6 }), manager.readCuboid(address1));
+		manager.writeCuboid(address0, new byte[] { 1, 2, 3 }, false);
+		manager.writeCuboid(address1, new byte[] { 6 }, false);
+		manager.shutdown();
+	}
+
+	@Test
+	public void trailingEmptySlot() throws Throwable
+	{
+		// Reading a missing cuboid leaves a zero-length placeholder which must not stop the rest of the file being written.
+		File topLevel = DIRECTORY.newFolder();
+		CuboidClusterManager manager = new CuboidClusterManager(topLevel);
+		CuboidAddress address0 = CuboidAddress.fromInt(0, 0, 0);
+		CuboidAddress address1 = CuboidAddress.fromInt(1, 0, 0);
+		Assert.assertNull(manager.readCuboid(address0));
+		Assert.assertNull(manager.readCuboid(address1));
+		
+		byte[] cuboid0 = new byte[] { 1, 2, 3 };
+		manager.writeCuboid(address0, cuboid0, true);
+		File cluster0 = new File(new File(topLevel, "region_0_0_0.cd8"), "cluster_0_0_0.c4");
+		long headerSize = Integer.BYTES + 64 * Integer.BYTES;
+		Assert.assertEquals(headerSize + cuboid0.length, Files.size(cluster0.toPath()));
+		
+		manager.writeCuboid(address1, new byte[] { 4 }, false);
+		manager.writeCuboid(address0, cuboid0, false);
+		manager.shutdown();
+		manager = new CuboidClusterManager(topLevel);
+		Assert.assertEquals(ByteBuffer.wrap(cuboid0), manager.readCuboid(address0));
+		Assert.assertEquals(ByteBuffer.wrap(new byte[] { 4 }), manager.readCuboid(address1));
+		manager.writeCuboid(address0, cuboid0, false);
+		manager.writeCuboid(address1, new byte[] { 4 }, false);
+		manager.shutdown();
+	}
+
 	@Test
 	public void dropCuboidForTesting() throws Throwable
 	{
@@ -144,7 +209,7 @@ public class TestCuboidClusterManager
 		CuboidClusterManager manager = new CuboidClusterManager(topLevel);
 		
 		CuboidAddress address0 = CuboidAddress.fromInt(0, 0, 0);
-		byte[] cuboid0 = manager.readCuboid(address0);
+		byte[] cuboid0 = _readBytes(manager, address0);
 		Assert.assertNull(cuboid0);
 		manager.dropForTesting(address0);
 		
@@ -166,7 +231,7 @@ public class TestCuboidClusterManager
 		for (int i = -32; i < 32; ++i)
 		{
 			CuboidAddress address = CuboidAddress.fromInt(i, i, i);
-			byte[] cuboid = manager.readCuboid(address);
+			byte[] cuboid = _readBytes(manager, address);
 			Assert.assertNull(cuboid);
 			manager.writeCuboid(address, data, false);
 			
@@ -196,4 +261,17 @@ public class TestCuboidClusterManager
 		Assert.assertEquals(8, dirN.listFiles().length);
 		Assert.assertEquals(8, dir0.listFiles().length);
 	}
+
+
+	private static byte[] _readBytes(CuboidClusterManager manager, CuboidAddress address) throws IOException
+	{
+		ByteBuffer buffer = manager.readCuboid(address);
+		byte[] bytes = null;
+		if (null != buffer)
+		{
+			bytes = new byte[buffer.remaining()];
+			buffer.get(bytes);
+		}
+		return bytes;
+	}
 }
@@ -0,0 +1,135 @@
+package com.jeffdisher.october.persistence;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+public class TestEntityStore
+{
+	@ClassRule
+	public static TemporaryFolder DIRECTORY = new TemporaryFolder();
+
+	@Test
+	public void empty() throws Throwable
+	{
+		File topLevel = DIRECTORY.newFolder();
+		EntityStore store = new EntityStore(topLevel);
+		Assert.assertNull(store.read(1));
+		Assert.assertFalse(store.contains(1));
+		store.close();
+		
+		// We just create the empty file.
+		Assert.assertEquals(1, topLevel.listFiles().length);
+		Assert.assertEquals(0L, new File(topLevel, EntityStore.FILE_NAME).length());
+	}
+
+	@Test
+	public void latestWinsAcrossReopen() throws Throwable
+	{
+		File topLevel = DIRECTORY.newFolder();
+		EntityStore store = new EntityStore(topLevel);
+		store.write(1, new byte[] { 1 });
+		store.write(2, new byte[] { 2, 2 });
+		store.write(1, new byte[] { 1, 1, 1 });
+		Assert.assertArrayEquals(new byte[] { 1, 1, 1 }, store.read(1));
+		store.flush();
+		store.close();
+		
+		store = new EntityStore(topLevel);
+		Assert.assertArrayEquals(new byte[] { 1, 1, 1 }, store.read(1));
+		Assert.assertArrayEquals(new byte[] { 2, 2 }, store.read(2));
+		Assert.assertNull(store.read(3));
+		store.close();
+	}
+
+	@Test
+	public void tornTail() throws Throwable
+	{
+		File topLevel = DIRECTORY.newFolder();
+		EntityStore store = new EntityStore(topLevel);
+		store.write(1, new byte[] { 1 });
+		long goodSize = store.size();
+		store.write(1, new byte[] { 1, 1, 1, 1 });
+		store.close();
+		
+		// Chop the last record to look like we crashed while writing it.
+		File file = new File(topLevel, EntityStore.FILE_NAME);
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw"))
+		{
+			raf.setLength(raf.length() - 2L);
+		}
+		
+		// We should see the earlier version and the partial record should be dropped.
+		store = new EntityStore(topLevel);
+		Assert.assertArrayEquals(new byte[] { 1 }, store.read(1));
+		Assert.assertEquals(goodSize, store.size());
+		store.write(2, new byte[] { 2 });
+		store.close();
+		
+		store = new EntityStore(topLevel);
+		Assert.assertArrayEquals(new byte[] { 1 }, store.read(1));
+		Assert.assertArrayEquals(new byte[] { 2 }, store.read(2));
+		store.close();
+	}
+
+	@Test
+	public void compactOnOpen() throws Throwable
+	{
+		File topLevel = DIRECTORY.newFolder();
+		EntityStore store = new EntityStore(topLevel);
+		byte[] data = new byte[1024];
+		int writeCount = (int) (2 * EntityStore.COMPACTION_MIN_GARBAGE_BYTES / data.length);
+		for (int i = 0; i < writeCount; ++i)
+		{
+			data[0] = (byte) i;
+			store.write(i % 2, data);
+		}
+		long bigSize = store.size();
+		store.close();
+		
+		// Re-opening should drop all the superseded records.
+		store = new EntityStore(topLevel);
+		Assert.assertTrue(store.size() < bigSize);
+		Assert.assertEquals((byte)(writeCount - 2), store.read(0)[0]);
+		Assert.assertEquals((byte)(writeCount - 1), store.read(1)[0]);
+		store.close();
+		Assert.assertEquals(1, topLevel.listFiles().length);
+	}
+
+	@Test
+	public void compactOnFlush() throws Throwable
+	{
+		File topLevel = DIRECTORY.newFolder();
+		EntityStore store = new EntityStore(topLevel);
+		byte[] data = new byte[1024];
+		int writeCount = (int) (2 * EntityStore.COMPACTION_MIN_GARBAGE_BYTES / data.length);
+		for (int i = 0; i < writeCount; ++i)
+		{
+			data[0] = (byte) i;
+			store.write(i % 2, data);
+		}
+		long bigSize = store.size();
+		
+		// The flush should drop all the superseded records without needing to re-open the store.
+		store.flush();
+		Assert.assertTrue(store.size() < bigSize);
+		Assert.assertEquals((byte)(writeCount - 2), store.read(0)[0]);
+		Assert.assertEquals((byte)(writeCount - 1), store.read(1)[0]);
+		
+		// Writes after the compaction should still be visible after re-opening.
+		data[0] = 5;
+		store.write(2, data);
+		store.close();
+		store = new EntityStore(topLevel);
+		Assert.assertEquals((byte)(writeCount - 2), store.read(0)[0]);
+		Assert.assertEquals((byte)(writeCount - 1), store.read(1)[0]);
+		Assert.assertEquals((byte)5, store.read(2)[0]);
+		store.close();
+		Assert.assertEquals(1, topLevel.listFiles().length);
+	}
+}
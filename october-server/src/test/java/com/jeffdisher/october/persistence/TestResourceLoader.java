@@ -9,6 +9,7 @@ import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +29,7 @@ import com.jeffdisher.october.aspects.Environment;
 import com.jeffdisher.october.creatures.ExtensionLivestock;
 import com.jeffdisher.october.data.CuboidData;
 import com.jeffdisher.october.data.CuboidHeightMap;
+import com.jeffdisher.october.data.MutableBlockProxy;
 import com.jeffdisher.october.data.IObjectCodec;
 import com.jeffdisher.october.data.OctreeInflatedByte;
 import com.jeffdisher.october.data.OctreeObject;
@@ -40,6 +42,7 @@ import com.jeffdisher.october.logic.ScheduledMutation;
 import com.jeffdisher.october.mutations.MutationBlockIncrementalBreak;
 import com.jeffdisher.october.mutations.MutationBlockOverwriteInternal;
 import com.jeffdisher.october.mutations.MutationBlockReplace;
+import com.jeffdisher.october.mutations.MutationBlockSetBlock;
 import com.jeffdisher.october.mutations.MutationBlockStoreItems;
 import com.jeffdisher.october.persistence.legacy.LegacyCreatureEntityV1;
 import com.jeffdisher.october.subactions.EntitySubActionAttackEntity;
@@ -67,6 +70,7 @@ import com.jeffdisher.october.types.PassiveType;
 import com.jeffdisher.october.types.WorldConfig;
 import com.jeffdisher.october.utils.CuboidGenerator;
 import com.jeffdisher.october.utils.Encoding;
+import com.jeffdisher.october.worldgen.BasicWorldGenerator;
 import com.jeffdisher.october.worldgen.FlatWorldGenerator;
 import com.jeffdisher.october.worldgen.IWorldGenerator;
 import com.jeffdisher.october.worldgen.PreloadedWorldGenerator;
@@ -234,11 +238,8 @@ public class TestResourceLoader
 		loader.shutdown();
 		
 		// Make sure that we see this written back.
-		File entitiesDirectory = new File(worldDirectory, "entities");
-		String fileName = "entity_" + original.id() + ".entity";
-		Assert.assertTrue(new File(entitiesDirectory, fileName).isFile());
-		String otherName = "entity_" + other.id() + ".entity";
-		Assert.assertTrue(new File(entitiesDirectory, otherName).isFile());
+		Assert.assertTrue(_isEntityStored(worldDirectory, original.id()));
+		Assert.assertTrue(_isEntityStored(worldDirectory, other.id()));
 		
 		// Now, create a new loader to verify that we can read this.
 		loader = new ResourceLoader(worldDirectory, new PreloadedWorldGenerator(), config);
@@ -328,9 +329,7 @@ public class TestResourceLoader
 		loader.shutdown();
 		
 		// Make sure that we see this written back.
-		String fileName = "entity_" + entityId + ".entity";
-		File entitiesDirectory = new File(worldDirectory, "entities");
-		Assert.assertTrue(new File(entitiesDirectory, fileName).isFile());
+		Assert.assertTrue(_isEntityStored(worldDirectory, entityId));
 		
 		// Now, create a new loader to verify that we can read this.
 		loader = new ResourceLoader(worldDirectory, new PreloadedWorldGenerator(), config);
@@ -1270,28 +1269,27 @@ public class TestResourceLoader
 		List<PackagedCuboid> packagedList = List.of(new PackagedCuboid(suspended.cuboid(), suspended.creatures(), suspended.pendingMutations(), suspended.periodicMutationMillis(), suspended.passives()));
 		loader.tryWriteBackToDisk(packagedList, resultEntities, 1000L);
 		
-		String entityFileName = "entity_" + entityId + ".entity";
+		// (entities are appended to the store so we can see the write by the file growing)
 		File cuboidFile = _getCuboidClusterFile(worldDirectory, airAddress);
-		File entitiesDirectory = new File(worldDirectory, "entities");
-		File entityFile = new File(entitiesDirectory, entityFileName);
+		File storeFile = new File(new File(worldDirectory, "entities"), EntityStore.FILE_NAME);
 		boolean cuboidWritten = false;
 		boolean entityWritten = false;
 		for (int i = 0; (!cuboidWritten || !entityWritten) && (i < 10); ++i)
 		{
 			Thread.sleep(10L);
 			cuboidWritten = cuboidFile.isFile();
-			entityWritten = entityFile.isFile();
+			entityWritten = (storeFile.length() > 0L);
 		}
 		Assert.assertTrue(cuboidWritten);
 		Assert.assertTrue(entityWritten);
 		cuboidFile.delete();
-		entityFile.delete();
+		long storeSize = storeFile.length();
 		
 		// Now, use the other write-back and shutdown, thus draining the queue, to show that nothing was written.
 		loader.writeBackToDiskAndRetire(packagedList, resultEntities, 1000L);
 		loader.shutdown();
 		Assert.assertFalse(cuboidFile.isFile());
-		Assert.assertFalse(entityFile.isFile());
+		Assert.assertEquals(storeSize, storeFile.length());
 	}
 
 	@Test
@@ -1345,11 +1343,13 @@ public class TestResourceLoader
 		// Verify the final shape after the conversion.
 		File entityDirectory = new File(worldDirectory, "entities");
 		File cuboidDirectory = new File(worldDirectory, "cuboids");
-		Assert.assertEquals(3, worldDirectory.listFiles().length);
+		// (the write-ahead log exists while the loader is running)
+		Assert.assertEquals(4, worldDirectory.listFiles().length);
 		Assert.assertEquals(1, entityDirectory.listFiles().length);
 		Assert.assertEquals(1, cuboidDirectory.listFiles().length);
 		Assert.assertTrue(new File(worldDirectory, "BACKUP_pre12.zip").isFile());
-		Assert.assertTrue(new File(entityDirectory, "entity_1.entity").isFile());
+		Assert.assertTrue(WriteAheadLog.getLogFile(worldDirectory).isFile());
+		Assert.assertTrue(new File(entityDirectory, EntityStore.FILE_NAME).isFile());
 		
 		File regionDirectory = new File(cuboidDirectory, "region_0_0_-1.cd8");
 		Assert.assertTrue(regionDirectory.isDirectory());
@@ -1498,6 +1498,253 @@ public class TestResourceLoader
 	}
 
 
+	@Test
+	public void parallelGenerationDeterministic() throws Throwable
+	{
+		// Generate the same region sequentially, directly from the generator, and then through loaders with different
+		// generation thread counts, showing that the output is identical, including creature IDs.
+		WorldGenConfig worldGenConfig = WorldGenHelpers.buildDefaultWorldGenConfig(ENV);
+		BasicWorldGenerator generator = new BasicWorldGenerator(worldGenConfig, 42);
+		List<CuboidAddress> addresses = new ArrayList<>();
+		for (int z = -1; z <= 0; ++z)
+		{
+			for (int y = -2; y <= 1; ++y)
+			{
+				for (int x = -2; x <= 1; ++x)
+				{
+					addresses.add(CuboidAddress.fromInt(x, y, z));
+				}
+			}
+		}
+		long gameMillis = 1000L;
+		CreatureIdAssigner sequentialAssigner = new CreatureIdAssigner();
+		List<SuspendedCuboid<CuboidData>> sequential = new ArrayList<>();
+		for (CuboidAddress address : addresses)
+		{
+			sequential.add(generator.generateCuboid(sequentialAssigner, address, gameMillis));
+		}
+		List<CreatureEntity> expectedCreatures = sequential.stream().flatMap((SuspendedCuboid<CuboidData> suspended) -> suspended.creatures().stream()).toList();
+		Assert.assertFalse(expectedCreatures.isEmpty());
+		List<byte[]> expectedBytes = sequential.stream().map((SuspendedCuboid<CuboidData> suspended) -> _serialize(suspended)).toList();
+		
+		for (int threadCount : new int[] { 1, 2, 5 })
+		{
+			ResourceLoader loader = new ResourceLoader(DIRECTORY.newFolder(), generator, new WorldConfig(), threadCount);
+			List<SuspendedCuboid<CuboidData>> results = new ArrayList<>();
+			loader.getResultsAndRequestBackgroundLoad(results, List.of(), addresses, List.of(), gameMillis);
+			for (int i = 0; (results.size() < addresses.size()) && (i < 500); ++i)
+			{
+				Thread.sleep(10L);
+				loader.getResultsAndRequestBackgroundLoad(results, List.of(), List.of(), List.of(), gameMillis);
+			}
+			Assert.assertEquals(addresses.size(), results.size());
+			
+			List<CreatureEntity> creatures = new ArrayList<>();
+			for (int i = 0; i < addresses.size(); ++i)
+			{
+				SuspendedCuboid<CuboidData> result = results.get(i);
+				Assert.assertEquals(addresses.get(i), result.cuboid().getCuboidAddress());
+				Assert.assertArrayEquals(expectedBytes.get(i), _serialize(result));
+				creatures.addAll(result.creatures());
+			}
+			Assert.assertEquals(expectedCreatures, creatures);
+			
+			// The shared assigner should continue where generation left off.
+			Assert.assertEquals(-(expectedCreatures.size() + 1), loader.creatureIdAssigner.next());
+			
+			List<PackagedCuboid> toWrite = results.stream().map((SuspendedCuboid<CuboidData> suspended) -> new PackagedCuboid(suspended.cuboid()
+				, suspended.creatures()
+				, suspended.pendingMutations()
+				, suspended.periodicMutationMillis()
+				, suspended.passives()
+			)).toList();
+			loader.writeBackToDiskAndRetire(toWrite, List.of(), gameMillis);
+			loader.shutdown();
+		}
+	}
+
+	@Test
+	public void skipUnchangedCuboids() throws Throwable
+	{
+		// Show that writing back the same cuboid instance we read, with nothing else changed, skips serialization.
+		File worldDirectory = DIRECTORY.newFolder();
+		WorldGenConfig worldGenConfig = WorldGenHelpers.buildDefaultWorldGenConfig(ENV);
+		WorldConfig config = new WorldConfig();
+		ResourceLoader loader = new ResourceLoader(worldDirectory, new FlatWorldGenerator(worldGenConfig, false), config);
+		CuboidAddress airAddress = CuboidAddress.fromInt(1, 0, 0);
+		BlockAddress block = BlockAddress.fromInt(0, 0, 0);
+		SuspendedCuboid<CuboidData> suspended = _loadOneSuspended(loader, airAddress);
+		suspended.cuboid().setData15(AspectRegistry.BLOCK, block, STONE.item().number());
+		loader.writeBackToDiskAndRetire(List.of(new PackagedCuboid(suspended.cuboid(), List.of(), List.of(), Map.of(), List.of())), List.of(), 0L);
+		loader.shutdown();
+		
+		// Load it from disk and then modify the same instance in-place (which the tick logic never does) so we can see
+		// that it isn't written back.
+		loader = new ResourceLoader(worldDirectory, new PreloadedWorldGenerator(), config);
+		suspended = _loadOneSuspended(loader, airAddress);
+		CuboidData loaded = suspended.cuboid();
+		Assert.assertEquals(STONE.item().number(), loaded.getData15(AspectRegistry.BLOCK, block));
+		loaded.setData15(AspectRegistry.BLOCK, block, ENV.special.AIR.item().number());
+		loader.tryWriteBackToDisk(List.of(new PackagedCuboid(loaded, List.of(), List.of(), Map.of(), List.of())), List.of(), 0L);
+		loader.writeBackToDiskAndRetire(List.of(new PackagedCuboid(loaded, List.of(), List.of(), Map.of(), List.of())), List.of(), 0L);
+		loader.shutdown();
+		
+		// A new instance is written back.
+		loader = new ResourceLoader(worldDirectory, new PreloadedWorldGenerator(), config);
+		suspended = _loadOneSuspended(loader, airAddress);
+		Assert.assertEquals(STONE.item().number(), suspended.cuboid().getData15(AspectRegistry.BLOCK, block));
+		CuboidData changed = CuboidData.mutableClone(suspended.cuboid());
+		changed.setData15(AspectRegistry.BLOCK, block, ENV.special.AIR.item().number());
+		loader.writeBackToDiskAndRetire(List.of(new PackagedCuboid(changed, List.of(), List.of(), Map.of(), List.of())), List.of(), 0L);
+		loader.shutdown();
+		
+		loader = new ResourceLoader(worldDirectory, new PreloadedWorldGenerator(), config);
+		suspended = _loadOneSuspended(loader, airAddress);
+		Assert.assertEquals(ENV.special.AIR.item().number(), suspended.cuboid().getData15(AspectRegistry.BLOCK, block));
+		loader.writeBackToDiskAndRetire(List.of(new PackagedCuboid(suspended.cuboid(), List.of(), List.of(), Map.of(), List.of())), List.of(), 0L);
+		loader.shutdown();
+	}
+
+	@Test
+	public void writeAheadLogReplay() throws Throwable
+	{
+		// Log a tick's changes and then simulate a crash by restoring the log after shutdown, showing that the changes
+		// are replayed on start-up.
+		File worldDirectory = DIRECTORY.newFolder();
+		File logFile = WriteAheadLog.getLogFile(worldDirectory);
+		WorldGenConfig worldGenConfig = WorldGenHelpers.buildDefaultWorldGenConfig(ENV);
+		WorldConfig config = new WorldConfig();
+		config.worldSpawn = MutableEntity.TESTING_LOCATION.getBlockLocation();
+		ResourceLoader loader = new ResourceLoader(worldDirectory, new FlatWorldGenerator(worldGenConfig, false), config);
+		CuboidAddress airAddress = CuboidAddress.fromInt(1, 0, 0);
+		List<SuspendedCuboid<CuboidData>> cuboids = new ArrayList<>();
+		List<SuspendedEntity> entities = new ArrayList<>();
+		_loadAll(loader, cuboids, entities, airAddress);
+		CuboidData loaded = cuboids.get(0).cuboid();
+		Entity original = entities.get(0).entity();
+		
+		// Log a block change, a scheduled mutation, and an entity change.
+		AbsoluteLocation location = airAddress.getBase();
+		MutableBlockProxy proxy = new MutableBlockProxy(location, loaded);
+		proxy.setBlockAndClear(STONE);
+		MutationBlockSetBlock change = MutationBlockSetBlock.extractFromProxy(ByteBuffer.allocate(1024), proxy);
+		MutationBlockOverwriteInternal mutation = new MutationBlockOverwriteInternal(location.getRelative(1, 0, 0), STONE);
+		MutableEntity mutable = MutableEntity.existing(original);
+		mutable.newLocation = new EntityLocation(1.0f, 2.0f, 3.0f);
+		Entity modified = mutable.freeze();
+		loader.appendToLog(5L
+			, 0L
+			, List.of(new WriteAheadLog.CuboidDelta(airAddress, List.of(change), List.of(new ScheduledMutation(mutation, 100L)), Map.of(), List.of(), List.of()))
+			, List.of(new SuspendedEntity(modified, List.of()))
+		);
+		for (int i = 0; (0L == logFile.length()) && (i < 10); ++i)
+		{
+			Thread.sleep(10L);
+		}
+		byte[] logged = Files.readAllBytes(logFile.toPath());
+		Assert.assertTrue(logged.length > 0);
+		
+		// A checkpoint of everything loaded truncates the log.
+		loader.tryWriteBackToDisk(List.of(new PackagedCuboid(loaded, List.of(), List.of(), Map.of(), List.of())), entities, 0L);
+		for (int i = 0; (0L != logFile.length()) && (i < 10); ++i)
+		{
+			Thread.sleep(10L);
+		}
+		Assert.assertEquals(0L, logFile.length());
+		
+		// A clean shutdown deletes the log.
+		loader.writeBackToDiskAndRetire(List.of(new PackagedCuboid(loaded, List.of(), List.of(), Map.of(), List.of())), entities, 0L);
+		loader.shutdown();
+		Assert.assertFalse(logFile.exists());
+		
+		// Now, restore the log as though we crashed before the write-back, including a torn record at the end.
+		byte[] torn = new byte[] { 0, 0, 1, 0, 0, 0, 0, 0, 1, 2 };
+		byte[] restored = Arrays.copyOf(logged, logged.length + torn.length);
+		System.arraycopy(torn, 0, restored, logged.length, torn.length);
+		Files.write(logFile.toPath(), restored);
+		
+		// The new loader should replay the log and see the changes on disk.
+		loader = new ResourceLoader(worldDirectory, new PreloadedWorldGenerator(), config);
+		cuboids = new ArrayList<>();
+		entities = new ArrayList<>();
+		_loadAll(loader, cuboids, entities, airAddress);
+		SuspendedCuboid<CuboidData> suspended = cuboids.get(0);
+		Assert.assertEquals(STONE.item().number(), suspended.cuboid().getData15(AspectRegistry.BLOCK, location.getBlockAddress()));
+		Assert.assertEquals(1, suspended.pendingMutations().size());
+		Assert.assertEquals(100L, suspended.pendingMutations().get(0).millisUntilReady());
+		Assert.assertEquals(modified.location(), entities.get(0).entity().location());
+		
+		loader.writeBackToDiskAndRetire(List.of(new PackagedCuboid(suspended.cuboid(), List.of(), List.of(), Map.of(), List.of())), entities, 0L);
+		loader.shutdown();
+		Assert.assertFalse(logFile.exists());
+	}
+
+
+	@Test
+	public void writeAheadLogReplayPeriodicAndCreatures() throws Throwable
+	{
+		// Show that a sapling placed in place of dirt keeps its periodic growth entry when replayed after a crash, and
+		// that the logged creatures replace what was stored.
+		File worldDirectory = DIRECTORY.newFolder();
+		File logFile = WriteAheadLog.getLogFile(worldDirectory);
+		WorldGenConfig worldGenConfig = WorldGenHelpers.buildDefaultWorldGenConfig(ENV);
+		WorldConfig config = new WorldConfig();
+		config.worldSpawn = MutableEntity.TESTING_LOCATION.getBlockLocation();
+		ResourceLoader loader = new ResourceLoader(worldDirectory, new FlatWorldGenerator(worldGenConfig, false), config);
+		CuboidAddress groundAddress = CuboidAddress.fromInt(1, 0, -1);
+		List<SuspendedCuboid<CuboidData>> cuboids = new ArrayList<>();
+		List<SuspendedEntity> entities = new ArrayList<>();
+		_loadAll(loader, cuboids, entities, groundAddress);
+		CuboidData loaded = cuboids.get(0).cuboid();
+		Assert.assertTrue(cuboids.get(0).periodicMutationMillis().isEmpty());
+		Assert.assertTrue(cuboids.get(0).creatures().isEmpty());
+		
+		// Replace the dirt on the surface with a sapling, which schedules its growth, and have a cow wander in.
+		Block dirt = ENV.blocks.fromItem(ENV.items.getItemById("op.dirt"));
+		Block sapling = ENV.blocks.fromItem(ENV.items.getItemById("op.sapling"));
+		BlockAddress block = BlockAddress.fromInt(3, 3, 31);
+		AbsoluteLocation location = groundAddress.getBase().relativeForBlock(block);
+		Assert.assertEquals(dirt.item().number(), loaded.getData15(AspectRegistry.BLOCK, block));
+		MutableBlockProxy proxy = new MutableBlockProxy(location, loaded);
+		proxy.setBlockAndClear(sapling);
+		MutationBlockSetBlock change = MutationBlockSetBlock.extractFromProxy(ByteBuffer.allocate(1024), proxy);
+		EntityType cow = ENV.creatures.getTypeById("op.cow");
+		CreatureEntity creature = CreatureEntity.create(-1, cow, location.getRelative(1, 0, 1).toEntityLocation(), 0L);
+		loader.appendToLog(5L
+			, 0L
+			, List.of(new WriteAheadLog.CuboidDelta(groundAddress, List.of(change), List.of(), Map.of(block, 5000L), List.of(creature), List.of()))
+			, List.of()
+		);
+		for (int i = 0; (0L == logFile.length()) && (i < 10); ++i)
+		{
+			Thread.sleep(10L);
+		}
+		byte[] logged = Files.readAllBytes(logFile.toPath());
+		Assert.assertTrue(logged.length > 0);
+		
+		// Shut down cleanly with the original cuboid, then restore the log as though we crashed before the write-back.
+		loader.writeBackToDiskAndRetire(List.of(new PackagedCuboid(loaded, List.of(), List.of(), Map.of(), List.of())), entities, 0L);
+		loader.shutdown();
+		Assert.assertFalse(logFile.exists());
+		Files.write(logFile.toPath(), logged);
+		
+		// The replay should restore the sapling, its periodic entry, and the cow.
+		loader = new ResourceLoader(worldDirectory, new PreloadedWorldGenerator(), config);
+		cuboids = new ArrayList<>();
+		entities = new ArrayList<>();
+		_loadAll(loader, cuboids, entities, groundAddress);
+		SuspendedCuboid<CuboidData> suspended = cuboids.get(0);
+		Assert.assertEquals(sapling.item().number(), suspended.cuboid().getData15(AspectRegistry.BLOCK, block));
+		Assert.assertEquals(Map.of(block, 5000L), suspended.periodicMutationMillis());
+		Assert.assertEquals(1, suspended.creatures().size());
+		Assert.assertEquals(cow, suspended.creatures().get(0).type());
+		Assert.assertEquals(creature.location(), suspended.creatures().get(0).location());
+		
+		loader.writeBackToDiskAndRetire(List.of(new PackagedCuboid(suspended.cuboid(), List.of(), List.of(), Map.of(), List.of())), entities, 0L);
+		loader.shutdown();
+		Assert.assertFalse(logFile.exists());
+	}
+
 	private static CuboidData _waitForOne(ResourceLoader loader) throws InterruptedException
 	{
 		CuboidData loaded = null;
@@ -1545,6 +1792,19 @@ public class TestResourceLoader
 		;
 	}
 
+	private static void _loadAll(ResourceLoader loader, List<SuspendedCuboid<CuboidData>> out_cuboids, List<SuspendedEntity> out_entities, CuboidAddress address) throws InterruptedException
+	{
+		// Loads the given cuboid and entity 1, without assuming anything about when they arrive.
+		loader.getResultsAndRequestBackgroundLoad(out_cuboids, out_entities, List.of(address), List.of(1), 0L);
+		for (int i = 0; (out_cuboids.isEmpty() || out_entities.isEmpty()) && (i < 10); ++i)
+		{
+			Thread.sleep(10L);
+			loader.getResultsAndRequestBackgroundLoad(out_cuboids, out_entities, List.of(), List.of(), 0L);
+		}
+		Assert.assertEquals(1, out_cuboids.size());
+		Assert.assertEquals(1, out_entities.size());
+	}
+
 	private SuspendedCuboid<CuboidData> _loadOneSuspended(ResourceLoader loader, CuboidAddress address) throws InterruptedException
 	{
 		return _loadOneSuspendedWithTime(loader, address, 0L);
@@ -1579,6 +1839,30 @@ public class TestResourceLoader
 		Assert.assertTrue(new File(worldDirectory, fileName).isFile());
 	}
 
+	private static byte[] _serialize(SuspendedCuboid<CuboidData> suspended)
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(ResourceLoader.SERIALIZATION_BUFFER_SIZE_BYTES);
+		CuboidCodec.serializeCuboidWithoutVersionHeader(buffer, new PackagedCuboid(suspended.cuboid()
+			, suspended.creatures()
+			, suspended.pendingMutations()
+			, suspended.periodicMutationMillis()
+			, suspended.passives()
+		), 0L);
+		buffer.flip();
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	private static boolean _isEntityStored(File root, int id) throws IOException
+	{
+		// Note that this must only be called when no loader is using this directory.
+		EntityStore store = new EntityStore(new File(root, "entities"));
+		boolean isStored = store.contains(id);
+		store.close();
+		return isStored;
+	}
+
 	private static File _getCuboidClusterFile(File root, CuboidAddress address)
 	{
 		File cuboidRoot = new File(root, "cuboids");
@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -106,6 +107,89 @@ public class TestStorageModelMigration
 		Assert.assertTrue(new File(regionDirectory, "cluster_0_0_7.c4").isFile());
 	}
 
+	@Test
+	public void entityFilesIntoStore() throws Throwable
+	{
+		// Show that individual entity files are moved into the entity store.
+		File entityDirectory = DIRECTORY.newFolder();
+		byte[] first = new byte[] { 0, 0, 0, 12, 1, 2, 3 };
+		byte[] second = new byte[] { 0, 0, 0, 12, 4, 5 };
+		_storePerSerialized(entityDirectory, "entity_1.entity", first);
+		_storePerSerialized(entityDirectory, "entity_25.entity", second);
+		Assert.assertTrue(StorageModelMigration.requiresEntityStoreMigration(entityDirectory));
+		
+		EntityStore store = new EntityStore(entityDirectory);
+		Map<String, Integer> phaseTotals = new HashMap<>();
+		StorageModelMigration.migrateEntityFiles(entityDirectory, store, (String activity, int completedCount, int totalCount) -> {
+			phaseTotals.put(activity, totalCount);
+		});
+		Assert.assertFalse(StorageModelMigration.requiresEntityStoreMigration(entityDirectory));
+		Assert.assertEquals(2, phaseTotals.get("Entities").intValue());
+		Assert.assertArrayEquals(first, store.read(1));
+		Assert.assertArrayEquals(second, store.read(25));
+		store.close();
+		
+		// Only the store remains.
+		Assert.assertEquals(1, entityDirectory.listFiles().length);
+		Assert.assertTrue(new File(entityDirectory, EntityStore.FILE_NAME).isFile());
+	}
+
+	@Test
+	public void upgradeAllInParallel() throws Throwable
+	{
+		// Show that the offline upgrade converts all old clusters and entities and that a second run skips everything.
+		File worldDirectory = DIRECTORY.newFolder();
+		File regionDirectory = new File(new File(worldDirectory, "cuboids"), "region_0_0_0.cd8");
+		regionDirectory.mkdirs();
+		File entityDirectory = new File(worldDirectory, "entities");
+		entityDirectory.mkdir();
+		_storePerSerialized(regionDirectory, "cluster_0_0_0.c4", _emptyCluster(StorageVersions.V12));
+		_storePerSerialized(regionDirectory, "cluster_1_0_0.c4", _emptyCluster(StorageVersions.V13));
+		_storePerSerialized(regionDirectory, "cluster_2_0_0.c4", _emptyCluster(StorageVersions.CURRENT));
+		byte[] v8EntityData = new byte[] { 0, 0, 0, 8, 0, 0, 0, 1, 0, 65, -56, 0, 0, 65, -56, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, -56, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, -1, -1, -1, -1, -1, -1, -1, -1, 0, 0, 0, 0, 0, 0, 0, 0, 100, 100, 100, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+		_storePerSerialized(entityDirectory, "entity_1.entity", v8EntityData);
+		
+		Map<String, Integer> phaseTotals = new HashMap<>();
+		StorageModelMigration.IProgress progress = (String activity, int completedCount, int totalCount) -> {
+			if (completedCount == totalCount)
+			{
+				phaseTotals.put(activity, completedCount);
+			}
+		};
+		StorageModelMigration.UpgradeResult result = StorageModelMigration.upgradeAll(worldDirectory, 2, progress);
+		Assert.assertEquals(3, result.clusterCount());
+		Assert.assertEquals(2, result.upgradedClusters());
+		Assert.assertEquals(1, result.entityCount());
+		Assert.assertEquals(1, result.upgradedEntities());
+		Assert.assertEquals(3, phaseTotals.get("Clusters").intValue());
+		Assert.assertEquals(1, phaseTotals.get("Entity upgrade").intValue());
+		
+		// Everything is now the current version (and no temporary files were left behind).
+		Assert.assertEquals(3, regionDirectory.listFiles().length);
+		for (File cluster : regionDirectory.listFiles())
+		{
+			Assert.assertEquals(StorageVersions.CURRENT, ByteBuffer.wrap(Files.readAllBytes(cluster.toPath())).getInt());
+		}
+		EntityStore store = new EntityStore(entityDirectory);
+		Assert.assertEquals(StorageVersions.CURRENT, ByteBuffer.wrap(store.read(1)).getInt());
+		store.close();
+		
+		// Running it again does nothing.
+		result = StorageModelMigration.upgradeAll(worldDirectory, 2, progress);
+		Assert.assertEquals(3, result.clusterCount());
+		Assert.assertEquals(0, result.upgradedClusters());
+		Assert.assertEquals(1, result.entityCount());
+		Assert.assertEquals(0, result.upgradedEntities());
+	}
+
+
+	private static byte[] _emptyCluster(int version)
+	{
+		// A cluster is the version and then 64 sizes (all 0 since it is empty).
+		ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + 64 * Integer.BYTES);
+		buffer.putInt(version);
+		return buffer.array();
+	}
 
 	private void _storePerSerialized(File worldDirectory, String fileName, byte[] preSerialized) throws IOException, FileNotFoundException
 	{
@@ -2,6 +2,7 @@ package com.jeffdisher.october.process;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
@@ -12,13 +13,16 @@ import java.util.concurrent.CountDownLatch;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
+import org.junit.ClassRule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.jeffdisher.october.actions.EntityActionOperatorSpawnCreature;
 import com.jeffdisher.october.aspects.AspectRegistry;
 import com.jeffdisher.october.aspects.Environment;
 import com.jeffdisher.october.data.CuboidData;
 import com.jeffdisher.october.engine.EnginePlayers;
+import com.jeffdisher.october.logic.CreatureIdAssigner;
 import com.jeffdisher.october.server.MonitoringAgent;
 import com.jeffdisher.october.ticks.TickSnapshot;
 import com.jeffdisher.october.types.BlockAddress;
@@ -28,10 +32,15 @@ import com.jeffdisher.october.types.IEntityAction;
 import com.jeffdisher.october.types.IMutablePlayerEntity;
 import com.jeffdisher.october.types.WorldConfig;
 import com.jeffdisher.october.utils.CuboidGenerator;
+import com.jeffdisher.october.worldgen.BasicWorldGenerator;
+import com.jeffdisher.october.worldgen.WorldGenHelpers;
 
 
 public class TestConsoleHandler
 {
+	@ClassRule
+	public static TemporaryFolder DIRECTORY = new TemporaryFolder();
+
 	private static Environment ENV;
 	@BeforeClass
 	public static void setup() throws Throwable
@@ -347,6 +356,51 @@ public class TestConsoleHandler
 	}
 
 
+	@Test
+	public void recordToFile() throws Throwable
+	{
+		// Start and stop a JFR recording and verify that it is written to the file.
+		File file = new File(DIRECTORY.newFolder(), "test.jfr");
+		String path = file.getAbsolutePath();
+		InputStream in = new ByteArrayInputStream(("!record_start " + path + "\n"
+				+ "!record_stop\n"
+				+ "!record_stop\n"
+				+ "!stop\n"
+		).getBytes());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PrintStream printer = new PrintStream(out);
+		MonitoringAgent monitoringAgent = new MonitoringAgent();
+		ConsoleHandler.readUntilStop(in, printer, monitoringAgent, new WorldConfig());
+		String expected = "Recording to " + path + "\n"
+			+ "Recording written to " + path + "\n"
+			+ "Error:  No recording is running\n"
+			+ "Shutting down...\n"
+		;
+		Assert.assertEquals(expected, new String(out.toByteArray()));
+		Assert.assertTrue(file.length() > 0L);
+	}
+
+
+	@Test
+	public void worldGenStats() throws Throwable
+	{
+		// Show that the world generator's cache stats are reported once the generator is installed.
+		String commands = "!worldgen_stats\n";
+		MonitoringAgent monitoringAgent = new MonitoringAgent();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ConsoleHandler.readUntilStop(new ByteArrayInputStream((commands + "!stop\n").getBytes()), new PrintStream(out), monitoringAgent, new WorldConfig());
+		Assert.assertEquals("World generator not available\nShutting down...\n", new String(out.toByteArray()));
+		
+		BasicWorldGenerator generator = new BasicWorldGenerator(WorldGenHelpers.buildDefaultWorldGenConfig(ENV), 42);
+		generator.generateCuboid(new CreatureIdAssigner(), CuboidAddress.fromInt(0, 0, 0), 0L);
+		monitoringAgent.setWorldGenerator(generator);
+		out = new ByteArrayOutputStream();
+		ConsoleHandler.readUntilStop(new ByteArrayInputStream((commands + "!stop\n").getBytes()), new PrintStream(out), monitoringAgent, new WorldConfig());
+		String output = new String(out.toByteArray());
+		Assert.assertTrue(output, output.startsWith("Column cache:  0 hits, 1 misses (0.0% hit rate)\nCavern cache:  "));
+		Assert.assertTrue(output, output.endsWith("Shutting down...\n"));
+	}
+
 	// Since these tests usually just want to test a single callback, this is provided so they can override a failing implementation.
 	private static class _TestCommandSink implements MonitoringAgent.OperatorCommandSink
 	{
@@ -0,0 +1,150 @@
+package com.jeffdisher.october.process;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.jeffdisher.october.actions.EntityActionOperatorSpawnCreature;
+import com.jeffdisher.october.actions.EntityActionSimpleMove;
+import com.jeffdisher.october.aspects.AspectRegistry;
+import com.jeffdisher.october.aspects.Environment;
+import com.jeffdisher.october.data.CuboidData;
+import com.jeffdisher.october.data.IReadOnlyCuboidData;
+import com.jeffdisher.october.engine.EnginePlayers;
+import com.jeffdisher.october.logic.CreatureIdAssigner;
+import com.jeffdisher.october.logic.HeightMapHelpers;
+import com.jeffdisher.october.logic.OrientationHelpers;
+import com.jeffdisher.october.logic.PassiveIdAssigner;
+import com.jeffdisher.october.persistence.SuspendedCuboid;
+import com.jeffdisher.october.persistence.SuspendedEntity;
+import com.jeffdisher.october.subactions.EntitySubActionIncrementalBlockBreak;
+import com.jeffdisher.october.ticks.TickRecording;
+import com.jeffdisher.october.ticks.TickRunner;
+import com.jeffdisher.october.ticks.TickSnapshot;
+import com.jeffdisher.october.types.AbsoluteLocation;
+import com.jeffdisher.october.types.BlockAddress;
+import com.jeffdisher.october.types.CreatureEntity;
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.types.EntityLocation;
+import com.jeffdisher.october.types.EntityType;
+import com.jeffdisher.october.types.IMutablePlayerEntity;
+import com.jeffdisher.october.types.MutableEntity;
+import com.jeffdisher.october.types.WorldConfig;
+import com.jeffdisher.october.utils.CuboidGenerator;
+
+
+public class TestTickReplay
+{
+	public static final long MILLIS_PER_TICK = 10L;
+	@ClassRule
+	public static TemporaryFolder DIRECTORY = new TemporaryFolder();
+	private static Environment ENV;
+	private static EntityType COW;
+	@BeforeClass
+	public static void setup() throws Throwable
+	{
+		ENV = Environment.createSharedInstance();
+		COW = ENV.creatures.getTypeById("op.cow");
+	}
+	@AfterClass
+	public static void tearDown()
+	{
+		Environment.clearSharedInstance();
+	}
+
+	@Test
+	public void recordAndReplay() throws Throwable
+	{
+		// Run a session on a single thread while recording it, then check that replaying it reaches the same state.
+		File recordingFile = DIRECTORY.newFile();
+		WorldConfig config = new WorldConfig();
+		long seed = 12345L;
+		Random random = new Random(seed);
+		CreatureIdAssigner creatureIdAssigner = new CreatureIdAssigner();
+		TickRunner runner = new TickRunner(1
+			, MILLIS_PER_TICK
+			, creatureIdAssigner
+			, new PassiveIdAssigner()
+			, (int bound) -> random.nextInt(bound)
+			, (TickSnapshot completed) -> {}
+			, config
+		);
+		TickRecording.Writer writer = TickRecording.openWriter(recordingFile, MILLIS_PER_TICK, seed, config);
+		runner.setRecording(writer);
+		runner.start();
+		runner.waitForPreviousTick();
+
+		CuboidAddress airAddress = CuboidAddress.fromInt(0, 0, 0);
+		CuboidAddress stoneAddress = CuboidAddress.fromInt(0, 0, -1);
+		CuboidData airCuboid = CuboidGenerator.createFilledCuboid(airAddress, ENV.special.AIR);
+		CuboidData stoneCuboid = CuboidGenerator.createFilledCuboid(stoneAddress, ENV.blocks.fromItem(ENV.items.getItemById("op.stone")));
+		// Skip some IDs, as though other creatures had been loaded, so the cow's ID doesn't match the order it is read in the replay.
+		creatureIdAssigner.next();
+		creatureIdAssigner.next();
+		CreatureEntity cow = CreatureEntity.create(creatureIdAssigner.next(), COW, new EntityLocation(5.0f, 5.0f, 0.0f), 0L);
+		int entityId = 1;
+		SuspendedEntity entity = new SuspendedEntity(MutableEntity.createForTest(entityId).freeze(), List.of());
+		runner.setupChangesForTick(List.of(
+				new SuspendedCuboid<IReadOnlyCuboidData>(airCuboid, HeightMapHelpers.buildHeightMap(airCuboid), List.of(cow), List.of(), Map.of(), List.of()),
+				new SuspendedCuboid<IReadOnlyCuboidData>(stoneCuboid, HeightMapHelpers.buildHeightMap(stoneCuboid), List.of(), List.of(), Map.of(), List.of())
+			)
+			, null
+			, List.of(entity)
+			, null
+		);
+		runner.startNextTick();
+
+		// Break at a block for a few ticks and have the operator spawn another cow.
+		for (int i = 0; i < 5; ++i)
+		{
+			runner.waitForPreviousTick();
+			EntityActionSimpleMove<IMutablePlayerEntity> move = new EntityActionSimpleMove<>(0.0f
+				, 0.0f
+				, EntityActionSimpleMove.Intensity.STANDING
+				, OrientationHelpers.YAW_NORTH
+				, OrientationHelpers.PITCH_FLAT
+				, new EntitySubActionIncrementalBlockBreak(new AbsoluteLocation(1, 1, -1))
+			);
+			runner.enqueueEntityChange(entityId, move, i + 1L);
+			runner.startNextTick();
+		}
+		runner.enqueueOperatorMutation(EnginePlayers.OPERATOR_ENTITY_ID, new EntityActionOperatorSpawnCreature(COW, new EntityLocation(10.0f, 10.0f, 0.0f)));
+		for (int i = 0; i < 20; ++i)
+		{
+			runner.startNextTick();
+		}
+		TickSnapshot liveSnapshot = runner.waitForPreviousTick();
+		runner.shutdown();
+		long liveHash = TickRecording.hashWorldState(liveSnapshot, MILLIS_PER_TICK);
+		writer.close(liveHash);
+
+		// Make sure that the session actually changed things.
+		Assert.assertEquals(2, liveSnapshot.creatures().size());
+		Assert.assertTrue(liveSnapshot.creatures().containsKey(cow.id()));
+		Assert.assertNotNull(liveSnapshot.cuboids().get(stoneAddress).completed().getDataSpecial(AspectRegistry.DAMAGE, BlockAddress.fromInt(1, 1, 31)));
+
+		// Replay it twice.
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		TickReplay.Result first = TickReplay.replay(recordingFile, new PrintStream(bytes));
+		TickReplay.Result second = TickReplay.replay(recordingFile, new PrintStream(bytes));
+
+		// The first tick (1) is the start-up tick so it isn't recorded.
+		Assert.assertEquals(liveSnapshot.tickNumber() - 1L, first.tickCount());
+		Assert.assertEquals(first.tickCount(), second.tickCount());
+		Assert.assertEquals(liveHash, first.worldHash());
+		Assert.assertEquals(liveHash, second.worldHash());
+		Assert.assertEquals(liveHash, first.recordedWorldHashOrNull().longValue());
+		Assert.assertTrue(bytes.toString().contains(String.format("final state hash %08x", liveHash)));
+		Assert.assertTrue(bytes.toString().contains("Final state matches the recorded session"));
+	}
+}
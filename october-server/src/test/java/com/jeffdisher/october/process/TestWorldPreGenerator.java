@@ -0,0 +1,118 @@
+package com.jeffdisher.october.process;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.jeffdisher.october.aspects.Environment;
+import com.jeffdisher.october.data.CuboidData;
+import com.jeffdisher.october.persistence.PackagedCuboid;
+import com.jeffdisher.october.persistence.ResourceLoader;
+import com.jeffdisher.october.persistence.SuspendedCuboid;
+import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.types.WorldConfig;
+import com.jeffdisher.october.worldgen.FlatWorldGenerator;
+import com.jeffdisher.october.worldgen.PreloadedWorldGenerator;
+import com.jeffdisher.october.worldgen.WorldGenHelpers;
+
+
+public class TestWorldPreGenerator
+{
+	@ClassRule
+	public static TemporaryFolder DIRECTORY = new TemporaryFolder();
+	private static Environment ENV;
+	@BeforeClass
+	public static void setup() throws Throwable
+	{
+		ENV = Environment.createSharedInstance();
+	}
+	@AfterClass
+	public static void tearDown()
+	{
+		Environment.clearSharedInstance();
+	}
+
+	@Test
+	public void batchesByCluster() throws Throwable
+	{
+		// A radius of 2 around 0,0 covers -2..2 which spans 2 clusters in each of X and Y.
+		List<List<CuboidAddress>> batches = WorldPreGenerator.buildBatches(CuboidAddress.fromInt(0, 0, 0), 2, 0, 1);
+		Assert.assertEquals(4, batches.size());
+		Set<CuboidAddress> all = new HashSet<>();
+		for (List<CuboidAddress> batch : batches)
+		{
+			CuboidAddress first = batch.get(0);
+			for (CuboidAddress address : batch)
+			{
+				// Every address in a batch is in the same cluster.
+				Assert.assertEquals(first.x() >> 2, address.x() >> 2);
+				Assert.assertEquals(first.y() >> 2, address.y() >> 2);
+				Assert.assertEquals(first.z() >> 2, address.z() >> 2);
+				Assert.assertTrue(all.add(address));
+			}
+		}
+		Assert.assertEquals(5 * 5 * 2, all.size());
+	}
+
+	@Test
+	public void generateAndResume() throws Throwable
+	{
+		File worldDirectory = DIRECTORY.newFolder();
+		CuboidAddress centre = CuboidAddress.fromInt(0, 0, 0);
+		List<List<CuboidAddress>> batches = WorldPreGenerator.buildBatches(centre, 2, 0, 1);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		PrintStream out = new PrintStream(bytes);
+		
+		// Pretend that a previous run finished the first batch before being interrupted.
+		String progress = "0\t0\t2\t0\t1\n1\n";
+		Files.writeString(new File(worldDirectory, WorldPreGenerator.PROGRESS_FILE_NAME).toPath(), progress, StandardCharsets.UTF_8);
+		ResourceLoader loader = new ResourceLoader(worldDirectory, new FlatWorldGenerator(WorldGenHelpers.buildDefaultWorldGenConfig(ENV), false), new WorldConfig(), 2);
+		WorldPreGenerator.Result result = WorldPreGenerator.run(worldDirectory, loader, centre, 2, 0, 1, out);
+		Assert.assertEquals(4, result.totalBatches());
+		Assert.assertEquals(1, result.skippedBatches());
+		int expectedCount = 0;
+		for (int i = 1; i < batches.size(); ++i)
+		{
+			expectedCount += batches.get(i).size();
+		}
+		Assert.assertEquals(expectedCount, result.cuboidCount());
+		Assert.assertFalse(new File(worldDirectory, WorldPreGenerator.PROGRESS_FILE_NAME).exists());
+		Assert.assertTrue(bytes.toString().contains("cuboids/sec"));
+		
+		// Everything we generated should now be on disk, which we can see by using a generator which returns nothing.
+		ResourceLoader reader = new ResourceLoader(worldDirectory, new PreloadedWorldGenerator(), new WorldConfig(), 1);
+		List<CuboidAddress> generated = new ArrayList<>();
+		for (int i = 1; i < batches.size(); ++i)
+		{
+			generated.addAll(batches.get(i));
+		}
+		List<SuspendedCuboid<CuboidData>> results = new ArrayList<>();
+		reader.getResultsAndRequestBackgroundLoad(results, List.of(), generated, List.of(), 0L);
+		for (int i = 0; (results.size() < generated.size()) && (i < 100); ++i)
+		{
+			Thread.sleep(10L);
+			reader.getResultsAndRequestBackgroundLoad(results, List.of(), List.of(), List.of(), 0L);
+		}
+		Assert.assertEquals(generated.size(), results.size());
+		reader.writeBackToDiskAndRetire(results.stream().map((SuspendedCuboid<CuboidData> suspended) -> new PackagedCuboid(suspended.cuboid()
+			, suspended.creatures()
+			, suspended.pendingMutations()
+			, suspended.periodicMutationMillis()
+			, suspended.passives()
+		)).toList(), List.of(), 0L);
+		reader.shutdown();
+	}
+}
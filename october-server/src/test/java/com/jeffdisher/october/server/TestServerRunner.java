@@ -124,13 +124,13 @@ public class TestServerRunner
 		ServerRunner runner = new ServerRunner(MAX_THREADS_FOR_SERVER
 			, ServerRunner.DEFAULT_MILLIS_PER_TICK
 			, network
-			, new ResourceLoader(DIRECTORY.newFolder(), new PreloadedWorldGenerator(), new WorldConfig())
+			, new ResourceLoader(DIRECTORY.newFolder(), new PreloadedWorldGenerator(), new WorldConfig(), 1)
 			, () -> System.currentTimeMillis()
 			, monitoringAgent
 			, new WorldConfig()
 		);
-		// We expect to see an extra 6 threads:  ServerRunner, CuboidLoader, and 4xTickRunner.
-		Assert.assertEquals(startingActiveCount + MAX_THREADS_FOR_SERVER, Thread.currentThread().getThreadGroup().activeCount());
+		// We expect to see an extra 9 threads:  ServerRunner, CuboidLoader, 6xTickRunner, and the 1 cuboid generation thread we requested.
+		Assert.assertEquals(startingActiveCount + MAX_THREADS_FOR_SERVER + 1, Thread.currentThread().getThreadGroup().activeCount());
 		runner.shutdown();
 		
 		// Verify that the threads have stopped.
@@ -25,6 +25,9 @@ import com.jeffdisher.october.data.CuboidHeightMap;
 import com.jeffdisher.october.data.IReadOnlyCuboidData;
 import com.jeffdisher.october.logic.HeightMapHelpers;
 import com.jeffdisher.october.logic.OrientationHelpers;
+import com.jeffdisher.october.logic.ScheduledMutation;
+import com.jeffdisher.october.mutations.MutationBlockGrowGroundCover;
+import com.jeffdisher.october.mutations.MutationBlockSetBlock;
 import com.jeffdisher.october.net.PacketCodec;
 import com.jeffdisher.october.net.PacketFromClient;
 import com.jeffdisher.october.net.PacketFromServer;
@@ -51,9 +54,11 @@ import com.jeffdisher.october.net.Packet_ServerSendConfigUpdate;
 import com.jeffdisher.october.persistence.PackagedCuboid;
 import com.jeffdisher.october.persistence.SuspendedCuboid;
 import com.jeffdisher.october.persistence.SuspendedEntity;
+import com.jeffdisher.october.persistence.WriteAheadLog;
 import com.jeffdisher.october.subactions.EntitySubActionSelectItem;
 import com.jeffdisher.october.ticks.TickSnapshot;
 import com.jeffdisher.october.types.AbsoluteLocation;
+import com.jeffdisher.october.types.BlockAddress;
 import com.jeffdisher.october.types.CreatureEntity;
 import com.jeffdisher.october.types.CuboidAddress;
 import com.jeffdisher.october.types.CuboidColumnAddress;
@@ -875,6 +880,214 @@ public class TestServerStateManager
 		Assert.assertEquals(snapshot.cuboids().size(), callouts.cuboidsToWrite.size());
 	}
 
+	@Test
+	public void logBlockChanges()
+	{
+		// Show that the block changes in a tick are passed to the write-ahead log, but only when there are some.
+		_Callouts callouts = new _Callouts();
+		ServerStateManager manager = new ServerStateManager(callouts, ServerRunner.DEFAULT_MILLIS_PER_TICK);
+		manager.setOwningThread();
+		AbsoluteLocation worldSpawn = new AbsoluteLocation(0, 0, 0);
+		CuboidAddress address = CuboidAddress.fromInt(-5, 7, 0);
+		CuboidData cuboid = CuboidGenerator.createFilledCuboid(address, ENV.special.AIR);
+		TickSnapshot snapshot = _createEmptySnapshot();
+		manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		manager.test_setAlreadyAlive(Set.of(address));
+		snapshot = _modifySnapshot(_advanceSnapshot(snapshot, 1)
+			, Map.of(
+				address, new TickSnapshot.SnapshotCuboid(cuboid, null, List.of(), Map.of())
+			)
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Set.of(address)
+		);
+		manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		Assert.assertTrue(callouts.loggedBlockChanges.isEmpty());
+		Assert.assertTrue(callouts.loggedEntityIds.isEmpty());
+		
+		MutationBlockSetBlock change = new MutationBlockSetBlock(address.getBase(), new byte[0]);
+		snapshot = _modifySnapshot(_advanceSnapshot(snapshot, 1)
+			, Map.of(
+				address, new TickSnapshot.SnapshotCuboid(cuboid, List.of(change), List.of(), Map.of())
+			)
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Set.of(address)
+		);
+		manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		Assert.assertEquals(Map.of(address, List.of(change)), callouts.loggedBlockChanges);
+		Assert.assertTrue(callouts.loggedEntityIds.isEmpty());
+		Assert.assertEquals(0, callouts.cuboidsToWrite.size());
+		
+		manager.shutdown(snapshot);
+	}
+
+	@Test
+	public void logScheduledMutationChanges()
+	{
+		// Show that a cuboid is logged when its scheduled mutations change, even with no block changes, but not when only their timers advance.
+		_Callouts callouts = new _Callouts();
+		ServerStateManager manager = new ServerStateManager(callouts, ServerRunner.DEFAULT_MILLIS_PER_TICK);
+		manager.setOwningThread();
+		AbsoluteLocation worldSpawn = new AbsoluteLocation(0, 0, 0);
+		CuboidAddress address = CuboidAddress.fromInt(-5, 7, 0);
+		CuboidData cuboid = CuboidGenerator.createFilledCuboid(address, ENV.special.AIR);
+		TickSnapshot snapshot = _createEmptySnapshot();
+		manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		manager.test_setAlreadyAlive(Set.of(address));
+		snapshot = _modifySnapshot(_advanceSnapshot(snapshot, 1)
+			, Map.of(
+				address, new TickSnapshot.SnapshotCuboid(cuboid, null, List.of(), Map.of())
+			)
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Set.of(address)
+		);
+		manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		Assert.assertTrue(callouts.loggedBlockChanges.isEmpty());
+		
+		MutationBlockGrowGroundCover mutation = new MutationBlockGrowGroundCover(address.getBase(), ENV.blocks.fromItem(ENV.items.getItemById("op.grass")));
+		snapshot = _modifySnapshot(_advanceSnapshot(snapshot, 1)
+			, Map.of(
+				address, new TickSnapshot.SnapshotCuboid(cuboid, null, List.of(new ScheduledMutation(mutation, 1000L)), Map.of())
+			)
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Set.of(address)
+		);
+		manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		Assert.assertEquals(Map.of(address, List.of()), callouts.loggedBlockChanges);
+		
+		// The same mutation with less time remaining isn't a change.
+		callouts.loggedBlockChanges.clear();
+		snapshot = _modifySnapshot(_advanceSnapshot(snapshot, 1)
+			, Map.of(
+				address, new TickSnapshot.SnapshotCuboid(cuboid, null, List.of(new ScheduledMutation(mutation, 950L)), Map.of())
+			)
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Set.of(address)
+		);
+		manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		Assert.assertTrue(callouts.loggedBlockChanges.isEmpty());
+		
+		// Consuming it is a change.
+		snapshot = _modifySnapshot(_advanceSnapshot(snapshot, 1)
+			, Map.of(
+				address, new TickSnapshot.SnapshotCuboid(cuboid, null, List.of(), Map.of())
+			)
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Set.of(address)
+		);
+		manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		Assert.assertEquals(Map.of(address, List.of()), callouts.loggedBlockChanges);
+		
+		manager.shutdown(snapshot);
+	}
+
+	@Test
+	public void logPeriodicAndCreatureChanges()
+	{
+		// Show that a cuboid is logged, with its complete periodic mutations and creatures, when its periodic entries or
+		// its creatures change, but not when only the periodic timers advance.
+		_Callouts callouts = new _Callouts();
+		ServerStateManager manager = new ServerStateManager(callouts, ServerRunner.DEFAULT_MILLIS_PER_TICK);
+		manager.setOwningThread();
+		AbsoluteLocation worldSpawn = new AbsoluteLocation(0, 0, 0);
+		CuboidAddress address = CuboidAddress.fromInt(-5, 7, 0);
+		CuboidData cuboid = CuboidGenerator.createFilledCuboid(address, ENV.special.AIR);
+		TickSnapshot snapshot = _createEmptySnapshot();
+		manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		manager.test_setAlreadyAlive(Set.of(address));
+		snapshot = _modifySnapshot(_advanceSnapshot(snapshot, 1)
+			, Map.of(
+				address, new TickSnapshot.SnapshotCuboid(cuboid, null, List.of(), Map.of())
+			)
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Set.of(address)
+		);
+		manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		Assert.assertTrue(callouts.loggedDeltas.isEmpty());
+		
+		// Adding a periodic entry (a sapling being planted, for example) is a change.
+		BlockAddress block = BlockAddress.fromInt(1, 2, 3);
+		snapshot = _modifySnapshot(_advanceSnapshot(snapshot, 1)
+			, Map.of(
+				address, new TickSnapshot.SnapshotCuboid(cuboid, null, List.of(), Map.of(block, 1000L))
+			)
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Set.of(address)
+		);
+		manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		Assert.assertEquals(Map.of(block, 1000L), callouts.loggedDeltas.get(address).periodicMutationMillis());
+		
+		// The same entry with less time remaining isn't a change.
+		callouts.loggedDeltas.clear();
+		snapshot = _modifySnapshot(_advanceSnapshot(snapshot, 1)
+			, Map.of(
+				address, new TickSnapshot.SnapshotCuboid(cuboid, null, List.of(), Map.of(block, 950L))
+			)
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Map.of()
+			, Set.of(address)
+		);
+		manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		Assert.assertTrue(callouts.loggedDeltas.isEmpty());
+		
+		// A creature appearing is a change, and so is it moving.
+		EntityType cow = ENV.creatures.getTypeById("op.cow");
+		CreatureEntity creature = CreatureEntity.create(-1, cow, address.getBase().getRelative(5, 5, 0).toEntityLocation(), 0L);
+		snapshot = _modifySnapshot(_advanceSnapshot(snapshot, 1)
+			, snapshot.cuboids()
+			, Map.of()
+			, Map.of(creature.id(), new TickSnapshot.SnapshotCreature(creature, null))
+			, Map.of()
+			, Map.of()
+			, Set.of(address)
+		);
+		manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		Assert.assertEquals(List.of(creature), callouts.loggedDeltas.get(address).creatures());
+		Assert.assertEquals(Map.of(block, 950L), callouts.loggedDeltas.get(address).periodicMutationMillis());
+		
+		callouts.loggedDeltas.clear();
+		MutableCreature mutable = MutableCreature.existing(creature);
+		mutable.newLocation = address.getBase().getRelative(6, 5, 0).toEntityLocation();
+		CreatureEntity moved = mutable.freeze();
+		snapshot = _modifySnapshot(_advanceSnapshot(snapshot, 1)
+			, snapshot.cuboids()
+			, Map.of()
+			, Map.of(creature.id(), new TickSnapshot.SnapshotCreature(moved, creature))
+			, Map.of()
+			, Map.of()
+			, Set.of(address)
+		);
+		manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		Assert.assertEquals(List.of(moved), callouts.loggedDeltas.get(address).creatures());
+		
+		manager.shutdown(snapshot);
+	}
+
 	@Test
 	public void observePassiveCallbacks()
 	{
@@ -1626,6 +1839,11 @@ public class TestServerStateManager
 				// Do nothing.
 			}
 			@Override
+			public void resources_appendToLog(long tickNumber, long gameTimeMillis, Collection<WriteAheadLog.CuboidDelta> cuboids, Collection<SuspendedEntity> entities)
+			{
+				// Do nothing.
+			}
+			@Override
 			public void resources_getAndRequestBackgroundLoad(Collection<SuspendedCuboid<CuboidData>> out_loadedCuboids, Collection<SuspendedEntity> out_loadedEntities, Collection<CuboidAddress> requestedCuboids, Collection<Integer> requestedEntityIds, long currentGameMillis)
 			{
 				// We always delay load requests by 1 tick but everything is the same shape but players are loaded at a static stride.
@@ -1930,6 +2148,76 @@ public class TestServerStateManager
 	}
 
 
+	@Test
+	public void unloadCreatureAfterMovingCuboids()
+	{
+		_Callouts callouts = new _Callouts();
+		ServerStateManager manager = new ServerStateManager(callouts, ServerRunner.DEFAULT_MILLIS_PER_TICK);
+		manager.setOwningThread();
+		
+		// Request the cuboids around spawn and load 2 of them, with a creature in one.
+		TickSnapshot snapshot = _createEmptySnapshot();
+		AbsoluteLocation worldSpawn = new AbsoluteLocation(0, 0, 0);
+		ServerStateManager.TickChanges changes = manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		CuboidAddress startAddress = CuboidAddress.fromInt(0, 0, 0);
+		CuboidAddress endAddress = CuboidAddress.fromInt(1, 0, 0);
+		CuboidData startCuboid = CuboidGenerator.createFilledCuboid(startAddress, ENV.special.AIR);
+		CuboidData endCuboid = CuboidGenerator.createFilledCuboid(endAddress, ENV.special.AIR);
+		CreatureEntity creature = CreatureEntity.create(-1, COW, new EntityLocation(5.0f, 5.0f, 5.0f), 0L);
+		callouts.loadedCuboids.add(new SuspendedCuboid<>(startCuboid
+			, HeightMapHelpers.buildHeightMap(startCuboid)
+			, List.of(creature)
+			, List.of()
+			, Map.of()
+			, List.of()
+		));
+		callouts.loadedCuboids.add(new SuspendedCuboid<>(endCuboid
+			, HeightMapHelpers.buildHeightMap(endCuboid)
+			, List.of()
+			, List.of()
+			, Map.of()
+			, List.of()
+		));
+		changes = manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		Assert.assertEquals(2, changes.newCuboids().size());
+		
+		// Run a tick with these loaded.
+		snapshot = _modifySnapshot(snapshot
+			, _convertToCuboidMap(changes.newCuboids())
+			, snapshot.entities()
+			, Map.of(creature.id(), new TickSnapshot.SnapshotCreature(creature, null))
+			, snapshot.passives()
+			, _convertToCuboidHeightMap(changes.newCuboids())
+			, Set.of()
+		);
+		manager.setupNextTickAfterCompletion(snapshot, worldSpawn);
+		
+		// Move the creature into the other cuboid and shut down, verifying that it is saved with the cuboid it is now in.
+		MutableCreature mutable = MutableCreature.existing(creature);
+		mutable.newLocation = new EntityLocation(40.0f, 5.0f, 5.0f);
+		CreatureEntity moved = mutable.freeze();
+		snapshot = _modifySnapshot(snapshot
+			, snapshot.cuboids()
+			, snapshot.entities()
+			, Map.of(creature.id(), new TickSnapshot.SnapshotCreature(moved, creature))
+			, snapshot.passives()
+			, snapshot.completedHeightMaps()
+			, Set.of()
+		);
+		manager.shutdown(snapshot);
+		
+		Assert.assertEquals(2, callouts.cuboidsToWrite.size());
+		for (PackagedCuboid packaged : callouts.cuboidsToWrite)
+		{
+			List<CreatureEntity> expected = endAddress.equals(packaged.cuboid().getCuboidAddress())
+				? List.of(moved)
+				: List.of()
+			;
+			Assert.assertEquals(expected, packaged.creatures());
+		}
+	}
+
+
 	private TickSnapshot _createEmptySnapshot()
 	{
 		return new TickSnapshot(0L
@@ -2059,6 +2347,9 @@ public class TestServerStateManager
 		public Set<SuspendedEntity> entitiesToWrite = new HashSet<>();
 		public Set<PackagedCuboid> cuboidsToTryWrite = new HashSet<>();
 		public Set<SuspendedEntity> entitiesToTryWrite = new HashSet<>();
+		public Map<CuboidAddress, List<MutationBlockSetBlock>> loggedBlockChanges = new HashMap<>();
+		public Map<CuboidAddress, WriteAheadLog.CuboidDelta> loggedDeltas = new HashMap<>();
+		public List<Integer> loggedEntityIds = new ArrayList<>();
 		public Set<Integer> fullEntitiesSent = new HashSet<>();
 		public Function<PacketFromClient, PacketFromClient> peekHandler = null;
 		public boolean didEnqueue = false;
@@ -2087,6 +2378,19 @@ public class TestServerStateManager
 			this.entitiesToTryWrite.addAll(entities);
 		}
 		@Override
+		public void resources_appendToLog(long tickNumber, long gameTimeMillis, Collection<WriteAheadLog.CuboidDelta> cuboids, Collection<SuspendedEntity> entities)
+		{
+			for (WriteAheadLog.CuboidDelta delta : cuboids)
+			{
+				this.loggedBlockChanges.put(delta.address(), delta.blockChanges());
+				this.loggedDeltas.put(delta.address(), delta);
+			}
+			for (SuspendedEntity entity : entities)
+			{
+				this.loggedEntityIds.add(entity.entity().id());
+			}
+		}
+		@Override
 		public void resources_getAndRequestBackgroundLoad(Collection<SuspendedCuboid<CuboidData>> out_loadedCuboids
 				, Collection<SuspendedEntity> out_loadedEntities
 				, Collection<CuboidAddress> requestedCuboids
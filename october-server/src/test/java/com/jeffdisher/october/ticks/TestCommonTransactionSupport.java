@@ -101,6 +101,23 @@ public class TestCommonTransactionSupport
 		Assert.assertTrue(support.checkScheduledMutationCount(List.of(new AbsoluteLocation(4, 5, 6), new AbsoluteLocation(7, 8, 40)), 1));
 	}
 
+	@Test
+	public void readyCountIndex()
+	{
+		AbsoluteLocation location = new AbsoluteLocation(4, 5, 6);
+		TickMaterials materials = _createMaterials(List.of(new MutationBlockApplyGravity(location), new MutationBlockApplyGravity(location))
+			, Map.of(location.getCuboidAddress(), Map.of(location.getBlockAddress(), 0L, BlockAddress.fromInt(1, 1, 1), 500L))
+			, Set.of()
+		);
+		// The counts are built on first request and then reused.
+		Map<AbsoluteLocation, Integer> counts = materials.readyMutationIndex().getCounts();
+		Assert.assertEquals(Map.of(location, 3), counts);
+		Assert.assertTrue(counts == materials.readyMutationIndex().getCounts());
+		CommonTransactionSupport support = new CommonTransactionSupport(materials);
+		Assert.assertTrue(support.checkScheduledMutationCount(List.of(location), 3));
+		Assert.assertTrue(support.checkScheduledMutationCount(List.of(new AbsoluteLocation(1, 1, 1)), 0));
+	}
+
 	@Test
 	public void unloadedBlockFails()
 	{
@@ -181,6 +198,8 @@ public class TestCommonTransactionSupport
 			
 			, EntityCollection.emptyCollection()
 			, tickInput
+			, new CommonTransactionSupport.ReadyMutationIndex(tickInput)
+			, List.of()
 			
 			, 0L
 			, 0L
@@ -29,6 +29,7 @@ import com.jeffdisher.october.data.IReadOnlyCuboidData;
 import com.jeffdisher.october.engine.EnginePlayers;
 import com.jeffdisher.october.logic.CreatureIdAssigner;
 import com.jeffdisher.october.logic.HeightMapHelpers;
+import com.jeffdisher.october.logic.NavigationGraphCache;
 import com.jeffdisher.october.logic.OrientationHelpers;
 import com.jeffdisher.october.logic.PassiveIdAssigner;
 import com.jeffdisher.october.logic.ProcessorElement;
@@ -790,6 +791,50 @@ public class TestTickRunner
 		runner.shutdown();
 	}
 
+	@Test
+	public void navigationCachePrunedOnUnload()
+	{
+		// Show that the cached navigation graph for a cuboid is dropped once that cuboid is unloaded.
+		TickRunner runner = _createTestRunner();
+		runner.start();
+		runner.startNextTick();
+		runner.waitForPreviousTick();
+		
+		CuboidAddress address0 = CuboidAddress.fromInt(0, 0, 0);
+		CuboidData cuboid0 = CuboidGenerator.createFilledCuboid(address0, ENV.special.AIR);
+		CuboidAddress address1 = CuboidAddress.fromInt(0, 0, -1);
+		CuboidData cuboid1 = CuboidGenerator.createFilledCuboid(address1, STONE);
+		runner.setupChangesForTick(List.of(new SuspendedCuboid<IReadOnlyCuboidData>(cuboid0, HeightMapHelpers.buildHeightMap(cuboid0), List.of(), List.of(), Map.of(), List.of())
+					, new SuspendedCuboid<IReadOnlyCuboidData>(cuboid1, HeightMapHelpers.buildHeightMap(cuboid1), List.of(), List.of(), Map.of(), List.of())
+				)
+				, null
+				, null
+				, null
+		);
+		runner.startNextTick();
+		TickSnapshot snapshot = runner.waitForPreviousTick();
+		Assert.assertEquals(2, snapshot.cuboids().size());
+		
+		// Populate the cache between ticks, as path-finding during a tick would.
+		NavigationGraphCache cache = runner.test_getNavigationCache();
+		cache.getGraph(snapshot.cuboids().get(address0).completed());
+		cache.getGraph(snapshot.cuboids().get(address1).completed());
+		Assert.assertEquals(2, cache.size());
+		
+		// Unload one of the cuboids and run a tick:  Its graph should be gone.
+		runner.setupChangesForTick(null
+			, List.of(address0)
+			, null
+			, null
+		);
+		runner.startNextTick();
+		snapshot = runner.waitForPreviousTick();
+		Assert.assertEquals(1, snapshot.cuboids().size());
+		Assert.assertEquals(1, cache.size());
+		
+		runner.shutdown();
+	}
+
 	@Test
 	public void waterFlowOnBlockBreakOnly()
 	{
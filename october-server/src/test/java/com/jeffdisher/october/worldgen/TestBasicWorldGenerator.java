@@ -22,6 +22,7 @@ import com.jeffdisher.october.types.Block;
 import com.jeffdisher.october.types.BlockAddress;
 import com.jeffdisher.october.types.CreatureEntity;
 import com.jeffdisher.october.types.CuboidAddress;
+import com.jeffdisher.october.types.CuboidColumnAddress;
 import com.jeffdisher.october.types.EntityLocation;
 import com.jeffdisher.october.utils.CuboidGenerator;
 import com.jeffdisher.october.utils.Encoding;
@@ -500,6 +501,83 @@ public class TestBasicWorldGenerator
 		Assert.assertEquals(root.getRelative(2, 2, 1).toEntityLocation(), creatures.get(0).location());
 	}
 
+	@Test
+	public void columnCache() throws Throwable
+	{
+		// Show that generating a column of cuboids reuses the column data and produces the same result as generating each cuboid with an empty cache.
+		int seed = 42;
+		BasicWorldGenerator generator = _worldGeneratorWithSeed(seed);
+		CreatureIdAssigner creatureIdAssigner = new CreatureIdAssigner();
+		for (int z = 1; z >= -2; --z)
+		{
+			CuboidAddress address = CuboidAddress.fromInt(-10, 9, z);
+			CuboidData cached = generator.generateCuboid(creatureIdAssigner, address, 0L).cuboid();
+			CuboidData fresh = _worldGeneratorWithSeed(seed).generateCuboid(new CreatureIdAssigner(), address, 0L).cuboid();
+			for (int x = 0; x < Encoding.CUBOID_EDGE_SIZE; ++x)
+			{
+				for (int y = 0; y < Encoding.CUBOID_EDGE_SIZE; ++y)
+				{
+					for (int i = 0; i < Encoding.CUBOID_EDGE_SIZE; ++i)
+					{
+						BlockAddress block = BlockAddress.fromInt(x, y, i);
+						Assert.assertEquals(fresh.getData15(AspectRegistry.BLOCK, block), cached.getData15(AspectRegistry.BLOCK, block));
+					}
+				}
+			}
+		}
+		Assert.assertEquals(3L, generator.getColumnCacheHitCount());
+		Assert.assertEquals(1L, generator.getColumnCacheMissCount());
+	}
+
+	@Test
+	public void cavernCache() throws Throwable
+	{
+		// Show that neighbouring cuboids share the cavern descriptors and that they match what is derived directly.
+		BasicWorldGenerator generator = _worldGeneratorWithSeed(42);
+		CreatureIdAssigner creatureIdAssigner = new CreatureIdAssigner();
+		generator.generateCuboid(creatureIdAssigner, CuboidAddress.fromInt(0, 0, -3), 0L);
+		Assert.assertEquals(0L, generator.getCavernCacheHitCount());
+		Assert.assertEquals(27L, generator.getCavernCacheMissCount());
+		
+		// The cuboid beside this shares 18 of the 27 cuboids around it.
+		generator.generateCuboid(creatureIdAssigner, CuboidAddress.fromInt(1, 0, -3), 0L);
+		Assert.assertEquals(18L, generator.getCavernCacheHitCount());
+		Assert.assertEquals(36L, generator.getCavernCacheMissCount());
+		
+		CavernCache cache = new CavernCache(1);
+		for (int x = -5; x <= 5; ++x)
+		{
+			CuboidAddress address = CuboidAddress.fromInt(x, 3, -7);
+			Assert.assertEquals(CavernCache.deriveCavern(address), cache.getCavern(address));
+			Assert.assertEquals(CavernCache.deriveCavern(address), cache.getCavern(address));
+		}
+		Assert.assertEquals(11L, cache.getHitCount());
+		Assert.assertEquals(11L, cache.getMissCount());
+	}
+
+	@Test
+	public void columnCacheEviction() throws Throwable
+	{
+		ColumnGenerationCache cache = new ColumnGenerationCache(42, 2);
+		CuboidColumnAddress first = new CuboidColumnAddress((short)0, (short)0);
+		CuboidColumnAddress second = new CuboidColumnAddress((short)1, (short)0);
+		CuboidColumnAddress third = new CuboidColumnAddress((short)2, (short)0);
+		ColumnGenerationCache.ColumnData firstData = cache.getColumn(first);
+		cache.getColumn(second);
+		// Touch the first so that the second is the least-recently used.
+		Assert.assertTrue(firstData == cache.getColumn(first));
+		cache.getColumn(third);
+		Assert.assertEquals(2, cache.size());
+		Assert.assertTrue(firstData == cache.getColumn(first));
+		Assert.assertEquals(2L, cache.getHitCount());
+		Assert.assertEquals(3L, cache.getMissCount());
+		
+		// The second was evicted so it is rebuilt (with the same data).
+		ColumnGenerationCache.ColumnData secondData = cache.getColumn(second);
+		Assert.assertEquals(4L, cache.getMissCount());
+		Assert.assertEquals(secondData.seeds.get(0, 0), PerColumnRandomSeedField.buildSeedField9x9(42, (short)1, (short)0).get(0, 0));
+	}
+
 
 	private static void _checkBlockTypes(CuboidData data
 		, int stone
@@ -51,6 +51,43 @@ public class TestPathDigger
 	}
 
 
+	@Test
+	public void combinedMask()
+	{
+		// Show that rasterizing several shapes into one mask and applying it once is the same as carving each in turn.
+		AbsoluteLocation centre = new AbsoluteLocation(37, 5, 69);
+		AbsoluteLocation end = new AbsoluteLocation(50, 20, 75);
+		short stoneNumber = STONE.item().number();
+		short airNumber = ENV.special.AIR.item().number();
+		CuboidData separate = CuboidGenerator.createFilledCuboid(centre.getCuboidAddress(), STONE);
+		PathDigger.hollowOutSphere(separate, centre, 7, stoneNumber, airNumber);
+		PathDigger.hollowOutPath(separate, centre, 7, end, 3, stoneNumber, airNumber);
+		
+		CuboidData combined = CuboidGenerator.createFilledCuboid(centre.getCuboidAddress(), STONE);
+		CarvingMask mask = new CarvingMask(combined.getCuboidAddress());
+		PathDigger.rasterizeSphere(mask, centre, 7);
+		PathDigger.rasterizePath(mask, centre, 7, end, 3);
+		int changed = mask.applyToCuboid(combined, stoneNumber, airNumber);
+		Assert.assertEquals(mask.count(), changed);
+		
+		// Applying again changes nothing since there is no more stone in the mask.
+		Assert.assertEquals(0, mask.applyToCuboid(combined, stoneNumber, airNumber));
+		for (int z = 0; z < Encoding.CUBOID_EDGE_SIZE; ++z)
+		{
+			for (int y = 0; y < Encoding.CUBOID_EDGE_SIZE; ++y)
+			{
+				for (int x = 0; x < Encoding.CUBOID_EDGE_SIZE; ++x)
+				{
+					BlockAddress block = BlockAddress.fromInt(x, y, z);
+					short value = combined.getData15(AspectRegistry.BLOCK, block);
+					Assert.assertEquals(separate.getData15(AspectRegistry.BLOCK, block), value);
+					Assert.assertEquals(mask.isSet(block) ? airNumber : stoneNumber, value);
+				}
+			}
+		}
+	}
+
+
 	private static void _verifyBlockCount(CuboidData cuboid, int expectedStone, int expectedAir)
 	{
 		int stoneCount = 0;
@@ -433,6 +433,35 @@ public class TestStructureLoader
 		Assert.assertFalse(structure.doesIntersectCuboid(furtherTarget.getRelative(0, 32, 0).getCuboidAddress(), furtherTarget, FacingDirection.EAST));
 	}
 
+	@Test
+	public void registryOverlapping() throws Throwable
+	{
+		// Show that the registry applies every structure in a cuboid, in registration order, and nothing elsewhere.
+		StructureLoader loader = _buildDefaultStructureLoader();
+		Structure dirtLine = loader.loadFromStrings(new String[] { "DDDD\n" });
+		Structure brickLine = loader.loadFromStrings(new String[] { "BB\n" });
+		StructureRegistry registry = new StructureRegistry();
+		registry.register(dirtLine, new AbsoluteLocation(30, 5, 5), FacingDirection.NORTH);
+		registry.register(brickLine, new AbsoluteLocation(31, 5, 5), FacingDirection.NORTH);
+		CuboidAddress address = CuboidAddress.fromInt(0, 0, 0);
+		Assert.assertEquals(2, registry.getStructureCount(address));
+		Assert.assertEquals(2, registry.getStructureCount(CuboidAddress.fromInt(1, 0, 0)));
+		Assert.assertEquals(0, registry.getStructureCount(CuboidAddress.fromInt(0, 1, 0)));
+		
+		CuboidData cuboid = CuboidGenerator.createFilledCuboid(address, ENV.special.AIR);
+		Structure.FollowUp followUp = registry.generateAllInCuboid(cuboid);
+		Assert.assertTrue(followUp.isEmpty());
+		short brick = ENV.items.getItemById("op.stone_brick").number();
+		Assert.assertEquals(DIRT.item().number(), cuboid.getData15(AspectRegistry.BLOCK, BlockAddress.fromInt(30, 5, 5)));
+		Assert.assertEquals(brick, cuboid.getData15(AspectRegistry.BLOCK, BlockAddress.fromInt(31, 5, 5)));
+		
+		CuboidData other = CuboidGenerator.createFilledCuboid(CuboidAddress.fromInt(1, 0, 0), ENV.special.AIR);
+		registry.generateAllInCuboid(other);
+		Assert.assertEquals(brick, other.getData15(AspectRegistry.BLOCK, BlockAddress.fromInt(0, 5, 5)));
+		Assert.assertEquals(DIRT.item().number(), other.getData15(AspectRegistry.BLOCK, BlockAddress.fromInt(1, 5, 5)));
+		Assert.assertEquals(ENV.special.AIR.item().number(), other.getData15(AspectRegistry.BLOCK, BlockAddress.fromInt(2, 5, 5)));
+	}
+
 	@Test
 	public void portalsInFlat() throws Throwable
 	{